@@ -17,9 +17,24 @@
 package org.astraea.app.performance;
 
 import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 interface AbstractThread extends Closeable {
 
+  /**
+   * @param threads the number of platform threads
+   * @param virtual true if each task should run on a virtual thread. It makes thousands of clients
+   *     affordable since a virtual thread does not hold a platform thread and its stack while
+   *     blocking.
+   * @return the executor running the clients
+   */
+  static ExecutorService executor(int threads, boolean virtual) {
+    return virtual
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(threads);
+  }
+
   /** wait this thread to be completed. */
   void waitForDone();
 
@@ -23,7 +23,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
@@ -37,6 +36,7 @@ import org.astraea.common.consumer.SubscribedConsumer;
 import org.astraea.common.metrics.MBeanRegister;
 import org.astraea.common.metrics.Sensor;
 import org.astraea.common.metrics.stats.Avg;
+import org.astraea.common.metrics.stats.Histogram;
 
 public interface ConsumerThread extends AbstractThread {
   String DOMAIN_NAME = "org.astraea";
@@ -49,6 +49,10 @@ public interface ConsumerThread extends AbstractThread {
   ConcurrentMap<String, Set<TopicPartition>> CLIENT_ID_REVOKED_PARTITIONS =
       new ConcurrentHashMap<>();
 
+  // consumer id and the distribution of end-to-end latency (in microseconds). It is removed when
+  // the consumer is closed
+  ConcurrentMap<String, Histogram> LATENCY_HISTOGRAMS = new ConcurrentHashMap<>();
+
   // consumer id and sensor. The sensor is for recording number of non-sticky partitions
   ConcurrentMap<String, Sensor<Double>> NON_STICKY_SENSOR = new ConcurrentHashMap<>();
 
@@ -69,12 +73,28 @@ public interface ConsumerThread extends AbstractThread {
 
   static List<ConsumerThread> create(
       int consumers,
-      BiFunction<String, ConsumerRebalanceListener, SubscribedConsumer<byte[], byte[]>>
+      BiFunction<String, ConsumerRebalanceListener, SubscribedConsumer<Void, Void>>
           consumerSupplier) {
+    return create(consumers, consumerSupplier, false, PartitionReporter.EMPTY);
+  }
+
+  /**
+   * @param consumers the number of consumers
+   * @param consumerSupplier create the consumer by client id and rebalance listener
+   * @param virtual true if the consumers run on virtual threads
+   * @param reporter counts the consumed records of each partition
+   * @return the consumer threads
+   */
+  static List<ConsumerThread> create(
+      int consumers,
+      BiFunction<String, ConsumerRebalanceListener, SubscribedConsumer<Void, Void>>
+          consumerSupplier,
+      boolean virtual,
+      PartitionReporter reporter) {
     if (consumers == 0) return List.of();
     var closeLatches =
         IntStream.range(0, consumers).mapToObj(ignored -> new CountDownLatch(1)).toList();
-    var executors = Executors.newFixedThreadPool(consumers);
+    var executors = AbstractThread.executor(consumers, virtual);
     // monitor
     CompletableFuture.runAsync(
         () -> {
@@ -99,6 +119,8 @@ public interface ConsumerThread extends AbstractThread {
                           EXP_WEIGHT_BY_TIME_PROPERTY,
                           Avg.expWeightByTime(Duration.ofSeconds(0), 1))
                       .build();
+              var histogram =
+                  LATENCY_HISTOGRAMS.computeIfAbsent(clientId, ignored -> Histogram.of());
               // export the custom MBean for file writer
               MBeanRegister.local()
                   .domainName(DOMAIN_NAME)
@@ -119,8 +141,20 @@ public interface ConsumerThread extends AbstractThread {
                           Utils.sleep(Duration.ofSeconds(1));
                           continue;
                         }
-                        consumer.poll(Duration.ofSeconds(1)).stream()
-                            .mapToLong(r -> System.currentTimeMillis() - r.timestamp())
+                        var records = consumer.poll(Duration.ofSeconds(1));
+                        var now = System.currentTimeMillis();
+                        records.forEach(
+                            r -> {
+                              histogram.recordValue(Math.max(0, now - r.timestamp()) * 1000);
+                              reporter.consumed(
+                                  r.topic(),
+                                  r.partition(),
+                                  r.offset(),
+                                  Math.max(0, r.serializedKeySize())
+                                      + Math.max(0, r.serializedValueSize()));
+                            });
+                        records.stream()
+                            .mapToLong(r -> now - r.timestamp())
                             .average()
                             .ifPresent(sensor::record);
                       }
@@ -134,6 +168,7 @@ public interface ConsumerThread extends AbstractThread {
                       CLIENT_ID_REVOKED_PARTITIONS.remove(clientId);
                       NON_STICKY_SENSOR.remove(clientId);
                       DIFFERENCE_SENSOR.remove(clientId);
+                      LATENCY_HISTOGRAMS.remove(clientId);
                     }
                   });
               return new ConsumerThread() {
@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.Utils;
+import org.astraea.common.json.JsonConverter;
+import org.astraea.common.json.TypeRef;
+import org.astraea.common.metrics.stats.Histogram;
+
+/**
+ * The coordinator of distributed performance. It waits for the workers to register, assigns a share
+ * of the arguments to each worker, and then prints the merged reports sent by the workers.
+ */
+interface Coordinator extends AbstractThread {
+
+  /** the arguments which are not passed to workers */
+  Set<String> COORDINATOR_ONLY =
+      Set.of(
+          "--workers",
+          "--coordinator.port",
+          "--report.path",
+          "--worker.register.timeout",
+          "--worker.status.timeout");
+
+  /** the arguments of a worker */
+  class Assignment {
+    int id;
+    List<String> arguments = List.of();
+  }
+
+  /** the status reported by a worker every second */
+  class Status {
+    int id;
+    boolean done;
+    Stats producers = new Stats();
+    Stats consumers = new Stats();
+  }
+
+  /** the statistics of the producers (or consumers) of a worker */
+  class Stats {
+    long records;
+    long bytes;
+    double throughput;
+    long maxLatency;
+    double avgLatency;
+
+    // the latency histogram of the interval since the last status
+    Map<Integer, Long> buckets = Map.of();
+    long sum;
+    long max;
+
+    static Stats of(List<Report> reports, Histogram.Snapshot interval) {
+      var stats = new Stats();
+      stats.records = reports.stream().mapToLong(Report::records).sum();
+      stats.bytes = reports.stream().mapToLong(Report::totalBytes).sum();
+      stats.throughput =
+          reports.stream().mapToDouble(Report::avgThroughput).filter(d -> !Double.isNaN(d)).sum();
+      stats.maxLatency = reports.stream().mapToLong(Report::maxLatency).max().orElse(0);
+      stats.avgLatency =
+          reports.stream()
+              .mapToDouble(Report::avgLatency)
+              .filter(d -> !Double.isNaN(d))
+              .average()
+              .orElse(0);
+      stats.buckets = interval.buckets();
+      stats.sum = interval.sum();
+      stats.max = interval.max();
+      return stats;
+    }
+
+    Histogram.Snapshot interval() {
+      return Histogram.Snapshot.of(buckets, sum, max);
+    }
+  }
+
+  /**
+   * the latest statistics and accumulated latencies of a worker
+   *
+   * @param producers the latest statistics of producers
+   * @param consumers the latest statistics of consumers
+   * @param producerLatencies the publish latency of all records
+   * @param consumerLatencies the end-to-end latency of all records
+   * @param done true if the worker completes
+   * @param lastStatus the time (in millis) of receiving the latest status
+   */
+  record State(
+      Stats producers,
+      Stats consumers,
+      Histogram.Snapshot producerLatencies,
+      Histogram.Snapshot consumerLatencies,
+      boolean done,
+      long lastStatus) {
+
+    /**
+     * @return the state of a registered worker which has not sent any status
+     */
+    static State of() {
+      return new State(
+          new Stats(),
+          new Stats(),
+          Histogram.Snapshot.EMPTY,
+          Histogram.Snapshot.EMPTY,
+          false,
+          System.currentTimeMillis());
+    }
+
+    State update(Status status) {
+      return new State(
+          status.producers,
+          status.consumers,
+          producerLatencies.merge(status.producers.interval()),
+          consumerLatencies.merge(status.consumers.interval()),
+          status.done,
+          System.currentTimeMillis());
+    }
+
+    /**
+     * @param timeout the max time between two status
+     * @return true if the worker does not complete and has sent no status within the timeout
+     */
+    boolean silent(Duration timeout) {
+      return !done && System.currentTimeMillis() - lastStatus > timeout.toMillis();
+    }
+  }
+
+  /**
+   * @param argument of coordinator
+   * @param args the raw arguments of coordinator
+   * @return the coordinator waiting for the workers
+   */
+  static Coordinator of(Performance.Argument argument, List<String> args) {
+    var workers = argument.workers;
+    var converter = JsonConverter.defaultConverter();
+    var registered = new AtomicInteger();
+    var allRegistered = new CountDownLatch(workers);
+    var states = new ConcurrentHashMap<Integer, State>();
+    var timeouts = ConcurrentHashMap.<Integer>newKeySet();
+    var server =
+        Utils.packException(
+            () -> HttpServer.create(new InetSocketAddress(argument.coordinatorPort), 0));
+    // the registration is blocked until all workers are registered, so each request needs a thread
+    var executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext(
+        "/register",
+        exchange -> {
+          var id = registered.getAndIncrement();
+          if (id >= workers) {
+            respond(exchange, 409, "all workers are registered");
+            return;
+          }
+          allRegistered.countDown();
+          if (!Utils.packException(
+              () ->
+                  allRegistered.await(
+                      argument.workerRegisterTimeout.toMillis(), TimeUnit.MILLISECONDS))) {
+            respond(exchange, 504, "timeout to wait for other workers");
+            return;
+          }
+          states.putIfAbsent(id, State.of());
+          var assignment = new Assignment();
+          assignment.id = id;
+          assignment.arguments = share(args, argument, id);
+          System.out.println("worker " + id + " is registered");
+          respond(exchange, 200, converter.toJson(assignment));
+        });
+    server.createContext(
+        "/status",
+        exchange -> {
+          var status =
+              converter.fromJson(
+                  new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8),
+                  TypeRef.of(Status.class));
+          states.compute(
+              status.id,
+              (id, previous) -> (previous == null ? State.of() : previous).update(status));
+          respond(exchange, 200, "{}");
+        });
+    server.start();
+    System.out.println(
+        "coordinator is waiting for "
+            + workers
+            + " workers on port "
+            + server.getAddress().getPort());
+
+    Supplier<List<Report>> producerReports =
+        () -> reports(states, State::producers, State::producerLatencies);
+    Supplier<List<Report>> consumerReports =
+        () -> reports(states, State::consumers, State::consumerLatencies);
+    // the silent worker is regarded as failed, otherwise the coordinator waits for it forever
+    Supplier<Boolean> done =
+        () -> {
+          states.forEach(
+              (id, state) -> {
+                if (state.silent(argument.workerStatusTimeout) && timeouts.add(id))
+                  System.out.println(
+                      "worker "
+                          + id
+                          + " has sent no status for "
+                          + argument.workerStatusTimeout.toSeconds()
+                          + " seconds");
+              });
+          return states.size() == workers
+              && states.entrySet().stream()
+                  .allMatch(e -> e.getValue().done() || timeouts.contains(e.getKey()));
+        };
+
+    var latch = new CountDownLatch(1);
+    Runnable stop =
+        () -> {
+          synchronized (latch) {
+            if (latch.getCount() == 0) return;
+            server.stop(0);
+            executor.shutdown();
+            latch.countDown();
+          }
+        };
+    CompletableFuture.runAsync(
+        () -> {
+          try {
+            if (!Utils.packException(
+                () ->
+                    allRegistered.await(
+                        argument.workerRegisterTimeout.toMillis(), TimeUnit.MILLISECONDS))) {
+              System.out.println(
+                  "only "
+                      + (workers - allRegistered.getCount())
+                      + " of "
+                      + workers
+                      + " workers are registered in "
+                      + argument.workerRegisterTimeout.toSeconds()
+                      + " seconds");
+              return;
+            }
+            var tracker = TrackerThread.create(producerReports, consumerReports, done, done);
+            var fileWriter =
+                argument.CSVPath == null
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.runAsync(
+                        ReportFormat.createFileWriter(
+                            argument.reportFormat,
+                            argument.CSVPath,
+                            done,
+                            done,
+                            producerReports,
+                            consumerReports));
+            tracker.waitForDone();
+            fileWriter.join();
+          } finally {
+            stop.run();
+          }
+        });
+
+    return new Coordinator() {
+      @Override
+      public int port() {
+        return server.getAddress().getPort();
+      }
+
+      @Override
+      public List<Report> producers() {
+        return producerReports.get();
+      }
+
+      @Override
+      public void waitForDone() {
+        Utils.swallowException(latch::await);
+      }
+
+      @Override
+      public boolean closed() {
+        return latch.getCount() == 0;
+      }
+
+      @Override
+      public void close() {
+        stop.run();
+      }
+    };
+  }
+
+  private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+    var bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(code, bytes.length);
+    try (var output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+  private static List<Report> reports(
+      Map<Integer, State> states,
+      Function<State, Stats> stats,
+      Function<State, Histogram.Snapshot> latencies) {
+    return states.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .map(
+            e ->
+                report(
+                    "worker-" + e.getKey(),
+                    stats.apply(e.getValue()),
+                    latencies.apply(e.getValue())))
+        .toList();
+  }
+
+  private static Report report(String clientId, Stats stats, Histogram.Snapshot latencies) {
+    return new Report() {
+      @Override
+      public long records() {
+        return stats.records;
+      }
+
+      @Override
+      public long maxLatency() {
+        return stats.maxLatency;
+      }
+
+      @Override
+      public double avgLatency() {
+        return stats.avgLatency;
+      }
+
+      @Override
+      public long totalBytes() {
+        return stats.bytes;
+      }
+
+      @Override
+      public double avgThroughput() {
+        return stats.throughput;
+      }
+
+      @Override
+      public String clientId() {
+        return clientId;
+      }
+
+      @Override
+      public Optional<Histogram.Snapshot> latencies() {
+        return Optional.of(latencies);
+      }
+    };
+  }
+
+  /**
+   * Split the load among the workers. The producers, consumers, throughput, rate of open-loop mode
+   * and records to send are divided evenly, and the specified partitions are assigned round-robin.
+   * All workers use the same consumer group.
+   *
+   * @param args the raw arguments of coordinator
+   * @param argument the parsed arguments of coordinator
+   * @param index of worker
+   * @return the arguments of the worker
+   */
+  static List<String> share(List<String> args, Performance.Argument argument, int index) {
+    var workers = argument.workers;
+    var overrides = new LinkedHashMap<String, String>();
+    overrides.put("--producers", String.valueOf(share(argument.producers, workers, index)));
+    overrides.put("--consumers", String.valueOf(share(argument.consumers, workers, index)));
+    overrides.put("--group.id", argument.groupId);
+    overrides.put("--throughput", (long) (argument.throughput.byteRate() / workers) + "Byte");
+    if (!argument.throttles.isEmpty())
+      overrides.put(
+          "--throttle",
+          argument.throttles.entrySet().stream()
+              .map(e -> e.getKey() + ":" + (long) (e.getValue().byteRate() / workers) + "Byte")
+              .collect(Collectors.joining(",")));
+    if (argument.openLoopRate != null)
+      overrides.put(
+          "--open.loop.rate", String.valueOf(Math.max(1, argument.openLoopRate / workers)));
+    if (argument.rampStep != null)
+      overrides.put("--ramp.step", String.valueOf(Math.max(1, argument.rampStep / workers)));
+    var exeTime = argument.exeTime.toString();
+    if (exeTime.endsWith("records"))
+      overrides.put(
+          "--run.until",
+          share(Long.parseLong(exeTime.replace("records", "")), workers, index) + "records");
+    if (!argument.specifyPartitions.isEmpty()) {
+      var partitions = argument.specifyPartitions;
+      var groups = Math.min(workers, partitions.size());
+      overrides.put(
+          "--specify.partitions",
+          IntStream.range(0, partitions.size())
+              .filter(i -> i % groups == index % groups)
+              .mapToObj(i -> partitions.get(i).toString())
+              .collect(Collectors.joining(",")));
+    }
+
+    var result = new ArrayList<String>();
+    for (var i = 0; i < args.size(); ++i) {
+      var arg = args.get(i);
+      if (overrides.containsKey(arg) || COORDINATOR_ONLY.contains(arg)) {
+        // skip the value also
+        ++i;
+        continue;
+      }
+      result.add(arg);
+    }
+    overrides.forEach(
+        (key, value) -> {
+          result.add(key);
+          result.add(value);
+        });
+    return result;
+  }
+
+  private static long share(long total, int workers, int index) {
+    return total / workers + (index < total % workers ? 1 : 0);
+  }
+
+  /**
+   * @return the port of coordinator
+   */
+  int port();
+
+  /**
+   * @return the merged reports of producers of all workers
+   */
+  List<Report> producers();
+}
@@ -16,8 +16,10 @@
  */
 package org.astraea.app.performance;
 
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -25,9 +27,12 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import org.astraea.common.Configuration;
+import org.astraea.common.DataRate;
 import org.astraea.common.DataUnit;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.TopicPartition;
@@ -36,33 +41,28 @@ import org.astraea.common.producer.RecordGenerator;
 
 public interface DataGenerator extends AbstractThread {
   static DataGenerator of(
-      List<ArrayBlockingQueue<List<Record<byte[], byte[]>>>> queues,
+      List<DataQueue> queues,
       Supplier<TopicPartition> partitionSelector,
-      Performance.Argument argument) {
+      Performance.Argument argument,
+      Optional<Schedule> schedule) {
+    return of(queues, partitionSelector, argument, schedule, () -> argument.transactionSize);
+  }
+
+  /**
+   * @param transactionSize the number of records in each batch. It is read for each batch, so sweep
+   *     mode is able to change it on the fly
+   */
+  static DataGenerator of(
+      List<DataQueue> queues,
+      Supplier<TopicPartition> partitionSelector,
+      Performance.Argument argument,
+      Optional<Schedule> schedule,
+      IntSupplier transactionSize) {
     if (queues.size() == 0) return terminatedGenerator();
 
-    var keyDistConfig = new Configuration(argument.keyDistributionConfig);
-    var keySizeDistConfig = new Configuration(argument.keySizeDistributionConfig);
-    var valueDistConfig = new Configuration(argument.valueDistributionConfig);
-    var dataSupplier =
-        RecordGenerator.builder()
-            .batchSize(argument.transactionSize)
-            .keyTableSeed(argument.recordKeyTableSeed)
-            .keyRange(LongStream.rangeClosed(0, 10000).boxed().toList())
-            .keyDistribution(argument.keyDistributionType.create(10000, keyDistConfig))
-            .keySizeDistribution(
-                argument.keySizeDistributionType.create(
-                    (int) argument.keySize.bytes(), keySizeDistConfig))
-            .valueTableSeed(argument.recordValueTableSeed)
-            .valueRange(LongStream.rangeClosed(0, 10000).boxed().toList())
-            .valueDistribution(argument.valueDistributionType.create(10000, valueDistConfig))
-            .valueSizeDistribution(
-                argument.valueDistributionType.create(
-                    argument.valueSize.measurement(DataUnit.Byte).intValue(), valueDistConfig))
-            .throughput(tp -> argument.throttles.getOrDefault(tp, argument.throughput))
-            .build();
-    var closeLatch = new CountDownLatch(1);
-    var executor = Executors.newFixedThreadPool(1);
+    var generators = argument.generators;
+    var closeLatch = new CountDownLatch(generators);
+    var executor = Executors.newFixedThreadPool(generators);
     var closed = new AtomicBoolean(false);
     var start = System.currentTimeMillis();
     var dataCount = new AtomicLong(0);
@@ -78,35 +78,104 @@ public interface DataGenerator extends AbstractThread {
           }
         });
 
-    // put the data into blocking queue
-    CompletableFuture.runAsync(
-        () ->
-            executor.execute(
-                () -> {
-                  try {
-
-                    while (!closed.get()) {
-                      // check the generator is finished or not
-                      if (argument.exeTime.percentage(
-                              dataCount.getAndIncrement(), System.currentTimeMillis() - start)
-                          >= 100D) return;
-
-                      var tp = partitionSelector.get();
-                      var records = dataSupplier.apply(tp);
-
-                      // throttled data wouldn't put into the queue
-                      if (records.isEmpty()) continue;
-                      var queue = queues.get(ThreadLocalRandom.current().nextInt(queues.size()));
-                      queue.put(records);
+    // replay the backups instead of generating records. Each generator replays a part of the
+    // partitions, and the timing of all generators starts from the earliest record
+    var partitions =
+        argument.replayPath == null ? List.<Path>of() : Replay.partitions(argument.replayPath);
+    var replays =
+        IntStream.range(0, argument.replayPath == null ? 0 : generators)
+            .mapToObj(
+                index ->
+                    Replay.of(
+                        IntStream.range(0, partitions.size())
+                            .filter(i -> i % generators == index)
+                            .mapToObj(partitions::get)
+                            .toList()))
+            .toList();
+    // the target topic may have fewer partitions than the captured topic
+    var partitionCounts =
+        argument.replayPath == null ? Map.<String, Integer>of() : argument.partitionCounts();
+    var firstTimestamp =
+        replays.stream().flatMapToLong(r -> r.timestamp().stream()).min().orElse(0);
+    var replayStart = System.nanoTime();
+
+    // each generator has its own record generator and feeds its own queues, so they don't share
+    // anything except for the count of data
+    IntStream.range(0, generators)
+        .forEach(
+            index -> {
+              var replay = replays.isEmpty() ? null : replays.get(index);
+              var dataSupplier = replay == null ? recordGenerator(argument, transactionSize) : null;
+              var ownQueues =
+                  IntStream.range(0, Math.max(generators, queues.size()))
+                      .filter(i -> i % generators == index)
+                      .mapToObj(i -> queues.get(i % queues.size()))
+                      .toList();
+              executor.execute(
+                  () -> {
+                    try {
+                      while (!closed.get()) {
+                        // check the generator is finished or not
+                        // all generators stop if the time or the count is up
+                        if (argument.exeTime.percentage(
+                                dataCount.getAndIncrement(), System.currentTimeMillis() - start)
+                            >= 100D) {
+                          closed.set(true);
+                          return;
+                        }
+
+                        // open-loop mode sends the records at the intended time even if the
+                        // previous records are not completed yet. Replay mode follows the
+                        // captured timing unless open-loop mode is enabled.
+                        var claimed = schedule.isPresent() ? transactionSize.getAsInt() : 0;
+                        var intendedTime =
+                            schedule.isPresent()
+                                ? schedule.get().next(claimed)
+                                : replay != null && argument.replaySpeed > 0
+                                    ? replayStart
+                                        + (long)
+                                            ((replay.timestamp().orElse(firstTimestamp)
+                                                    - firstTimestamp)
+                                                * 1_000_000D
+                                                / argument.replaySpeed)
+                                    : System.nanoTime();
+                        Schedule.waitFor(intendedTime);
+
+                        var records =
+                            replay == null
+                                ? dataSupplier.apply(partitionSelector.get())
+                                : replay.next(transactionSize.getAsInt()).stream()
+                                    .map(r -> replayed(r, argument.topics, partitionCounts))
+                                    .toList();
+
+                        // all records of this generator are replayed. Other generators keep
+                        // replaying their own partitions
+                        if (replay != null && records.isEmpty()) return;
+                        // throttled data wouldn't put into the queue, and the claimed records
+                        // must be given back or they are counted as backlog forever
+                        if (records.isEmpty()) {
+                          if (schedule.isPresent()) schedule.get().cancel(claimed);
+                          continue;
+                        }
+                        // the generator is behind the schedule, so the end-to-end latency should
+                        // be measured from the intended time also
+                        if (schedule.isPresent())
+                          records = stamp(records, schedule.get().toMillis(intendedTime));
+                        var queue =
+                            ownQueues.get(ThreadLocalRandom.current().nextInt(ownQueues.size()));
+                        queue.put(new DataQueue.Batch(records, intendedTime));
+                      }
+                    } catch (InterruptedException e) {
+                      if (closeLatch.getCount() != 0 || closed.get())
+                        throw new RuntimeException(
+                            e + ", The data generator didn't close properly");
+                    } finally {
+                      closeLatch.countDown();
+                      // no more records will be claimed after the last generator is done
+                      if (closeLatch.getCount() == 0) schedule.ifPresent(Schedule::finish);
                     }
-                  } catch (InterruptedException e) {
-                    if (closeLatch.getCount() != 0 || closed.get())
-                      throw new RuntimeException(e + ", The data generator didn't close properly");
-                  } finally {
-                    closeLatch.countDown();
-                    closed.set(true);
-                  }
-                }));
+                  });
+            });
     return new DataGenerator() {
       @Override
       public void waitForDone() {
@@ -126,6 +195,77 @@ public interface DataGenerator extends AbstractThread {
     };
   }
 
+  /**
+   * @param record captured by the exporter
+   * @param topics of performance
+   * @param partitionCounts the number of partitions of each topic
+   * @return the record sent to the same partition. The topic is replaced by the first topic of
+   *     performance if the captured topic is not in the topics, and the partition is wrapped by the
+   *     number of partitions if the target topic has fewer partitions.
+   */
+  private static Record<byte[], byte[]> replayed(
+      org.astraea.common.consumer.Record<byte[], byte[]> record,
+      List<String> topics,
+      Map<String, Integer> partitionCounts) {
+    var topic = topics.contains(record.topic()) ? record.topic() : topics.get(0);
+    var partitions = partitionCounts.get(topic);
+    return Record.builder()
+        .topic(topic)
+        .partition(partitions == null ? record.partition() : record.partition() % partitions)
+        .key(record.key())
+        .value(record.value())
+        .headers(record.headers())
+        .timestamp(System.currentTimeMillis())
+        .build();
+  }
+
+  /**
+   * @param records to stamp
+   * @param timestamp the intended send time
+   * @return the records having the intended send time if they are generated later than it
+   */
+  private static List<Record<byte[], byte[]>> stamp(
+      List<Record<byte[], byte[]>> records, long timestamp) {
+    if (records.stream().allMatch(r -> r.timestamp().orElse(timestamp) <= timestamp))
+      return records;
+    return records.stream()
+        .map(r -> Record.builder().record(r).timestamp(timestamp).build())
+        .toList();
+  }
+
+  /**
+   * Create the record generator for one of the data generator threads. All record generators use
+   * the same table seeds, so a key (or value) index maps to the same bytes in all threads, and the
+   * throttle is split evenly across the threads.
+   */
+  private static RecordGenerator recordGenerator(
+      Performance.Argument argument, IntSupplier transactionSize) {
+    var keyDistConfig = new Configuration(argument.keyDistributionConfig);
+    var keySizeDistConfig = new Configuration(argument.keySizeDistributionConfig);
+    var valueDistConfig = new Configuration(argument.valueDistributionConfig);
+    return RecordGenerator.builder()
+        .batchSize(transactionSize)
+        .keyTableSeed(argument.recordKeyTableSeed)
+        .keyRange(LongStream.rangeClosed(0, 10000).boxed().toList())
+        .keyDistribution(argument.keyDistributionType.createLong(10000, keyDistConfig))
+        .keySizeDistribution(
+            argument.keySizeDistributionType.createLong(
+                (int) argument.keySize.bytes(), keySizeDistConfig))
+        .valueTableSeed(argument.recordValueTableSeed)
+        .valueRange(LongStream.rangeClosed(0, 10000).boxed().toList())
+        .valueDistribution(argument.valueDistributionType.createLong(10000, valueDistConfig))
+        .valueSizeDistribution(
+            argument.valueDistributionType.createLong(
+                argument.valueSize.measurement(DataUnit.Byte).intValue(), valueDistConfig))
+        .throughput(
+            tp -> {
+              var throughput = argument.throttles.getOrDefault(tp, argument.throughput);
+              if (throughput == null || argument.generators == 1) return throughput;
+              return DataRate.Byte.of((long) (throughput.byteRate() / argument.generators));
+            })
+        .build();
+  }
+
   static DataGenerator terminatedGenerator() {
     return new DataGenerator() {
       @Override
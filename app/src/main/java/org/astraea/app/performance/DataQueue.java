@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.astraea.common.producer.Record;
+
+/**
+ * A bounded queue handing the records from data generators over to producers. It is lock-free so
+ * the data generators and producers never contend on a lock. The side which has to wait (full queue
+ * or empty queue) parks a while and then retries.
+ */
+interface DataQueue {
+
+  /**
+   * @param records to send
+   * @param intendedTime the intended send time (in {@link System#nanoTime()}) in open-loop mode, or
+   *     the time the records are generated in closed-loop mode
+   */
+  record Batch(List<Record<byte[], byte[]>> records, long intendedTime) {}
+
+  /** the time to park before retrying to put or poll */
+  long PARK_NANOS = Duration.ofMillis(1).toNanos();
+
+  static DataQueue of(int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+    var queue = new ConcurrentLinkedQueue<Batch>();
+    var size = new AtomicInteger();
+    return new DataQueue() {
+      @Override
+      public boolean offer(Batch batch) {
+        // reserve the slot before adding the records, so the size never exceeds the capacity
+        if (size.getAndIncrement() >= capacity) {
+          size.decrementAndGet();
+          return false;
+        }
+        queue.offer(batch);
+        return true;
+      }
+
+      @Override
+      public Batch poll() {
+        var batch = queue.poll();
+        if (batch != null) size.decrementAndGet();
+        return batch;
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return size.get() == 0;
+      }
+    };
+  }
+
+  /**
+   * @param batch to add
+   * @return false if the queue is full
+   */
+  boolean offer(Batch batch);
+
+  /**
+   * @return the head of queue, or null if the queue is empty
+   */
+  Batch poll();
+
+  boolean isEmpty();
+
+  /**
+   * add the batch. It waits for the space if the queue is full.
+   *
+   * @param batch to add
+   */
+  default void put(Batch batch) throws InterruptedException {
+    while (!offer(batch)) {
+      LockSupport.parkNanos(PARK_NANOS);
+      if (Thread.interrupted()) throw new InterruptedException();
+    }
+  }
+
+  /**
+   * @param timeout to wait for the batch
+   * @return the head of queue, or null if there is no batch after the timeout
+   */
+  default Batch poll(Duration timeout) throws InterruptedException {
+    var end = System.nanoTime() + timeout.toNanos();
+    while (true) {
+      var batch = poll();
+      if (batch != null) return batch;
+      if (System.nanoTime() >= end) return null;
+      LockSupport.parkNanos(PARK_NANOS);
+      if (Thread.interrupted()) throw new InterruptedException();
+    }
+  }
+
+  /**
+   * drop all batches in the queue.
+   *
+   * @return the number of dropped batches
+   */
+  default int clear() {
+    var count = 0;
+    while (poll() != null) count++;
+    return count;
+  }
+}
@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.astraea.common.Utils;
 import org.astraea.common.consumer.Consumer;
 import org.astraea.common.consumer.ConsumerConfigs;
+import org.astraea.common.consumer.Deserializer;
 
 public class MonkeyThread implements AbstractThread {
 
@@ -36,23 +37,28 @@ public class MonkeyThread implements AbstractThread {
     this.closeLatch = new CountDownLatch(1);
   }
 
-  static List<MonkeyThread> play(List<ConsumerThread> consumerThreads, Performance.Argument param) {
+  static List<MonkeyThread> play(
+      List<ConsumerThread> consumerThreads,
+      Performance.Argument param,
+      PartitionReporter reporter) {
     if (param.monkeys == null) return List.of();
     System.out.println("create chaos monkey");
     return param.monkeys.entrySet().stream()
         .map(
             entry ->
                 switch ((entry.getKey())) {
-                  case "kill" -> killMonkey(consumerThreads, entry.getValue());
-                  case "add" -> addMonkey(consumerThreads, entry.getValue(), param);
-                  default -> unsubscribeMonkey(consumerThreads, entry.getValue());
+                  case "kill" -> killMonkey(consumerThreads, entry.getValue(), param);
+                  case "add" -> addMonkey(consumerThreads, entry.getValue(), param, reporter);
+                  default -> unsubscribeMonkey(consumerThreads, entry.getValue(), param);
                 })
         .toList();
   }
 
-  private static MonkeyThread killMonkey(List<ConsumerThread> consumerThreads, Duration frequency) {
+  private static MonkeyThread killMonkey(
+      List<ConsumerThread> consumerThreads, Duration frequency, Performance.Argument param) {
     var close = new AtomicBoolean(false);
-    CompletableFuture.runAsync(
+    run(
+        param.virtualThreads,
         () -> {
           while (!close.get()) {
             if (consumerThreads.size() > 1) {
@@ -68,9 +74,13 @@ public class MonkeyThread implements AbstractThread {
   }
 
   private static MonkeyThread addMonkey(
-      List<ConsumerThread> consumerThreads, Duration frequency, Performance.Argument param) {
+      List<ConsumerThread> consumerThreads,
+      Duration frequency,
+      Performance.Argument param,
+      PartitionReporter reporter) {
     var close = new AtomicBoolean(false);
-    CompletableFuture.runAsync(
+    run(
+        param.virtualThreads,
         () -> {
           while (!close.get()) {
             if (consumerThreads.size() < param.consumers) {
@@ -82,10 +92,13 @@ public class MonkeyThread implements AbstractThread {
                               (param.pattern == null
                                       ? Consumer.forTopics(Set.copyOf(param.topics))
                                       : Consumer.forTopics(param.pattern))
+                                  // only the timestamp is used, so the payload is not deserialized
+                                  .keyDeserializer(Deserializer.SKIP)
+                                  .valueDeserializer(Deserializer.SKIP)
                                   .configs(param.configs())
                                   .config(
                                       ConsumerConfigs.ISOLATION_LEVEL_CONFIG,
-                                      param.transactionSize > 1
+                                      param.transactional()
                                           ? ConsumerConfigs.ISOLATION_LEVEL_COMMITTED
                                           : ConsumerConfigs.ISOLATION_LEVEL_UNCOMMITTED)
                                   .bootstrapServers(param.bootstrapServers())
@@ -93,7 +106,9 @@ public class MonkeyThread implements AbstractThread {
                                   .seek(param.lastOffsets())
                                   .consumerRebalanceListener(listener)
                                   .config(ConsumerConfigs.CLIENT_ID_CONFIG, clientId)
-                                  .build())
+                                  .build(),
+                          param.virtualThreads,
+                          reporter)
                       .get(0);
               consumerThreads.add(consumer);
               Utils.sleep(frequency);
@@ -104,9 +119,10 @@ public class MonkeyThread implements AbstractThread {
   }
 
   private static MonkeyThread unsubscribeMonkey(
-      List<ConsumerThread> consumerThreads, Duration frequency) {
+      List<ConsumerThread> consumerThreads, Duration frequency, Performance.Argument param) {
     var close = new AtomicBoolean(false);
-    CompletableFuture.runAsync(
+    run(
+        param.virtualThreads,
         () -> {
           while (!close.get()) {
             var thread = consumerThreads.get((int) (Math.random() * consumerThreads.size()));
@@ -121,6 +137,11 @@ public class MonkeyThread implements AbstractThread {
     return new MonkeyThread(close);
   }
 
+  private static void run(boolean virtual, Runnable monkey) {
+    if (virtual) CompletableFuture.runAsync(monkey, r -> Thread.ofVirtual().start(r));
+    else CompletableFuture.runAsync(monkey);
+  }
+
   @Override
   public void waitForDone() {
     Utils.swallowException(closeLatch::await);
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.TopicPartition;
+
+/**
+ * Count the records, bytes and offsets of each partition. The counters are primitive arrays indexed
+ * by partition id, so recording a record costs a map lookup and a few atomic additions. It is cheap
+ * enough to track tens of thousands of partitions.
+ */
+interface PartitionReporter {
+
+  /** the reporter which ignores all records */
+  PartitionReporter EMPTY =
+      new PartitionReporter() {
+        @Override
+        public void produced(String topic, int partition, long offset, int bytes) {}
+
+        @Override
+        public void consumed(String topic, int partition, long offset, int bytes) {}
+
+        @Override
+        public Map<String, Counters> snapshot() {
+          return Map.of();
+        }
+      };
+
+  /**
+   * The counters of a topic. The index of each array is the partition id.
+   *
+   * @param producedRecords the number of produced records
+   * @param producedBytes the size of produced records
+   * @param consumedRecords the number of consumed records
+   * @param consumedBytes the size of consumed records
+   * @param lags the offsets which are produced but not consumed
+   */
+  record Counters(
+      long[] producedRecords,
+      long[] producedBytes,
+      long[] consumedRecords,
+      long[] consumedBytes,
+      long[] lags) {
+
+    int partitions() {
+      return lags.length;
+    }
+
+    /**
+     * @param previous counters
+     * @return the records and bytes since the previous counters. The lags are not changed
+     */
+    Counters minus(Counters previous) {
+      return new Counters(
+          minus(producedRecords, previous.producedRecords),
+          minus(producedBytes, previous.producedBytes),
+          minus(consumedRecords, previous.consumedRecords),
+          minus(consumedBytes, previous.consumedBytes),
+          lags);
+    }
+
+    private static long[] minus(long[] current, long[] previous) {
+      var result = new long[current.length];
+      for (var i = 0; i != current.length; ++i) result[i] = current[i] - previous[i];
+      return result;
+    }
+  }
+
+  /**
+   * @param offsets the latest offsets of partitions. The records of other partitions are ignored.
+   * @return reporter counting the records of given partitions
+   */
+  static PartitionReporter of(Map<TopicPartition, Long> offsets) {
+    var partitions = new HashMap<String, Integer>();
+    offsets.keySet().forEach(tp -> partitions.merge(tp.topic(), tp.partition() + 1, Math::max));
+    // topic -> the counters indexed by partition id
+    var topics =
+        partitions.entrySet().stream()
+            .collect(
+                Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> new Partitions(e.getValue())));
+    offsets.forEach(
+        (tp, offset) -> {
+          var counters = topics.get(tp.topic());
+          counters.producedOffsets.set(tp.partition(), offset);
+          counters.consumedOffsets.set(tp.partition(), offset);
+        });
+
+    return new PartitionReporter() {
+      @Override
+      public void produced(String topic, int partition, long offset, int bytes) {
+        var counters = topics.get(topic);
+        if (counters == null || partition >= counters.producedRecords.length()) return;
+        counters.producedRecords.incrementAndGet(partition);
+        counters.producedBytes.addAndGet(partition, bytes);
+        counters.producedOffsets.accumulateAndGet(partition, offset + 1, Math::max);
+      }
+
+      @Override
+      public void consumed(String topic, int partition, long offset, int bytes) {
+        var counters = topics.get(topic);
+        if (counters == null || partition >= counters.consumedRecords.length()) return;
+        counters.consumedRecords.incrementAndGet(partition);
+        counters.consumedBytes.addAndGet(partition, bytes);
+        counters.consumedOffsets.accumulateAndGet(partition, offset + 1, Math::max);
+      }
+
+      @Override
+      public Map<String, Counters> snapshot() {
+        return topics.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().counters()));
+      }
+    };
+  }
+
+  /**
+   * @param topic of the produced record
+   * @param partition of the produced record
+   * @param offset of the produced record
+   * @param bytes the size of the produced record
+   */
+  void produced(String topic, int partition, long offset, int bytes);
+
+  /**
+   * @param topic of the consumed record
+   * @param partition of the consumed record
+   * @param offset of the consumed record
+   * @param bytes the size of the consumed record
+   */
+  void consumed(String topic, int partition, long offset, int bytes);
+
+  /**
+   * @return the current counters of each topic
+   */
+  Map<String, Counters> snapshot();
+
+  class Partitions {
+    private final AtomicLongArray producedRecords;
+    private final AtomicLongArray producedBytes;
+    private final AtomicLongArray producedOffsets;
+    private final AtomicLongArray consumedRecords;
+    private final AtomicLongArray consumedBytes;
+    private final AtomicLongArray consumedOffsets;
+
+    private Partitions(int partitions) {
+      producedRecords = new AtomicLongArray(partitions);
+      producedBytes = new AtomicLongArray(partitions);
+      producedOffsets = new AtomicLongArray(partitions);
+      consumedRecords = new AtomicLongArray(partitions);
+      consumedBytes = new AtomicLongArray(partitions);
+      consumedOffsets = new AtomicLongArray(partitions);
+    }
+
+    private Counters counters() {
+      var partitions = producedRecords.length();
+      var lags = new long[partitions];
+      for (var i = 0; i != partitions; ++i)
+        lags[i] = Math.max(0, producedOffsets.get(i) - consumedOffsets.get(i));
+      return new Counters(
+          copy(producedRecords),
+          copy(producedBytes),
+          copy(consumedRecords),
+          copy(consumedBytes),
+          lags);
+    }
+
+    private static long[] copy(AtomicLongArray array) {
+      var result = new long[array.length()];
+      for (var i = 0; i != result.length; ++i) result[i] = array.get(i);
+      return result;
+    }
+  }
+}
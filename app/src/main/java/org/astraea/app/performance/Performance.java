@@ -22,30 +22,34 @@ import com.beust.jcommander.converters.LongConverter;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.astraea.app.argument.BooleanField;
 import org.astraea.app.argument.DataRateField;
 import org.astraea.app.argument.DataSizeField;
 import org.astraea.app.argument.DistributionTypeField;
 import org.astraea.app.argument.DurationField;
 import org.astraea.app.argument.DurationMapField;
 import org.astraea.app.argument.NonEmptyStringField;
+import org.astraea.app.argument.NonNegativeDoubleField;
+import org.astraea.app.argument.NonNegativeIntegerField;
 import org.astraea.app.argument.NonNegativeShortField;
 import org.astraea.app.argument.PathField;
 import org.astraea.app.argument.PatternField;
 import org.astraea.app.argument.PositiveIntegerField;
 import org.astraea.app.argument.PositiveIntegerListField;
 import org.astraea.app.argument.PositiveLongField;
+import org.astraea.app.argument.PositiveShortField;
 import org.astraea.app.argument.StringListField;
 import org.astraea.app.argument.StringMapField;
 import org.astraea.app.argument.TopicPartitionDataRateMapField;
@@ -60,23 +64,27 @@ import org.astraea.common.admin.Replica;
 import org.astraea.common.admin.TopicPartition;
 import org.astraea.common.consumer.Consumer;
 import org.astraea.common.consumer.ConsumerConfigs;
+import org.astraea.common.consumer.Deserializer;
 import org.astraea.common.partitioner.Partitioner;
 import org.astraea.common.producer.Producer;
 import org.astraea.common.producer.ProducerConfigs;
-import org.astraea.common.producer.Record;
 
 /** see docs/performance_benchmark.md for man page */
 public class Performance {
   /** Used in Automation, to achieve the end of one Performance and then start another. */
   public static void main(String[] args) {
-    execute(Performance.Argument.parse(new Argument(), args));
+    var argument = Performance.Argument.parse(new Argument(), args);
+    if (argument.workers > 0) {
+      try (var coordinator = Coordinator.of(argument, List.of(args))) {
+        coordinator.waitForDone();
+      }
+      return;
+    }
+    execute(argument);
   }
 
   public static List<String> execute(final Argument param) {
-    var blockingQueues =
-        IntStream.range(0, param.producers)
-            .mapToObj(i -> new ArrayBlockingQueue<List<Record<byte[], byte[]>>>(3000))
-            .toList();
+    var dataQueues = IntStream.range(0, param.producers).mapToObj(i -> DataQueue.of(3000)).toList();
     // ensure topics are existent
     System.out.println("checking topics: " + String.join(",", param.topics));
     param.checkTopics();
@@ -84,16 +92,41 @@ public class Performance {
     System.out.println("seeking offsets");
     var latestOffsets = param.lastOffsets();
 
+    var partitionReporter =
+        param.partitionReportPath == null
+            ? PartitionReporter.EMPTY
+            : PartitionReporter.of(latestOffsets);
+
     System.out.println("creating threads");
+    // ramp mode is built on open-loop mode
+    var schedule =
+        Optional.ofNullable(param.openLoopRate)
+            .or(() -> Optional.ofNullable(param.rampStep))
+            .map(Schedule::of);
     var producerThreads =
-        ProducerThread.create(blockingQueues, param::createProducer, param.interdependent);
+        ProducerThread.create(
+            dataQueues,
+            param::createProducer,
+            param.interdependent,
+            schedule,
+            param.virtualThreads,
+            partitionReporter);
     var consumerThreads =
         param.monkeys != null
-            ? Collections.synchronizedList(new ArrayList<>(consumers(param, latestOffsets)))
-            : consumers(param, latestOffsets);
+            ? Collections.synchronizedList(
+                new ArrayList<>(consumers(param, latestOffsets, partitionReporter)))
+            : consumers(param, latestOffsets, partitionReporter);
 
     System.out.println("creating data generator");
-    var dataGenerator = DataGenerator.of(blockingQueues, param.topicPartitionSelector(), param);
+    // sweep mode starts from the first size
+    var transactionSize =
+        new AtomicInteger(
+            param.transactionSweep.isEmpty()
+                ? param.transactionSize
+                : param.transactionSweep.get(0));
+    var dataGenerator =
+        DataGenerator.of(
+            dataQueues, param.topicPartitionSelector(), param, schedule, transactionSize::get);
 
     System.out.println("creating tracker");
     var tracker =
@@ -112,7 +145,62 @@ public class Performance {
                         () -> producerThreads.stream().allMatch(AbstractThread::closed)))
             .thenAcceptAsync(Runnable::run);
 
-    var monkeys = MonkeyThread.play(consumerThreads, param);
+    var partitionWriterTask =
+        param.partitionReportPath == null
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.runAsync(
+                ReportFormat.createPartitionWriter(
+                    param.reportFormat,
+                    param.partitionReportPath,
+                    partitionReporter,
+                    () ->
+                        producerThreads.stream().allMatch(AbstractThread::closed)
+                            && consumerThreads.stream().allMatch(AbstractThread::closed)));
+
+    var monkeys = MonkeyThread.play(consumerThreads, param, partitionReporter);
+
+    var ramp =
+        schedule
+            .filter(ignored -> param.rampStep != null)
+            .map(
+                s ->
+                    CompletableFuture.runAsync(
+                        () -> {
+                          var steps = Ramp.search(s, param, dataGenerator::closed);
+                          // the saturation point is found, so it is unnecessary to send more data
+                          dataGenerator.close();
+                          var knee = Ramp.knee(steps, param.rampMaxP99, param.rampMaxErrorRate);
+                          knee.ifPresentOrElse(
+                              k ->
+                                  System.out.printf(
+                                      "ramp knee: %d records/second (p99 %.3f ms)%n",
+                                      k.targetRate(), k.p99()),
+                              () -> System.out.println("ramp knee: none"));
+                          if (param.CSVPath != null)
+                            ReportFormat.writeCurve(param.reportFormat, param.CSVPath, steps, knee);
+                        }))
+            .orElse(CompletableFuture.completedFuture(null));
+
+    var sweep =
+        param.transactionSweep.isEmpty()
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.runAsync(
+                () -> {
+                  var steps = Sweep.run(transactionSize, dataQueues, param, dataGenerator::closed);
+                  // all sizes are measured, so it is unnecessary to send more data
+                  dataGenerator.close();
+                  dataQueues.forEach(DataQueue::clear);
+                  var best = Sweep.best(steps);
+                  best.ifPresentOrElse(
+                      b ->
+                          System.out.printf(
+                              "sweep best: transaction size %d (throughput %.1f records/second,"
+                                  + " commit p99 %.3f ms)%n",
+                              b.transactionSize(), b.throughput(), b.commitP99()),
+                      () -> System.out.println("sweep best: none"));
+                  if (param.CSVPath != null)
+                    ReportFormat.writeSweep(param.reportFormat, param.CSVPath, steps, best);
+                });
 
     CompletableFuture.runAsync(
         () -> {
@@ -122,7 +210,7 @@ public class Performance {
           while (true) {
             var current = Report.recordsConsumedTotal();
 
-            if (blockingQueues.stream().allMatch(Collection::isEmpty)) {
+            if (dataQueues.stream().allMatch(DataQueue::isEmpty)) {
               var unfinishedProducers = producerThreads.stream().filter(p -> !p.closed()).toList();
               unfinishedProducers.forEach(AbstractThread::close);
             }
@@ -146,20 +234,27 @@ public class Performance {
     consumerThreads.forEach(AbstractThread::waitForDone);
     tracker.waitForDone();
     fileWriterTask.join();
+    partitionWriterTask.join();
+    ramp.join();
+    sweep.join();
     return param.topics;
   }
 
-  static List<ConsumerThread> consumers(Argument param, Map<TopicPartition, Long> latestOffsets) {
+  static List<ConsumerThread> consumers(
+      Argument param, Map<TopicPartition, Long> latestOffsets, PartitionReporter reporter) {
     return ConsumerThread.create(
         param.consumers,
         (clientId, listener) ->
             (param.pattern == null
                     ? Consumer.forTopics(Set.copyOf(param.topics))
                     : Consumer.forTopics(param.pattern))
+                // only the timestamp is used, so the payload is not deserialized
+                .keyDeserializer(Deserializer.SKIP)
+                .valueDeserializer(Deserializer.SKIP)
                 .configs(param.configs())
                 .config(
                     ConsumerConfigs.ISOLATION_LEVEL_CONFIG,
-                    param.transactionSize > 1
+                    param.transactional()
                         ? ConsumerConfigs.ISOLATION_LEVEL_COMMITTED
                         : ConsumerConfigs.ISOLATION_LEVEL_UNCOMMITTED)
                 .bootstrapServers(param.bootstrapServers())
@@ -167,7 +262,9 @@ public class Performance {
                 .seek(latestOffsets)
                 .consumerRebalanceListener(listener)
                 .config(ConsumerConfigs.CLIENT_ID_CONFIG, clientId)
-                .build());
+                .build(),
+        param.virtualThreads,
+        reporter);
   }
 
   public static class Argument extends org.astraea.app.argument.Argument {
@@ -196,6 +293,14 @@ public class Performance {
       }
     }
 
+    /**
+     * @return the number of partitions of each topic
+     */
+    Map<String, Integer> partitionCounts() {
+      return lastOffsets().keySet().stream()
+          .collect(Collectors.groupingBy(TopicPartition::topic, Collectors.summingInt(tp -> 1)));
+    }
+
     Map<TopicPartition, Long> lastOffsets() {
       try (var admin = Admin.of(configs())) {
         return admin.partitions(Set.copyOf(topics)).toCompletableFuture().join().stream()
@@ -210,6 +315,85 @@ public class Performance {
         converter = NonNegativeShortField.class)
     int producers = 1;
 
+    @Parameter(
+        names = {"--generators"},
+        description =
+            "Integer: number of threads to generate records. Each thread feeds a part of producers",
+        validateWith = PositiveShortField.class,
+        converter = PositiveShortField.class)
+    int generators = 1;
+
+    @Parameter(
+        names = {"--open.loop.rate"},
+        description =
+            "Long: the fixed rate (records/second) of open-loop mode. Each record has an intended"
+                + " send time, and the latency is measured from the intended time. Default is"
+                + " closed-loop mode which sends the records as fast as producers can",
+        validateWith = PositiveLongField.class,
+        converter = PositiveLongField.class)
+    Long openLoopRate = null;
+
+    @Parameter(
+        names = {"--ramp.step"},
+        description =
+            "Long: enable ramp mode which raises the rate (records/second) of open-loop mode by"
+                + " this value step by step until the p99 latency or error rate crosses the"
+                + " threshold. The first step uses --open.loop.rate, or this value if it is unset",
+        validateWith = PositiveLongField.class,
+        converter = PositiveLongField.class)
+    Long rampStep = null;
+
+    @Parameter(
+        names = {"--ramp.step.duration"},
+        description =
+            "Duration: the max time to hold a step of ramp mode. The step ends earlier if the"
+                + " throughput and latency are stable",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration rampStepDuration = Duration.ofSeconds(30);
+
+    @Parameter(
+        names = {"--ramp.max.p99"},
+        description = "Duration: ramp mode stops when the p99 publish latency crosses this value",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration rampMaxP99 = Duration.ofMillis(100);
+
+    @Parameter(
+        names = {"--ramp.max.error.rate"},
+        description = "Double: ramp mode stops when the ratio of failed records crosses this value",
+        validateWith = NonNegativeDoubleField.class,
+        converter = NonNegativeDoubleField.class)
+    double rampMaxErrorRate = 0.01;
+
+    @Parameter(
+        names = {"--replay.path"},
+        description =
+            "Path: replay the records captured by the exporter instead of generating records. It"
+                + " can be the root folder of backups or the folder of a topic or partition. The"
+                + " records keep their partitions and the timing between them",
+        validateWith = PathField.class,
+        converter = PathField.class)
+    Path replayPath = null;
+
+    @Parameter(
+        names = {"--replay.speed"},
+        description =
+            "Double: the speed of replay. For example, 2 replays the records two times faster than"
+                + " they were captured. 0 means replaying the records as fast as possible",
+        validateWith = NonNegativeDoubleField.class,
+        converter = NonNegativeDoubleField.class)
+    double replaySpeed = 1;
+
+    @Parameter(
+        names = {"--virtual.threads"},
+        description =
+            "Boolean: true if the producers, consumers and chaos monkeys run on virtual threads. It is useful to simulate thousands of clients",
+        validateWith = BooleanField.class,
+        converter = BooleanField.class,
+        arity = 1)
+    boolean virtualThreads = false;
+
     @Parameter(
         names = {"--consumers"},
         description = "Integer: number of consumers to consume records",
@@ -268,18 +452,58 @@ public class Performance {
         validateWith = PositiveLongField.class)
     int transactionSize = 1;
 
+    @Parameter(
+        names = {"--transaction.sweep"},
+        description =
+            "List<Integer>: enable sweep mode which runs the transactional producers with each"
+                + " transaction size in turn, and reports the throughput, commit latency and abort"
+                + " rate of each size",
+        validateWith = PositiveIntegerListField.class,
+        listConverter = PositiveIntegerListField.class)
+    List<Integer> transactionSweep = List.of();
+
+    @Parameter(
+        names = {"--transaction.sweep.duration"},
+        description = "Duration: the time to measure each transaction size of sweep mode",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration transactionSweepDuration = Duration.ofSeconds(30);
+
+    /**
+     * @return true if the producers send records in transactions
+     */
+    boolean transactional() {
+      return transactionSize > 1 || !transactionSweep.isEmpty();
+    }
+
+    @Parameter(
+        names = {"--max.in.flight.records"},
+        description =
+            "integer: the max number of records which are sent but not acknowledged by each producer. Default: unlimited",
+        validateWith = PositiveIntegerField.class,
+        converter = PositiveIntegerField.class)
+    int maxInFlightRecords = Integer.MAX_VALUE;
+
     Producer<byte[], byte[]> createProducer() {
-      return transactionSize > 1
-          ? Producer.builder()
-              .configs(configs())
-              .bootstrapServers(bootstrapServers())
-              .config(ProducerConfigs.PARTITIONER_CLASS_CONFIG, partitioner())
-              .buildTransactional()
-          : Producer.builder()
-              .configs(configs())
-              .bootstrapServers(bootstrapServers())
-              .config(ProducerConfigs.PARTITIONER_CLASS_CONFIG, partitioner())
-              .build();
+      if (transactional()) {
+        var stats = TransactionStats.of();
+        var producer =
+            Producer.builder()
+                .configs(configs())
+                .bootstrapServers(bootstrapServers())
+                .config(ProducerConfigs.PARTITIONER_CLASS_CONFIG, partitioner())
+                .maxInFlightRecords(maxInFlightRecords)
+                .transactionListener(stats)
+                .buildTransactional();
+        ProducerThread.TRANSACTION_STATS.put(producer.clientId(), stats);
+        return producer;
+      }
+      return Producer.builder()
+          .configs(configs())
+          .bootstrapServers(bootstrapServers())
+          .config(ProducerConfigs.PARTITIONER_CLASS_CONFIG, partitioner())
+          .maxInFlightRecords(maxInFlightRecords)
+          .build();
     }
 
     @Parameter(
@@ -465,6 +689,13 @@ public class Performance {
         converter = PathField.class)
     Path CSVPath = null;
 
+    @Parameter(
+        names = {"--partition.report.path"},
+        description =
+            "Path: A path to place the time series of records, bytes and lag of each partition. The format is decided by --report.format. Default: (no report)",
+        converter = PathField.class)
+    Path partitionReportPath = null;
+
     @Parameter(
         names = {"--report.format"},
         description = "Output format for the report",
@@ -504,5 +735,36 @@ public class Performance {
         description = "Map<String, DataRate>: Set the topic-partitions and its' throttle data rate",
         converter = TopicPartitionDataRateMapField.class)
     Map<TopicPartition, DataRate> throttles = Map.of();
+
+    @Parameter(
+        names = {"--workers"},
+        description =
+            "Integer: the number of worker processes. If it is positive, this process becomes the coordinator which waits for the workers and then splits the load among them",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int workers = 0;
+
+    @Parameter(
+        names = {"--coordinator.port"},
+        description = "Integer: the port of coordinator. Default: a random port",
+        validateWith = NonNegativeIntegerField.class,
+        converter = NonNegativeIntegerField.class)
+    int coordinatorPort = 0;
+
+    @Parameter(
+        names = {"--worker.register.timeout"},
+        description =
+            "Duration: the max time for the coordinator to wait for the registration of all workers",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration workerRegisterTimeout = Duration.ofMinutes(5);
+
+    @Parameter(
+        names = {"--worker.status.timeout"},
+        description =
+            "Duration: the worker is regarded as failed if the coordinator does not receive its status within this time",
+        validateWith = DurationField.class,
+        converter = DurationField.class)
+    Duration workerStatusTimeout = Duration.ofSeconds(10);
   }
 }
@@ -16,23 +16,25 @@
  */
 package org.astraea.app.performance;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.astraea.common.Utils;
 import org.astraea.common.metrics.MBeanRegister;
-import org.astraea.common.metrics.Sensor;
-import org.astraea.common.metrics.stats.Avg;
+import org.astraea.common.metrics.stats.Histogram;
 import org.astraea.common.partitioner.Partitioner;
 import org.astraea.common.producer.Producer;
-import org.astraea.common.producer.Record;
 
 public interface ProducerThread extends AbstractThread {
 
@@ -43,16 +45,45 @@ public interface ProducerThread extends AbstractThread {
 
   String AVG_PROPERTY = "avg";
   String ID_PROPERTY = "client-id";
+  String BACKLOG_PROPERTY = "backlog";
+
+  // client id and the distribution of publish latency (in microseconds). It is removed when the
+  // producer is closed
+  ConcurrentMap<String, Histogram> LATENCY_HISTOGRAMS = new ConcurrentHashMap<>();
+
+  // client id and the cost of transactions. Only the transactional producers are tracked
+  ConcurrentMap<String, TransactionStats> TRANSACTION_STATS = new ConcurrentHashMap<>();
 
   static List<ProducerThread> create(
-      List<ArrayBlockingQueue<List<Record<byte[], byte[]>>>> queues,
+      List<DataQueue> queues,
       Supplier<Producer<byte[], byte[]>> producerSupplier,
-      int interdependent) {
+      int interdependent,
+      Optional<Schedule> schedule) {
+    return create(
+        queues, producerSupplier, interdependent, schedule, false, PartitionReporter.EMPTY);
+  }
+
+  /**
+   * @param queues the data queue of each producer
+   * @param producerSupplier create the producer
+   * @param interdependent the number of records sent to the same partition
+   * @param schedule the schedule of open-loop mode
+   * @param virtual true if the producers run on virtual threads
+   * @param reporter counts the produced records of each partition
+   * @return the producer threads
+   */
+  static List<ProducerThread> create(
+      List<DataQueue> queues,
+      Supplier<Producer<byte[], byte[]>> producerSupplier,
+      int interdependent,
+      Optional<Schedule> schedule,
+      boolean virtual,
+      PartitionReporter reporter) {
     var producers = queues.size();
     if (producers <= 0) return List.of();
     var closeLatches =
         IntStream.range(0, producers).mapToObj(ignored -> new CountDownLatch(1)).toList();
-    var executors = Executors.newFixedThreadPool(producers);
+    var executors = AbstractThread.executor(producers, virtual);
     // monitor
     CompletableFuture.runAsync(
         () -> {
@@ -70,14 +101,27 @@ public interface ProducerThread extends AbstractThread {
               var closed = new AtomicBoolean(false);
               var producer = producerSupplier.get();
               var queue = queues.get(index);
-              var sensor = Sensor.builder().addStat(AVG_PROPERTY, Avg.of()).build();
+              // the average is weighted by records, so the batches of different sizes don't skew it
+              var latencySum = new DoubleAdder();
+              var latencyCount = new LongAdder();
+              var histogram =
+                  LATENCY_HISTOGRAMS.computeIfAbsent(
+                      producer.clientId(), ignored -> Histogram.of());
               // export the custom jmx for report thread
-              MBeanRegister.local()
-                  .domainName(DOMAIN_NAME)
-                  .property(TYPE_PROPERTY, TYPE_VALUE)
-                  .property(ID_PROPERTY, producer.clientId())
-                  .attribute(AVG_PROPERTY, Double.class, () -> sensor.measure(AVG_PROPERTY))
-                  .register();
+              var register =
+                  MBeanRegister.local()
+                      .domainName(DOMAIN_NAME)
+                      .property(TYPE_PROPERTY, TYPE_VALUE)
+                      .property(ID_PROPERTY, producer.clientId())
+                      .attribute(
+                          AVG_PROPERTY,
+                          Double.class,
+                          () -> {
+                            var count = latencyCount.sum();
+                            return count == 0 ? Double.NaN : latencySum.sum() / count;
+                          });
+              schedule.ifPresent(s -> register.attribute(BACKLOG_PROPERTY, Long.class, s::backlog));
+              register.register();
               executors.execute(
                   () -> {
                     try {
@@ -85,25 +129,38 @@ public interface ProducerThread extends AbstractThread {
 
                       while (!closed.get()) {
 
-                        var data = queue.poll(3, TimeUnit.SECONDS);
+                        var batch = queue.poll(Duration.ofSeconds(3));
+                        var data = batch == null ? null : batch.records();
 
                         // Using interdependent
                         if (interdependent > 1 && data != null) {
                           Partitioner.beginInterdependent(producer);
                           interdependentCounter += data.size();
                         }
-                        var now = System.currentTimeMillis();
-                        if (data != null)
+                        // track the whole batch by single callback to reduce the cost of futures
+                        if (data != null) {
+                          // open-loop mode measures the latency from the intended send time
+                          var delay =
+                              schedule.isPresent()
+                                  ? Math.max(0, System.nanoTime() - batch.intendedTime())
+                                  : 0;
+                          schedule.ifPresent(s -> s.sent(data.size()));
                           producer
-                              .send(data)
-                              .forEach(
-                                  f ->
-                                      f.whenComplete(
-                                          (r, e) -> {
-                                            if (e == null)
-                                              sensor.record(
-                                                  (double) (System.currentTimeMillis() - now));
-                                          }));
+                              .sendBatch(
+                                  data,
+                                  (topic, partition, offset, bytes, latency) -> {
+                                    histogram.recordValue((delay + latency) / 1000);
+                                    reporter.produced(topic, partition, offset, bytes);
+                                  })
+                              .whenComplete(
+                                  (r, e) -> {
+                                    if (r != null && r.succeeded() > 0) {
+                                      latencySum.add(
+                                          (r.avgLatency() + delay / 1_000_000D) * r.succeeded());
+                                      latencyCount.add(r.succeeded());
+                                    }
+                                  });
+                        }
 
                         // End interdependent
                         if (interdependent > 1 && interdependentCounter >= interdependent) {
@@ -117,6 +174,7 @@ public interface ProducerThread extends AbstractThread {
                             e + ", The producer thread was prematurely closed.");
                     } finally {
                       Utils.close(producer);
+                      LATENCY_HISTOGRAMS.remove(producer.clientId());
                       closeLatch.countDown();
                       closed.set(true);
                     }
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.astraea.common.Utils;
+import org.astraea.common.metrics.JndiClient;
+import org.astraea.common.metrics.client.producer.HasProducerTopicMetrics;
+import org.astraea.common.metrics.client.producer.ProducerMetrics;
+import org.astraea.common.metrics.stats.Histogram;
+
+/**
+ * Search the saturation point of cluster by raising the rate of open-loop mode step by step. Each
+ * step is held until the throughput and p99 latency are stable, and the search stops when the p99
+ * latency or error rate crosses the threshold.
+ */
+interface Ramp {
+
+  /** the interval to sample the throughput and latency */
+  Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+  /** the number of successive samples which should be close to each other in a stable step */
+  int STABLE_SAMPLES = 3;
+
+  /** the max relative difference between the samples of a stable step */
+  double STABLE_DIFFERENCE = 0.1;
+
+  /**
+   * @param targetRate the rate (records/second) of open-loop mode
+   * @param throughput the achieved throughput (records/second)
+   * @param p50 the p50 publish latency (in milliseconds)
+   * @param p99 the p99 publish latency (in milliseconds)
+   * @param errorRate the ratio of failed records
+   */
+  record Step(long targetRate, double throughput, double p50, double p99, double errorRate) {
+
+    boolean exceeds(Duration maxP99, double maxErrorRate) {
+      return p99 > maxP99.toNanos() / 1_000_000D || errorRate > maxErrorRate;
+    }
+  }
+
+  /**
+   * @param latencies the publish latency of all records
+   * @param errors the number of failed records
+   * @param time the sampled time (in {@link System#nanoTime()})
+   */
+  record Sample(Histogram.Snapshot latencies, long errors, long time) {
+
+    static Sample now() {
+      return new Sample(
+          ProducerThread.LATENCY_HISTOGRAMS.values().stream()
+              .map(Histogram::totalSnapshot)
+              .reduce(Histogram.Snapshot.EMPTY, Histogram.Snapshot::merge),
+          (long)
+              ProducerMetrics.topic(JndiClient.local()).stream()
+                  .mapToDouble(HasProducerTopicMetrics::recordErrorTotal)
+                  .filter(d -> !Double.isNaN(d))
+                  .sum(),
+          System.nanoTime());
+    }
+
+    /**
+     * @param targetRate of the step
+     * @param previous sample
+     * @return the step from previous sample to this sample
+     */
+    Step since(long targetRate, Sample previous) {
+      var latencies = this.latencies.minus(previous.latencies);
+      var errors = this.errors - previous.errors;
+      var seconds = (time - previous.time) / 1_000_000_000D;
+      return new Step(
+          targetRate,
+          latencies.count() / seconds,
+          latencies.percentile(50) / 1000D,
+          latencies.percentile(99) / 1000D,
+          errors == 0 ? 0 : (double) errors / (errors + latencies.count()));
+    }
+  }
+
+  /**
+   * @param schedule of open-loop mode
+   * @param argument of performance
+   * @param done the search stops if the generators are done
+   * @return the steps of the search
+   */
+  static List<Step> search(Schedule schedule, Performance.Argument argument, BooleanSupplier done) {
+    var steps = new ArrayList<Step>();
+    var rate = argument.openLoopRate == null ? argument.rampStep : argument.openLoopRate;
+    while (!done.getAsBoolean()) {
+      schedule.rate(rate);
+      var step = hold(rate, argument.rampStepDuration, done);
+      if (step.isEmpty()) break;
+      steps.add(step.get());
+      System.out.printf(
+          "ramp step: target %d records/second, throughput %.1f records/second, p50 %.3f ms, p99"
+              + " %.3f ms, error rate %.4f%n",
+          rate,
+          step.get().throughput(),
+          step.get().p50(),
+          step.get().p99(),
+          step.get().errorRate());
+      if (step.get().exceeds(argument.rampMaxP99, argument.rampMaxErrorRate)) break;
+      rate += argument.rampStep;
+    }
+    return steps;
+  }
+
+  /**
+   * hold the rate until the throughput and p99 latency of last samples are stable, or the max
+   * duration elapses.
+   *
+   * @return the step measured by the stable samples, or empty if the generators are done
+   */
+  private static Optional<Step> hold(long rate, Duration maxDuration, BooleanSupplier done) {
+    var samples = new ArrayList<Sample>();
+    samples.add(Sample.now());
+    var end = System.nanoTime() + maxDuration.toNanos();
+    while (!done.getAsBoolean()) {
+      Utils.sleep(SAMPLE_INTERVAL);
+      samples.add(Sample.now());
+      var last = samples.size() - 1;
+      var first = Math.max(0, last - STABLE_SAMPLES);
+      var intervals =
+          IntStream.range(first, last)
+              .mapToObj(i -> samples.get(i + 1).since(rate, samples.get(i)))
+              .toList();
+      if ((intervals.size() == STABLE_SAMPLES && stable(intervals)) || System.nanoTime() >= end)
+        return Optional.of(samples.get(last).since(rate, samples.get(first)));
+    }
+    return Optional.empty();
+  }
+
+  private static boolean stable(List<Step> intervals) {
+    return stable(intervals.stream().mapToDouble(Step::throughput).toArray())
+        && stable(intervals.stream().mapToDouble(Step::p99).toArray());
+  }
+
+  private static boolean stable(double[] values) {
+    var max = Arrays.stream(values).max().orElse(0);
+    var min = Arrays.stream(values).min().orElse(0);
+    return max - min <= max * STABLE_DIFFERENCE;
+  }
+
+  /**
+   * @return the step having the highest rate before the p99 latency or error rate crosses the
+   *     threshold
+   */
+  static Optional<Step> knee(List<Step> steps, Duration maxP99, double maxErrorRate) {
+    return steps.stream()
+        .takeWhile(s -> !s.exceeds(maxP99, maxErrorRate))
+        .reduce((first, second) -> second);
+  }
+}
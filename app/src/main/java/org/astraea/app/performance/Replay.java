@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import org.astraea.common.backup.RecordReader;
+import org.astraea.common.consumer.Record;
+
+/**
+ * Replay the records captured by the exporter. The layout of backups is
+ * "root/topic/partition/offset", and the records of all given partitions are replayed in the order
+ * of their timestamps. The backup files are memory-mapped, so the trace is not copied into heap
+ * before it is parsed.
+ */
+interface Replay {
+
+  /**
+   * @param root the root folder of backups, or the folder of topic or partition
+   * @return the partition folders under the root, or the root itself if it has backup files
+   */
+  static List<Path> partitions(Path root) {
+    if (!Files.isDirectory(root))
+      throw new IllegalArgumentException(root + " is not a folder of backups");
+    try (var paths = Files.walk(root)) {
+      var folders =
+          paths
+              .filter(Files::isDirectory)
+              .filter(folder -> !backups(folder).isEmpty())
+              .sorted()
+              .toList();
+      if (folders.isEmpty()) throw new IllegalArgumentException("no backups in " + root);
+      return folders;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @param folder of partition
+   * @return the backup files sorted by the first offset. The other files, such as the partition
+   *     index, are excluded.
+   */
+  private static List<Path> backups(Path folder) {
+    try (var files = Files.list(folder)) {
+      return files
+          .filter(Files::isRegularFile)
+          .filter(f -> f.getFileName().toString().matches("[0-9]+"))
+          .sorted(Comparator.comparingLong(f -> Long.parseLong(f.getFileName().toString())))
+          .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @param folders of partitions to replay
+   * @return the replay merging the records of all partitions by their timestamps
+   */
+  static Replay of(List<Path> folders) {
+    // the head record of each partition
+    var heads =
+        new PriorityQueue<Head>(
+            Comparator.comparingLong((Head head) -> head.record().timestamp())
+                .thenComparing(head -> head.record().topic())
+                .thenComparingInt(head -> head.record().partition()));
+    folders.stream()
+        .map(folder -> records(backups(folder)))
+        .forEach(records -> Head.next(records).ifPresent(heads::add));
+    return new Replay() {
+      @Override
+      public OptionalLong timestamp() {
+        var head = heads.peek();
+        return head == null ? OptionalLong.empty() : OptionalLong.of(head.record().timestamp());
+      }
+
+      @Override
+      public List<Record<byte[], byte[]>> next(int records) {
+        var result = new ArrayList<Record<byte[], byte[]>>(records);
+        while (result.size() < records && !heads.isEmpty()) {
+          var head = heads.poll();
+          result.add(head.record());
+          Head.next(head.records()).ifPresent(heads::add);
+        }
+        return result;
+      }
+    };
+  }
+
+  /**
+   * @param files to read
+   * @return the records of all files. The next file is mapped after the previous file is read.
+   */
+  private static Iterator<Record<byte[], byte[]>> records(List<Path> files) {
+    var remaining = new LinkedList<>(files);
+    return new Iterator<>() {
+      private Iterator<Record<byte[], byte[]>> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext() && !remaining.isEmpty()) current = reader(remaining.poll());
+        return current.hasNext();
+      }
+
+      @Override
+      public Record<byte[], byte[]> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+      }
+    };
+  }
+
+  private static RecordReader reader(Path file) {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // FileChannel can't map the file larger than 2GB
+      if (channel.size() > Integer.MAX_VALUE) return RecordReader.builder(file.toFile()).build();
+      return RecordReader.builder(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+          .build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return the timestamp of next record, or empty if all records are replayed
+   */
+  OptionalLong timestamp();
+
+  /**
+   * @param records the max number of records to return
+   * @return the next records in the order of timestamps, or empty if all records are replayed
+   */
+  List<Record<byte[], byte[]>> next(int records);
+
+  /** the head record and the remaining records of a partition */
+  record Head(Record<byte[], byte[]> record, Iterator<Record<byte[], byte[]>> records) {
+
+    private static Optional<Head> next(Iterator<Record<byte[], byte[]>> records) {
+      return records.hasNext() ? Optional.of(new Head(records.next(), records)) : Optional.empty();
+    }
+  }
+}
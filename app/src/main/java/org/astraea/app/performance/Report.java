@@ -24,9 +24,32 @@ import org.astraea.common.metrics.JndiClient;
 import org.astraea.common.metrics.client.consumer.ConsumerMetrics;
 import org.astraea.common.metrics.client.consumer.HasConsumerFetchMetrics;
 import org.astraea.common.metrics.client.producer.ProducerMetrics;
+import org.astraea.common.metrics.stats.Histogram;
 
 public interface Report {
 
+  /** the percentiles of latency to report */
+  List<Double> PERCENTILES = List.of(50D, 90D, 99D, 99.9D, 99.99D);
+
+  /**
+   * @param percentile to name
+   * @return the name like p50 and p99.9
+   */
+  static String percentileName(double percentile) {
+    return "p"
+        + (percentile == Math.rint(percentile)
+            ? String.valueOf((long) percentile)
+            : String.valueOf(percentile));
+  }
+
+  /**
+   * @param reports to merge
+   * @return the distribution of latency of all reports
+   */
+  static Optional<Histogram.Snapshot> latencies(List<Report> reports) {
+    return reports.stream().flatMap(r -> r.latencies().stream()).reduce(Histogram.Snapshot::merge);
+  }
+
   static long recordsConsumedTotal() {
     var client = JndiClient.local();
     return (long)
@@ -41,6 +64,11 @@ public interface Report {
         .map(
             m ->
                 new Report() {
+                  // the histogram is removed from the map when the client is closed, so it is
+                  // captured to keep the latencies of the closed client
+                  private final Optional<Histogram> histogram =
+                      Optional.ofNullable(ConsumerThread.LATENCY_HISTOGRAMS.get(m.clientId()));
+
                   @Override
                   public long records() {
                     return (long) m.recordsConsumedTotal();
@@ -71,6 +99,11 @@ public interface Report {
                     return m.clientId();
                   }
 
+                  @Override
+                  public Optional<Histogram.Snapshot> latencies() {
+                    return histogram.map(Histogram::totalSnapshot);
+                  }
+
                   @Override
                   public Optional<Double> e2eLatency() {
                     return Optional.ofNullable(
@@ -95,6 +128,11 @@ public interface Report {
         .map(
             m ->
                 new Report() {
+                  // the histogram is removed from the map when the client is closed, so it is
+                  // captured to keep the latencies of the closed client
+                  private final Optional<Histogram> histogram =
+                      Optional.ofNullable(ProducerThread.LATENCY_HISTOGRAMS.get(m.clientId()));
+
                   @Override
                   public long records() {
                     return (long) m.recordSendTotal();
@@ -110,6 +148,27 @@ public interface Report {
                     return m.requestLatencyAvg();
                   }
 
+                  @Override
+                  public Optional<Histogram.Snapshot> latencies() {
+                    return histogram.map(Histogram::totalSnapshot);
+                  }
+
+                  @Override
+                  public Optional<Long> backlog() {
+                    return Optional.ofNullable(
+                            JndiClient.local()
+                                .bean(
+                                    BeanQuery.builder()
+                                        .domainName(ProducerThread.DOMAIN_NAME)
+                                        .property(
+                                            ProducerThread.TYPE_PROPERTY, ProducerThread.TYPE_VALUE)
+                                        .property(ProducerThread.ID_PROPERTY, m.clientId())
+                                        .build())
+                                .attributes()
+                                .get(ProducerThread.BACKLOG_PROPERTY))
+                        .map(v -> (long) v);
+                  }
+
                   @Override
                   public Optional<Double> e2eLatency() {
                     return Optional.ofNullable(
@@ -167,6 +226,21 @@ public interface Report {
     return Optional.empty();
   }
 
+  /**
+   * @return the distribution of latency (in microseconds) of each record. It is the publish latency
+   *     for producer and the end-to-end latency for consumer.
+   */
+  default Optional<Histogram.Snapshot> latencies() {
+    return Optional.empty();
+  }
+
+  /**
+   * @return the number of records which are due by now but not yet sent in open-loop mode
+   */
+  default Optional<Long> backlog() {
+    return Optional.empty();
+  }
+
   /**
    * @return total send/received bytes
    */
@@ -21,6 +21,7 @@ import com.beust.jcommander.ParameterException;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.text.SimpleDateFormat;
@@ -28,12 +29,19 @@ import java.time.Duration;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.astraea.common.EnumInfo;
 import org.astraea.common.Utils;
+import org.astraea.common.metrics.stats.Histogram;
 
 public enum ReportFormat implements EnumInfo {
   CSV("csv"),
@@ -70,6 +78,21 @@ public enum ReportFormat implements EnumInfo {
       Path path,
       Supplier<Boolean> consumerDone,
       Supplier<Boolean> producerDone) {
+    return createFileWriter(
+        reportFormat, path, consumerDone, producerDone, Report::producers, Report::consumers);
+  }
+
+  /**
+   * @param producerReports the reports of producers. For example, the reports sent by workers
+   * @param consumerReports the reports of consumers
+   */
+  public static Runnable createFileWriter(
+      ReportFormat reportFormat,
+      Path path,
+      Supplier<Boolean> consumerDone,
+      Supplier<Boolean> producerDone,
+      Supplier<List<Report>> producerReports,
+      Supplier<List<Report>> consumerReports) {
     var filePath =
         FileSystems.getDefault()
             .getPath(
@@ -79,13 +102,20 @@ public enum ReportFormat implements EnumInfo {
                     + "."
                     + reportFormat);
     var writer = new BufferedWriter(Utils.packException(() -> new FileWriter(filePath.toFile())));
+    var producerLatencies = new IntervalLatencies();
+    var consumerLatencies = new IntervalLatencies();
     switch (reportFormat) {
       case CSV -> {
-        initCSVFormat(writer, latencyAndIO());
+        initCSVFormat(
+            writer,
+            latencyAndIO(producerReports, consumerReports, producerLatencies, consumerLatencies));
         return () -> {
           try {
             while (!(producerDone.get() && consumerDone.get())) {
-              logToCSV(writer, latencyAndIO());
+              logToCSV(
+                  writer,
+                  latencyAndIO(
+                      producerReports, consumerReports, producerLatencies, consumerLatencies));
               Utils.sleep(Duration.ofSeconds(1));
             }
           } finally {
@@ -98,7 +128,10 @@ public enum ReportFormat implements EnumInfo {
         return () -> {
           try {
             while (!(producerDone.get() && consumerDone.get())) {
-              logToJSON(writer, latencyAndIO());
+              logToJSON(
+                  writer,
+                  latencyAndIO(
+                      producerReports, consumerReports, producerLatencies, consumerLatencies));
               Utils.sleep(Duration.ofSeconds(1));
             }
           } finally {
@@ -110,6 +143,211 @@ public enum ReportFormat implements EnumInfo {
     }
   }
 
+  /**
+   * Write the records, bytes and lag of each partition every second. The file is columnar: each
+   * line of CSV is a metric of a topic and each column is a partition. Each line of JSON is a topic
+   * having an array (indexed by partition id) of each metric.
+   *
+   * @param reportFormat of file
+   * @param path the folder to write the file
+   * @param reporter counting the records of each partition
+   * @param done true if the clients are done
+   */
+  public static Runnable createPartitionWriter(
+      ReportFormat reportFormat, Path path, PartitionReporter reporter, Supplier<Boolean> done) {
+    var filePath =
+        FileSystems.getDefault()
+            .getPath(
+                path.toString(),
+                "Partition"
+                    + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date())
+                    + "."
+                    + reportFormat);
+    var writer = new BufferedWriter(Utils.packException(() -> new FileWriter(filePath.toFile())));
+    var start = System.currentTimeMillis();
+    var first = reporter.snapshot();
+    if (reportFormat == CSV) {
+      var partitions =
+          first.values().stream().mapToInt(PartitionReporter.Counters::partitions).max().orElse(0);
+      Utils.packException(
+          () -> {
+            writer.write("Time (sec), Topic, Metric");
+            for (var i = 0; i != partitions; ++i) writer.write(", Partition " + i);
+            writer.newLine();
+          });
+    }
+    return () -> {
+      try {
+        var previous = first;
+        while (true) {
+          var finished = done.get();
+          Utils.sleep(Duration.ofSeconds(1));
+          var current = reporter.snapshot();
+          var time = (System.currentTimeMillis() - start) / 1000;
+          for (var entry : current.entrySet()) {
+            var metrics = partitionMetrics(entry.getValue().minus(previous.get(entry.getKey())));
+            switch (reportFormat) {
+              case CSV -> {
+                for (var metric : metrics.entrySet()) {
+                  writer.write(time + ", " + entry.getKey() + ", " + metric.getKey());
+                  for (var value : metric.getValue()) writer.write(", " + value);
+                  writer.newLine();
+                }
+              }
+              case JSON -> {
+                writer.write("{\"Time (sec)\":" + time + ",\"Topic\":\"" + entry.getKey() + "\"");
+                for (var metric : metrics.entrySet())
+                  writer.write(
+                      ",\""
+                          + metric.getKey()
+                          + "\":"
+                          + Arrays.stream(metric.getValue())
+                              .mapToObj(Long::toString)
+                              .collect(Collectors.joining(",", "[", "]")));
+                writer.write("}");
+                writer.newLine();
+              }
+              default -> throw new IllegalArgumentException("Invalid format.");
+            }
+          }
+          previous = current;
+          if (finished) return;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        Utils.close(writer);
+      }
+    };
+  }
+
+  /**
+   * @return the records and bytes of the interval and the current lag of each partition
+   */
+  private static Map<String, long[]> partitionMetrics(PartitionReporter.Counters counters) {
+    var metrics = new LinkedHashMap<String, long[]>();
+    metrics.put("Produced records", counters.producedRecords());
+    metrics.put("Produced bytes", counters.producedBytes());
+    metrics.put("Consumed records", counters.consumedRecords());
+    metrics.put("Consumed bytes", counters.consumedBytes());
+    metrics.put("Lag (records)", counters.lags());
+    return metrics;
+  }
+
+  /**
+   * Write the throughput-versus-latency curve of ramp mode.
+   *
+   * @param reportFormat of file
+   * @param path the folder to write the file
+   * @param steps of ramp mode
+   * @param knee the step having the highest rate before the thresholds are crossed
+   */
+  public static void writeCurve(
+      ReportFormat reportFormat, Path path, List<Ramp.Step> steps, Optional<Ramp.Step> knee) {
+    writeSteps(
+        reportFormat,
+        path,
+        "Ramp",
+        curve(new Ramp.Step(0, 0, 0, 0, 0), knee),
+        steps.stream().map(step -> curve(step, knee)).toList());
+  }
+
+  private static List<CSVContentElement> curve(Ramp.Step step, Optional<Ramp.Step> knee) {
+    return List.of(
+        CSVContentElement.create(
+            "Target rate (records/second)", () -> Long.toString(step.targetRate())),
+        CSVContentElement.create(
+            "Throughput (records/second)", () -> Double.toString(step.throughput())),
+        CSVContentElement.create("Publish latency p50 (ms)", () -> Double.toString(step.p50())),
+        CSVContentElement.create("Publish latency p99 (ms)", () -> Double.toString(step.p99())),
+        CSVContentElement.create("Error rate", () -> Double.toString(step.errorRate())),
+        CSVContentElement.create(
+            "Knee", () -> Boolean.toString(knee.filter(k -> k == step).isPresent())));
+  }
+
+  /**
+   * Write the steps of sweep mode to a file, one row for each transaction size.
+   *
+   * @param reportFormat the format of file
+   * @param path the folder to write the file
+   * @param steps the measured transaction sizes
+   * @param best the step having the highest throughput
+   */
+  public static void writeSweep(
+      ReportFormat reportFormat, Path path, List<Sweep.Step> steps, Optional<Sweep.Step> best) {
+    writeSteps(
+        reportFormat,
+        path,
+        "Sweep",
+        sweep(new Sweep.Step(0, 0, 0, 0, 0, 0, 0), best),
+        steps.stream().map(step -> sweep(step, best)).toList());
+  }
+
+  private static List<CSVContentElement> sweep(Sweep.Step step, Optional<Sweep.Step> best) {
+    return List.of(
+        CSVContentElement.create(
+            "Transaction size (records)", () -> Integer.toString(step.transactionSize())),
+        CSVContentElement.create(
+            "Throughput (records/second)", () -> Double.toString(step.throughput())),
+        CSVContentElement.create(
+            "Transactions (transactions/second)", () -> Double.toString(step.transactions())),
+        CSVContentElement.create(
+            "Commit latency p50 (ms)", () -> Double.toString(step.commitP50())),
+        CSVContentElement.create(
+            "Commit latency p99 (ms)", () -> Double.toString(step.commitP99())),
+        CSVContentElement.create(
+            "Begin to first ack p99 (ms)", () -> Double.toString(step.beginP99())),
+        CSVContentElement.create("Abort rate", () -> Double.toString(step.abortRate())),
+        CSVContentElement.create(
+            "Best", () -> Boolean.toString(best.filter(b -> b == step).isPresent())));
+  }
+
+  /**
+   * @param prefix of the file name
+   * @param titles the elements providing the titles of CSV
+   * @param rows the elements of each row
+   */
+  private static void writeSteps(
+      ReportFormat reportFormat,
+      Path path,
+      String prefix,
+      List<CSVContentElement> titles,
+      List<List<CSVContentElement>> rows) {
+    var filePath =
+        FileSystems.getDefault()
+            .getPath(
+                path.toString(),
+                prefix
+                    + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date())
+                    + "."
+                    + reportFormat);
+    try (var writer =
+        new BufferedWriter(Utils.packException(() -> new FileWriter(filePath.toFile())))) {
+      switch (reportFormat) {
+        case CSV -> {
+          initCSVFormat(writer, titles);
+          rows.forEach(row -> logToCSV(writer, row));
+        }
+        case JSON -> {
+          writer.write("[");
+          for (var i = 0; i < rows.size(); ++i) {
+            if (i > 0) writer.write(",");
+            writer.newLine();
+            writer.write(
+                rows.get(i).stream()
+                    .map(element -> "\"" + element.title() + "\":" + element.value())
+                    .collect(Collectors.joining(",", "{", "}")));
+          }
+          writer.newLine();
+          writer.write("]");
+        }
+        default -> throw new IllegalArgumentException("Invalid format.");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   static void initCSVFormat(BufferedWriter writer, List<CSVContentElement> elements) {
     elements.forEach(element -> Utils.packException(() -> writer.write(element.title() + ", ")));
     Utils.packException(writer::newLine);
@@ -158,9 +396,20 @@ public enum ReportFormat implements EnumInfo {
     }
   }
 
-  private static List<CSVContentElement> latencyAndIO() {
-    var producerReports = Report.producers();
-    var consumerReports = Report.consumers();
+  /**
+   * @param producerLatencies the latencies of producers in previous row. The percentiles of each
+   *     row are computed by the latencies which are recorded since previous row.
+   * @param consumerLatencies the latencies of consumers in previous row
+   */
+  private static List<CSVContentElement> latencyAndIO(
+      Supplier<List<Report>> producerReportSupplier,
+      Supplier<List<Report>> consumerReportSupplier,
+      IntervalLatencies producerLatencies,
+      IntervalLatencies consumerLatencies) {
+    var producerReports = producerReportSupplier.get();
+    var consumerReports = consumerReportSupplier.get();
+    var producerInterval = producerLatencies.next(producerReports);
+    var consumerInterval = consumerLatencies.next(consumerReports);
     var elements = new ArrayList<CSVContentElement>();
     elements.add(
         CSVContentElement.create(
@@ -183,6 +432,29 @@ public enum ReportFormat implements EnumInfo {
             () ->
                 Long.toString(
                     consumerReports.stream().mapToLong(Report::maxLatency).max().orElse(0))));
+    elements.add(
+        CSVContentElement.create(
+            "Open-loop backlog (records)",
+            () ->
+                producerReports.stream()
+                    .flatMap(r -> r.backlog().stream())
+                    .mapToLong(v -> v)
+                    .max()
+                    .stream()
+                    .mapToObj(Long::toString)
+                    .findFirst()
+                    .orElse("0")));
+    Report.PERCENTILES.forEach(
+        p -> {
+          elements.add(
+              CSVContentElement.create(
+                  "Publish latency " + Report.percentileName(p) + " (ms)",
+                  () -> percentile(producerInterval, p)));
+          elements.add(
+              CSVContentElement.create(
+                  "End-to-end latency " + Report.percentileName(p) + " (ms)",
+                  () -> percentile(consumerInterval, p)));
+        });
     IntStream.range(0, producerReports.size())
         .forEach(
             i -> {
@@ -227,6 +499,48 @@ public enum ReportFormat implements EnumInfo {
     return elements;
   }
 
+  /**
+   * @return the percentile (in milliseconds) of the latencies, or NaN if there is no record
+   */
+  private static String percentile(Optional<Histogram.Snapshot> latencies, double percentile) {
+    return latencies
+        .filter(s -> s.count() > 0)
+        .map(s -> Double.toString(s.percentile(percentile) / 1000D))
+        .orElse(Double.toString(Double.NaN));
+  }
+
+  /**
+   * Keep the latest snapshot of each client, so the latencies of a row are not accumulated from the
+   * start. The clients are tracked separately since the closed clients are removed from the
+   * reports.
+   */
+  static class IntervalLatencies {
+    private final Map<String, Histogram.Snapshot> last = new HashMap<>();
+
+    /**
+     * @param reports the latest reports
+     * @return the distribution of the latencies which are recorded since the last call
+     */
+    Optional<Histogram.Snapshot> next(List<Report> reports) {
+      var current = new HashMap<String, Histogram.Snapshot>();
+      reports.forEach(r -> r.latencies().ifPresent(s -> current.put(r.clientId(), s)));
+      var interval =
+          current.entrySet().stream()
+              .map(
+                  e -> {
+                    var previous = last.getOrDefault(e.getKey(), Histogram.Snapshot.EMPTY);
+                    // the client is recreated by the same id
+                    if (previous.count() > e.getValue().count())
+                      previous = Histogram.Snapshot.EMPTY;
+                    return e.getValue().minus(previous);
+                  })
+              .reduce(Histogram.Snapshot::merge);
+      last.clear();
+      last.putAll(current);
+      return interval;
+    }
+  }
+
   @Override
   public String toString() {
     return alias();
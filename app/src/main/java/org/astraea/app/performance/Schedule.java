@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The fixed-rate schedule of open-loop mode. Each record gets an intended send time from the
+ * schedule, and the latency is measured from the intended time rather than the time the record is
+ * really sent. Hence, a stalled broker increases the reported latency and backlog instead of
+ * slowing down the load (coordinated omission).
+ */
+interface Schedule {
+
+  /**
+   * @param recordsPerSecond the fixed rate of records
+   * @return the schedule starting from now
+   */
+  static Schedule of(long recordsPerSecond) {
+    checkRate(recordsPerSecond);
+    var startNanos = System.nanoTime();
+    var startMillis = System.currentTimeMillis();
+    // the intended send time of next record
+    var nextTime = new AtomicLong(startNanos);
+    var rate = new AtomicLong(recordsPerSecond);
+    var claimed = new AtomicLong();
+    var sent = new LongAdder();
+    var finished = new AtomicBoolean(false);
+    return new Schedule() {
+      @Override
+      public long next(int records) {
+        claimed.addAndGet(records);
+        return nextTime.getAndAdd((long) (records * 1_000_000_000D / rate.get()));
+      }
+
+      @Override
+      public long toMillis(long intendedTime) {
+        return startMillis + (intendedTime - startNanos) / 1_000_000;
+      }
+
+      @Override
+      public void rate(long recordsPerSecond) {
+        checkRate(recordsPerSecond);
+        rate.set(recordsPerSecond);
+      }
+
+      @Override
+      public void sent(int records) {
+        sent.add(records);
+      }
+
+      @Override
+      public void cancel(int records) {
+        claimed.addAndGet(-records);
+      }
+
+      @Override
+      public void finish() {
+        finished.set(true);
+      }
+
+      @Override
+      public long backlog() {
+        // the records which are not claimed yet are due also if the generators are behind
+        var due =
+            finished.get()
+                ? claimed.get()
+                : claimed.get()
+                    + (long) ((System.nanoTime() - nextTime.get()) / 1_000_000_000D * rate.get());
+        return Math.max(0, due - sent.sum());
+      }
+    };
+  }
+
+  private static void checkRate(long recordsPerSecond) {
+    if (recordsPerSecond <= 0) throw new IllegalArgumentException("the rate must be positive");
+  }
+
+  /**
+   * claim the next records of the schedule.
+   *
+   * @param records to claim
+   * @return the intended send time (in {@link System#nanoTime()}) of the records
+   */
+  long next(int records);
+
+  /**
+   * @param intendedTime the intended send time (in {@link System#nanoTime()})
+   * @return the intended send time in epoch milliseconds
+   */
+  long toMillis(long intendedTime);
+
+  /**
+   * change the rate of the records which are not claimed yet.
+   *
+   * @param recordsPerSecond the new rate
+   */
+  void rate(long recordsPerSecond);
+
+  /**
+   * @param records which are handed to the producer
+   */
+  void sent(int records);
+
+  /**
+   * give up the claimed records which are never sent, so they are not counted as backlog. The time
+   * slot of them is not reused.
+   *
+   * @param records which are claimed by {@link #next(int)}
+   */
+  void cancel(int records);
+
+  /** no more records will be claimed. */
+  void finish();
+
+  /**
+   * @return the number of records which are due by now but not yet sent
+   */
+  long backlog();
+
+  /**
+   * wait for the intended send time. It returns immediately if the intended time is passed
+   *
+   * @param intendedTime the intended send time (in {@link System#nanoTime()})
+   */
+  static void waitFor(long intendedTime) throws InterruptedException {
+    long remaining;
+    while ((remaining = intendedTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.interrupted()) throw new InterruptedException();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.astraea.common.Utils;
+import org.astraea.common.metrics.stats.Histogram;
+
+/**
+ * Sweep the transaction size of transactional producers. Each size is held for a fixed duration,
+ * and the throughput and the cost of transactions are measured. The bigger transaction amortizes
+ * the round trips to the transaction coordinator over more records, but the consumers reading
+ * committed records have to wait for longer commit. The curve shows where the throughput stops
+ * growing.
+ */
+interface Sweep {
+
+  /** the time to complete the transactions of previous size before measuring a step */
+  Duration WARMUP = Duration.ofSeconds(1);
+
+  /**
+   * @param transactionSize the number of records in each transaction
+   * @param throughput the achieved throughput (records/second)
+   * @param transactions the committed transactions per second
+   * @param commitP50 the p50 latency (in milliseconds) to commit a transaction
+   * @param commitP99 the p99 latency (in milliseconds) to commit a transaction
+   * @param beginP99 the p99 latency (in milliseconds) from beginning a transaction to the first
+   *     acknowledged record
+   * @param abortRate the ratio of aborted transactions
+   */
+  record Step(
+      int transactionSize,
+      double throughput,
+      double transactions,
+      double commitP50,
+      double commitP99,
+      double beginP99,
+      double abortRate) {}
+
+  /**
+   * @param latencies the publish latency of all records
+   * @param transactions the transactions of all producers
+   * @param time the sampled time (in {@link System#nanoTime()})
+   */
+  record Sample(Histogram.Snapshot latencies, TransactionStats.Snapshot transactions, long time) {
+
+    static Sample now() {
+      return new Sample(
+          ProducerThread.LATENCY_HISTOGRAMS.values().stream()
+              .map(Histogram::totalSnapshot)
+              .reduce(Histogram.Snapshot.EMPTY, Histogram.Snapshot::merge),
+          TransactionStats.total(),
+          System.nanoTime());
+    }
+
+    /**
+     * @param transactionSize of the step
+     * @param previous sample
+     * @return the step from previous sample to this sample
+     */
+    Step since(int transactionSize, Sample previous) {
+      var latencies = this.latencies.minus(previous.latencies);
+      var transactions = this.transactions.minus(previous.transactions);
+      var seconds = (time - previous.time) / 1_000_000_000D;
+      return new Step(
+          transactionSize,
+          latencies.count() / seconds,
+          transactions.commits() / seconds,
+          transactions.commit().percentile(50) / 1000D,
+          transactions.commit().percentile(99) / 1000D,
+          transactions.begin().percentile(99) / 1000D,
+          transactions.abortRate());
+    }
+  }
+
+  /**
+   * @param transactionSize the size used by the data generators
+   * @param queues the batches waiting for producers. The batches generated with previous size are
+   *     dropped when the size is changed, so they don't pollute the next step
+   * @param argument of performance
+   * @param done the sweep stops if the generators are done
+   * @return the steps of the sizes which are measured completely
+   */
+  static List<Step> run(
+      AtomicInteger transactionSize,
+      List<DataQueue> queues,
+      Performance.Argument argument,
+      BooleanSupplier done) {
+    var steps = new ArrayList<Step>();
+    for (var size : argument.transactionSweep) {
+      if (transactionSize.getAndSet(size) != size) queues.forEach(DataQueue::clear);
+      var step = hold(size, argument.transactionSweepDuration, done);
+      if (step.isEmpty()) break;
+      steps.add(step.get());
+      System.out.printf(
+          "sweep step: transaction size %d, throughput %.1f records/second, %.1f"
+              + " transactions/second, commit p50 %.3f ms, commit p99 %.3f ms, abort rate %.4f%n",
+          size,
+          step.get().throughput(),
+          step.get().transactions(),
+          step.get().commitP50(),
+          step.get().commitP99(),
+          step.get().abortRate());
+    }
+    return steps;
+  }
+
+  /**
+   * @return the step measured after the warmup, or empty if the generators are done before the
+   *     duration elapses
+   */
+  private static Optional<Step> hold(int size, Duration duration, BooleanSupplier done) {
+    Utils.sleep(WARMUP);
+    var start = Sample.now();
+    var end = start.time() + duration.toNanos();
+    while (System.nanoTime() < end) {
+      if (done.getAsBoolean()) return Optional.empty();
+      Utils.sleep(
+          Duration.ofNanos(Math.max(0, Math.min(end - System.nanoTime(), WARMUP.toNanos()))));
+    }
+    return Optional.of(Sample.now().since(size, start));
+  }
+
+  /**
+   * @return the step having the highest throughput
+   */
+  static Optional<Step> best(List<Step> steps) {
+    return steps.stream().max(Comparator.comparingDouble(Step::throughput));
+  }
+}
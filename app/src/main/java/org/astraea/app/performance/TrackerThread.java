@@ -16,6 +16,7 @@
  */
 package org.astraea.app.performance;
 
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
@@ -24,6 +25,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 import org.astraea.common.DataSize;
 import org.astraea.common.Utils;
 import org.astraea.common.metrics.HasBeanObject;
@@ -32,6 +34,7 @@ import org.astraea.common.metrics.client.consumer.ConsumerMetrics;
 import org.astraea.common.metrics.client.consumer.HasConsumerCoordinatorMetrics;
 import org.astraea.common.metrics.client.producer.HasProducerTopicMetrics;
 import org.astraea.common.metrics.client.producer.ProducerMetrics;
+import org.astraea.common.metrics.stats.Histogram;
 
 /** Print out the given metrics. */
 public interface TrackerThread extends AbstractThread {
@@ -85,6 +88,14 @@ public interface TrackerThread extends AbstractThread {
           .filter(v -> !Double.isNaN(v))
           .average()
           .ifPresent(i -> System.out.printf("  publish e2e-average latency: %.3f ms%n", i));
+      Report.latencies(reports)
+          .filter(s -> s.count() > 0)
+          .ifPresent(s -> System.out.println("  publish latency (all records): " + percentiles(s)));
+      reports.stream()
+          .flatMap(r -> r.backlog().stream())
+          .mapToLong(v -> v)
+          .max()
+          .ifPresent(i -> System.out.printf("  open-loop backlog: %d records%n", i));
       for (int i = 0; i < reports.size(); ++i) {
         System.out.printf(
             "  producer[%d] average throughput: %s%n",
@@ -131,6 +142,10 @@ public interface TrackerThread extends AbstractThread {
           .mapToDouble(r -> r.e2eLatency().orElse(Double.NaN))
           .average()
           .ifPresent(i -> System.out.printf("  end-to-end average latency: %.3f ms%n", i));
+      Report.latencies(reports)
+          .filter(s -> s.count() > 0)
+          .ifPresent(
+              s -> System.out.println("  end-to-end latency (all records): " + percentiles(s)));
       var metrics = ConsumerMetrics.coordinator(mBeanClient);
       metrics.stream()
           .mapToDouble(HasConsumerCoordinatorMetrics::rebalanceLatencyMax)
@@ -168,10 +183,81 @@ public interface TrackerThread extends AbstractThread {
     }
   }
 
+  /** Print the cost of the transactions of transactional producers. */
+  class TransactionPrinter {
+    private final Supplier<TransactionStats.Snapshot> snapshotSupplier;
+
+    TransactionPrinter() {
+      this(TransactionStats::total);
+    }
+
+    TransactionPrinter(Supplier<TransactionStats.Snapshot> snapshotSupplier) {
+      this.snapshotSupplier = snapshotSupplier;
+    }
+
+    boolean tryToPrint() {
+      var snapshot = snapshotSupplier.get();
+      // the producers are not transactional
+      if (snapshot.commits() == 0 && snapshot.aborts() == 0) return false;
+      System.out.println("------------[Transactions]------------");
+      System.out.println("  committed transactions: " + snapshot.commits());
+      System.out.printf(
+          "  aborted transactions: %d (abort rate %.4f)%n",
+          snapshot.aborts(), snapshot.abortRate());
+      System.out.printf("  records per transaction: %.1f%n", snapshot.recordsPerTransaction());
+      System.out.println("  begin to first ack latency: " + percentiles(snapshot.begin()));
+      System.out.println("  commit latency: " + percentiles(snapshot.commit()));
+      return true;
+    }
+  }
+
+  /** Print the threads and memory used by the clients running in this JVM. */
+  class JvmPrinter {
+    private final Supplier<Integer> clientSupplier;
+
+    JvmPrinter() {
+      this(() -> Report.producers().size() + Report.consumers().size());
+    }
+
+    JvmPrinter(Supplier<Integer> clientSupplier) {
+      this.clientSupplier = clientSupplier;
+    }
+
+    boolean tryToPrint() {
+      var clients = clientSupplier.get();
+      // the coordinator of workers does not run clients
+      if (clients == 0) return false;
+      var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+      System.out.println("------------[JVM]------------");
+      System.out.println("  clients: " + clients);
+      // the virtual threads are excluded
+      System.out.println(
+          "  platform threads: " + ManagementFactory.getThreadMXBean().getThreadCount());
+      System.out.printf(
+          "  heap used: %s (%s per client)%n",
+          DataSize.Byte.of(heap), DataSize.Byte.of(heap / clients));
+      return true;
+    }
+  }
+
   static TrackerThread create(Supplier<Boolean> producersDone, Supplier<Boolean> consumersDone) {
+    return create(Report::producers, Report::consumers, producersDone, consumersDone);
+  }
+
+  /**
+   * @param producerReports the reports of producers. For example, the reports sent by workers
+   * @param consumerReports the reports of consumers
+   */
+  static TrackerThread create(
+      Supplier<List<Report>> producerReports,
+      Supplier<List<Report>> consumerReports,
+      Supplier<Boolean> producersDone,
+      Supplier<Boolean> consumersDone) {
     var closed = new AtomicBoolean(false);
     var latch = new CountDownLatch(1);
-    CompletableFuture.runAsync(trackerLoop(closed::get, producersDone, consumersDone))
+    CompletableFuture.runAsync(
+            trackerLoop(
+                closed::get, producerReports, consumerReports, producersDone, consumersDone))
         .whenComplete((m, e) -> latch.countDown());
 
     return new TrackerThread() {
@@ -196,10 +282,21 @@ public interface TrackerThread extends AbstractThread {
 
   static Runnable trackerLoop(
       Supplier<Boolean> closed, Supplier<Boolean> producersDone, Supplier<Boolean> consumersDone) {
+    return trackerLoop(closed, Report::producers, Report::consumers, producersDone, consumersDone);
+  }
+
+  static Runnable trackerLoop(
+      Supplier<Boolean> closed,
+      Supplier<List<Report>> producerReports,
+      Supplier<List<Report>> consumerReports,
+      Supplier<Boolean> producersDone,
+      Supplier<Boolean> consumersDone) {
     var start = System.currentTimeMillis();
     return () -> {
-      var producerPrinter = new ProducerPrinter();
-      var consumerPrinter = new ConsumerPrinter();
+      var producerPrinter = new ProducerPrinter(producerReports);
+      var consumerPrinter = new ConsumerPrinter(consumerReports);
+      var transactionPrinter = new TransactionPrinter();
+      var jvmPrinter = new JvmPrinter();
       while (!closed.get()) {
         var duration = Duration.ofMillis(System.currentTimeMillis() - start);
         System.out.println();
@@ -213,6 +310,8 @@ public interface TrackerThread extends AbstractThread {
                 + "sec");
         producerPrinter.tryToPrint(duration);
         consumerPrinter.tryToPrint(duration);
+        transactionPrinter.tryToPrint();
+        jvmPrinter.tryToPrint();
         if (producersDone.get() && consumersDone.get()) return;
         // Log after waiting for one second
         Utils.sleep(Duration.ofSeconds(1));
@@ -220,6 +319,19 @@ public interface TrackerThread extends AbstractThread {
     };
   }
 
+  /**
+   * @param snapshot of latency in microseconds
+   * @return the percentiles in milliseconds. For example, "p50=1.000 ms, p90=2.000 ms"
+   */
+  static String percentiles(Histogram.Snapshot snapshot) {
+    return Report.PERCENTILES.stream()
+        .map(
+            p ->
+                String.format(
+                    "%s=%.3f ms", Report.percentileName(p), snapshot.percentile(p) / 1000D))
+        .collect(Collectors.joining(", "));
+  }
+
   /**
    * Sum up the latest given attribute of all beans which is instance of HasNodeMetrics.
    *
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.astraea.common.metrics.stats.Histogram;
+import org.astraea.common.producer.Producer;
+
+/**
+ * Collect the cost of the transactions of a transactional producer. The latency of beginning and
+ * committing transactions is recorded in microseconds, so it can be compared with the publish
+ * latency of records. The latency of beginning a transaction is measured until the first record is
+ * acknowledged, since beginning a transaction is local to the client.
+ */
+interface TransactionStats extends Producer.TransactionListener {
+
+  /**
+   * @param begin the distribution of the latency (in microseconds) from beginning transactions to
+   *     the first acknowledged records
+   * @param commit the distribution of the latency (in microseconds) to commit transactions
+   * @param aborts the number of aborted transactions
+   * @param records the number of committed records
+   */
+  record Snapshot(Histogram.Snapshot begin, Histogram.Snapshot commit, long aborts, long records) {
+
+    static final Snapshot EMPTY =
+        new Snapshot(Histogram.Snapshot.EMPTY, Histogram.Snapshot.EMPTY, 0, 0);
+
+    long commits() {
+      return commit.count();
+    }
+
+    double abortRate() {
+      return aborts == 0 ? 0 : (double) aborts / (aborts + commits());
+    }
+
+    double recordsPerTransaction() {
+      return commits() == 0 ? 0 : (double) records / commits();
+    }
+
+    Snapshot merge(Snapshot other) {
+      return new Snapshot(
+          begin.merge(other.begin),
+          commit.merge(other.commit),
+          aborts + other.aborts,
+          records + other.records);
+    }
+
+    /**
+     * @param previous snapshot
+     * @return the transactions completed after the previous snapshot
+     */
+    Snapshot minus(Snapshot previous) {
+      return new Snapshot(
+          begin.minus(previous.begin),
+          commit.minus(previous.commit),
+          aborts - previous.aborts,
+          records - previous.records);
+    }
+  }
+
+  /**
+   * @return the transactions completed so far
+   */
+  Snapshot snapshot();
+
+  static TransactionStats of() {
+    var begin = Histogram.of();
+    var commit = Histogram.of();
+    var aborts = new LongAdder();
+    var records = new LongAdder();
+    return new TransactionStats() {
+      @Override
+      public void begun(long latency) {
+        begin.recordValue(latency / 1000);
+      }
+
+      @Override
+      public void committed(int count, long latency) {
+        // add the records first, so a snapshot never counts a commit without its records
+        records.add(count);
+        commit.recordValue(latency / 1000);
+      }
+
+      @Override
+      public void aborted(int count, long latency) {
+        aborts.increment();
+      }
+
+      @Override
+      public Snapshot snapshot() {
+        return new Snapshot(
+            begin.totalSnapshot(), commit.totalSnapshot(), aborts.sum(), records.sum());
+      }
+    };
+  }
+
+  /**
+   * @return the transactions of all transactional producers in this JVM
+   */
+  static Snapshot total() {
+    return ProducerThread.TRANSACTION_STATS.values().stream()
+        .map(TransactionStats::snapshot)
+        .reduce(Snapshot.EMPTY, Snapshot::merge);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import com.beust.jcommander.Parameter;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.astraea.app.argument.NonEmptyStringField;
+import org.astraea.common.Utils;
+import org.astraea.common.http.HttpExecutor;
+import org.astraea.common.json.TypeRef;
+import org.astraea.common.metrics.stats.Histogram;
+
+/**
+ * The worker of distributed performance. It registers to the coordinator, runs the performance with
+ * the assigned arguments, and then reports the status to the coordinator every second.
+ */
+public class Worker {
+
+  public static void main(String[] args) {
+    execute(org.astraea.app.argument.Argument.parse(new Argument(), args));
+  }
+
+  public static void execute(Argument argument) {
+    var http = HttpExecutor.builder().build();
+    var assignment =
+        http.post(
+                argument.coordinator + "/register",
+                Map.of(),
+                TypeRef.of(Coordinator.Assignment.class))
+            .toCompletableFuture()
+            .join()
+            .body();
+    System.out.println("worker " + assignment.id + " runs with " + assignment.arguments);
+    var performance =
+        CompletableFuture.runAsync(
+            () ->
+                Performance.execute(
+                    Performance.Argument.parse(
+                        new Performance.Argument(), assignment.arguments.toArray(String[]::new))));
+    // the metrics of closed clients are removed, so the latest reports are kept
+    var producerReports = new HashMap<String, Report>();
+    var consumerReports = new HashMap<String, Report>();
+    var producerLatencies = Histogram.Snapshot.EMPTY;
+    var consumerLatencies = Histogram.Snapshot.EMPTY;
+    while (true) {
+      var done = performance.isDone();
+      Report.producers().forEach(r -> producerReports.put(r.clientId(), r));
+      Report.consumers().forEach(r -> consumerReports.put(r.clientId(), r));
+      var producers = List.copyOf(producerReports.values());
+      var consumers = List.copyOf(consumerReports.values());
+      var producerTotal = Report.latencies(producers).orElse(Histogram.Snapshot.EMPTY);
+      var consumerTotal = Report.latencies(consumers).orElse(Histogram.Snapshot.EMPTY);
+      var status = new Coordinator.Status();
+      status.id = assignment.id;
+      status.done = done;
+      status.producers = Coordinator.Stats.of(producers, producerTotal.minus(producerLatencies));
+      status.consumers = Coordinator.Stats.of(consumers, consumerTotal.minus(consumerLatencies));
+      http.<Void>post(argument.coordinator + "/status", status, null).toCompletableFuture().join();
+      producerLatencies = producerTotal;
+      consumerLatencies = consumerTotal;
+      if (done) break;
+      Utils.sleep(Duration.ofSeconds(1));
+    }
+    // rethrow the error of performance
+    performance.join();
+  }
+
+  public static class Argument {
+    @Parameter(
+        names = {"--coordinator"},
+        description = "String: the url of coordinator. For example: http://localhost:8001",
+        validateWith = NonEmptyStringField.class,
+        required = true)
+    String coordinator;
+  }
+}
@@ -182,6 +182,22 @@ public class RecordHandler implements Handler {
             .map(transactionalProducerCache::require)
             .orElse(this.producer.get());
 
+    if (postRequest.async()) {
+      // the per-record metadata is not returned, so the records are tracked by single callback
+      CompletableFuture.runAsync(
+          () -> {
+            try {
+              producer.sendBatch(
+                  records.stream().map(record -> createRecord(producer, record)).toList());
+            } finally {
+              if (producer.transactional()) {
+                producer.close();
+              }
+            }
+          });
+      return CompletableFuture.completedFuture(Response.ACCEPT);
+    }
+
     var result =
         CompletableFuture.supplyAsync(
                 () -> {
@@ -211,7 +227,6 @@ public class RecordHandler implements Handler {
                             .map(CompletionStage::toCompletableFuture)
                             .toList()));
 
-    if (postRequest.async()) return CompletableFuture.completedFuture(Response.ACCEPT);
     return CompletableFuture.completedFuture(
         Utils.packException(
             () ->
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import org.astraea.app.argument.Argument;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Partition;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.http.HttpExecutor;
+import org.astraea.common.json.TypeRef;
+import org.astraea.it.Service;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class CoordinatorTest {
+
+  private static final Service SERVICE = Service.builder().numberOfBrokers(1).build();
+
+  @AfterAll
+  static void closeService() {
+    SERVICE.close();
+  }
+
+  @Test
+  void testShare() {
+    var args =
+        List.of(
+            "--bootstrap.servers",
+            "localhost:9092",
+            "--topics",
+            "a",
+            "--producers",
+            "5",
+            "--consumers",
+            "1",
+            "--run.until",
+            "10records",
+            "--throughput",
+            "90Byte",
+            "--specify.partitions",
+            "a-0,a-1,a-2",
+            "--workers",
+            "2",
+            "--coordinator.port",
+            "8000");
+    var argument = Argument.parse(new Performance.Argument(), args.toArray(String[]::new));
+    var first =
+        Argument.parse(
+            new Performance.Argument(),
+            Coordinator.share(args, argument, 0).toArray(String[]::new));
+    var second =
+        Argument.parse(
+            new Performance.Argument(),
+            Coordinator.share(args, argument, 1).toArray(String[]::new));
+
+    Assertions.assertEquals(0, first.workers);
+    Assertions.assertEquals(0, second.workers);
+    Assertions.assertEquals(3, first.producers);
+    Assertions.assertEquals(2, second.producers);
+    Assertions.assertEquals(1, first.consumers);
+    Assertions.assertEquals(0, second.consumers);
+    Assertions.assertEquals("5records", first.exeTime.toString());
+    Assertions.assertEquals("5records", second.exeTime.toString());
+    Assertions.assertEquals(45, first.throughput.byteRate());
+    Assertions.assertEquals(45, second.throughput.byteRate());
+    Assertions.assertEquals(
+        List.of(TopicPartition.of("a-0"), TopicPartition.of("a-2")), first.specifyPartitions);
+    Assertions.assertEquals(List.of(TopicPartition.of("a-1")), second.specifyPartitions);
+    Assertions.assertEquals(argument.groupId, first.groupId);
+    Assertions.assertEquals(argument.groupId, second.groupId);
+  }
+
+  @Timeout(120)
+  @Test
+  void testWorkers() throws Exception {
+    var topic = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topic).numberOfPartitions(2).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      var args =
+          List.of(
+              "--bootstrap.servers",
+              SERVICE.bootstrapServers(),
+              "--topics",
+              topic,
+              "--producers",
+              "2",
+              "--consumers",
+              "0",
+              "--run.until",
+              "1000records",
+              "--workers",
+              "2");
+      try (var coordinator =
+          Coordinator.of(
+              Argument.parse(new Performance.Argument(), args.toArray(String[]::new)), args)) {
+        var java = ProcessHandle.current().info().command().orElse("java");
+        var workers =
+            IntStream.range(0, 2)
+                .mapToObj(
+                    i ->
+                        Utils.packException(
+                            () ->
+                                new ProcessBuilder(
+                                        java,
+                                        "-cp",
+                                        System.getProperty("java.class.path"),
+                                        Worker.class.getName(),
+                                        "--coordinator",
+                                        "http://localhost:" + coordinator.port())
+                                    .inheritIO()
+                                    .start()))
+                .toList();
+        for (var worker : workers) Assertions.assertEquals(0, worker.waitFor());
+        coordinator.waitForDone();
+
+        Assertions.assertEquals(2, coordinator.producers().size());
+        Assertions.assertTrue(coordinator.producers().stream().allMatch(r -> r.records() > 0));
+        // the latencies of all records are streamed back to the coordinator
+        Assertions.assertEquals(
+            1000, Report.latencies(coordinator.producers()).orElseThrow().count());
+      }
+      Assertions.assertEquals(
+          1000,
+          admin.partitions(Set.of(topic)).toCompletableFuture().join().stream()
+              .mapToLong(Partition::latestOffset)
+              .sum());
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testSilentWorker() {
+    var args =
+        List.of(
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            Utils.randomString(),
+            "--workers",
+            "1",
+            "--worker.status.timeout",
+            "2s");
+    try (var coordinator =
+        Coordinator.of(
+            Argument.parse(new Performance.Argument(), args.toArray(String[]::new)), args)) {
+      var http = HttpExecutor.builder().build();
+      var assignment =
+          http.post(
+                  "http://localhost:" + coordinator.port() + "/register",
+                  Map.of(),
+                  TypeRef.of(Coordinator.Assignment.class))
+              .toCompletableFuture()
+              .join()
+              .body();
+      var status = new Coordinator.Status();
+      status.id = assignment.id;
+      http.<Void>post("http://localhost:" + coordinator.port() + "/status", status, null)
+          .toCompletableFuture()
+          .join();
+      // the worker dies without reporting done
+      Utils.sleep(Duration.ofSeconds(1));
+      Assertions.assertFalse(coordinator.closed());
+      coordinator.waitForDone();
+      Assertions.assertTrue(coordinator.closed());
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testRegisterTimeout() {
+    var args =
+        List.of(
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            Utils.randomString(),
+            "--workers",
+            "2",
+            "--worker.register.timeout",
+            "2s");
+    try (var coordinator =
+        Coordinator.of(
+            Argument.parse(new Performance.Argument(), args.toArray(String[]::new)), args)) {
+      // the second worker never registers
+      Assertions.assertThrows(
+          CompletionException.class,
+          () ->
+              HttpExecutor.builder()
+                  .build()
+                  .post(
+                      "http://localhost:" + coordinator.port() + "/register",
+                      Map.of(),
+                      TypeRef.of(Coordinator.Assignment.class))
+                  .toCompletableFuture()
+                  .join());
+      coordinator.waitForDone();
+      Assertions.assertTrue(coordinator.closed());
+    }
+  }
+}
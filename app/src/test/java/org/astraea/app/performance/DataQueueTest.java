@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.astraea.common.producer.Record;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DataQueueTest {
+  @Test
+  void testCapacity() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> DataQueue.of(0));
+    var queue = DataQueue.of(2);
+    Assertions.assertTrue(queue.isEmpty());
+    Assertions.assertTrue(queue.offer(new DataQueue.Batch(List.of(), 0)));
+    Assertions.assertTrue(queue.offer(new DataQueue.Batch(List.of(), 0)));
+    Assertions.assertFalse(queue.offer(new DataQueue.Batch(List.of(), 0)));
+    Assertions.assertFalse(queue.isEmpty());
+    Assertions.assertNotNull(queue.poll());
+    Assertions.assertNotNull(queue.poll());
+    Assertions.assertNull(queue.poll());
+    Assertions.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  void testClear() {
+    var queue = DataQueue.of(3);
+    Assertions.assertEquals(0, queue.clear());
+    Assertions.assertTrue(queue.offer(new DataQueue.Batch(List.of(), 0)));
+    Assertions.assertTrue(queue.offer(new DataQueue.Batch(List.of(), 0)));
+    Assertions.assertEquals(2, queue.clear());
+    Assertions.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  void testPoll() throws InterruptedException {
+    var queue = DataQueue.of(1);
+    var start = System.nanoTime();
+    Assertions.assertNull(queue.poll(Duration.ofMillis(300)));
+    Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+
+    var batch = new DataQueue.Batch(List.of(Record.builder().topic("a").build()), 0);
+    CompletableFuture.runAsync(
+        () -> {
+          try {
+            Thread.sleep(300);
+            queue.put(batch);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        });
+    Assertions.assertEquals(batch, queue.poll(Duration.ofSeconds(10)));
+  }
+
+  @Test
+  void testPut() throws InterruptedException {
+    var queue = DataQueue.of(1);
+    queue.put(new DataQueue.Batch(List.of(), 0));
+    var put =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                queue.put(new DataQueue.Batch(List.of(), 0));
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+            });
+    Thread.sleep(300);
+    // the queue is full
+    Assertions.assertFalse(put.isDone());
+    Assertions.assertNotNull(queue.poll());
+    put.join();
+    Assertions.assertFalse(queue.isEmpty());
+  }
+}
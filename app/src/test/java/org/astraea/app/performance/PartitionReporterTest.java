@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.util.Map;
+import org.astraea.common.admin.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PartitionReporterTest {
+
+  @Test
+  void testCounters() {
+    var reporter =
+        PartitionReporter.of(
+            Map.of(TopicPartition.of("a", 0), 10L, TopicPartition.of("a", 2), 20L));
+    reporter.produced("a", 0, 10, 100);
+    reporter.produced("a", 0, 11, 100);
+    reporter.produced("a", 2, 20, 50);
+    reporter.consumed("a", 0, 10, 100);
+    // unknown partitions are ignored
+    reporter.produced("a", 3, 0, 100);
+    reporter.consumed("b", 0, 0, 100);
+
+    var snapshot = reporter.snapshot();
+    Assertions.assertEquals(1, snapshot.size());
+    var counters = snapshot.get("a");
+    Assertions.assertEquals(3, counters.partitions());
+    Assertions.assertArrayEquals(new long[] {2, 0, 1}, counters.producedRecords());
+    Assertions.assertArrayEquals(new long[] {200, 0, 50}, counters.producedBytes());
+    Assertions.assertArrayEquals(new long[] {1, 0, 0}, counters.consumedRecords());
+    Assertions.assertArrayEquals(new long[] {100, 0, 0}, counters.consumedBytes());
+    Assertions.assertArrayEquals(new long[] {1, 0, 1}, counters.lags());
+
+    reporter.consumed("a", 0, 11, 100);
+    reporter.consumed("a", 2, 20, 50);
+    var interval = reporter.snapshot().get("a").minus(counters);
+    Assertions.assertArrayEquals(new long[] {0, 0, 0}, interval.producedRecords());
+    Assertions.assertArrayEquals(new long[] {1, 0, 1}, interval.consumedRecords());
+    Assertions.assertArrayEquals(new long[] {100, 0, 50}, interval.consumedBytes());
+    Assertions.assertArrayEquals(new long[] {0, 0, 0}, interval.lags());
+  }
+
+  @Test
+  void testEmpty() {
+    PartitionReporter.EMPTY.produced("a", 0, 0, 10);
+    PartitionReporter.EMPTY.consumed("a", 0, 0, 10);
+    Assertions.assertEquals(Map.of(), PartitionReporter.EMPTY.snapshot());
+  }
+}
@@ -17,17 +17,26 @@
 package org.astraea.app.performance;
 
 import com.beust.jcommander.ParameterException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.apache.kafka.clients.producer.RoundRobinPartitioner;
 import org.astraea.app.argument.Argument;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Partition;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.producer.Producer;
 import org.astraea.common.producer.Record;
 import org.astraea.it.Service;
 import org.junit.jupiter.api.AfterAll;
@@ -58,6 +67,24 @@ public class PerformanceTest {
     var argument = Argument.parse(new Performance.Argument(), arguments1);
     try (var producer = argument.createProducer()) {
       Assertions.assertTrue(producer.transactional());
+      Assertions.assertTrue(ProducerThread.TRANSACTION_STATS.containsKey(producer.clientId()));
+    }
+
+    // sweep mode always uses transactional producers
+    var sweep =
+        Argument.parse(
+            new Performance.Argument(),
+            new String[] {
+              "--bootstrap.servers",
+              SERVICE.bootstrapServers(),
+              "--topics",
+              topic,
+              "--transaction.sweep",
+              "1,10"
+            });
+    Assertions.assertEquals(List.of(1, 10), sweep.transactionSweep);
+    try (var producer = sweep.createProducer()) {
+      Assertions.assertTrue(producer.transactional());
     }
   }
 
@@ -576,4 +603,383 @@ public class PerformanceTest {
           "Perf should stop roughly 12 sec: " + runtime + " ms");
     }
   }
+
+  @Timeout(60)
+  @Test
+  void testGenerators() {
+    Assertions.assertThrows(
+        ParameterException.class,
+        () ->
+            Argument.parse(
+                new Performance.Argument(),
+                new String[] {
+                  "--bootstrap.servers",
+                  SERVICE.bootstrapServers(),
+                  "--topics",
+                  "a",
+                  "--generators",
+                  "0"
+                }));
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers", SERVICE.bootstrapServers(),
+            "--topics", topicName,
+            "--producers", "2",
+            "--generators", "3",
+            "--consumers", "0",
+            "--run.until", "1000records"
+          });
+      Assertions.assertEquals(
+          1000,
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .mapToLong(Partition::latestOffset)
+              .sum());
+    }
+  }
+
+  @Test
+  void testPartitionReport() throws IOException {
+    var folder = Files.createTempDirectory("testPartitionReport");
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            topicName,
+            "--consumers",
+            "0",
+            "--run.until",
+            "1000records",
+            "--partition.report.path",
+            folder.toString()
+          });
+    }
+    try (var files = Files.list(folder)) {
+      var produced =
+          Files.readAllLines(files.findFirst().orElseThrow()).stream()
+              .filter(line -> line.contains("Produced records"))
+              .flatMap(line -> Arrays.stream(line.split(", ")).skip(3))
+              .mapToLong(Long::parseLong)
+              .sum();
+      Assertions.assertEquals(1000, produced);
+    }
+  }
+
+  @Test
+  void testVirtualThreads() throws Exception {
+    try (var executor = AbstractThread.executor(1, true)) {
+      Assertions.assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+    }
+    try (var executor = AbstractThread.executor(1, false)) {
+      Assertions.assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+    }
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers", SERVICE.bootstrapServers(),
+            "--topics", topicName,
+            "--producers", "3",
+            "--consumers", "0",
+            "--virtual.threads", "true",
+            "--run.until", "1000records"
+          });
+      Assertions.assertEquals(
+          1000,
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .mapToLong(Partition::latestOffset)
+              .sum());
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testOpenLoop() {
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      var start = System.currentTimeMillis();
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers", SERVICE.bootstrapServers(),
+            "--topics", topicName,
+            "--producers", "2",
+            "--consumers", "0",
+            "--open.loop.rate", "500",
+            "--run.until", "1000records"
+          });
+      // 1000 records at 500 records/second
+      Assertions.assertTrue(System.currentTimeMillis() - start >= 2000);
+      Assertions.assertEquals(
+          1000,
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .mapToLong(Partition::latestOffset)
+              .sum());
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testOpenLoopAvgLatency() throws InterruptedException {
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+    }
+    var queue = DataQueue.of(10);
+    var producer = Producer.of(SERVICE.bootstrapServers());
+    var threads =
+        ProducerThread.create(List.of(queue), () -> producer, 0, Optional.of(Schedule.of(100)));
+    try {
+      // the batch is behind the schedule by one second
+      queue.put(
+          new DataQueue.Batch(
+              List.of(Record.builder().topic(topicName).value(new byte[10]).build()),
+              System.nanoTime() - Duration.ofSeconds(1).toNanos()));
+      Utils.waitFor(
+          () ->
+              Report.producers().stream()
+                  .filter(r -> r.clientId().equals(producer.clientId()))
+                  .anyMatch(r -> r.records() == 1),
+          Duration.ofSeconds(10));
+      Utils.sleep(Duration.ofSeconds(1));
+      var avg =
+          Report.producers().stream()
+              .filter(r -> r.clientId().equals(producer.clientId()))
+              .findFirst()
+              .flatMap(Report::e2eLatency)
+              .orElseThrow();
+      Assertions.assertTrue(avg >= 1000, "avg: " + avg);
+    } finally {
+      threads.forEach(ProducerThread::close);
+    }
+  }
+
+  @Timeout(30)
+  @Test
+  void testOpenLoopWithThrottle() throws InterruptedException {
+    var argument =
+        Argument.parse(
+            new Performance.Argument(),
+            new String[] {
+              "--bootstrap.servers", SERVICE.bootstrapServers(),
+              "--topics", "a",
+              "--throughput", "10KB",
+              "--run.until", "2s"
+            });
+    var schedule = Schedule.of(10_000);
+    var queue = DataQueue.of(100);
+    var generator =
+        DataGenerator.of(
+            List.of(queue), () -> TopicPartition.of("a", 0), argument, Optional.of(schedule));
+    // most batches are dropped by the throttle, and the sent batches are drained like producers
+    while (!generator.closed() || !queue.isEmpty()) {
+      var batch = queue.poll(Duration.ofMillis(100));
+      if (batch != null) schedule.sent(batch.records().size());
+    }
+    // the schedule is finished right after the generator is closed
+    Utils.waitFor(() -> schedule.backlog() == 0, Duration.ofSeconds(3));
+  }
+
+  @Timeout(60)
+  @Test
+  void testRamp() throws IOException {
+    var topicName = Utils.randomString();
+    var folder = Files.createTempDirectory("testRamp");
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      var start = System.currentTimeMillis();
+      // the p99 latency is always larger than zero, so the ramp stops after the first step
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers", SERVICE.bootstrapServers(),
+            "--topics", topicName,
+            "--consumers", "0",
+            "--ramp.step", "100",
+            "--ramp.step.duration", "3s",
+            "--ramp.max.p99", "0ms",
+            "--run.until", "1m",
+            "--report.path", folder.toString()
+          });
+      Assertions.assertTrue(System.currentTimeMillis() - start < Duration.ofMinutes(1).toMillis());
+    }
+    try (var files = Files.list(folder)) {
+      var curve =
+          files
+              .filter(f -> f.getFileName().toString().startsWith("Ramp"))
+              .findFirst()
+              .orElseThrow();
+      var lines = Files.readAllLines(curve);
+      Assertions.assertEquals(2, lines.size());
+      Assertions.assertTrue(lines.get(0).startsWith("Target rate (records/second)"));
+      Assertions.assertTrue(lines.get(1).startsWith("100, "));
+      Assertions.assertTrue(lines.get(1).contains("false"));
+    }
+  }
+
+  @Timeout(120)
+  @Test
+  void testTransactionSweep() throws IOException {
+    var topicName = Utils.randomString();
+    var folder = Files.createTempDirectory("testTransactionSweep");
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      var start = System.currentTimeMillis();
+      // the sweep stops sending records after the last size is measured
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers", SERVICE.bootstrapServers(),
+            "--topics", topicName,
+            "--consumers", "0",
+            "--transaction.sweep", "1,10",
+            "--transaction.sweep.duration", "3s",
+            "--run.until", "2m",
+            "--report.path", folder.toString()
+          });
+      Assertions.assertTrue(System.currentTimeMillis() - start < Duration.ofMinutes(2).toMillis());
+    }
+    var snapshot = TransactionStats.total();
+    Assertions.assertNotEquals(0, snapshot.commits());
+    Assertions.assertNotEquals(0, snapshot.begin().count());
+    try (var files = Files.list(folder)) {
+      var curve =
+          files
+              .filter(f -> f.getFileName().toString().startsWith("Sweep"))
+              .findFirst()
+              .orElseThrow();
+      var lines = Files.readAllLines(curve);
+      Assertions.assertEquals(3, lines.size());
+      Assertions.assertTrue(lines.get(0).startsWith("Transaction size (records)"));
+      Assertions.assertTrue(lines.get(1).startsWith("1, "));
+      Assertions.assertTrue(lines.get(2).startsWith("10, "));
+      // only one of the sizes is the best
+      Assertions.assertEquals(
+          1, lines.stream().skip(1).filter(line -> line.contains("true")).count());
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testReplay() throws IOException {
+    var folder = Files.createTempDirectory("testReplay");
+    ReplayTest.write(folder, "captured", 0, 0, List.of(1L, 2L, 3L));
+    ReplayTest.write(folder, "captured", 1, 0, List.of(1L, 2L));
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(2).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      // the records are replayed before the time is up
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            topicName,
+            "--consumers",
+            "0",
+            "--replay.path",
+            folder.toString(),
+            "--replay.speed",
+            "0",
+            "--run.until",
+            "1m"
+          });
+      var offsets =
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .collect(
+                  Collectors.toMap(p -> p.topicPartition().partition(), Partition::latestOffset));
+      Assertions.assertEquals(Map.of(0, 3L, 1, 2L), offsets);
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testReplayIntoFewerPartitions() throws IOException {
+    var folder = Files.createTempDirectory("testReplayIntoFewerPartitions");
+    ReplayTest.write(folder, "captured", 0, 0, List.of(1L, 2L, 3L));
+    ReplayTest.write(folder, "captured", 1, 0, List.of(1L, 2L));
+    ReplayTest.write(folder, "captured", 2, 0, List.of(1L));
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(2).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            topicName,
+            "--consumers",
+            "0",
+            "--replay.path",
+            folder.toString(),
+            "--replay.speed",
+            "0",
+            "--run.until",
+            "1m"
+          });
+      // the records of partition 2 are sent to partition 0
+      var offsets =
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .collect(
+                  Collectors.toMap(p -> p.topicPartition().partition(), Partition::latestOffset));
+      Assertions.assertEquals(Map.of(0, 4L, 1, 2L), offsets);
+    }
+  }
+
+  @Timeout(60)
+  @Test
+  void testReplayWithGenerators() throws IOException {
+    var folder = Files.createTempDirectory("testReplayWithGenerators");
+    // the first generator replays partition 0 and 2, and it is done much earlier than the second
+    var counts = List.of(1, 1000, 2, 2000);
+    for (var partition = 0; partition < counts.size(); partition++)
+      ReplayTest.write(
+          folder,
+          "captured",
+          partition,
+          0,
+          LongStream.range(0, counts.get(partition)).boxed().toList());
+    var topicName = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topicName).numberOfPartitions(4).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      Performance.main(
+          new String[] {
+            "--bootstrap.servers",
+            SERVICE.bootstrapServers(),
+            "--topics",
+            topicName,
+            "--consumers",
+            "0",
+            "--generators",
+            "2",
+            "--replay.path",
+            folder.toString(),
+            "--replay.speed",
+            "0",
+            "--run.until",
+            "1m"
+          });
+      var offsets =
+          admin.partitions(Set.of(topicName)).toCompletableFuture().join().stream()
+              .collect(
+                  Collectors.toMap(p -> p.topicPartition().partition(), Partition::latestOffset));
+      // all generators replay their own partitions completely
+      Assertions.assertEquals(Map.of(0, 1L, 1, 1000L, 2, 2L, 3, 2000L), offsets);
+    }
+  }
 }
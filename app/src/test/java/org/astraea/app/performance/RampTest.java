@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.astraea.common.metrics.stats.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RampTest {
+  @Test
+  void testSince() {
+    var histogram = Histogram.of();
+    var previous = new Ramp.Sample(histogram.totalSnapshot(), 10, 0);
+    // 1 ms ~ 100 ms
+    LongStream.rangeClosed(1, 100).forEach(i -> histogram.recordValue(i * 1000));
+    var sample = new Ramp.Sample(histogram.totalSnapshot(), 20, Duration.ofSeconds(2).toNanos());
+
+    var step = sample.since(1000, previous);
+    Assertions.assertEquals(1000, step.targetRate());
+    Assertions.assertEquals(50, step.throughput());
+    Assertions.assertEquals(50, step.p50(), 1);
+    Assertions.assertEquals(99, step.p99(), 1);
+    Assertions.assertEquals(10D / 110, step.errorRate());
+  }
+
+  @Test
+  void testExceeds() {
+    var step = new Ramp.Step(100, 100, 1, 10, 0.01);
+    Assertions.assertFalse(step.exceeds(Duration.ofMillis(10), 0.01));
+    Assertions.assertTrue(step.exceeds(Duration.ofMillis(9), 0.01));
+    Assertions.assertTrue(step.exceeds(Duration.ofMillis(10), 0.001));
+  }
+
+  @Test
+  void testKnee() {
+    var steps =
+        List.of(
+            new Ramp.Step(100, 100, 1, 2, 0),
+            new Ramp.Step(200, 200, 1, 5, 0),
+            new Ramp.Step(300, 250, 10, 50, 0));
+    Assertions.assertEquals(steps.get(1), Ramp.knee(steps, Duration.ofMillis(10), 0).orElseThrow());
+    Assertions.assertEquals(
+        steps.get(2), Ramp.knee(steps, Duration.ofMillis(100), 0).orElseThrow());
+    Assertions.assertTrue(Ramp.knee(steps, Duration.ofMillis(1), 0).isEmpty());
+    Assertions.assertTrue(Ramp.knee(List.of(), Duration.ofMillis(1), 0).isEmpty());
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.astraea.common.backup.PartitionIndex;
+import org.astraea.common.backup.RecordWriter;
+import org.astraea.common.consumer.Record;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReplayTest {
+
+  /** write the backup file "root/topic/partition/offset" having the records of given timestamps */
+  static void write(Path root, String topic, int partition, long offset, List<Long> timestamps)
+      throws IOException {
+    var folder = Files.createDirectories(root.resolve(topic).resolve(String.valueOf(partition)));
+    var writer = RecordWriter.builder(folder.resolve(String.valueOf(offset)).toFile()).build();
+    IntStream.range(0, timestamps.size())
+        .forEach(
+            i ->
+                writer.append(
+                    Record.builder()
+                        .topic(topic)
+                        .partition(partition)
+                        .offset(offset + i)
+                        .timestamp(timestamps.get(i))
+                        .key(new byte[] {(byte) partition})
+                        .value(new byte[10 * (partition + 1)])
+                        .build()));
+    writer.close();
+  }
+
+  @Test
+  void testPartitions() throws IOException {
+    var root = Files.createTempDirectory("testPartitions");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Replay.partitions(root));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Replay.partitions(root.resolve("a")));
+
+    write(root, "a", 0, 0, List.of(1L));
+    write(root, "a", 1, 0, List.of(1L));
+    write(root, "b", 0, 0, List.of(1L));
+    // the partition index is not a backup
+    Files.writeString(root.resolve("b").resolve(PartitionIndex.FILE_NAME), "a");
+    Files.createDirectories(root.resolve("c").resolve("0"));
+
+    Assertions.assertEquals(
+        List.of(root.resolve("a/0"), root.resolve("a/1"), root.resolve("b/0")),
+        Replay.partitions(root));
+    Assertions.assertEquals(List.of(root.resolve("a/1")), Replay.partitions(root.resolve("a/1")));
+  }
+
+  @Test
+  void testOrder() throws IOException {
+    var root = Files.createTempDirectory("testOrder");
+    write(root, "a", 0, 0, List.of(1L, 4L));
+    write(root, "a", 0, 2, List.of(5L, 8L));
+    write(root, "a", 1, 0, List.of(2L, 3L, 6L, 7L));
+
+    var replay = Replay.of(Replay.partitions(root));
+    Assertions.assertEquals(1, replay.timestamp().orElseThrow());
+    var first = replay.next(3);
+    Assertions.assertEquals(List.of(1L, 2L, 3L), first.stream().map(Record::timestamp).toList());
+    Assertions.assertEquals(List.of(0, 1, 1), first.stream().map(Record::partition).toList());
+    Assertions.assertEquals(10, first.get(0).value().length);
+    Assertions.assertEquals(20, first.get(1).value().length);
+
+    Assertions.assertEquals(4, replay.timestamp().orElseThrow());
+    Assertions.assertEquals(
+        List.of(4L, 5L, 6L, 7L, 8L), replay.next(10).stream().map(Record::timestamp).toList());
+    Assertions.assertTrue(replay.timestamp().isEmpty());
+    Assertions.assertEquals(List.of(), replay.next(10));
+  }
+}
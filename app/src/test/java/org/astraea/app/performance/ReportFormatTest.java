@@ -19,9 +19,16 @@ package org.astraea.app.performance;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.metrics.stats.Histogram;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 public class ReportFormatTest {
   @Test
@@ -48,7 +55,74 @@ public class ReportFormatTest {
     Assertions.assertEquals("1, 2, \n", stringWriter.toString());
   }
 
+  @Test
+  void testPartitionWriter() throws IOException {
+    var reporter =
+        PartitionReporter.of(Map.of(TopicPartition.of("a", 0), 0L, TopicPartition.of("a", 1), 0L));
+    reporter.produced("a", 1, 0, 10);
+    var folder = Files.createTempDirectory("testPartitionWriter");
+    // the records after creating the writer are counted in the first row
+    var writer = ReportFormat.createPartitionWriter(ReportFormat.CSV, folder, reporter, () -> true);
+    reporter.produced("a", 1, 1, 10);
+    reporter.consumed("a", 1, 0, 10);
+    writer.run();
+
+    try (var files = Files.list(folder)) {
+      var lines = Files.readAllLines(files.findFirst().orElseThrow());
+      Assertions.assertEquals(
+          List.of(
+              "Time (sec), Topic, Metric, Partition 0, Partition 1",
+              "1, a, Produced records, 0, 1",
+              "1, a, Produced bytes, 0, 10",
+              "1, a, Consumed records, 0, 1",
+              "1, a, Consumed bytes, 0, 10",
+              "1, a, Lag (records), 0, 1"),
+          lines);
+    }
+
+    folder = Files.createTempDirectory("testPartitionWriter");
+    ReportFormat.createPartitionWriter(ReportFormat.JSON, folder, reporter, () -> true).run();
+    try (var files = Files.list(folder)) {
+      Assertions.assertEquals(
+          List.of(
+              "{\"Time (sec)\":1,\"Topic\":\"a\",\"Produced records\":[0,0],\"Produced bytes\":[0,0],"
+                  + "\"Consumed records\":[0,0],\"Consumed bytes\":[0,0],\"Lag (records)\":[0,1]}"),
+          Files.readAllLines(files.findFirst().orElseThrow()));
+    }
+  }
+
   private static ReportFormat.CSVContentElement titleValue(String title, String value) {
     return ReportFormat.CSVContentElement.create(title, () -> value);
   }
+
+  @Test
+  void testIntervalLatencies() {
+    var first = Histogram.of();
+    var second = Histogram.of();
+    var intervals = new ReportFormat.IntervalLatencies();
+    LongStream.range(0, 100).forEach(first::recordValue);
+    Assertions.assertEquals(100, intervals.next(List.of(report("a", first))).get().count());
+
+    // only the latencies recorded since the last call are counted
+    first.recordValue(1000);
+    second.recordValue(2000);
+    var interval = intervals.next(List.of(report("a", first), report("b", second)));
+    Assertions.assertEquals(2, interval.get().count());
+    Assertions.assertEquals(1000, interval.get().percentile(50), 10);
+
+    // the closed client is ignored, and the recreated client is counted from the start
+    var recreated = Histogram.of();
+    recreated.recordValue(3000);
+    interval = intervals.next(List.of(report("a", recreated)));
+    Assertions.assertEquals(1, interval.get().count());
+    Assertions.assertEquals(3000, interval.get().max());
+    Assertions.assertEquals(Optional.empty(), intervals.next(List.of()));
+  }
+
+  private static Report report(String clientId, Histogram histogram) {
+    var report = Mockito.mock(Report.class);
+    Mockito.when(report.clientId()).thenReturn(clientId);
+    Mockito.when(report.latencies()).thenReturn(Optional.of(histogram.totalSnapshot()));
+    return report;
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ScheduleTest {
+  @Test
+  void testNext() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Schedule.of(0));
+    var schedule = Schedule.of(1000);
+    var first = schedule.next(10);
+    var second = schedule.next(1);
+    var third = schedule.next(1);
+    // 10 records take 10 ms
+    Assertions.assertEquals(Duration.ofMillis(10).toNanos(), second - first);
+    Assertions.assertEquals(Duration.ofMillis(1).toNanos(), third - second);
+    Assertions.assertEquals(10, schedule.toMillis(second) - schedule.toMillis(first));
+  }
+
+  @Test
+  void testRate() {
+    var schedule = Schedule.of(1000);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> schedule.rate(-1));
+    var first = schedule.next(10);
+    schedule.rate(100);
+    var second = schedule.next(10);
+    var third = schedule.next(1);
+    Assertions.assertEquals(Duration.ofMillis(10).toNanos(), second - first);
+    Assertions.assertEquals(Duration.ofMillis(100).toNanos(), third - second);
+  }
+
+  @Test
+  void testBacklog() {
+    var schedule = Schedule.of(1000);
+    Utils.sleep(Duration.ofMillis(500));
+    // nothing is sent
+    var backlog = schedule.backlog();
+    Assertions.assertTrue(backlog >= 500, "backlog: " + backlog);
+
+    schedule.next((int) backlog);
+    schedule.sent((int) backlog);
+    Assertions.assertTrue(schedule.backlog() < backlog);
+
+    // the records which are not claimed are not backlog after finishing
+    schedule.finish();
+    Assertions.assertEquals(0, schedule.backlog());
+    schedule.next(10);
+    Assertions.assertEquals(10, schedule.backlog());
+
+    // the cancelled records are not backlog
+    schedule.cancel(10);
+    Assertions.assertEquals(0, schedule.backlog());
+  }
+
+  @Test
+  void testWaitFor() throws InterruptedException {
+    var schedule = Schedule.of(10);
+    schedule.next(1);
+    var intendedTime = schedule.next(1);
+    Schedule.waitFor(intendedTime);
+    Assertions.assertTrue(System.nanoTime() >= intendedTime);
+
+    // passed time
+    var start = System.nanoTime();
+    Schedule.waitFor(start - Duration.ofSeconds(1).toNanos());
+    Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.performance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.astraea.common.metrics.stats.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SweepTest {
+  @Test
+  void testTransactionStats() {
+    var stats = TransactionStats.of();
+    Assertions.assertEquals(0, stats.snapshot().commits());
+    Assertions.assertEquals(0, stats.snapshot().abortRate());
+    Assertions.assertEquals(0, stats.snapshot().recordsPerTransaction());
+
+    stats.begun(Duration.ofMillis(1).toNanos());
+    stats.committed(10, Duration.ofMillis(5).toNanos());
+    stats.begun(Duration.ofMillis(1).toNanos());
+    stats.aborted(10, Duration.ofMillis(2).toNanos());
+    stats.begun(Duration.ofMillis(1).toNanos());
+    stats.committed(30, Duration.ofMillis(7).toNanos());
+    var snapshot = stats.snapshot();
+    Assertions.assertEquals(3, snapshot.begin().count());
+    Assertions.assertEquals(2, snapshot.commits());
+    Assertions.assertEquals(1, snapshot.aborts());
+    Assertions.assertEquals(40, snapshot.records());
+    Assertions.assertEquals(1D / 3, snapshot.abortRate());
+    Assertions.assertEquals(20, snapshot.recordsPerTransaction());
+    Assertions.assertEquals(7, snapshot.commit().max() / 1000D, 0.1);
+
+    var merged = snapshot.merge(snapshot);
+    Assertions.assertEquals(4, merged.commits());
+    Assertions.assertEquals(80, merged.records());
+    var minus = merged.minus(snapshot);
+    Assertions.assertEquals(3, minus.begin().count());
+    Assertions.assertEquals(2, minus.commits());
+    Assertions.assertEquals(1, minus.aborts());
+    Assertions.assertEquals(40, minus.records());
+  }
+
+  @Test
+  void testSince() {
+    var latencies = Histogram.of();
+    var begin = Histogram.of();
+    var commit = Histogram.of();
+    var previous =
+        new Sweep.Sample(
+            latencies.totalSnapshot(),
+            new TransactionStats.Snapshot(begin.totalSnapshot(), commit.totalSnapshot(), 0, 0),
+            0);
+    LongStream.rangeClosed(1, 1000).forEach(i -> latencies.recordValue(1000));
+    // 1 ms ~ 100 ms
+    LongStream.rangeClosed(1, 100).forEach(i -> commit.recordValue(i * 1000));
+    LongStream.rangeClosed(1, 100).forEach(i -> begin.recordValue(10));
+    var sample =
+        new Sweep.Sample(
+            latencies.totalSnapshot(),
+            new TransactionStats.Snapshot(begin.totalSnapshot(), commit.totalSnapshot(), 0, 1000),
+            Duration.ofSeconds(2).toNanos());
+
+    var step = sample.since(10, previous);
+    Assertions.assertEquals(10, step.transactionSize());
+    Assertions.assertEquals(500, step.throughput());
+    Assertions.assertEquals(50, step.transactions());
+    Assertions.assertEquals(50, step.commitP50(), 1);
+    Assertions.assertEquals(99, step.commitP99(), 1);
+    Assertions.assertEquals(0.01, step.beginP99(), 0.001);
+    Assertions.assertEquals(0, step.abortRate());
+  }
+
+  @Test
+  void testBest() {
+    var steps =
+        List.of(
+            new Sweep.Step(1, 100, 100, 1, 2, 0, 0),
+            new Sweep.Step(10, 800, 80, 2, 4, 0, 0),
+            new Sweep.Step(100, 700, 7, 20, 40, 0, 0));
+    Assertions.assertEquals(steps.get(1), Sweep.best(steps).orElseThrow());
+    Assertions.assertTrue(Sweep.best(List.of()).isEmpty());
+  }
+}
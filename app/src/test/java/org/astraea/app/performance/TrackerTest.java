@@ -20,6 +20,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.astraea.common.Utils;
 import org.astraea.common.metrics.client.HasNodeMetrics;
@@ -53,6 +54,25 @@ public class TrackerTest {
     Assertions.assertTrue(tracker.closed());
   }
 
+  @Test
+  void testJvmPrinter() {
+    var clients = new AtomicInteger(0);
+    var printer = new TrackerThread.JvmPrinter(clients::get);
+    Assertions.assertFalse(printer.tryToPrint());
+    clients.set(2000);
+    Assertions.assertTrue(printer.tryToPrint());
+  }
+
+  @Test
+  void testTransactionPrinter() {
+    var stats = TransactionStats.of();
+    var printer = new TrackerThread.TransactionPrinter(stats::snapshot);
+    Assertions.assertFalse(printer.tryToPrint());
+    stats.begun(1000);
+    stats.committed(10, 1000_000);
+    Assertions.assertTrue(printer.tryToPrint());
+  }
+
   @Test
   void testSumOfAttribute() {
     var hasNodeMetrics = Mockito.mock(HasNodeMetrics.class);
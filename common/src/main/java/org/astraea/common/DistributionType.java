@@ -17,6 +17,7 @@
 package org.astraea.common;
 
 import java.util.Random;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import org.apache.commons.math3.distribution.ZipfDistribution;
 import org.apache.commons.math3.random.Well19937c;
@@ -29,28 +30,28 @@ import org.apache.commons.math3.random.Well19937c;
 public enum DistributionType implements EnumInfo {
   FIXED {
     @Override
-    public Supplier<Long> supplier(int n, Configuration configuration) {
-      return () -> (long) n;
+    public LongSupplier supplier(int n, Configuration configuration) {
+      return () -> n;
     }
   },
 
   UNIFORM {
     @Override
-    public Supplier<Long> supplier(int n, Configuration configuration) {
+    public LongSupplier supplier(int n, Configuration configuration) {
       var rand = new Random();
-      return () -> (long) rand.nextInt(n);
+      return () -> rand.nextInt(n);
     }
   },
 
   /** A distribution for providing different random value every 2 seconds */
   LATEST {
     @Override
-    public Supplier<Long> supplier(int n, Configuration configuration) {
+    public LongSupplier supplier(int n, Configuration configuration) {
       var rand = new Random();
       return () -> {
         var time = System.currentTimeMillis();
         rand.setSeed(time - time % 2000);
-        return (long) rand.nextInt(n);
+        return rand.nextInt(n);
       };
     }
   },
@@ -61,7 +62,7 @@ public enum DistributionType implements EnumInfo {
    */
   ZIPFIAN {
     @Override
-    public Supplier<Long> supplier(int n, Configuration configuration) {
+    public LongSupplier supplier(int n, Configuration configuration) {
       var exponent = configuration.string(ZIPFIAN_EXPONENT).map(Double::parseDouble).orElse(1.0);
       var rng = configuration.integer(ZIPFIAN_SEED).map(Well19937c::new).orElse(new Well19937c());
       var distribution = new ZipfDistribution(rng, n, exponent);
@@ -70,7 +71,7 @@ public enum DistributionType implements EnumInfo {
       // zipf expects [0, n), so we explicitly minus it by one to comply with the implementation
       // detail.
       var correction = 1;
-      return () -> (long) (distribution.sample() - correction);
+      return () -> distribution.sample() - correction;
     }
   };
 
@@ -92,9 +93,21 @@ public enum DistributionType implements EnumInfo {
   }
 
   public final Supplier<Long> create(int n, Configuration configuration) {
+    var supplier = createLong(n, configuration);
+    return supplier::getAsLong;
+  }
+
+  /**
+   * Create the distribution generating primitive values, so it does not box the value of each call.
+   *
+   * @param n the upper bound (exclusive) of values
+   * @param configuration of distribution
+   * @return the distribution
+   */
+  public final LongSupplier createLong(int n, Configuration configuration) {
     if (n <= 0) return () -> 0L;
     return supplier(n, configuration);
   }
 
-  protected abstract Supplier<Long> supplier(int n, Configuration config);
+  protected abstract LongSupplier supplier(int n, Configuration config);
 }
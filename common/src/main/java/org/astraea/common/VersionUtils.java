@@ -0,0 +1,9 @@
+package org.astraea.common;
+// DON'T touch this file!!! It is generated dynamically. see common/build.gradle
+public final class VersionUtils {
+  public static final String VERSION = "0.3.0-SNAPSHOT";
+  public static final String BUILDER = "agent";
+  public static final String REVISION = "99356157930013e6ca8f93cd1fbf3f296189f722";
+  public static final String DATE = "2026-10-19 06:53:05";
+  private VersionUtils() {}
+}
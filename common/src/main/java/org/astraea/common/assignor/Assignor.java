@@ -16,14 +16,19 @@
  */
 package org.astraea.common.assignor;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -40,15 +45,40 @@ import org.astraea.common.cost.HasPartitionCost;
 import org.astraea.common.cost.ReplicaLeaderSizeCost;
 import org.astraea.common.metrics.JndiClient;
 import org.astraea.common.metrics.MBeanClient;
+import org.astraea.common.metrics.MBeanRegister;
+import org.astraea.common.metrics.Sensor;
 import org.astraea.common.metrics.collector.MetricStore;
+import org.astraea.common.metrics.stats.Avg;
+import org.astraea.common.metrics.stats.Max;
+import org.astraea.common.metrics.stats.Sum;
 import org.astraea.common.partitioner.PartitionerUtils;
 import org.astraea.common.producer.ProducerConfigs;
 
-/** Abstract assignor implementation which does some common work (e.g., configuration). */
-public abstract class Assignor implements ConsumerPartitionAssignor, Configurable {
+/**
+ * Abstract assignor implementation which does some common work (e.g., configuration). The {@link
+ * Admin}, {@link MetricStore} and {@link ClusterInfo} used by the assignment are created by the
+ * first rebalance and kept across rebalances. Kafka consumer never closes its assignors, so the
+ * resources are released if there is no rebalance for {@link #RESOURCE_IDLE_TIMEOUT}, and they are
+ * created again by next rebalance.
+ */
+public abstract class Assignor implements ConsumerPartitionAssignor, Configurable, AutoCloseable {
   private Configuration config;
   public static final String COST_PREFIX = "assignor.cost";
   public static final String JMX_PORT = "jmx.port";
+  public static final String CLUSTER_INFO_REFRESH_INTERVAL = "cluster.info.refresh.interval";
+  static final Duration DEFAULT_CLUSTER_INFO_REFRESH_INTERVAL = Duration.ofSeconds(15);
+  public static final String RESOURCE_IDLE_TIMEOUT = "resource.idle.timeout";
+  static final Duration DEFAULT_RESOURCE_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+  public static final String DOMAIN_NAME = "org.astraea";
+  public static final String TYPE_PROPERTY = "type";
+  public static final String TYPE_VALUE = "assignor";
+  public static final String ID_PROPERTY = "id";
+  public static final String NAME_PROPERTY = "name";
+  public static final String REBALANCE_TIME_NAME = "RebalanceTime";
+  public static final String COUNT_PROPERTY = "count";
+  public static final String AVG_PROPERTY = "avg";
+  public static final String MAX_PROPERTY = "max";
   Function<Integer, Integer> jmxPortGetter =
       (id) -> {
         throw new NoSuchElementException("must define either broker.x.jmx.port or jmx.port");
@@ -61,6 +91,27 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
 
   protected Admin admin = null;
 
+  // the latest cluster info fetched by rebalance. It is shared by all rebalances.
+  volatile ClusterInfo clusterInfo = ClusterInfo.empty();
+
+  // the time (in System#nanoTime) to fetch the latest cluster info. null means it is never fetched
+  private volatile Long clusterInfoTime = null;
+
+  // release the idle resources. Its thread is daemon and it ends if there is no pending release.
+  private final ScheduledThreadPoolExecutor releaser = releaser();
+
+  private ScheduledFuture<?> release = null;
+
+  // the elapsed time (in milliseconds) of each rebalance
+  private final Sensor<Double> rebalanceTimeSensor =
+      Sensor.builder()
+          .addStat(AVG_PROPERTY, Avg.of())
+          .addStat(MAX_PROPERTY, Max.<Double>of())
+          .build();
+  private final Sensor<Long> rebalanceCountSensor =
+      Sensor.builder().addStat(COUNT_PROPERTY, Sum.ofLong()).build();
+  private boolean registered = false;
+
   /**
    * Perform the group assignment given the member subscriptions and current cluster metadata.
    *
@@ -89,11 +140,54 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
    * @return cluster information
    */
   private ClusterInfo updateClusterInfo() {
-    return admin.topicNames(false).thenCompose(admin::clusterInfo).toCompletableFuture().join();
+    var latest =
+        admin.topicNames(false).thenCompose(admin::clusterInfo).toCompletableFuture().join();
+    this.clusterInfo = latest;
+    this.clusterInfoTime = System.nanoTime();
+    return latest;
+  }
+
+  /**
+   * The cached cluster info is reused only if it is fetched within {@link
+   * #CLUSTER_INFO_REFRESH_INTERVAL}, it contains all subscribed topics and their partition counts
+   * are identical to the metadata of consumer. Otherwise, the cluster info is fetched again.
+   *
+   * @param metadata the metadata passed by kafka consumer
+   * @param topics subscribed topics
+   * @return cluster information for this rebalance
+   */
+  private ClusterInfo clusterInfo(Cluster metadata, Set<String> topics) {
+    var cached = this.clusterInfo;
+    var interval =
+        config
+            .duration(CLUSTER_INFO_REFRESH_INTERVAL)
+            .orElse(DEFAULT_CLUSTER_INFO_REFRESH_INTERVAL);
+    var outdated =
+        clusterInfoTime == null
+            || System.nanoTime() - clusterInfoTime >= interval.toNanos()
+            || topics.stream()
+                .anyMatch(
+                    t -> {
+                      var topic = cached.topics().get(t);
+                      var count = metadata.partitionCountForTopic(t);
+                      return topic == null
+                          || (count != null && count != topic.partitionIds().size());
+                    });
+    return outdated ? updateClusterInfo() : cached;
   }
 
-  /** establish the Admin and MetricStore to get ClusterInfo and ClusterBean */
-  private void establishResource() {
+  /**
+   * establish the Admin and MetricStore to get ClusterInfo and ClusterBean if they are absent, and
+   * postpone the release of them.
+   */
+  private synchronized void establishResource() {
+    if (release != null) release.cancel(false);
+    release =
+        releaser.schedule(
+            this::releaseResource,
+            config.duration(RESOURCE_IDLE_TIMEOUT).orElse(DEFAULT_RESOURCE_IDLE_TIMEOUT).toMillis(),
+            TimeUnit.MILLISECONDS);
+    if (admin != null) return;
     admin =
         config
             .string(ConsumerConfigs.BOOTSTRAP_SERVERS_CONFIG)
@@ -148,12 +242,66 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
             .build();
   }
 
-  /** release the unused resource after assigning */
-  private void releaseResource() {
-    this.admin.close();
-    this.metricStore.close();
+  /** release the resource created by {@link #establishResource()} */
+  private synchronized void releaseResource() {
+    if (release != null) release.cancel(false);
+    Utils.close(admin);
+    Utils.close(metricStore);
+    this.release = null;
     this.admin = null;
     this.metricStore = null;
+    this.clusterInfo = ClusterInfo.empty();
+    this.clusterInfoTime = null;
+  }
+
+  private static ScheduledThreadPoolExecutor releaser() {
+    var executor =
+        new ScheduledThreadPoolExecutor(
+            1,
+            r -> {
+              var thread = new Thread(r, "assignor-releaser");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.setRemoveOnCancelPolicy(true);
+    executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private void registerMBean() {
+    if (registered) return;
+    MBeanRegister.local()
+        .domainName(DOMAIN_NAME)
+        .property(TYPE_PROPERTY, TYPE_VALUE)
+        .property(ID_PROPERTY, Utils.randomString())
+        .property(NAME_PROPERTY, REBALANCE_TIME_NAME)
+        .attribute(COUNT_PROPERTY, Long.class, () -> rebalanceCountSensor.measure(COUNT_PROPERTY))
+        .attribute(AVG_PROPERTY, Double.class, () -> rebalanceTimeSensor.measure(AVG_PROPERTY))
+        .attribute(
+            MAX_PROPERTY,
+            Double.class,
+            () ->
+                rebalanceCountSensor.measure(COUNT_PROPERTY) == 0
+                    ? Double.NaN
+                    : rebalanceTimeSensor.measure(MAX_PROPERTY))
+        .description("The elapsed time (in milliseconds) of rebalances done by this assignor.")
+        .register();
+    registered = true;
+  }
+
+  /**
+   * @return the average elapsed time (in milliseconds) of rebalances
+   */
+  double rebalanceTimeAvg() {
+    return rebalanceTimeSensor.measure(AVG_PROPERTY);
+  }
+
+  /**
+   * @return the number of rebalances done by this assignor
+   */
+  long rebalanceCount() {
+    return rebalanceCountSensor.measure(COUNT_PROPERTY);
   }
 
   // -----------------------[kafka method]-----------------------//
@@ -161,12 +309,19 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
   @Override
   public final GroupAssignment assign(Cluster metadata, GroupSubscription groupSubscription) {
     GroupAssignment result = null;
+    var start = System.nanoTime();
     try {
-      establishResource();
-      var clusterInfo = updateClusterInfo();
       // convert Kafka's data structure to ours
       var subscriptionsPerMember =
           GroupSubscriptionInfo.from(groupSubscription).groupSubscription();
+      // only the leader of group assigns the partitions, so the followers don't create resources
+      establishResource();
+      var clusterInfo =
+          clusterInfo(
+              metadata,
+              subscriptionsPerMember.values().stream()
+                  .flatMap(s -> s.topics().stream())
+                  .collect(Collectors.toUnmodifiableSet()));
 
       // TODO: Detected if consumers subscribed to the same topics.
       // For now, assume that the consumers only subscribed to identical topics
@@ -180,11 +335,17 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
     } catch (Exception e) {
       e.printStackTrace();
     } finally {
-      releaseResource();
+      rebalanceTimeSensor.record((System.nanoTime() - start) / 1_000_000D);
+      rebalanceCountSensor.record(1L);
     }
     return result;
   }
 
+  @Override
+  public void close() {
+    releaseResource();
+  }
+
   @Override
   public final void configure(Map<String, ?> configs) {
     this.config =
@@ -206,6 +367,10 @@ public abstract class Assignor implements ConsumerPartitionAssignor, Configurabl
                 .or(() -> defaultJMXPort)
                 .orElseThrow(
                     () -> new NoSuchElementException("failed to get jmx port for broker: " + id));
+    // the resources are kept across rebalances, so the old ones must be released if this assignor
+    // is re-configured.
+    releaseResource();
+    registerMBean();
     configure(config);
   }
 }
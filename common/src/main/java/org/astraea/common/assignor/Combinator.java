@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.assignor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.TopicPartition;
+
+/**
+ * The combinator being generated. The partitions and consumers are indexed by {@link Context}, and
+ * this object tracks the cost of each consumer, the incompatible partitions of each consumer and
+ * the consumers having lower cost incrementally. Hence, placing a partition costs O(log C) (C is
+ * the number of consumers) rather than re-summing the cost of all assigned partitions.
+ */
+public final class Combinator {
+
+  /**
+   * Build the indexes shared by all combinators.
+   *
+   * @param subscriptions the subscriptions of consumers
+   * @param partitionCost the cost of each partition. Only those partitions are assigned.
+   * @param incompatible the partitions which are not suitable to be assigned together. The relation
+   *     is regarded as symmetric.
+   * @return context
+   */
+  public static Context context(
+      Map<String, SubscriptionInfo> subscriptions,
+      Map<TopicPartition, Double> partitionCost,
+      Map<TopicPartition, Set<TopicPartition>> incompatible) {
+    return new Context(subscriptions, partitionCost, incompatible);
+  }
+
+  /** The immutable indexes of consumers and partitions. */
+  public static final class Context {
+    private final String[] consumers;
+    private final TopicPartition[] partitions;
+    private final double[] cost;
+    // partition -> the incompatible partitions (both directions)
+    private final int[][] incompatible;
+    // partition -> the group of consumers subscribing the topic
+    private final int[] groupOfPartition;
+    // group -> consumers
+    private final int[][] groups;
+    // consumer -> the groups containing the consumer
+    private final int[][] groupsOfConsumer;
+    // partition -> current owner. -1 means no owner
+    private final int[] owners;
+
+    private Context(
+        Map<String, SubscriptionInfo> subscriptions,
+        Map<TopicPartition, Double> partitionCost,
+        Map<TopicPartition, Set<TopicPartition>> incompatible) {
+      this.consumers = subscriptions.keySet().stream().sorted().toArray(String[]::new);
+      this.partitions =
+          partitionCost.keySet().stream()
+              .sorted(
+                  Comparator.comparing(TopicPartition::topic)
+                      .thenComparing(TopicPartition::partition))
+              .toArray(TopicPartition[]::new);
+      var consumerIds = new HashMap<String, Integer>();
+      for (var i = 0; i < consumers.length; i++) consumerIds.put(consumers[i], i);
+      var partitionIds = new HashMap<TopicPartition, Integer>();
+      for (var i = 0; i < partitions.length; i++) partitionIds.put(partitions[i], i);
+
+      this.cost = Arrays.stream(partitions).mapToDouble(partitionCost::get).toArray();
+
+      var symmetric = new ArrayList<Set<Integer>>();
+      for (var i = 0; i < partitions.length; i++) symmetric.add(new TreeSet<>());
+      incompatible.forEach(
+          (tp, others) -> {
+            var id = partitionIds.get(tp);
+            if (id == null) return;
+            others.forEach(
+                other -> {
+                  var otherId = partitionIds.get(other);
+                  if (otherId == null || otherId.equals(id)) return;
+                  symmetric.get(id).add(otherId);
+                  symmetric.get(otherId).add(id);
+                });
+          });
+      this.incompatible =
+          symmetric.stream().map(s -> s.stream().mapToInt(i -> i).toArray()).toArray(int[][]::new);
+
+      // the consumers subscribing the same topic form a group
+      var groupIds = new LinkedHashMap<List<Integer>, Integer>();
+      var groupOfTopic = new HashMap<String, Integer>();
+      this.groupOfPartition = new int[partitions.length];
+      for (var i = 0; i < partitions.length; i++) {
+        var topic = partitions[i].topic();
+        groupOfPartition[i] =
+            groupOfTopic.computeIfAbsent(
+                topic,
+                t ->
+                    groupIds.computeIfAbsent(
+                        Arrays.stream(consumers)
+                            .filter(c -> subscriptions.get(c).topics().contains(t))
+                            .map(consumerIds::get)
+                            .toList(),
+                        ignored -> groupIds.size()));
+      }
+      this.groups =
+          groupIds.keySet().stream()
+              .map(g -> g.stream().mapToInt(i -> i).toArray())
+              .toArray(int[][]::new);
+      var groupsOfConsumer = new ArrayList<List<Integer>>();
+      for (var i = 0; i < consumers.length; i++) groupsOfConsumer.add(new ArrayList<>());
+      for (var g = 0; g < groups.length; g++)
+        for (var c : groups[g]) groupsOfConsumer.get(c).add(g);
+      this.groupsOfConsumer =
+          groupsOfConsumer.stream()
+              .map(g -> g.stream().mapToInt(i -> i).toArray())
+              .toArray(int[][]::new);
+
+      this.owners = new int[partitions.length];
+      Arrays.fill(owners, -1);
+      Generator.owners(subscriptions)
+          .forEach(
+              (tp, owner) -> {
+                var id = partitionIds.get(tp);
+                if (id != null) owners[id] = consumerIds.get(owner);
+              });
+    }
+
+    /**
+     * @return a new and empty combinator
+     */
+    public Combinator combinator() {
+      return new Combinator(this);
+    }
+
+    public int numberOfPartitions() {
+      return partitions.length;
+    }
+
+    public int numberOfConsumers() {
+      return consumers.length;
+    }
+
+    public double cost(int partition) {
+      return cost[partition];
+    }
+
+    /**
+     * @return the current owner of partition. -1 if there is no owner
+     */
+    public int owner(int partition) {
+      return owners[partition];
+    }
+  }
+
+  private final Context context;
+  // partition -> consumer. -1 means the partition is not assigned
+  private final int[] assignment;
+  private final double[] consumerCost;
+  // consumer -> the partitions which are incompatible with the partitions held by the consumer
+  private final BitSet[] blocked;
+  // group -> the half consumers having lower cost
+  private final TreeSet<Integer>[] lows;
+  // group -> the other consumers
+  private final TreeSet<Integer>[] highs;
+  private int violations = 0;
+  private int moves = 0;
+
+  @SuppressWarnings("unchecked")
+  private Combinator(Context context) {
+    this.context = context;
+    this.assignment = new int[context.partitions.length];
+    Arrays.fill(assignment, -1);
+    this.consumerCost = new double[context.consumers.length];
+    this.blocked = new BitSet[context.consumers.length];
+    Comparator<Integer> byCost =
+        (l, r) -> {
+          var result = Double.compare(consumerCost[l], consumerCost[r]);
+          return result != 0 ? result : Integer.compare(l, r);
+        };
+    this.lows = new TreeSet[context.groups.length];
+    this.highs = new TreeSet[context.groups.length];
+    for (var g = 0; g < context.groups.length; g++) {
+      lows[g] = new TreeSet<>(byCost);
+      highs[g] = new TreeSet<>(byCost);
+      var group = context.groups[g];
+      var half = lowSize(group.length);
+      for (var i = 0; i < group.length; i++) (i < half ? lows[g] : highs[g]).add(group[i]);
+    }
+  }
+
+  private static int lowSize(int groupSize) {
+    return (int) Math.ceil(groupSize / 2.0);
+  }
+
+  /**
+   * Place the partition on the consumer, and update the tracked cost and incompatibility of the
+   * consumer. It costs O(G * log C + I), where G is the number of groups containing the consumer
+   * and I is the number of partitions incompatible with the partition.
+   */
+  public void assign(int partition, int consumer) {
+    if (assignment[partition] != -1)
+      throw new IllegalStateException(context.partitions[partition] + " is already assigned");
+    assignment[partition] = consumer;
+    if (context.owners[partition] != -1 && context.owners[partition] != consumer) moves++;
+
+    if (!compatible(consumer, partition)) violations++;
+    var incompatible = context.incompatible[partition];
+    if (incompatible.length > 0) {
+      if (blocked[consumer] == null) blocked[consumer] = new BitSet(context.partitions.length);
+      for (var other : incompatible) blocked[consumer].set(other);
+    }
+
+    var groups = context.groupsOfConsumer[consumer];
+    // the order of tree is based on the cost, so the consumer must be removed before updating cost
+    for (var g : groups) if (!lows[g].remove(consumer)) highs[g].remove(consumer);
+    consumerCost[consumer] += context.cost[partition];
+    for (var g : groups) {
+      var low = lows[g];
+      var high = highs[g];
+      if (!low.isEmpty() && low.comparator().compare(consumer, low.last()) < 0) low.add(consumer);
+      else high.add(consumer);
+      var half = lowSize(context.groups[g].length);
+      while (low.size() > half) high.add(low.pollLast());
+      while (low.size() < half && !high.isEmpty()) low.add(high.pollFirst());
+    }
+  }
+
+  /**
+   * Pick a consumer for the partition. The consumer is sampled from the subscribers randomly until
+   * the hint accepts it, so it costs O(log C) in common case. If the sampling can't find a
+   * candidate, the subscribers are scanned by the order of cost, and the cheapest subscriber is
+   * used if the hint rejects all of them.
+   *
+   * @return the consumer, or -1 if no consumer subscribes the topic of partition
+   */
+  public int candidate(int partition, Hint hint, RandomGenerator random) {
+    var g = context.groupOfPartition[partition];
+    var group = context.groups[g];
+    if (group.length == 0) return -1;
+    for (var i = 0; i < SAMPLES; i++) {
+      var consumer = group[random.nextInt(group.length)];
+      if (hint.accept(this, consumer, partition)) return consumer;
+    }
+    for (var consumer : lows[g]) if (hint.accept(this, consumer, partition)) return consumer;
+    for (var consumer : highs[g]) if (hint.accept(this, consumer, partition)) return consumer;
+    for (var consumer : lows[g]) if (compatible(consumer, partition)) return consumer;
+    for (var consumer : highs[g]) if (compatible(consumer, partition)) return consumer;
+    return lows[g].first();
+  }
+
+  private static final int SAMPLES = 8;
+
+  /**
+   * @return true if the consumer is in the cheaper half of consumers subscribing the topic of
+   *     partition
+   */
+  public boolean lowCost(int consumer, int partition) {
+    return lows[context.groupOfPartition[partition]].contains(consumer);
+  }
+
+  /**
+   * @return true if the consumer holds no partition incompatible with the given partition
+   */
+  public boolean compatible(int consumer, int partition) {
+    return blocked[consumer] == null || !blocked[consumer].get(partition);
+  }
+
+  public Context context() {
+    return context;
+  }
+
+  /**
+   * @return the consumer of partition, or -1 if the partition is not assigned
+   */
+  public int consumer(int partition) {
+    return assignment[partition];
+  }
+
+  public double cost(int consumer) {
+    return consumerCost[consumer];
+  }
+
+  /**
+   * @return the number of partitions placed on a consumer which already holds an incompatible
+   *     partition
+   */
+  public int violations() {
+    return violations;
+  }
+
+  /**
+   * @return the number of partitions moved from their current owners
+   */
+  public int moves() {
+    return moves;
+  }
+
+  /**
+   * @return the standard deviation of consumer cost
+   */
+  public double standardDeviation() {
+    if (consumerCost.length == 0) return 0;
+    var avg = Arrays.stream(consumerCost).average().getAsDouble();
+    return Math.sqrt(
+        Arrays.stream(consumerCost).map(c -> Math.pow(c - avg, 2)).average().getAsDouble());
+  }
+
+  /**
+   * @return the assignment of all consumers, including those having no partitions
+   */
+  public Map<String, List<TopicPartition>> toMap() {
+    var result =
+        Arrays.stream(context.consumers)
+            .collect(
+                Collectors.toMap(
+                    c -> c, c -> (List<TopicPartition>) new ArrayList<TopicPartition>()));
+    for (var p = 0; p < assignment.length; p++)
+      if (assignment[p] != -1)
+        result.get(context.consumers[assignment[p]]).add(context.partitions[p]);
+    return result;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.assignor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.astraea.common.Configuration;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.cost.NoSufficientMetricsException;
+import org.astraea.common.cost.PartitionCost;
+
+/**
+ * This assignor uses the {@link org.astraea.common.cost.HasPartitionCost} (e.g. {@link
+ * org.astraea.common.cost.NetworkIngressCost}) to spread the consumer load evenly. The combinators
+ * are searched by {@link Shuffler#stickyShuffler(Map, Map, Map, Configuration)}, so the search is
+ * run in parallel within the {@link Shuffler#SHUFFLE_TIME} and the combinator moving fewer
+ * partitions is preferred.
+ *
+ * <p>If the metrics are not sufficient to calculate the partition cost, or all partitions have zero
+ * cost, every partition is regarded as the same cost. It means the partitions are spread evenly by
+ * the number.
+ */
+public class CostAwareAssignor extends Assignor {
+  public static final String MAX_WAIT_BEAN = "max.wait.bean";
+  static final Duration DEFAULT_MAX_WAIT_BEAN = Duration.ofSeconds(3);
+  static final Duration DEFAULT_SHUFFLE_TIME = Duration.ofSeconds(3);
+
+  private Configuration config = Configuration.EMPTY;
+  private Duration maxWaitBean = DEFAULT_MAX_WAIT_BEAN;
+
+  @Override
+  protected void configure(Configuration config) {
+    var raw = new HashMap<>(config.raw());
+    raw.putIfAbsent(Shuffler.SHUFFLE_TIME, DEFAULT_SHUFFLE_TIME.toMillis() + "ms");
+    this.config = new Configuration(raw);
+    this.maxWaitBean = config.duration(MAX_WAIT_BEAN).orElse(DEFAULT_MAX_WAIT_BEAN);
+  }
+
+  @Override
+  protected Map<String, List<TopicPartition>> assign(
+      Map<String, SubscriptionInfo> subscriptions, ClusterInfo clusterInfo) {
+    var topics =
+        subscriptions.values().stream()
+            .flatMap(s -> s.topics().stream())
+            .collect(Collectors.toUnmodifiableSet());
+    var partitions =
+        clusterInfo.topicPartitions().stream()
+            .filter(tp -> topics.contains(tp.topic()))
+            .collect(Collectors.toUnmodifiableSet());
+    if (partitions.isEmpty())
+      return subscriptions.keySet().stream()
+          .collect(Collectors.toMap(Function.identity(), ignored -> List.of()));
+
+    var cost = partitionCost(clusterInfo);
+    var costs =
+        partitions.stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    Function.identity(), tp -> cost.value().getOrDefault(tp, 0D)));
+    // the partitions having no cost (e.g. the topics are idle) are spread evenly by the number
+    var partitionCost =
+        costs.values().stream().allMatch(v -> v == 0)
+            ? partitions.stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), ignored -> 1D))
+            : costs;
+    var incompatible =
+        partitions.stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    Function.identity(),
+                    tp ->
+                        cost.incompatibility().getOrDefault(tp, Set.of()).stream()
+                            .filter(partitions::contains)
+                            .collect(Collectors.toUnmodifiableSet())));
+    return Shuffler.stickyShuffler(subscriptions, partitionCost, incompatible, config).shuffle();
+  }
+
+  /**
+   * Wait for the metrics required by the cost function. The partitions have the same cost if the
+   * metrics are still not sufficient after {@link #MAX_WAIT_BEAN}.
+   */
+  private PartitionCost partitionCost(ClusterInfo clusterInfo) {
+    try {
+      metricStore.wait(
+          clusterBean -> {
+            try {
+              costFunction.partitionCost(clusterInfo, clusterBean);
+              return true;
+            } catch (NoSufficientMetricsException e) {
+              return false;
+            }
+          },
+          maxWaitBean);
+      return costFunction.partitionCost(clusterInfo, metricStore.clusterBean());
+    } catch (IllegalStateException | NoSufficientMetricsException e) {
+      var cost =
+          clusterInfo.topicPartitions().stream()
+              .collect(Collectors.toUnmodifiableMap(Function.identity(), ignored -> 1D));
+      return () -> cost;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "cost-aware";
+  }
+}
@@ -16,39 +16,75 @@
  */
 package org.astraea.common.assignor;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import org.astraea.common.admin.TopicPartition;
 
+/**
+ * Generator creates a new {@link Combinator}. The consumer of each partition is picked by {@link
+ * Combinator#candidate(int, Hint, java.util.random.RandomGenerator)}, so generating a combinator
+ * costs O(P log C), where P is the number of partitions and C is the number of consumers.
+ */
 @FunctionalInterface
 public interface Generator {
 
-  Map<String, List<TopicPartition>> get();
+  Combinator get();
 
-  static Generator randomGenerator(
-      Map<String, SubscriptionInfo> subscription,
-      Map<TopicPartition, Double> partitionCost,
-      Hint hints) {
+  static Generator randomGenerator(Combinator.Context context, Hint hints) {
     return () -> {
-      Map<String, List<TopicPartition>> combinator =
-          subscription.keySet().stream()
-              .map(c -> Map.entry(c, new ArrayList<TopicPartition>()))
-              .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-      List<String> candidates;
-
-      for (var tp : partitionCost.keySet()) {
-        candidates = hints.get(combinator, tp);
-        if (candidates.isEmpty()) candidates = subscription.keySet().stream().toList();
-
-        combinator
-            .get(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size())))
-            .add(tp);
+      var random = ThreadLocalRandom.current();
+      var combinator = context.combinator();
+      for (var p = 0; p < context.numberOfPartitions(); p++) {
+        var consumer = combinator.candidate(p, hints, random);
+        if (consumer != -1) combinator.assign(p, consumer);
       }
+      return combinator;
+    };
+  }
 
+  /**
+   * Generate the combinator which tends to keep the partitions on their current owners. Each
+   * generated combinator picks a random stickiness, and each partition is kept on its owner with
+   * that probability. The other partitions are placed by the hints. Hence, the search space spans
+   * from "nothing moves" to "everything is shuffled".
+   *
+   * @param context the indexes of partitions and consumers. The current owners are recorded by it
+   * @param hints the hints to pick the candidates for the partitions which are not sticky
+   * @return generator
+   */
+  static Generator stickyGenerator(Combinator.Context context, Hint hints) {
+    return () -> {
+      var random = ThreadLocalRandom.current();
+      var stickiness = random.nextDouble();
+      var combinator = context.combinator();
+      var others = new int[context.numberOfPartitions()];
+      var count = 0;
+      for (var p = 0; p < context.numberOfPartitions(); p++) {
+        var owner = context.owner(p);
+        if (owner != -1 && random.nextDouble() < stickiness) combinator.assign(p, owner);
+        else others[count++] = p;
+      }
+      for (var i = 0; i < count; i++) {
+        var consumer = combinator.candidate(others[i], hints, random);
+        if (consumer != -1) combinator.assign(others[i], consumer);
+      }
       return combinator;
     };
   }
+
+  /**
+   * @param subscription the subscriptions of consumers
+   * @return the current owner of each partition. The owner is ignored if it does not subscribe the
+   *     topic anymore.
+   */
+  static Map<TopicPartition, String> owners(Map<String, SubscriptionInfo> subscription) {
+    return subscription.entrySet().stream()
+        .flatMap(
+            e ->
+                e.getValue().ownedPartitions().stream()
+                    .filter(tp -> e.getValue().topics().contains(tp.topic()))
+                    .map(tp -> Map.entry(tp, e.getKey())))
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue, (l, r) -> l));
+  }
 }
@@ -16,74 +16,32 @@
  */
 package org.astraea.common.assignor;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import org.astraea.common.admin.TopicPartition;
 
+/**
+ * Hint is used by {@link Generator} to decide whether a consumer is a suitable candidate of a
+ * partition. It reads the state tracked by {@link Combinator}, so a hint should take O(log C) at
+ * most.
+ */
 @FunctionalInterface
 public interface Hint {
-  List<String> get(Map<String, List<TopicPartition>> currentAssignment, TopicPartition tp);
+  boolean accept(Combinator combinator, int consumer, int partition);
 
   static Hint of(Set<Hint> hints) {
-    return (currentAssignment, tp) ->
-        hints.stream()
-            .map(h -> h.get(currentAssignment, tp))
-            .reduce((l1, l2) -> l1.stream().filter(l2::contains).toList())
-            .get();
-  }
-
-  static Hint lowCostHint(
-      Map<String, SubscriptionInfo> subscriptions, Map<TopicPartition, Double> partitionCost) {
-    return (currentAssignment, tp) -> {
-      var candidates =
-          currentAssignment.entrySet().stream()
-              .filter(e -> subscriptions.get(e.getKey()).topics().contains(tp.topic()))
-              .map(
-                  e ->
-                      Map.entry(
-                          e.getKey(), e.getValue().stream().mapToDouble(partitionCost::get).sum()))
-              .sorted(Map.Entry.comparingByValue())
-              .map(Map.Entry::getKey)
-              .toList();
-
-      return candidates.stream().limit((long) Math.ceil(candidates.size() / 2.0)).toList();
+    var all = hints.toArray(Hint[]::new);
+    return (combinator, consumer, partition) -> {
+      for (var hint : all) if (!hint.accept(combinator, consumer, partition)) return false;
+      return true;
     };
   }
 
-  static Hint incompatibleHint(
-      Map<String, SubscriptionInfo> subscriptions,
-      Map<TopicPartition, Set<TopicPartition>> incompatibilities) {
-    return (currentAssignment, tp) -> {
-      var subscriber =
-          subscriptions.entrySet().stream()
-              .filter(e -> e.getValue().topics().contains(tp.topic()))
-              .map(Map.Entry::getKey)
-              .toList();
-      if (incompatibilities.get(tp).isEmpty()) return subscriber;
-
-      var candidates =
-          currentAssignment.entrySet().stream()
-              .filter(e -> subscriber.contains(e.getKey()))
-              .map(
-                  e ->
-                      Map.entry(
-                          e.getKey(),
-                          e.getValue().stream()
-                              .filter(p -> incompatibilities.get(p).contains(tp))
-                              .count()))
-              .collect(
-                  Collectors.groupingBy(
-                      Map.Entry::getValue,
-                      Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
-              .entrySet()
-              .stream()
-              .min(Map.Entry.comparingByKey())
-              .get()
-              .getValue();
+  /** Accept the consumers in the cheaper half of consumers subscribing the topic of partition. */
+  static Hint lowCostHint() {
+    return Combinator::lowCost;
+  }
 
-      return candidates.isEmpty() ? List.of() : candidates;
-    };
+  /** Accept the consumers which hold no partition incompatible with the partition. */
+  static Hint incompatibleHint() {
+    return Combinator::compatible;
   }
 }
@@ -16,75 +16,54 @@
  */
 package org.astraea.common.assignor;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import org.astraea.common.admin.TopicPartition;
+import java.util.stream.IntStream;
 
+/** Limiter checks whether the generated {@link Combinator} is acceptable. */
 @FunctionalInterface
 public interface Limiter {
 
-  boolean check(Map<String, List<TopicPartition>> condition);
+  boolean check(Combinator combinator);
 
   static Limiter of(Set<Limiter> limiters) {
-    return (combinator) -> limiters.stream().allMatch(l -> l.check(combinator));
+    var all = limiters.toArray(Limiter[]::new);
+    return (combinator) -> {
+      for (var limiter : all) if (!limiter.check(combinator)) return false;
+      return true;
+    };
   }
 
-  static Limiter incompatibleLimiter(Map<TopicPartition, Set<TopicPartition>> incompatible) {
-    return (combinator) ->
-        combinator.entrySet().stream()
-                .map(
-                    e -> {
-                      var consumer = e.getKey();
-                      var tps = e.getValue();
-
-                      var unsuitable =
-                          incompatible.entrySet().stream()
-                              .filter(entry -> tps.contains(entry.getKey()))
-                              .flatMap(entry -> entry.getValue().stream())
-                              .collect(Collectors.toUnmodifiableSet());
-                      return Map.entry(consumer, tps.stream().filter(unsuitable::contains).count());
-                    })
-                .mapToDouble(Map.Entry::getValue)
-                .sum()
-            == 0;
+  /** Reject the combinator which places incompatible partitions on the same consumer. */
+  static Limiter incompatibleLimiter() {
+    return (combinator) -> combinator.violations() == 0;
   }
 
-  static Limiter skewCostLimiter(
-      Map<TopicPartition, Double> partitionCost, Map<String, SubscriptionInfo> subscriptions) {
-    var tmpConsumerCost =
-        subscriptions.keySet().stream()
-            .map(c -> Map.entry(c, 0.0))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    partitionCost.entrySet().stream()
-        .sorted(Map.Entry.comparingByValue())
-        .map(Map.Entry::getKey)
+  /**
+   * Reject the combinator which is more skewed than the greedy assignment. The greedy assignment
+   * places the partitions, in ascending order of cost, on the consumer having the lowest cost.
+   */
+  static Limiter skewCostLimiter(Combinator.Context context) {
+    var consumers = context.numberOfConsumers();
+    if (consumers == 0) return (combinator) -> true;
+    var greedy = context.combinator();
+    var cheapest =
+        new PriorityQueue<Integer>(
+            (l, r) -> {
+              var result = Double.compare(greedy.cost(l), greedy.cost(r));
+              return result != 0 ? result : Integer.compare(l, r);
+            });
+    IntStream.range(0, consumers).forEach(cheapest::add);
+    IntStream.range(0, context.numberOfPartitions())
+        .boxed()
+        .sorted((l, r) -> Double.compare(context.cost(l), context.cost(r)))
         .forEach(
-            tp -> {
-              var minCostConsumer =
-                  tmpConsumerCost.entrySet().stream().min(Map.Entry.comparingByValue()).get();
-              minCostConsumer.setValue(minCostConsumer.getValue() + partitionCost.get(tp));
+            p -> {
+              var consumer = cheapest.poll();
+              greedy.assign(p, consumer);
+              cheapest.add(consumer);
             });
-    var standardDeviation =
-        (Function<Collection<Double>, Double>)
-            (vs) -> {
-              var average = vs.stream().mapToDouble(c -> c).average().getAsDouble();
-              return Math.sqrt(
-                  vs.stream().mapToDouble(v -> Math.pow(v - average, 2)).average().getAsDouble());
-            };
-    var limit = standardDeviation.apply(tmpConsumerCost.values());
-
-    return (combinator) -> {
-      var sd =
-          standardDeviation.apply(
-              combinator.values().stream()
-                  .map(tps -> tps.stream().mapToDouble(partitionCost::get).sum())
-                  .collect(Collectors.toSet()));
-
-      return sd < limit;
-    };
+    var limit = greedy.standardDeviation();
+    return (combinator) -> combinator.standardDeviation() <= limit;
   }
 }
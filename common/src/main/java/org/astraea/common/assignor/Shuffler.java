@@ -16,16 +16,21 @@
  */
 package org.astraea.common.assignor;
 
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.admin.TopicPartition;
 
 public interface Shuffler {
+  String SHUFFLE_TIME = "shuffle.time";
+  String SHUFFLE_THREADS = "shuffle.threads";
+
   Map<String, List<TopicPartition>> shuffle();
 
   static Shuffler randomShuffler(
@@ -33,60 +38,119 @@ public interface Shuffler {
       Map<TopicPartition, Double> partitionCost,
       Map<TopicPartition, Set<TopicPartition>> incompatible,
       Configuration config) {
+    var context = Combinator.context(subscriptions, partitionCost, incompatible);
     var limiters =
-        Limiter.of(
-            Set.of(
-                Limiter.skewCostLimiter(partitionCost, subscriptions),
-                Limiter.incompatibleLimiter(incompatible)));
-    var hints =
-        Hint.of(
-            Set.of(
-                Hint.lowCostHint(subscriptions, partitionCost),
-                Hint.incompatibleHint(subscriptions, incompatible)));
-    var generator = Generator.randomGenerator(subscriptions, partitionCost, hints);
-    var shuffleTime = config.duration("shuffle.time").get().toMillis();
-    var standardDeviation =
-        (Function<Map<String, List<TopicPartition>>, Double>)
-            (combinator) -> {
-              var costPerConsumer =
-                  combinator.entrySet().stream()
-                      .map(
-                          e ->
-                              Map.entry(
-                                  e.getKey(),
-                                  e.getValue().stream().mapToDouble(partitionCost::get).sum()))
-                      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-              var avg =
-                  costPerConsumer.values().stream().mapToDouble(d -> d).average().getAsDouble();
-
-              return Math.sqrt(
-                  costPerConsumer.values().stream()
-                      .mapToDouble(d -> Math.pow(d - avg, 2))
-                      .average()
-                      .getAsDouble());
-            };
-    var rejectedCombinators = new HashSet<Map<String, List<TopicPartition>>>();
+        Limiter.of(Set.of(Limiter.skewCostLimiter(context), Limiter.incompatibleLimiter()));
+    var hints = Hint.of(Set.of(Hint.lowCostHint(), Hint.incompatibleHint()));
+    var generator = Generator.randomGenerator(context, hints);
+    var shuffleTime = config.duration(SHUFFLE_TIME).get().toMillis();
 
     return () -> {
-      Map<String, List<TopicPartition>> result = null;
+      Combinator rejected = null;
       var start = System.currentTimeMillis();
 
       while (System.currentTimeMillis() - start < shuffleTime) {
         var combinator = generator.get();
-        if (limiters.check(combinator)) {
-          result = combinator;
-          break;
-        }
-        rejectedCombinators.add(combinator);
+        if (limiters.check(combinator)) return combinator.toMap();
+        // only the rejected combinator having the lowest standard deviation is kept
+        if (rejected == null || combinator.standardDeviation() < rejected.standardDeviation())
+          rejected = combinator;
       }
 
-      return result == null
-          ? rejectedCombinators.stream()
-              .map(c -> Map.entry(c, standardDeviation.apply(c)))
-              .min(Map.Entry.comparingByValue())
-              .get()
-              .getKey()
-          : result;
+      return (rejected == null ? generator.get() : rejected).toMap();
     };
   }
+
+  /**
+   * Search the combinators in parallel within the {@link #SHUFFLE_TIME}. Each thread keeps its best
+   * combinator, and the best of them is returned. A combinator passing all limiters is always
+   * better than one which doesn't. Among the passed combinators, the one moving the fewest
+   * partitions from their current owners wins, and the standard deviation of consumer cost breaks
+   * the tie. The rejected combinators are compared by the standard deviation first. All threads
+   * stop early once a passed combinator moving no partition is found, since nothing can beat it
+   * except a lower standard deviation, which is not worth the rest of the shuffle time.
+   *
+   * @param subscriptions the subscriptions of consumers
+   * @param partitionCost the cost of each partition
+   * @param incompatible the partitions which are not suitable to be assigned together
+   * @param config it must contain {@link #SHUFFLE_TIME}. {@link #SHUFFLE_THREADS} is optional, and
+   *     the default value is the number of processors
+   * @return shuffler
+   */
+  static Shuffler stickyShuffler(
+      Map<String, SubscriptionInfo> subscriptions,
+      Map<TopicPartition, Double> partitionCost,
+      Map<TopicPartition, Set<TopicPartition>> incompatible,
+      Configuration config) {
+    var context = Combinator.context(subscriptions, partitionCost, incompatible);
+    var limiters =
+        Limiter.of(Set.of(Limiter.skewCostLimiter(context), Limiter.incompatibleLimiter()));
+    var hints = Hint.of(Set.of(Hint.lowCostHint(), Hint.incompatibleHint()));
+    var generator = Generator.stickyGenerator(context, hints);
+    var shuffleTime = config.duration(SHUFFLE_TIME).get().toNanos();
+    var threads =
+        config.integer(SHUFFLE_THREADS).orElse(Runtime.getRuntime().availableProcessors());
+    if (threads <= 0)
+      throw new IllegalArgumentException(
+          SHUFFLE_THREADS + " must be positive, but it is " + threads);
+
+    return () -> {
+      var deadline = System.nanoTime() + shuffleTime;
+      // set by the thread finding a passed combinator which keeps all current owners
+      var found = new AtomicBoolean(false);
+      try (var executor = Executors.newFixedThreadPool(threads)) {
+        var futures =
+            IntStream.range(0, threads)
+                .mapToObj(
+                    ignored ->
+                        CompletableFuture.supplyAsync(
+                            () -> {
+                              var best = Candidate.of(generator.get(), limiters);
+                              while (!best.optimal()
+                                  && !found.get()
+                                  && !Thread.currentThread().isInterrupted()
+                                  && System.nanoTime() < deadline) {
+                                var candidate = Candidate.of(generator.get(), limiters);
+                                if (Candidate.COMPARATOR.compare(candidate, best) < 0)
+                                  best = candidate;
+                              }
+                              if (best.optimal()) found.set(true);
+                              return best;
+                            },
+                            executor))
+                .toList();
+        return futures.stream()
+            .map(CompletableFuture::join)
+            .min(Candidate.COMPARATOR)
+            .get()
+            .combinator()
+            .toMap();
+      }
+    };
+  }
+
+  record Candidate(Combinator combinator, boolean passed, double standardDeviation) {
+    static Candidate of(Combinator combinator, Limiter limiter) {
+      return new Candidate(combinator, limiter.check(combinator), combinator.standardDeviation());
+    }
+
+    /**
+     * @return true if the combinator passes all limiters and moves no partition
+     */
+    boolean optimal() {
+      return passed && combinator.moves() == 0;
+    }
+
+    static final Comparator<Candidate> COMPARATOR =
+        Comparator.comparing((Candidate c) -> !c.passed())
+            .thenComparing(
+                (l, r) ->
+                    l.passed()
+                        ? Comparator.comparingInt((Candidate c) -> c.combinator().moves())
+                            .thenComparingDouble(Candidate::standardDeviation)
+                            .compare(l, r)
+                        : Comparator.comparingDouble(Candidate::standardDeviation)
+                            .thenComparingInt(c -> c.combinator().moves())
+                            .compare(l, r));
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.astraea.common.ByteUtils;
+import org.astraea.common.Utils;
+
+/**
+ * The footer index of the V2 backup format. It maps the offset and timestamp to the position of
+ * block, so the reader can skip the blocks which are not required.
+ *
+ * <pre>
+ * count (int), (position (long), records (int), first offset (long), last offset (long),
+ * min timestamp (long), max timestamp (long)) * count, footer position (long)
+ * </pre>
+ *
+ * @param entries the entries ordered by the position of block
+ */
+public record BlockIndex(List<Entry> entries) {
+
+  /**
+   * @param position the position of block from the beginning of the file
+   * @param records the number of records in the block
+   * @param firstOffset the offset of the first record
+   * @param lastOffset the offset of the last record
+   * @param minTimestamp the minimum timestamp of records
+   * @param maxTimestamp the maximum timestamp of records
+   */
+  public record Entry(
+      long position,
+      int records,
+      long firstOffset,
+      long lastOffset,
+      long minTimestamp,
+      long maxTimestamp) {
+    static final int SIZE = Integer.BYTES + 5 * Long.BYTES;
+  }
+
+  /**
+   * Read the index from the footer of a V2 backup file.
+   *
+   * @param channel the channel of the backup file. The position of channel is changed.
+   * @return the index
+   */
+  public static BlockIndex read(SeekableByteChannel channel) {
+    return Utils.packException(
+        () -> {
+          channel.position(0);
+          var version = ByteUtils.readShort(channel);
+          if (version != 2)
+            throw new IllegalArgumentException("the index is not supported by version " + version);
+          var size = channel.size();
+          channel.position(size - Long.BYTES);
+          var footerPosition = read(channel, Long.BYTES).getLong();
+          channel.position(footerPosition);
+          return of(read(channel, (int) (size - Long.BYTES - footerPosition)));
+        });
+  }
+
+  static BlockIndex of(ByteBuffer buffer) {
+    var count = buffer.getInt();
+    var entries = new ArrayList<Entry>(count);
+    for (var i = 0; i != count; ++i)
+      entries.add(
+          new Entry(
+              buffer.getLong(),
+              buffer.getInt(),
+              buffer.getLong(),
+              buffer.getLong(),
+              buffer.getLong(),
+              buffer.getLong()));
+    return new BlockIndex(List.copyOf(entries));
+  }
+
+  ByteBuffer toByteBuffer() {
+    var buffer = ByteBuffer.allocate(Integer.BYTES + entries.size() * Entry.SIZE);
+    buffer.putInt(entries.size());
+    entries.forEach(
+        e ->
+            buffer
+                .putLong(e.position())
+                .putInt(e.records())
+                .putLong(e.firstOffset())
+                .putLong(e.lastOffset())
+                .putLong(e.minTimestamp())
+                .putLong(e.maxTimestamp()));
+    return buffer.flip();
+  }
+
+  /**
+   * Find the first block which may contain the given offset. Noted that the offsets are increasing
+   * only if the file is composed of records from the same partition.
+   *
+   * @param offset to search
+   * @return the first block whose last offset is not smaller than given offset, or empty if all
+   *     offsets are smaller than given offset
+   */
+  public Optional<Entry> offset(long offset) {
+    int low = 0;
+    int high = entries.size();
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (entries.get(mid).lastOffset() < offset) low = mid + 1;
+      else high = mid;
+    }
+    return low == entries.size() ? Optional.empty() : Optional.of(entries.get(low));
+  }
+
+  /**
+   * Find the first block which has the record whose timestamp is not smaller than given timestamp.
+   *
+   * @param timestamp to search
+   * @return the first block whose max timestamp is not smaller than given timestamp, or empty if
+   *     all timestamps are smaller than given timestamp
+   */
+  public Optional<Entry> timestamp(long timestamp) {
+    return entries.stream().filter(e -> e.maxTimestamp() >= timestamp).findFirst();
+  }
+
+  /**
+   * @return the total number of records
+   */
+  public long records() {
+    return entries.stream().mapToLong(Entry::records).sum();
+  }
+
+  private static ByteBuffer read(SeekableByteChannel channel, int size) throws IOException {
+    var buffer = ByteBuffer.allocate(size);
+    while (buffer.hasRemaining())
+      if (channel.read(buffer) < 0) throw new EOFException("unexpected end of index");
+    return buffer.flip();
+  }
+}
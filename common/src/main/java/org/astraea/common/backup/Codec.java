@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+
+/**
+ * The compression codec of backup files. The V2 format compresses each block by {@link
+ * #compress(ByteBuffer)}, and the V1 format compresses the whole stream by {@link
+ * #wrap(OutputStream)}. The built-in codecs are `none`, `gzip`, `lz4`, `zstd` and `snappy`. The
+ * custom codec can be used by setting the full class name to {@link #COMPRESSION_TYPE}, and the
+ * class must have a public constructor which accepts {@link Configuration} or no argument.
+ */
+public interface Codec {
+
+  /** the name of built-in codec or the full class name of custom codec */
+  String COMPRESSION_TYPE = "compression.type";
+
+  /** the compression level. It is used by gzip, lz4 and zstd. */
+  String COMPRESSION_LEVEL = "compression.level";
+
+  /** the path of dictionary file. It is used by zstd. */
+  String COMPRESSION_DICTIONARY = "compression.dictionary";
+
+  byte NONE = 0;
+  byte GZIP = 1;
+  byte LZ4 = 2;
+  byte ZSTD = 3;
+  byte SNAPPY = 4;
+
+  /**
+   * @param configuration contains {@link #COMPRESSION_TYPE} and the settings of codec
+   * @return the codec of {@link #COMPRESSION_TYPE}, or `none` if the type is not defined
+   */
+  static Codec of(Configuration configuration) {
+    return of(configuration.string(COMPRESSION_TYPE).orElse("none"), configuration);
+  }
+
+  /**
+   * @param type the name of built-in codec or the full class name of custom codec
+   * @param configuration the settings of codec
+   * @return codec
+   */
+  static Codec of(String type, Configuration configuration) {
+    return switch (type) {
+      case "none" -> new NoneCodec();
+      case "gzip" -> new GzipCodec(configuration);
+      case "lz4" -> new Lz4Codec(configuration);
+      case "zstd" -> new ZstdCodec(configuration);
+      case "snappy" -> new SnappyCodec();
+      default -> {
+        if (!type.contains("."))
+          throw new IllegalArgumentException(
+              String.format("compression type '%s' is not supported", type));
+        yield Utils.construct(type, Codec.class, configuration);
+      }
+    };
+  }
+
+  /**
+   * Find the codec by the id stored in backup file.
+   *
+   * @param id of codec
+   * @param configuration the settings of codec. The custom codec is created by {@link
+   *     #COMPRESSION_TYPE}
+   * @return codec
+   */
+  static Codec of(byte id, Configuration configuration) {
+    return switch (id) {
+      case NONE -> of("none", configuration);
+      case GZIP -> of("gzip", configuration);
+      case LZ4 -> of("lz4", configuration);
+      case ZSTD -> of("zstd", configuration);
+      case SNAPPY -> of("snappy", configuration);
+      default -> {
+        var codec = of(configuration);
+        if (codec.id() != id)
+          throw new IllegalArgumentException(
+              "codec id: " + id + " is not matched to " + codec.name());
+        yield codec;
+      }
+    };
+  }
+
+  /**
+   * Find the codec by the magic number in the head of stream.
+   *
+   * @param head the first bytes of stream
+   * @param configuration the settings of codec
+   * @return the matched codec, or `none` if there is no matched codec
+   */
+  static Codec detect(byte[] head, Configuration configuration) {
+    return List.of(
+            of("gzip", configuration),
+            of("lz4", configuration),
+            of("zstd", configuration),
+            of("snappy", configuration))
+        .stream()
+        .filter(
+            c ->
+                head.length >= c.magic().length
+                    && Arrays.equals(head, 0, c.magic().length, c.magic(), 0, c.magic().length))
+        .findFirst()
+        .orElseGet(NoneCodec::new);
+  }
+
+  /**
+   * @return the id stored in backup file. The ids smaller than 64 are reserved by built-in codecs
+   */
+  byte id();
+
+  /**
+   * @return the name stored in the metadata of V1 backup file. It must be shorter than 10 bytes.
+   */
+  String name();
+
+  /**
+   * @return the magic number of the compressed stream, or empty array if there is no magic number
+   */
+  byte[] magic();
+
+  /**
+   * @param data from position to limit
+   * @return compressed data
+   */
+  byte[] compress(ByteBuffer data);
+
+  /**
+   * @param data compressed data
+   * @param uncompressedSize the size of data before compression
+   * @return uncompressed data
+   */
+  ByteBuffer decompress(byte[] data, int uncompressedSize);
+
+  /**
+   * @param data compressed data from position to limit
+   * @param uncompressedSize the size of data before compression
+   * @return uncompressed data
+   */
+  default ByteBuffer decompress(ByteBuffer data, int uncompressedSize) {
+    return decompress(bytes(data), uncompressedSize);
+  }
+
+  /**
+   * @param outputStream to write compressed data
+   * @return the stream which compresses the written data. Closing it finishes the compression and
+   *     closes the given stream.
+   */
+  OutputStream wrap(OutputStream outputStream);
+
+  /**
+   * @param inputStream to read compressed data
+   * @return the stream which decompresses the read data
+   */
+  InputStream wrap(InputStream inputStream);
+
+  /**
+   * @return the bytes from position to limit. It does not copy the data if the buffer is backed by
+   *     a whole array.
+   */
+  static byte[] bytes(ByteBuffer data) {
+    if (data.hasArray()
+        && data.arrayOffset() + data.position() == 0
+        && data.remaining() == data.array().length) return data.array();
+    var bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+
+class GzipCodec implements Codec {
+
+  private final int level;
+
+  GzipCodec(Configuration configuration) {
+    this.level = configuration.integer(COMPRESSION_LEVEL).orElse(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  @Override
+  public byte id() {
+    return GZIP;
+  }
+
+  @Override
+  public String name() {
+    return "gzip";
+  }
+
+  @Override
+  public byte[] magic() {
+    return new byte[] {(byte) 0x1f, (byte) 0x8b};
+  }
+
+  @Override
+  public byte[] compress(ByteBuffer data) {
+    return Utils.packException(
+        () -> {
+          var output = new ByteArrayOutputStream(data.remaining() / 2);
+          try (var gzip = wrap(output)) {
+            gzip.write(Codec.bytes(data));
+          }
+          return output.toByteArray();
+        });
+  }
+
+  @Override
+  public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+    return Utils.packException(
+        () -> {
+          try (var gzip = wrap(new ByteArrayInputStream(data))) {
+            var bytes = gzip.readNBytes(uncompressedSize);
+            if (bytes.length != uncompressedSize)
+              throw new IllegalStateException(
+                  "expected " + uncompressedSize + " bytes but got " + bytes.length);
+            return ByteBuffer.wrap(bytes);
+          }
+        });
+  }
+
+  @Override
+  public OutputStream wrap(OutputStream outputStream) {
+    return Utils.packException(
+        () ->
+            new GZIPOutputStream(outputStream) {
+              {
+                def.setLevel(level);
+              }
+            });
+  }
+
+  @Override
+  public InputStream wrap(InputStream inputStream) {
+    return Utils.packException(() -> new GZIPInputStream(inputStream));
+  }
+}
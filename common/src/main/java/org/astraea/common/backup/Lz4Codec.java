@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+
+class Lz4Codec implements Codec {
+
+  private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+
+  private final LZ4Compressor compressor;
+
+  Lz4Codec(Configuration configuration) {
+    // the default compressor is the fast one, and the level is used by the high compressor
+    this.compressor =
+        configuration
+            .integer(COMPRESSION_LEVEL)
+            .map(FACTORY::highCompressor)
+            .orElseGet(FACTORY::fastCompressor);
+  }
+
+  @Override
+  public byte id() {
+    return LZ4;
+  }
+
+  @Override
+  public String name() {
+    return "lz4";
+  }
+
+  @Override
+  public byte[] magic() {
+    return new byte[] {(byte) 0x04, (byte) 0x22, (byte) 0x4d, (byte) 0x18};
+  }
+
+  @Override
+  public byte[] compress(ByteBuffer data) {
+    return compressor.compress(Codec.bytes(data));
+  }
+
+  @Override
+  public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+    return ByteBuffer.wrap(FACTORY.fastDecompressor().decompress(data, uncompressedSize));
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data, int uncompressedSize) {
+    var output = ByteBuffer.allocate(uncompressedSize);
+    FACTORY.fastDecompressor().decompress(data, data.position(), output, 0, uncompressedSize);
+    return output;
+  }
+
+  @Override
+  public OutputStream wrap(OutputStream outputStream) {
+    return Utils.packException(
+        () ->
+            new LZ4FrameOutputStream(
+                outputStream,
+                LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB,
+                -1L,
+                compressor,
+                XXHashFactory.fastestInstance().hash32(),
+                LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE));
+  }
+
+  @Override
+  public InputStream wrap(InputStream inputStream) {
+    return Utils.packException(() -> new LZ4FrameInputStream(inputStream));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+class NoneCodec implements Codec {
+
+  @Override
+  public byte id() {
+    return NONE;
+  }
+
+  @Override
+  public String name() {
+    return "none";
+  }
+
+  @Override
+  public byte[] magic() {
+    return new byte[0];
+  }
+
+  @Override
+  public byte[] compress(ByteBuffer data) {
+    return Codec.bytes(data);
+  }
+
+  @Override
+  public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+    return ByteBuffer.wrap(data);
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data, int uncompressedSize) {
+    return data.slice();
+  }
+
+  @Override
+  public OutputStream wrap(OutputStream outputStream) {
+    return outputStream;
+  }
+
+  @Override
+  public InputStream wrap(InputStream inputStream) {
+    return inputStream;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.IntToLongFunction;
+import org.astraea.common.Utils;
+
+/**
+ * The sidecar index of the exported files of a partition. The exporter appends an entry on each
+ * roll, and the importer uses it to pick up the files which are required by point-in-time restore.
+ * The entries are fixed-size, so the lookups are binary searches over the (memory-mapped) buffer
+ * without deserializing the whole index.
+ *
+ * <pre>
+ * (first offset (long), last offset (long), min timestamp (long), max timestamp (long),
+ * cumulative max timestamp (long), records (long), bytes (long)) * n
+ * </pre>
+ *
+ * The exported file is named by its first offset, so the path of file is not stored.
+ */
+public final class PartitionIndex {
+
+  /** the name of index file. It is placed with the exported files of the partition. */
+  public static final String FILE_NAME = "index";
+
+  /**
+   * @param firstOffset the offset of the first record. It is also the name of the file
+   * @param lastOffset the offset of the last record
+   * @param minTimestamp the minimum timestamp of records
+   * @param maxTimestamp the maximum timestamp of records
+   * @param cumulativeMaxTimestamp the maximum timestamp of this file and all previous files. It is
+   *     non-decreasing, so the lookup by timestamp can be a binary search
+   * @param records the number of records
+   * @param bytes the size of records
+   */
+  public record Entry(
+      long firstOffset,
+      long lastOffset,
+      long minTimestamp,
+      long maxTimestamp,
+      long cumulativeMaxTimestamp,
+      long records,
+      long bytes) {
+    static final int SIZE = 7 * Long.BYTES;
+
+    /**
+     * @return the name of file in the partition folder
+     */
+    public String fileName() {
+      return String.valueOf(firstOffset);
+    }
+
+    public ByteBuffer toByteBuffer() {
+      return ByteBuffer.allocate(SIZE)
+          .putLong(firstOffset)
+          .putLong(lastOffset)
+          .putLong(minTimestamp)
+          .putLong(maxTimestamp)
+          .putLong(cumulativeMaxTimestamp)
+          .putLong(records)
+          .putLong(bytes)
+          .flip();
+    }
+  }
+
+  /**
+   * @param buffer the content of index file
+   * @return the index backed by the buffer
+   */
+  public static PartitionIndex of(ByteBuffer buffer) {
+    if (buffer.remaining() % Entry.SIZE != 0)
+      throw new IllegalArgumentException(
+          "the size of index must be multiple of "
+              + Entry.SIZE
+              + ", but it is "
+              + buffer.remaining());
+    return new PartitionIndex(buffer.slice().asReadOnlyBuffer());
+  }
+
+  /**
+   * @param path the local index file
+   * @return the index backed by the memory-mapped file
+   */
+  public static PartitionIndex map(Path path) {
+    return Utils.packException(
+        () -> {
+          try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+          }
+        });
+  }
+
+  /**
+   * Create the entry which follows this index.
+   *
+   * @return the entry with the cumulative max timestamp of this index
+   */
+  public Entry next(
+      long firstOffset,
+      long lastOffset,
+      long minTimestamp,
+      long maxTimestamp,
+      long records,
+      long bytes) {
+    var cumulative =
+        size() == 0
+            ? maxTimestamp
+            : Math.max(maxTimestamp, get(size() - 1).cumulativeMaxTimestamp());
+    return new Entry(
+        firstOffset, lastOffset, minTimestamp, maxTimestamp, cumulative, records, bytes);
+  }
+
+  /**
+   * Add the entry of a file to this index. The entries are kept in the order of offset even if the
+   * files are not added in order (for example, the partition is moved between exporters), and the
+   * entry of the same file is replaced.
+   *
+   * @return the new index
+   */
+  public PartitionIndex add(
+      long firstOffset,
+      long lastOffset,
+      long minTimestamp,
+      long maxTimestamp,
+      long records,
+      long bytes) {
+    var entries = new ArrayList<Entry>(size() + 1);
+    for (var i = 0; i < size(); i++) {
+      var entry = get(i);
+      if (entry.firstOffset() != firstOffset) entries.add(entry);
+    }
+    entries.add(
+        new Entry(
+            firstOffset, lastOffset, minTimestamp, maxTimestamp, maxTimestamp, records, bytes));
+    entries.sort(Comparator.comparingLong(Entry::firstOffset));
+    var result = ByteBuffer.allocate(entries.size() * Entry.SIZE);
+    var cumulative = Long.MIN_VALUE;
+    for (var e : entries) {
+      cumulative = Math.max(cumulative, e.maxTimestamp());
+      result.put(
+          new Entry(
+                  e.firstOffset(),
+                  e.lastOffset(),
+                  e.minTimestamp(),
+                  e.maxTimestamp(),
+                  cumulative,
+                  e.records(),
+                  e.bytes())
+              .toByteBuffer());
+    }
+    return of(result.flip());
+  }
+
+  private final ByteBuffer buffer;
+
+  private PartitionIndex(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public int size() {
+    return buffer.limit() / Entry.SIZE;
+  }
+
+  public Entry get(int index) {
+    var position = index * Entry.SIZE;
+    return new Entry(
+        buffer.getLong(position),
+        buffer.getLong(position + Long.BYTES),
+        buffer.getLong(position + 2 * Long.BYTES),
+        buffer.getLong(position + 3 * Long.BYTES),
+        buffer.getLong(position + 4 * Long.BYTES),
+        buffer.getLong(position + 5 * Long.BYTES),
+        buffer.getLong(position + 6 * Long.BYTES));
+  }
+
+  /**
+   * @param offset to search
+   * @return the first file whose last offset is not smaller than given offset, or empty if all
+   *     offsets are smaller than given offset
+   */
+  public Optional<Entry> offset(long offset) {
+    return search(i -> buffer.getLong(i * Entry.SIZE + Long.BYTES), offset);
+  }
+
+  /**
+   * @param timestamp to search
+   * @return the first file which has the record whose timestamp is not smaller than given
+   *     timestamp, or empty if all timestamps are smaller than given timestamp
+   */
+  public Optional<Entry> timestamp(long timestamp) {
+    return search(i -> buffer.getLong(i * Entry.SIZE + 4 * Long.BYTES), timestamp);
+  }
+
+  /**
+   * @return the content of index
+   */
+  public ByteBuffer toByteBuffer() {
+    return buffer.duplicate();
+  }
+
+  /** binary search the first entry whose (non-decreasing) key is not smaller than target */
+  private Optional<Entry> search(IntToLongFunction key, long target) {
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (key.applyAsLong(mid) < target) low = mid + 1;
+      else high = mid;
+    }
+    return low == size() ? Optional.empty() : Optional.of(get(low));
+  }
+}
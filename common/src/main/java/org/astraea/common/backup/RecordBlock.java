@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.common.utils.ByteUtils;
+import org.astraea.common.Header;
+import org.astraea.common.consumer.Record;
+
+/**
+ * The block of the V2 backup format. A block carries the records of a single topic-partition in
+ * columnar layout, so the repeated fields are written once and the numbers are compacted by delta
+ * encoding.
+ *
+ * <pre>
+ * topic (short length + utf-8), partition (int), count (int), base offset (long),
+ * base timestamp (long), offset deltas (varlong * count), timestamp deltas (varlong * count),
+ * key lengths (varint * count), value lengths (varint * count),
+ * headers (varint count + (varint length + key + varint length + value) * count) * count,
+ * keys, values
+ * </pre>
+ *
+ * The length of null key/value/header is -1. Each block is compressed independently by {@link
+ * Codec}.
+ */
+final class RecordBlock {
+
+  /** the size of block header in the file: compressed size, uncompressed size and codec */
+  static final int HEADER_SIZE = Integer.BYTES * 2 + Byte.BYTES;
+
+  /** the compressed size of the end marker, which means there is no more block */
+  static final int END = -1;
+
+  /**
+   * @return the size of record in the block. It does not count the column headers.
+   */
+  static int size(Record<byte[], byte[]> record) {
+    var size =
+        2 * Long.BYTES
+            + sizeOfLengthBytes(record.key())
+            + sizeOfLengthBytes(record.value())
+            + ByteUtils.sizeOfVarint(record.headers().size());
+    for (var header : record.headers())
+      size +=
+          sizeOfLengthBytes(header.key().getBytes(StandardCharsets.UTF_8))
+              + sizeOfLengthBytes(header.value());
+    return size;
+  }
+
+  static ByteBuffer encode(List<Record<byte[], byte[]>> records) {
+    var first = records.get(0);
+    var topic = first.topic().getBytes(StandardCharsets.UTF_8);
+    var baseOffset = first.offset();
+    var baseTimestamp = first.timestamp();
+
+    var size = Short.BYTES + topic.length + 2 * Integer.BYTES + 2 * Long.BYTES;
+    var previousOffset = baseOffset;
+    for (var record : records) {
+      size += ByteUtils.sizeOfVarlong(record.offset() - previousOffset);
+      size += ByteUtils.sizeOfVarlong(record.timestamp() - baseTimestamp);
+      size += sizeOfLengthBytes(record.key()) + sizeOfLengthBytes(record.value());
+      size += ByteUtils.sizeOfVarint(record.headers().size());
+      for (var header : record.headers())
+        size +=
+            sizeOfLengthBytes(header.key().getBytes(StandardCharsets.UTF_8))
+                + sizeOfLengthBytes(header.value());
+      previousOffset = record.offset();
+    }
+
+    var buffer = ByteBuffer.allocate(size);
+    buffer.putShort((short) topic.length);
+    buffer.put(topic);
+    buffer.putInt(first.partition());
+    buffer.putInt(records.size());
+    buffer.putLong(baseOffset);
+    buffer.putLong(baseTimestamp);
+    previousOffset = baseOffset;
+    for (var record : records) {
+      ByteUtils.writeVarlong(record.offset() - previousOffset, buffer);
+      previousOffset = record.offset();
+    }
+    for (var record : records) ByteUtils.writeVarlong(record.timestamp() - baseTimestamp, buffer);
+    for (var record : records) ByteUtils.writeVarint(length(record.key()), buffer);
+    for (var record : records) ByteUtils.writeVarint(length(record.value()), buffer);
+    for (var record : records) {
+      ByteUtils.writeVarint(record.headers().size(), buffer);
+      for (var header : record.headers()) {
+        putLengthBytes(buffer, header.key().getBytes(StandardCharsets.UTF_8));
+        putLengthBytes(buffer, header.value());
+      }
+    }
+    for (var record : records) if (record.key() != null) buffer.put(record.key());
+    for (var record : records) if (record.value() != null) buffer.put(record.value());
+    return buffer.flip();
+  }
+
+  /**
+   * Decode the records from the uncompressed block. The keys and values of returned records are
+   * read-only views of the block, so they are not copied.
+   */
+  static List<Record<ByteBuffer, ByteBuffer>> decode(ByteBuffer buffer) {
+    var topic = org.astraea.common.ByteUtils.readString(buffer, buffer.getShort());
+    var partition = buffer.getInt();
+    var count = buffer.getInt();
+    var offsets = new long[count];
+    var timestamps = new long[count];
+    var keyLengths = new int[count];
+    var valueLengths = new int[count];
+    var headers = new ArrayList<List<Header>>(count);
+
+    var offset = buffer.getLong();
+    var baseTimestamp = buffer.getLong();
+    for (var i = 0; i != count; ++i) {
+      offset += ByteUtils.readVarlong(buffer);
+      offsets[i] = offset;
+    }
+    for (var i = 0; i != count; ++i) timestamps[i] = baseTimestamp + ByteUtils.readVarlong(buffer);
+    for (var i = 0; i != count; ++i) keyLengths[i] = ByteUtils.readVarint(buffer);
+    for (var i = 0; i != count; ++i) valueLengths[i] = ByteUtils.readVarint(buffer);
+    for (var i = 0; i != count; ++i) {
+      var size = ByteUtils.readVarint(buffer);
+      var hs = new ArrayList<Header>(size);
+      for (var j = 0; j != size; ++j) {
+        var key = readLengthBytes(buffer);
+        hs.add(new Header(new String(key, StandardCharsets.UTF_8), readLengthBytes(buffer)));
+      }
+      headers.add(hs);
+    }
+    var keys = new ByteBuffer[count];
+    var values = new ByteBuffer[count];
+    for (var i = 0; i != count; ++i) keys[i] = slice(buffer, keyLengths[i]);
+    for (var i = 0; i != count; ++i) values[i] = slice(buffer, valueLengths[i]);
+
+    var records = new ArrayList<Record<ByteBuffer, ByteBuffer>>(count);
+    for (var i = 0; i != count; ++i)
+      records.add(
+          Record.builder()
+              .topic(topic)
+              .partition(partition)
+              .offset(offsets[i])
+              .timestamp(timestamps[i])
+              .headers(headers.get(i))
+              .key(keys[i])
+              .value(values[i])
+              .serializedKeySize(Math.max(0, keyLengths[i]))
+              .serializedValueSize(Math.max(0, valueLengths[i]))
+              .build());
+    return records;
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int length) {
+    if (length < 0) return null;
+    var slice = buffer.slice(buffer.position(), length).asReadOnlyBuffer();
+    buffer.position(buffer.position() + length);
+    return slice;
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes == null ? -1 : bytes.length;
+  }
+
+  private static int sizeOfLengthBytes(byte[] bytes) {
+    return ByteUtils.sizeOfVarint(length(bytes)) + (bytes == null ? 0 : bytes.length);
+  }
+
+  private static void putLengthBytes(ByteBuffer buffer, byte[] bytes) {
+    ByteUtils.writeVarint(length(bytes), buffer);
+    if (bytes != null) buffer.put(bytes);
+  }
+
+  private static byte[] readLengthBytes(ByteBuffer buffer) {
+    return org.astraea.common.ByteUtils.readBytes(buffer, ByteUtils.readVarint(buffer));
+  }
+
+  private RecordBlock() {}
+}
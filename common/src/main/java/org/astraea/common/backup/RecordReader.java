@@ -19,12 +19,53 @@ package org.astraea.common.backup;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Iterator;
+import org.astraea.common.ByteUtils;
+import org.astraea.common.Configuration;
 import org.astraea.common.Utils;
 import org.astraea.common.consumer.Record;
 
 public interface RecordReader extends Iterator<Record<byte[], byte[]>> {
 
+  /**
+   * Read the next record without copying the key and value. The returned key and value are
+   * read-only views of the parsed data.
+   *
+   * @return next record
+   * @throws java.util.NoSuchElementException if there is no more record
+   */
+  Record<ByteBuffer, ByteBuffer> nextBuffer();
+
+  /**
+   * Read the next record and copy the key and value to byte arrays.
+   *
+   * @return next record
+   * @throws java.util.NoSuchElementException if there is no more record
+   */
+  @Override
+  default Record<byte[], byte[]> next() {
+    var record = nextBuffer();
+    return Record.builder()
+        .topic(record.topic())
+        .partition(record.partition())
+        .offset(record.offset())
+        .timestamp(record.timestamp())
+        .headers(record.headers())
+        .key(
+            record.key() == null
+                ? null
+                : ByteUtils.readBytes(record.key().duplicate(), record.key().remaining()))
+        .value(
+            record.value() == null
+                ? null
+                : ByteUtils.readBytes(record.value().duplicate(), record.value().remaining()))
+        .serializedKeySize(record.serializedKeySize())
+        .serializedValueSize(record.serializedValueSize())
+        .build();
+  }
+
   static RecordReaderBuilder builder(File file) {
     return Utils.packException(() -> builder(new FileInputStream(file)));
   }
@@ -32,4 +73,59 @@ public interface RecordReader extends Iterator<Record<byte[], byte[]>> {
   static RecordReaderBuilder builder(InputStream inputStream) {
     return new RecordReaderBuilder(inputStream);
   }
+
+  /**
+   * @param inputStream to read
+   * @param configuration the settings of codec, for example, the dictionary of zstd
+   * @return builder
+   */
+  static RecordReaderBuilder builder(InputStream inputStream, Configuration configuration) {
+    return new RecordReaderBuilder(inputStream, configuration);
+  }
+
+  /**
+   * Parse the records from the buffer directly. The keys and values returned by {@link
+   * #nextBuffer()} are views of the buffer if the records are not compressed, so it is useful to
+   * read the memory-mapped backup file without copying it to heap.
+   *
+   * @param buffer from position to limit
+   * @return builder
+   */
+  static RecordReaderBuilder builder(ByteBuffer buffer) {
+    return builder(buffer, Configuration.EMPTY);
+  }
+
+  /**
+   * @param buffer from position to limit
+   * @param configuration the settings of codec, for example, the dictionary of zstd
+   * @return builder
+   */
+  static RecordReaderBuilder builder(ByteBuffer buffer, Configuration configuration) {
+    return new RecordReaderBuilder(buffer, configuration);
+  }
+
+  /**
+   * Read the V2 backup from the given offset. It uses the footer index to skip the blocks before
+   * the offset.
+   *
+   * @param channel of V2 backup file
+   * @param offset the offset to start
+   * @return record reader
+   */
+  static RecordReader of(SeekableByteChannel channel, long offset) {
+    return of(channel, offset, Configuration.EMPTY);
+  }
+
+  /**
+   * Read the V2 backup from the given offset. It uses the footer index to skip the blocks before
+   * the offset.
+   *
+   * @param channel of V2 backup file
+   * @param offset the offset to start
+   * @param configuration the settings of codec, for example, the dictionary of zstd
+   * @return record reader
+   */
+  static RecordReader of(SeekableByteChannel channel, long offset, Configuration configuration) {
+    return RecordReaderBuilder.build(channel, offset, configuration);
+  }
 }
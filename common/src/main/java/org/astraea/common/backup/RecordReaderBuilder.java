@@ -16,67 +16,177 @@
  */
 package org.astraea.common.backup;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.zip.GZIPInputStream;
+import java.util.function.Supplier;
 import org.astraea.common.ByteUtils;
+import org.astraea.common.Configuration;
 import org.astraea.common.Header;
 import org.astraea.common.SerializationException;
+import org.astraea.common.Utils;
 import org.astraea.common.consumer.Record;
 import org.astraea.common.generated.RecordOuterClass;
 
 public class RecordReaderBuilder {
 
+  /** the max size of magic number of built-in codecs */
+  private static final int MAGIC_SIZE = 10;
+
+  /** connector name (255 bytes), count (4 bytes), interval (8 bytes) and compression (10 bytes) */
+  private static final int V1_METADATA_SIZE = 255 + Integer.BYTES + Long.BYTES + 10;
+
   private static final Function<InputStream, RecordReader> V0 =
-      inputStream ->
-          new RecordReader() {
-            private Record<byte[], byte[]> current = null;
-
-            @Override
-            public boolean hasNext() {
-              // Try to parse a record from the inputStream. And store the parsed record for
-              // RecordReader#next().
-              if (current == null) current = readRecord(inputStream);
-
-              // nextCache is null if the stream reach EOF.
-              return current != null;
-            }
-
-            @Override
-            public Record<byte[], byte[]> next() {
-              if (hasNext()) {
-                var next = current;
-                current = null;
-                return next;
-              }
-              throw new NoSuchElementException("RecordReader has no more elements.");
-            }
-          };
+      inputStream -> records(() -> readRecord(inputStream));
+
+  private static final Function<ByteBuffer, RecordReader> V0_BUFFER =
+      buffer -> records(() -> readRecord(buffer));
+
+  private static final BiFunction<Configuration, InputStream, RecordReader> V2 =
+      (configuration, inputStream) -> {
+        var input = new DataInputStream(inputStream);
+        return blocks(configuration, codecs -> readBlock(input, codecs));
+      };
+
+  private static final BiFunction<Configuration, ByteBuffer, RecordReader> V2_BUFFER =
+      (configuration, buffer) -> blocks(configuration, codecs -> readBlock(buffer, codecs));
+
+  /**
+   * @param nextRecord returns the parsed record, or null if there is no more record
+   */
+  private static RecordReader records(Supplier<Record<ByteBuffer, ByteBuffer>> nextRecord) {
+    return new RecordReader() {
+      private Record<ByteBuffer, ByteBuffer> current = null;
+
+      @Override
+      public boolean hasNext() {
+        // Try to parse a record from the source. And store the parsed record for
+        // RecordReader#next().
+        if (current == null) current = nextRecord.get();
+
+        // nextCache is null if the source reach EOF.
+        return current != null;
+      }
+
+      @Override
+      public Record<ByteBuffer, ByteBuffer> nextBuffer() {
+        if (hasNext()) {
+          var next = current;
+          current = null;
+          return next;
+        }
+        throw new NoSuchElementException("RecordReader has no more elements.");
+      }
+    };
+  }
+
+  /**
+   * @param nextBlock returns the records of next block, or null if there is no more block
+   */
+  private static RecordReader blocks(
+      Configuration configuration,
+      Function<Function<Byte, Codec>, List<Record<ByteBuffer, ByteBuffer>>> nextBlock) {
+    return new RecordReader() {
+      private final Map<Byte, Codec> codecs = new HashMap<>();
+      private Iterator<Record<ByteBuffer, ByteBuffer>> block = Collections.emptyIterator();
+      private boolean end = false;
+
+      @Override
+      public boolean hasNext() {
+        while (!block.hasNext() && !end) {
+          var records =
+              nextBlock.apply(id -> codecs.computeIfAbsent(id, i -> Codec.of(i, configuration)));
+          if (records == null) end = true;
+          else block = records.iterator();
+        }
+        return block.hasNext();
+      }
+
+      @Override
+      public Record<ByteBuffer, ByteBuffer> nextBuffer() {
+        if (hasNext()) return block.next();
+        throw new NoSuchElementException("RecordReader has no more elements.");
+      }
+    };
+  }
+
+  /** Records of next block, or null if there is no more block. */
+  private static List<Record<ByteBuffer, ByteBuffer>> readBlock(
+      DataInputStream input, Function<Byte, Codec> codecs) {
+    try {
+      var size = input.readInt();
+      if (size == RecordBlock.END) return null;
+      var uncompressedSize = input.readInt();
+      var codec = codecs.apply(input.readByte());
+      var bytes = input.readNBytes(size);
+      // the file is truncated, so the incomplete block is ignored
+      if (bytes.length != size) return null;
+      return RecordBlock.decode(codec.decompress(bytes, uncompressedSize));
+    } catch (EOFException e) {
+      // the file is truncated, and there is no end marker
+      return null;
+    } catch (IOException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  /**
+   * Records of next block, or null if there is no more block. The compressed bytes are sliced from
+   * the buffer, so the records of uncompressed block are views of the buffer.
+   */
+  private static List<Record<ByteBuffer, ByteBuffer>> readBlock(
+      ByteBuffer buffer, Function<Byte, Codec> codecs) {
+    // the file is truncated, and there is no end marker
+    if (buffer.remaining() < Integer.BYTES) return null;
+    var size = buffer.getInt();
+    if (size == RecordBlock.END) return null;
+    // the file is truncated, so the incomplete block is ignored
+    if (buffer.remaining() < Integer.BYTES + Byte.BYTES + size) return null;
+    var uncompressedSize = buffer.getInt();
+    var codec = codecs.apply(buffer.get());
+    var bytes = buffer.slice(buffer.position(), size);
+    buffer.position(buffer.position() + size);
+    return RecordBlock.decode(codec.decompress(bytes, uncompressedSize));
+  }
 
   /** Parsed message if successful, or null if the stream is at EOF. */
-  private static Record<byte[], byte[]> readRecord(InputStream inputStream) {
+  private static Record<ByteBuffer, ByteBuffer> readRecord(InputStream inputStream) {
     try {
-      var outerRecord = RecordOuterClass.Record.parseDelimitedFrom(inputStream);
+      var outerRecord = parseDelimited(inputStream);
       // inputStream reaches EOF
       if (outerRecord == null) return null;
-      return Record.builder()
-          .topic(outerRecord.getTopic())
-          .headers(
-              outerRecord.getHeadersList().stream()
-                  .map(header -> new Header(header.getKey(), header.getValue().toByteArray()))
-                  .toList())
-          .key(outerRecord.getKey().toByteArray())
-          .value(outerRecord.getValue().toByteArray())
-          .offset(outerRecord.getOffset())
-          .timestamp(outerRecord.getTimestamp())
-          .partition(outerRecord.getPartition())
-          .serializedKeySize(outerRecord.getKey().size())
-          .serializedValueSize(outerRecord.getValue().size())
-          .build();
+      return record(outerRecord);
+    } catch (IOException e) {
+      // swallow the exception until the importer can read metadata at the end of the file.
+      if (!(e instanceof InvalidProtocolBufferException)) throw new SerializationException(e);
+    }
+    return null;
+  }
+
+  /** Parsed message if successful, or null if the buffer has no remaining bytes. */
+  private static Record<ByteBuffer, ByteBuffer> readRecord(ByteBuffer buffer) {
+    try {
+      var outerRecord = parseDelimited(buffer);
+      // buffer reaches the end
+      if (outerRecord == null) return null;
+      return record(outerRecord);
     } catch (IOException e) {
       // swallow the exception until the importer can read metadata at the end of the file.
       if (!(e instanceof InvalidProtocolBufferException)) throw new SerializationException(e);
@@ -84,31 +194,281 @@ public class RecordReaderBuilder {
     return null;
   }
 
+  private static Record<ByteBuffer, ByteBuffer> record(RecordOuterClass.Record outerRecord) {
+    return Record.builder()
+        .topic(outerRecord.getTopic())
+        .headers(
+            outerRecord.getHeadersList().stream()
+                .map(header -> new Header(header.getKey(), header.getValue().toByteArray()))
+                .toList())
+        .key(outerRecord.getKey().asReadOnlyByteBuffer())
+        .value(outerRecord.getValue().asReadOnlyByteBuffer())
+        .offset(outerRecord.getOffset())
+        .timestamp(outerRecord.getTimestamp())
+        .partition(outerRecord.getPartition())
+        .serializedKeySize(outerRecord.getKey().size())
+        .serializedValueSize(outerRecord.getValue().size())
+        .build();
+  }
+
+  /**
+   * Read the whole delimited message into a byte array, and then parse the message with aliasing.
+   * The parsed bytes fields are views of the byte array, so they are not copied again.
+   *
+   * @return parsed message or null if the stream is at EOF
+   */
+  private static RecordOuterClass.Record parseDelimited(InputStream inputStream)
+      throws IOException {
+    var firstByte = inputStream.read();
+    if (firstByte == -1) return null;
+    var size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+    if (size < 0) throw new InvalidProtocolBufferException("negative size: " + size);
+    var bytes = inputStream.readNBytes(size);
+    if (bytes.length != size) throw new InvalidProtocolBufferException("truncated message");
+    var input = UnsafeByteOperations.unsafeWrap(bytes).newCodedInput();
+    input.enableAliasing(true);
+    return RecordOuterClass.Record.parseFrom(input);
+  }
+
+  /**
+   * Parse the delimited message from the buffer with aliasing. The parsed bytes fields are views of
+   * the buffer, so the mapped file is not copied to heap.
+   *
+   * @return parsed message or null if the buffer has no remaining bytes
+   */
+  private static RecordOuterClass.Record parseDelimited(ByteBuffer buffer) throws IOException {
+    if (!buffer.hasRemaining()) return null;
+    var sizeInput = CodedInputStream.newInstance(buffer.slice());
+    var size = sizeInput.readRawVarint32();
+    var start = buffer.position() + sizeInput.getTotalBytesRead();
+    if (size < 0) throw new InvalidProtocolBufferException("negative size: " + size);
+    if (buffer.limit() - start < size)
+      throw new InvalidProtocolBufferException("truncated message");
+    buffer.position(start + size);
+    var input = UnsafeByteOperations.unsafeWrap(buffer.slice(start, size)).newCodedInput();
+    input.enableAliasing(true);
+    return RecordOuterClass.Record.parseFrom(input);
+  }
+
+  /** the in-memory source. It is null if the records are read from {@link #fs} */
+  private ByteBuffer buffer;
+
   private InputStream fs;
+  private final Configuration configuration;
 
   RecordReaderBuilder(InputStream inputStream) {
+    this(inputStream, Configuration.EMPTY);
+  }
+
+  RecordReaderBuilder(InputStream inputStream, Configuration configuration) {
     this.fs = inputStream;
+    this.configuration = configuration;
+  }
+
+  RecordReaderBuilder(ByteBuffer buffer, Configuration configuration) {
+    this.buffer = buffer.slice();
+    this.configuration = configuration;
   }
 
-  public RecordReaderBuilder compression() throws IOException {
-    this.fs = new GZIPInputStream(this.fs);
+  /**
+   * decompress the whole stream. The codec is detected by the magic number in the head of stream
+   * unless {@link Codec#COMPRESSION_TYPE} is set, and the stream is read as is if no codec is
+   * detected.
+   */
+  public RecordReaderBuilder compression() {
+    this.fs =
+        configuration.string(Codec.COMPRESSION_TYPE).isPresent()
+            ? Codec.of(configuration).wrap(stream())
+            : decompressIfRequired(stream(), configuration);
+    this.buffer = null;
     return this;
   }
 
+  /** It is no-op if the records are read from an in-memory buffer. */
   public RecordReaderBuilder buffered() {
-    this.fs = new BufferedInputStream(this.fs);
+    if (buffer == null) this.fs = new BufferedInputStream(this.fs);
     return this;
   }
 
+  /** It is no-op if the records are read from an in-memory buffer. */
   public RecordReaderBuilder buffered(int size) {
-    this.fs = new BufferedInputStream(this.fs, size);
+    if (buffer == null) this.fs = new BufferedInputStream(this.fs, size);
     return this;
   }
 
   public RecordReader build() {
+    if (buffer != null) return build(buffer, configuration);
     var version = ByteUtils.readShort(fs);
-    if (version == 0 || version == 1) return V0.apply(fs);
+    if (version == 0) return V0.apply(fs);
+    if (version == 1)
+      return V0.apply(decompressIfRequired(excludeTail(fs, V1_METADATA_SIZE), configuration));
+    if (version == 2) return V2.apply(configuration, fs);
 
     throw new IllegalArgumentException("unsupported version: " + version);
   }
+
+  private static RecordReader build(ByteBuffer buffer, Configuration configuration) {
+    var version = buffer.getShort();
+    if (version == 0) return V0_BUFFER.apply(buffer);
+    if (version == 1)
+      return V0.apply(
+          decompressIfRequired(
+              stream(
+                  buffer.slice(
+                      buffer.position(), Math.max(0, buffer.remaining() - V1_METADATA_SIZE))),
+              configuration));
+    if (version == 2) return V2_BUFFER.apply(configuration, buffer);
+
+    throw new IllegalArgumentException("unsupported version: " + version);
+  }
+
+  private InputStream stream() {
+    return buffer == null ? fs : stream(buffer);
+  }
+
+  private static InputStream stream(ByteBuffer buffer) {
+    return new InputStream() {
+      @Override
+      public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+        var size = Math.min(len, buffer.remaining());
+        buffer.get(b, off, size);
+        return size;
+      }
+
+      @Override
+      public int available() {
+        return buffer.remaining();
+      }
+    };
+  }
+
+  /**
+   * Read the V2 backup from the block which may contain the given offset. The blocks before the
+   * offset are skipped by the footer index, and the records whose offset is smaller than the given
+   * offset are filtered.
+   *
+   * @param channel of V2 backup file
+   * @param offset the offset to start
+   * @param configuration the settings of codec
+   * @return record reader
+   */
+  static RecordReader build(SeekableByteChannel channel, long offset, Configuration configuration) {
+    var entry = BlockIndex.read(channel).offset(offset);
+    if (entry.isEmpty()) return V2.apply(configuration, InputStream.nullInputStream());
+    Utils.packException(() -> channel.position(entry.get().position()));
+    var reader = V2.apply(configuration, new BufferedInputStream(Channels.newInputStream(channel)));
+    return new RecordReader() {
+      private Record<ByteBuffer, ByteBuffer> current = null;
+
+      @Override
+      public boolean hasNext() {
+        while (current == null && reader.hasNext()) {
+          var next = reader.nextBuffer();
+          if (next.offset() >= offset) current = next;
+        }
+        return current != null;
+      }
+
+      @Override
+      public Record<ByteBuffer, ByteBuffer> nextBuffer() {
+        if (hasNext()) {
+          var next = current;
+          current = null;
+          return next;
+        }
+        throw new NoSuchElementException("RecordReader has no more elements.");
+      }
+    };
+  }
+
+  /**
+   * The records of V1 are compressed if the compression type is not none, and the version is not
+   * compressed. Hence, it checks the magic number of codecs after the version.
+   */
+  private static InputStream decompressIfRequired(
+      InputStream inputStream, Configuration configuration) {
+    var input = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+    return Utils.packException(
+        () -> {
+          input.mark(MAGIC_SIZE);
+          var head = input.readNBytes(MAGIC_SIZE);
+          input.reset();
+          return Codec.detect(head, configuration).wrap(input);
+        });
+  }
+
+  /**
+   * The metadata of V1 is appended to the end of compressed records, and the decompression can't
+   * handle the trailing bytes. Hence, this stream holds back the last bytes of the given stream.
+   */
+  private static InputStream excludeTail(InputStream inputStream, int tail) {
+    return new FilterInputStream(inputStream) {
+      private final byte[] window = new byte[8192 + tail];
+      // the valid bytes are in [start, end)
+      private int start = 0;
+      private int end = 0;
+      private boolean eof = false;
+
+      /**
+       * @return true if there are readable bytes
+       */
+      private boolean fill() throws IOException {
+        while (!eof && end - start <= tail) {
+          if (end == window.length) {
+            System.arraycopy(window, start, window, 0, end - start);
+            end -= start;
+            start = 0;
+          }
+          var size = in.read(window, end, window.length - end);
+          if (size < 0) eof = true;
+          else end += size;
+        }
+        return end - start > tail;
+      }
+
+      @Override
+      public int read() throws IOException {
+        if (!fill()) return -1;
+        return window[start++] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!fill()) return -1;
+        var size = Math.min(len, end - start - tail);
+        System.arraycopy(window, start, b, off, size);
+        start += size;
+        return size;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+        var skipped = 0L;
+        while (skipped < n && fill()) {
+          var size = (int) Math.min(n - skipped, end - start - tail);
+          start += size;
+          skipped += size;
+        }
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return Math.max(0, end - start - tail);
+      }
+
+      @Override
+      public boolean markSupported() {
+        return false;
+      }
+    };
+  }
 }
@@ -18,14 +18,17 @@ package org.astraea.common.backup;
 
 import com.google.protobuf.ByteString;
 import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.zip.GZIPOutputStream;
 import org.astraea.common.ByteUtils;
 import org.astraea.common.Configuration;
 import org.astraea.common.DataSize;
@@ -119,8 +122,8 @@ public class RecordWriterBuilder {
             private final AtomicLong latestAppendTimestamp = new AtomicLong();
             private final String connectorName;
             private final Long interval;
-            private final String compressionType;
-            private OutputStream targetOutputStream;
+            private final Codec codec;
+            private final OutputStream targetOutputStream;
 
             // instance initializer block
             {
@@ -131,18 +134,9 @@ public class RecordWriterBuilder {
                       .map(Utils::toDuration)
                       .orElse(Duration.ofSeconds(3))
                       .toMillis();
-              this.compressionType = configuration.string("compression.type").orElse("none");
-
-              switch (this.compressionType) {
-                case "gzip" ->
-                    Utils.packException(
-                        () -> this.targetOutputStream = new GZIPOutputStream(outputStream));
-                case "none" -> this.targetOutputStream = outputStream;
-                default ->
-                    throw new IllegalArgumentException(
-                        String.format(
-                            "compression type '%s' is not supported", this.compressionType));
-              }
+              this.codec = Codec.of(configuration);
+              // the metadata is appended to the output stream after the compressed records
+              this.targetOutputStream = codec.wrap(unclosable(outputStream));
             }
 
             byte[] extendString(String input, int length) {
@@ -158,9 +152,8 @@ public class RecordWriterBuilder {
             void appendMetadata() {
               Utils.packException(
                   () -> {
-                    if (this.compressionType.equals("gzip")) {
-                      ((GZIPOutputStream) targetOutputStream).finish();
-                    }
+                    // finish the compression
+                    targetOutputStream.close();
 
                     // 552 Bytes total for whole metadata.
                     outputStream.write(
@@ -170,7 +163,7 @@ public class RecordWriterBuilder {
                         ByteUtils.toBytes(this.interval)); // 8 Bytes for mills of roll.duration
                     outputStream.write(
                         this.extendString(
-                            this.compressionType, 10)); // 10 Bytes for compression type name.
+                            this.codec.name(), 10)); // 10 Bytes for compression type name.
                   });
             }
 
@@ -217,7 +210,117 @@ public class RecordWriterBuilder {
             }
           };
 
-  public static final short LATEST_VERSION = (short) 1;
+  private static final BiFunction<Configuration, OutputStream, RecordWriter> V2 =
+      (configuration, outputStream) ->
+          new RecordWriter() {
+            private final AtomicInteger count = new AtomicInteger();
+            private final LongAdder size = new LongAdder();
+            private final AtomicLong latestAppendTimestamp = new AtomicLong();
+            private final Codec codec = Codec.of(configuration);
+            private final long blockSize =
+                configuration
+                    .string("block.size")
+                    .map(DataSize::of)
+                    .orElse(DataSize.MiB.of(1))
+                    .bytes();
+            private final List<Record<byte[], byte[]>> pending = new ArrayList<>();
+            private final List<BlockIndex.Entry> entries = new ArrayList<>();
+            private long pendingSize = 0;
+            // the version is written by builder
+            private long position = Short.BYTES;
+
+            private void writeBlock() {
+              if (pending.isEmpty()) return;
+              var block = RecordBlock.encode(pending);
+              var compressed = codec.compress(block);
+              Utils.packException(
+                  () -> {
+                    outputStream.write(ByteUtils.toBytes(compressed.length));
+                    outputStream.write(ByteUtils.toBytes(block.remaining()));
+                    outputStream.write(codec.id());
+                    outputStream.write(compressed);
+                  });
+              entries.add(
+                  new BlockIndex.Entry(
+                      position,
+                      pending.size(),
+                      pending.get(0).offset(),
+                      pending.get(pending.size() - 1).offset(),
+                      pending.stream().mapToLong(Record::timestamp).min().orElse(0),
+                      pending.stream().mapToLong(Record::timestamp).max().orElse(0)));
+              position += RecordBlock.HEADER_SIZE + compressed.length;
+              pending.clear();
+              pendingSize = 0;
+            }
+
+            @Override
+            public void append(Record<byte[], byte[]> record) {
+              // a block carries only the records of the same partition
+              if (!pending.isEmpty()
+                  && !pending.get(0).topicPartition().equals(record.topicPartition())) writeBlock();
+              var recordSize = RecordBlock.size(record);
+              pending.add(record);
+              pendingSize += recordSize;
+              size.add(recordSize);
+              if (pendingSize >= blockSize) writeBlock();
+              count.incrementAndGet();
+              this.latestAppendTimestamp.set(System.currentTimeMillis());
+            }
+
+            @Override
+            public DataSize size() {
+              return DataSize.Byte.of(size.sum());
+            }
+
+            @Override
+            public int count() {
+              return count.get();
+            }
+
+            /** write the pending records as a block, and then flush the output stream. */
+            @Override
+            public void flush() {
+              writeBlock();
+              Utils.packException(outputStream::flush);
+            }
+
+            @Override
+            public long latestAppendTimestamp() {
+              return this.latestAppendTimestamp.get();
+            }
+
+            @Override
+            public void close() {
+              Utils.packException(
+                  () -> {
+                    writeBlock();
+                    outputStream.write(ByteUtils.toBytes(RecordBlock.END));
+                    var footerPosition = position + Integer.BYTES;
+                    var index = new BlockIndex(entries).toByteBuffer();
+                    outputStream.write(index.array(), 0, index.remaining());
+                    outputStream.write(ByteUtils.toBytes(footerPosition));
+                    outputStream.flush();
+                    outputStream.close();
+                  });
+            }
+          };
+
+  /** the stream which does not close the given stream. It is used to finish the compression. */
+  private static OutputStream unclosable(OutputStream outputStream) {
+    return new FilterOutputStream(outputStream) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+  }
+
+  public static final short LATEST_VERSION = (short) 2;
 
   private final short version;
   private OutputStream fs;
@@ -253,6 +356,10 @@ public class RecordWriterBuilder {
           } else if (version == 1) {
             fs.write(ByteUtils.toBytes(version));
             return V1.apply(this.configuration, fs);
+          } else if (version == 2) {
+            fs.write(ByteUtils.toBytes(version));
+            return V2.apply(
+                this.configuration == null ? Configuration.EMPTY : this.configuration, fs);
           }
           throw new IllegalArgumentException("unsupported version: " + version);
         });
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.astraea.common.Utils;
+import org.xerial.snappy.Snappy;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+class SnappyCodec implements Codec {
+
+  @Override
+  public byte id() {
+    return SNAPPY;
+  }
+
+  @Override
+  public String name() {
+    return "snappy";
+  }
+
+  @Override
+  public byte[] magic() {
+    return new byte[] {
+      (byte) 0xff,
+      0x06,
+      0x00,
+      0x00,
+      (byte) 0x73,
+      (byte) 0x4e,
+      (byte) 0x61,
+      (byte) 0x50,
+      (byte) 0x70,
+      (byte) 0x59
+    };
+  }
+
+  @Override
+  public byte[] compress(ByteBuffer data) {
+    return Utils.packException(() -> Snappy.compress(Codec.bytes(data)));
+  }
+
+  @Override
+  public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+    return Utils.packException(() -> ByteBuffer.wrap(Snappy.uncompress(data)));
+  }
+
+  @Override
+  public OutputStream wrap(OutputStream outputStream) {
+    return Utils.packException(() -> new SnappyFramedOutputStream(outputStream));
+  }
+
+  @Override
+  public InputStream wrap(InputStream inputStream) {
+    return Utils.packException(() -> new SnappyFramedInputStream(inputStream));
+  }
+}
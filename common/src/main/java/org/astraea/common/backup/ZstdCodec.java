@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+
+class ZstdCodec implements Codec {
+
+  private final int level;
+
+  /** null if there is no dictionary */
+  private final byte[] dictionary;
+
+  private final ZstdDictCompress dictCompress;
+  private final ZstdDictDecompress dictDecompress;
+
+  ZstdCodec(Configuration configuration) {
+    this.level = configuration.integer(COMPRESSION_LEVEL).orElse(Zstd.defaultCompressionLevel());
+    this.dictionary =
+        configuration
+            .string(COMPRESSION_DICTIONARY)
+            .map(path -> Utils.packException(() -> Files.readAllBytes(Path.of(path))))
+            .orElse(null);
+    this.dictCompress = dictionary == null ? null : new ZstdDictCompress(dictionary, level);
+    this.dictDecompress = dictionary == null ? null : new ZstdDictDecompress(dictionary);
+  }
+
+  @Override
+  public byte id() {
+    return ZSTD;
+  }
+
+  @Override
+  public String name() {
+    return "zstd";
+  }
+
+  @Override
+  public byte[] magic() {
+    return new byte[] {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+  }
+
+  @Override
+  public byte[] compress(ByteBuffer data) {
+    var bytes = Codec.bytes(data);
+    return dictCompress == null ? Zstd.compress(bytes, level) : Zstd.compress(bytes, dictCompress);
+  }
+
+  @Override
+  public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+    return ByteBuffer.wrap(
+        dictDecompress == null
+            ? Zstd.decompress(data, uncompressedSize)
+            : Zstd.decompress(data, dictDecompress, uncompressedSize));
+  }
+
+  @Override
+  public OutputStream wrap(OutputStream outputStream) {
+    return Utils.packException(
+        () -> {
+          var output = new ZstdOutputStream(outputStream, level);
+          return dictionary == null ? output : output.setDict(dictionary);
+        });
+  }
+
+  @Override
+  public InputStream wrap(InputStream inputStream) {
+    return Utils.packException(
+        () -> {
+          var input = new ZstdInputStream(inputStream);
+          return dictionary == null ? input : input.setDict(dictionary);
+        });
+  }
+}
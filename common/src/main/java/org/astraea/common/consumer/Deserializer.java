@@ -16,6 +16,7 @@
  */
 package org.astraea.common.consumer;
 
+import java.nio.ByteBuffer;
 import java.util.Base64;
 import java.util.List;
 import org.apache.kafka.common.header.Headers;
@@ -39,6 +40,24 @@ public interface Deserializer<T> {
    */
   T deserialize(String topic, List<Header> headers, byte[] data);
 
+  /**
+   * Deserialize a record value from a slice of the fetched buffer. The default implementation
+   * copies the remaining bytes to a byte array and then calls {@link #deserialize(String, List,
+   * byte[])}. The implementations which can handle the buffer directly should override this method
+   * to avoid the copy.
+   *
+   * @param topic topic associated with the data
+   * @param headers headers associated with the record; may be empty.
+   * @param data serialized bytes from position to limit; may be null
+   * @return deserialized typed data; may be null
+   */
+  default T deserialize(String topic, List<Header> headers, ByteBuffer data) {
+    return deserialize(
+        topic,
+        headers,
+        data == null ? null : ByteUtils.readBytes(data.duplicate(), data.remaining()));
+  }
+
   static <T> org.apache.kafka.common.serialization.Deserializer<T> of(
       Deserializer<T> deserializer) {
     return new org.apache.kafka.common.serialization.Deserializer<>() {
@@ -52,12 +71,53 @@ public interface Deserializer<T> {
       public T deserialize(String topic, Headers headers, byte[] data) {
         return deserializer.deserialize(topic, Header.of(headers), data);
       }
+
+      @Override
+      public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        return deserializer.deserialize(topic, Header.of(headers), data);
+      }
     };
   }
 
   Deserializer<String> BASE64 =
       (topic, headers, data) -> data == null ? null : Base64.getEncoder().encodeToString(data);
   Deserializer<byte[]> BYTE_ARRAY = (topic, headers, data) -> data;
+
+  /**
+   * Deserialize the data to read-only {@link ByteBuffer}. It does not copy the fetched data, so the
+   * returned buffer is a view of the fetched buffer. Noted that the whole fetched buffer can't be
+   * released until all views are released.
+   */
+  Deserializer<ByteBuffer> BYTE_BUFFER =
+      new Deserializer<>() {
+        @Override
+        public ByteBuffer deserialize(String topic, List<Header> headers, byte[] data) {
+          return data == null ? null : ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+
+        @Override
+        public ByteBuffer deserialize(String topic, List<Header> headers, ByteBuffer data) {
+          return data == null ? null : data.slice().asReadOnlyBuffer();
+        }
+      };
+
+  /**
+   * Skip the data and always return null. It is useful to consumers which care about only the
+   * metadata (for example, the timestamp and the serialized size) of records.
+   */
+  Deserializer<Void> SKIP =
+      new Deserializer<>() {
+        @Override
+        public Void deserialize(String topic, List<Header> headers, byte[] data) {
+          return null;
+        }
+
+        @Override
+        public Void deserialize(String topic, List<Header> headers, ByteBuffer data) {
+          return null;
+        }
+      };
+
   Deserializer<String> STRING =
       (topic, headers, data) -> data == null ? null : ByteUtils.toString(data);
   Deserializer<Integer> INTEGER =
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.stats;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram which is similar to HdrHistogram. The values are grouped by the highest
+ * bit, and each group is split into {@link #SUB_BUCKETS} linear buckets, so the relative error of
+ * recorded values is smaller than 1%. The value must be non-negative.
+ *
+ * <p>Each thread records to its own buckets, so recording is lock-free and does not contend with
+ * other threads. The snapshot sums up the buckets of all threads. It is not an atomic view of all
+ * threads, but each bucket is monotonic, so the difference of snapshots is never negative.
+ */
+public interface Histogram extends Stat<Long> {
+
+  /** the bits of linear buckets in each group */
+  int SUB_BUCKET_BITS = 8;
+
+  int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * the highest value having its own bucket. It is 1 hour in microseconds, which is the unit of
+   * recorded latencies. The larger values are counted by the last bucket, but the sum and the max
+   * are still exact.
+   */
+  long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+
+  /** the number of buckets to cover the values up to {@link #HIGHEST_TRACKABLE_VALUE} */
+  int BUCKETS = index(HIGHEST_TRACKABLE_VALUE) + 1;
+
+  static Histogram of() {
+    return new Histogram() {
+      private final Queue<AtomicLongArray> recorders = new ConcurrentLinkedQueue<>();
+      private final ThreadLocal<AtomicLongArray> recorder =
+          ThreadLocal.withInitial(
+              () -> {
+                // the last two slots are the sum and the max of recorded values
+                var counts = new AtomicLongArray(BUCKETS + 2);
+                recorders.add(counts);
+                return counts;
+              });
+
+      @Override
+      public void recordValue(long value) {
+        if (value < 0) throw new IllegalArgumentException("negative value: " + value);
+        // only the owner thread updates the counts, so the plain read is fine
+        var counts = recorder.get();
+        var index = index(Math.min(value, HIGHEST_TRACKABLE_VALUE));
+        counts.setRelease(index, counts.getPlain(index) + 1);
+        counts.setRelease(BUCKETS, counts.getPlain(BUCKETS) + value);
+        if (value > counts.getPlain(BUCKETS + 1)) counts.setRelease(BUCKETS + 1, value);
+      }
+
+      @Override
+      public Snapshot totalSnapshot() {
+        var buckets = new long[BUCKETS];
+        var sum = 0L;
+        var max = 0L;
+        for (var counts : recorders) {
+          for (var i = 0; i != BUCKETS; ++i) buckets[i] += counts.getAcquire(i);
+          sum += counts.getAcquire(BUCKETS);
+          max = Math.max(max, counts.getAcquire(BUCKETS + 1));
+        }
+        return new Snapshot(buckets, sum, max);
+      }
+    };
+  }
+
+  /**
+   * @param value to record
+   * @return the index of bucket
+   */
+  static int index(long value) {
+    var shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+  }
+
+  /**
+   * @param index of bucket
+   * @return the max value of the bucket
+   */
+  static long highestValue(int index) {
+    var shift = Math.max(0, (index >> (SUB_BUCKET_BITS - 1)) - 1);
+    var lowest = (long) (index - (shift << (SUB_BUCKET_BITS - 1))) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * record the value without boxing
+   *
+   * @param value non-negative value
+   */
+  void recordValue(long value);
+
+  @Override
+  default void record(Long value) {
+    recordValue(value);
+  }
+
+  /**
+   * @return the max of all recorded values, or 0 if there is no recorded value
+   */
+  @Override
+  default Long measure() {
+    return totalSnapshot().max();
+  }
+
+  /**
+   * @return the distribution of all recorded values
+   */
+  Snapshot totalSnapshot();
+
+  /** The immutable distribution of recorded values. */
+  final class Snapshot {
+    public static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0);
+
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(long[] buckets, long sum, long max) {
+      this.buckets = buckets;
+      this.count = Arrays.stream(buckets).sum();
+      this.sum = sum;
+      this.max = max;
+    }
+
+    /**
+     * @param buckets the non-zero buckets returned by {@link #buckets()}
+     * @param sum of values
+     * @param max of values
+     * @return the snapshot
+     */
+    public static Snapshot of(Map<Integer, Long> buckets, long sum, long max) {
+      var counts = new long[BUCKETS];
+      buckets.forEach(
+          (index, count) -> {
+            if (index < 0 || index >= BUCKETS)
+              throw new IllegalArgumentException("invalid bucket index: " + index);
+            counts[index] = count;
+          });
+      return new Snapshot(counts, sum, max);
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public long sum() {
+      return sum;
+    }
+
+    /**
+     * @return the index and count of non-zero buckets. It is used to transfer the snapshot.
+     */
+    public Map<Integer, Long> buckets() {
+      var result = new TreeMap<Integer, Long>();
+      for (var i = 0; i != buckets.length; ++i) if (buckets[i] != 0) result.put(i, buckets[i]);
+      return result;
+    }
+
+    /**
+     * @return the max of values, or 0 if there is no value. The max of an interval is the max of
+     *     its highest bucket, since the exact max is not tracked for each interval.
+     */
+    public long max() {
+      return max;
+    }
+
+    /**
+     * @return the average of values, or NaN if there is no value
+     */
+    public double mean() {
+      if (count == 0) return Double.NaN;
+      return (double) sum / count;
+    }
+
+    /**
+     * @param percentile in [0, 100]
+     * @return the highest value of the bucket where the percentile falls, or 0 if there is no value
+     */
+    public long percentile(double percentile) {
+      if (percentile < 0 || percentile > 100)
+        throw new IllegalArgumentException("percentile must be in [0, 100]");
+      if (count == 0) return 0;
+      var target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      var accumulated = 0L;
+      for (var i = 0; i != buckets.length; ++i) {
+        accumulated += buckets[i];
+        if (accumulated >= target) return highestValue(i, max);
+      }
+      return max;
+    }
+
+    /**
+     * @param other snapshot of other histogram
+     * @return the distribution of both snapshots
+     */
+    public Snapshot merge(Snapshot other) {
+      var merged = buckets.clone();
+      for (var i = 0; i != merged.length; ++i) merged[i] += other.buckets[i];
+      return new Snapshot(merged, sum + other.sum, Math.max(max, other.max));
+    }
+
+    /**
+     * @param previous the earlier snapshot of the same histogram
+     * @return the distribution of the values which are recorded after the previous snapshot
+     */
+    public Snapshot minus(Snapshot previous) {
+      var diff = buckets.clone();
+      var highest = -1;
+      for (var i = 0; i != diff.length; ++i) {
+        diff[i] -= previous.buckets[i];
+        if (diff[i] > 0) highest = i;
+      }
+      return new Snapshot(diff, sum - previous.sum, highest < 0 ? 0 : highestValue(highest, max));
+    }
+
+    /**
+     * @return the highest value of the bucket, or the max if the bucket holds the values which are
+     *     larger than {@link #HIGHEST_TRACKABLE_VALUE}
+     */
+    private static long highestValue(int index, long max) {
+      if (index == BUCKETS - 1) return max;
+      return Math.min(Histogram.highestValue(index), max);
+    }
+  }
+}
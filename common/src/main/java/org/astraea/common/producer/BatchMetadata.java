@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.producer;
+
+import java.util.Optional;
+
+/**
+ * The aggregated result of records sent by {@link Producer#sendBatch(java.util.Collection)}.
+ *
+ * @param records the number of records in the batch
+ * @param succeeded the number of records which are sent successfully
+ * @param failed the number of records which are failed
+ * @param bytes the size of the serialized, uncompressed keys and values of succeeded records
+ * @param latency the sum of latency (in nanoseconds) of succeeded records. The latency of a record
+ *     is the elapsed time from the batch is sent to the record is acknowledged
+ * @param exception the first exception of failed records
+ */
+public record BatchMetadata(
+    int records,
+    int succeeded,
+    int failed,
+    long bytes,
+    long latency,
+    Optional<Exception> exception) {
+
+  /**
+   * @return the average latency (in milliseconds) of succeeded records, or NaN if there is no
+   *     succeeded record
+   */
+  public double avgLatency() {
+    if (succeeded == 0) return Double.NaN;
+    return latency / 1_000_000D / succeeded;
+  }
+}
@@ -25,9 +25,15 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.errors.AuthorizationException;
 import org.apache.kafka.common.errors.OutOfOrderSequenceException;
@@ -38,6 +44,8 @@ public class Builder<Key, Value> {
   private final Map<String, Object> configs = new HashMap<>();
   private Serializer<?> keySerializer = Serializer.BYTE_ARRAY;
   private Serializer<?> valueSerializer = Serializer.BYTE_ARRAY;
+  private int maxInFlightRecords = Integer.MAX_VALUE;
+  private Producer.TransactionListener transactionListener = Producer.TransactionListener.EMPTY;
 
   Builder() {}
 
@@ -75,10 +83,80 @@ public class Builder<Key, Value> {
         ProducerConfigs.BOOTSTRAP_SERVERS_CONFIG, Objects.requireNonNull(bootstrapServers));
   }
 
-  private static <Key, Value> CompletionStage<Metadata> doSend(
-      org.apache.kafka.clients.producer.Producer<Key, Value> producer, Record<Key, Value> record) {
+  /**
+   * Limit the number of records which are sent but not acknowledged yet. The send methods are
+   * blocked if the limit is reached, so it applies back-pressure to the callers instead of
+   * buffering records without bound. The default value is unlimited.
+   *
+   * @param maxInFlightRecords positive number
+   * @return this builder
+   */
+  public Builder<Key, Value> maxInFlightRecords(int maxInFlightRecords) {
+    if (maxInFlightRecords <= 0)
+      throw new IllegalArgumentException(
+          "maxInFlightRecords must be positive, but it is " + maxInFlightRecords);
+    this.maxInFlightRecords = maxInFlightRecords;
+    return this;
+  }
+
+  /**
+   * Track the cost of each transaction of transactional producer. It is ignored by normal producer.
+   *
+   * @param transactionListener receives the latency of beginning, committing and aborting the
+   *     transactions
+   * @return this builder
+   */
+  public Builder<Key, Value> transactionListener(Producer.TransactionListener transactionListener) {
+    this.transactionListener = Objects.requireNonNull(transactionListener);
+    return this;
+  }
 
+  /**
+   * @param acked is called by the I/O thread when the record is acknowledged
+   */
+  private static <Key, Value> CompletionStage<Metadata> doSend(
+      org.apache.kafka.clients.producer.Producer<Key, Value> producer,
+      Semaphore inFlight,
+      Record<Key, Value> record,
+      Runnable acked) {
     var completableFuture = new CompletableFuture<Metadata>();
+    doSend(
+        producer,
+        inFlight,
+        record,
+        (metadata, exception) -> {
+          if (inFlight != null) inFlight.release();
+          if (exception == null) {
+            acked.run();
+            completableFuture.completeAsync(() -> Metadata.of(metadata));
+          } else completableFuture.completeExceptionally(exception);
+        });
+    return completableFuture;
+  }
+
+  /**
+   * send the record after acquiring a permit from the in-flight semaphore. The callback is
+   * responsible for releasing the permit.
+   */
+  private static <Key, Value> void doSend(
+      org.apache.kafka.clients.producer.Producer<Key, Value> producer,
+      Semaphore inFlight,
+      Record<Key, Value> record,
+      Callback callback) {
+    if (inFlight != null) Utils.packException(() -> inFlight.acquire());
+    try {
+      send(producer, record, callback);
+    } catch (RuntimeException e) {
+      // kafka producer does not call the callback if it throws exception
+      if (inFlight != null) inFlight.release();
+      throw e;
+    }
+  }
+
+  private static <Key, Value> void send(
+      org.apache.kafka.clients.producer.Producer<Key, Value> producer,
+      Record<Key, Value> record,
+      Callback callback) {
     producer.send(
         new ProducerRecord<>(
             record.topic(),
@@ -102,11 +180,96 @@ public class Builder<Key, Value> {
                           }
                         })
                 .collect(Collectors.toList())),
-        (metadata, exception) -> {
-          if (exception == null) completableFuture.completeAsync(() -> Metadata.of(metadata));
-          else completableFuture.completeExceptionally(exception);
-        });
-    return completableFuture;
+        callback);
+  }
+
+  private static <Key, Value> CompletionStage<BatchMetadata> doSendBatch(
+      org.apache.kafka.clients.producer.Producer<Key, Value> producer,
+      Semaphore inFlight,
+      Collection<Record<Key, Value>> records,
+      Producer.RecordListener listener) {
+    var batch = new BatchCallback(records.size(), inFlight, listener);
+    var sent = 0;
+    try {
+      for (var record : records) {
+        doSend(producer, inFlight, record, batch);
+        sent++;
+      }
+    } catch (RuntimeException e) {
+      // the records which are not sent are regarded as failed
+      for (var i = sent; i < records.size(); i++) batch.fail(e);
+      throw e;
+    }
+    return batch.future;
+  }
+
+  /**
+   * The single callback shared by all records of a batch. It accumulates the result by primitive
+   * counters, and it completes the future when all records are completed.
+   */
+  private static class BatchCallback implements Callback {
+    private final CompletableFuture<BatchMetadata> future = new CompletableFuture<>();
+    private final long start = System.nanoTime();
+    private final int records;
+    private final Semaphore inFlight;
+    private final Producer.RecordListener listener;
+    private int succeeded = 0;
+    private int failed = 0;
+    private long bytes = 0;
+    private long latency = 0;
+    private Exception exception = null;
+
+    private BatchCallback(int records, Semaphore inFlight, Producer.RecordListener listener) {
+      this.records = records;
+      this.inFlight = inFlight;
+      this.listener = listener;
+      if (records == 0) complete(result());
+    }
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+      if (inFlight != null) inFlight.release();
+      if (exception == null) succeed(metadata);
+      else fail(exception);
+    }
+
+    private void succeed(RecordMetadata metadata) {
+      BatchMetadata result;
+      var elapsed = System.nanoTime() - start;
+      var size =
+          Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize());
+      listener.succeeded(metadata.topic(), metadata.partition(), metadata.offset(), size, elapsed);
+      synchronized (this) {
+        succeeded++;
+        bytes += size;
+        latency += elapsed;
+        result = result();
+      }
+      if (result != null) complete(result);
+    }
+
+    private void fail(Exception exception) {
+      BatchMetadata result;
+      synchronized (this) {
+        failed++;
+        if (this.exception == null) this.exception = exception;
+        result = result();
+      }
+      if (result != null) complete(result);
+    }
+
+    /**
+     * @return the result if all records are completed. Otherwise, null
+     */
+    private synchronized BatchMetadata result() {
+      if (succeeded + failed != records) return null;
+      return new BatchMetadata(
+          records, succeeded, failed, bytes, latency, Optional.ofNullable(exception));
+    }
+
+    private void complete(BatchMetadata result) {
+      future.completeAsync(() -> result);
+    }
   }
 
   /**
@@ -121,7 +284,8 @@ public class Builder<Key, Value> {
         new KafkaProducer<>(
             configs,
             Serializer.of((Serializer<Key>) keySerializer),
-            Serializer.of((Serializer<Value>) valueSerializer)));
+            Serializer.of((Serializer<Value>) valueSerializer)),
+        inFlight());
   }
 
   /**
@@ -143,15 +307,24 @@ public class Builder<Key, Value> {
             Serializer.of((Serializer<Key>) keySerializer),
             Serializer.of((Serializer<Value>) valueSerializer));
     transactionProducer.initTransactions();
-    return new TransactionalProducer<>(transactionProducer, transactionId);
+    return new TransactionalProducer<>(
+        transactionProducer, inFlight(), transactionId, transactionListener);
+  }
+
+  private Semaphore inFlight() {
+    return maxInFlightRecords == Integer.MAX_VALUE ? null : new Semaphore(maxInFlightRecords);
   }
 
   private abstract static class BaseProducer<Key, Value> implements Producer<Key, Value> {
     protected final org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer;
+    // null means there is no limit of in-flight records
+    protected final Semaphore inFlight;
     private final String clientId;
 
-    private BaseProducer(org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer) {
+    private BaseProducer(
+        org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer, Semaphore inFlight) {
       this.kafkaProducer = kafkaProducer;
+      this.inFlight = inFlight;
       // KafkaConsumer does not expose client-id
       this.clientId = (String) Utils.member(kafkaProducer, "clientId");
     }
@@ -173,13 +346,14 @@ public class Builder<Key, Value> {
   }
 
   private static class NormalProducer<Key, Value> extends BaseProducer<Key, Value> {
-    private NormalProducer(org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer) {
-      super(kafkaProducer);
+    private NormalProducer(
+        org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer, Semaphore inFlight) {
+      super(kafkaProducer, inFlight);
     }
 
     @Override
     public CompletionStage<Metadata> send(Record<Key, Value> record) {
-      return doSend(kafkaProducer, record);
+      return doSend(kafkaProducer, inFlight, record, () -> {});
     }
 
     @Override
@@ -187,6 +361,12 @@ public class Builder<Key, Value> {
       return records.stream().map(this::send).toList();
     }
 
+    @Override
+    public CompletionStage<BatchMetadata> sendBatch(
+        Collection<Record<Key, Value>> records, RecordListener listener) {
+      return doSendBatch(kafkaProducer, inFlight, records, listener);
+    }
+
     @Override
     public Optional<String> transactionId() {
       return Optional.empty();
@@ -194,13 +374,61 @@ public class Builder<Key, Value> {
   }
 
   private static class TransactionalProducer<Key, Value> extends BaseProducer<Key, Value> {
+    // the transaction is aborted and retried if it fails by a non-fatal error
+    private static final int MAX_ATTEMPTS = 3;
+
     private final String transactionId;
+    private final Producer.TransactionListener transactionListener;
 
     private TransactionalProducer(
         org.apache.kafka.clients.producer.Producer<Key, Value> kafkaProducer,
-        String transactionId) {
-      super(kafkaProducer);
+        Semaphore inFlight,
+        String transactionId,
+        Producer.TransactionListener transactionListener) {
+      super(kafkaProducer, inFlight);
       this.transactionId = transactionId;
+      this.transactionListener = transactionListener;
+    }
+
+    /**
+     * send the records in a transaction. The transaction is retried at most {@link #MAX_ATTEMPTS}
+     * times, and then the error is thrown.
+     *
+     * @param records to send
+     * @param send sends the records. The input is a callback which should be called when a record
+     *     is acknowledged
+     * @return the result of send
+     */
+    private <R> R transaction(Collection<Record<Key, Value>> records, Function<Runnable, R> send) {
+      for (var attempt = 1; ; attempt++) {
+        try {
+          // beginning a transaction is local to the client, so the latency is measured until the
+          // first record is acknowledged. It includes the round trip of adding the partitions to
+          // the transaction
+          var begin = System.nanoTime();
+          var first = new AtomicBoolean(true);
+          kafkaProducer.beginTransaction();
+          var result =
+              send.apply(
+                  () -> {
+                    if (first.get() && first.compareAndSet(true, false))
+                      transactionListener.begun(System.nanoTime() - begin);
+                  });
+          var start = System.nanoTime();
+          kafkaProducer.commitTransaction();
+          transactionListener.committed(records.size(), System.nanoTime() - start);
+          return result;
+        } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+          kafkaProducer.close();
+          // Error occur
+          throw e;
+        } catch (KafkaException ke) {
+          var start = System.nanoTime();
+          kafkaProducer.abortTransaction();
+          transactionListener.aborted(records.size(), System.nanoTime() - start);
+          if (attempt >= MAX_ATTEMPTS) throw ke;
+        }
+      }
     }
 
     @Override
@@ -210,19 +438,43 @@ public class Builder<Key, Value> {
 
     @Override
     public Collection<CompletionStage<Metadata>> send(Collection<Record<Key, Value>> records) {
-      try {
-        kafkaProducer.beginTransaction();
-        var futures = records.stream().map(r -> doSend(kafkaProducer, r)).toList();
-        kafkaProducer.commitTransaction();
-        return futures;
-      } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
-        kafkaProducer.close();
-        // Error occur
-        throw e;
-      } catch (KafkaException ke) {
-        kafkaProducer.abortTransaction();
-        return send(records);
-      }
+      return transaction(
+          records,
+          acked -> records.stream().map(r -> doSend(kafkaProducer, inFlight, r, acked)).toList());
+    }
+
+    /**
+     * The acknowledged records of an aborted attempt are sent again by next attempt, so the acks of
+     * each attempt are buffered and passed to the listener only if the transaction is committed.
+     * Committing flushes all records, so the buffer is complete when the transaction returns.
+     */
+    @Override
+    public CompletionStage<BatchMetadata> sendBatch(
+        Collection<Record<Key, Value>> records, RecordListener listener) {
+      var result =
+          transaction(
+              records,
+              acked -> {
+                var acks = new ConcurrentLinkedQueue<Runnable>();
+                var stage =
+                    doSendBatch(
+                        kafkaProducer,
+                        inFlight,
+                        records,
+                        (topic, partition, offset, bytes, latency) -> {
+                          acked.run();
+                          acks.add(
+                              () -> listener.succeeded(topic, partition, offset, bytes, latency));
+                        });
+                return Map.entry(stage, acks);
+              });
+      return result
+          .getKey()
+          .thenApply(
+              metadata -> {
+                result.getValue().forEach(Runnable::run);
+                return metadata;
+              });
     }
 
     @Override
@@ -19,6 +19,7 @@ package org.astraea.common.producer;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.function.LongConsumer;
 
 /** An interface for sending records. */
 public interface Producer<Key, Value> extends AutoCloseable {
@@ -36,6 +37,92 @@ public interface Producer<Key, Value> extends AutoCloseable {
    */
   Collection<CompletionStage<Metadata>> send(Collection<Record<Key, Value>> records);
 
+  /**
+   * send the multiple records and track them by a single callback. Compared to {@link
+   * #send(Collection)}, it does not create a future for each record, so it is more suitable to send
+   * a lot of records. Noted that transactional producer will send all records in single
+   * transaction.
+   *
+   * @param records pre-defined records
+   * @return callback which is completed when all records are completed
+   */
+  default CompletionStage<BatchMetadata> sendBatch(Collection<Record<Key, Value>> records) {
+    return sendBatch(records, ignored -> {});
+  }
+
+  /**
+   * send the multiple records and track them by a single callback. The latency of each succeeded
+   * record is passed to the given consumer, so the caller is able to compute the distribution of
+   * latency.
+   *
+   * @param records pre-defined records
+   * @param latencies receives the latency (in nanoseconds) of each succeeded record. It is called
+   *     by the I/O thread of producer, so it must be fast and thread-safe
+   * @return callback which is completed when all records are completed
+   */
+  default CompletionStage<BatchMetadata> sendBatch(
+      Collection<Record<Key, Value>> records, LongConsumer latencies) {
+    return sendBatch(
+        records, (topic, partition, offset, bytes, latency) -> latencies.accept(latency));
+  }
+
+  /**
+   * send the multiple records and track them by a single callback. The partition, offset, size and
+   * latency of each succeeded record are passed to the given listener without creating any object.
+   *
+   * @param records pre-defined records
+   * @param listener receives each succeeded record. It is called by the I/O thread of producer, so
+   *     it must be fast and thread-safe. The transactional producer calls it only for the records
+   *     of committed transaction, so the records of aborted attempts are not passed
+   * @return callback which is completed when all records are completed
+   */
+  CompletionStage<BatchMetadata> sendBatch(
+      Collection<Record<Key, Value>> records, RecordListener listener);
+
+  /** The listener of the records sent by {@link #sendBatch(Collection, RecordListener)}. */
+  @FunctionalInterface
+  interface RecordListener {
+    /**
+     * @param topic of the record
+     * @param partition of the record
+     * @param offset of the record
+     * @param bytes the serialized size of key and value
+     * @param latency the latency (in nanoseconds) of the record
+     */
+    void succeeded(String topic, int partition, long offset, int bytes, long latency);
+  }
+
+  /**
+   * The listener of the transactions of transactional producer. It is called by the thread sending
+   * the transaction or the I/O thread of producer, so it must be fast and thread-safe.
+   */
+  interface TransactionListener {
+    TransactionListener EMPTY = new TransactionListener() {};
+
+    /**
+     * @param latency the time (in nanoseconds) from beginning the transaction to the first record
+     *     acknowledged. Beginning a transaction is local to the client, so the latency covers the
+     *     round trip of adding the partitions to the transaction and sending the first records. It
+     *     is not called if no record is acknowledged
+     */
+    default void begun(long latency) {}
+
+    /**
+     * @param records the number of records in the transaction
+     * @param latency the time (in nanoseconds) to commit the transaction. It includes the time to
+     *     flush the pending records and the round trip of ending the transaction on the transaction
+     *     coordinator
+     */
+    default void committed(int records, long latency) {}
+
+    /**
+     * @param records the number of records in the transaction
+     * @param latency the time (in nanoseconds) to abort the transaction. The aborted transaction is
+     *     retried a few times before the error is thrown
+     */
+    default void aborted(int records, long latency) {}
+  }
+
   /** this method is blocked until all data in buffer are sent. */
   void flush();
 
@@ -19,17 +19,18 @@ package org.astraea.common.producer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.function.IntSupplier;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
 import java.util.stream.LongStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.DataRate;
 import org.astraea.common.DistributionType;
+import org.astraea.common.Header;
 import org.astraea.common.admin.TopicPartition;
 import org.astraea.common.metrics.stats.Rate;
 
@@ -41,22 +42,31 @@ public interface RecordGenerator extends Function<TopicPartition, List<Record<by
 
   class Builder {
 
-    int batchSize = 1;
+    IntSupplier batchSize = () -> 1;
     long keyTableSeed = ThreadLocalRandom.current().nextLong();
     long valueTableSeed = ThreadLocalRandom.current().nextLong();
     List<Long> keyRange = LongStream.rangeClosed(0, 10000).boxed().toList();
-    Supplier<Long> keyDistribution = DistributionType.UNIFORM.create(10000, Configuration.EMPTY);
-    Supplier<Long> keySizeDistribution =
-        DistributionType.UNIFORM.create(10000, Configuration.EMPTY);
+    LongSupplier keyDistribution = DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY);
+    LongSupplier keySizeDistribution =
+        DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY);
     List<Long> valueRange = LongStream.rangeClosed(0, 10000).boxed().toList();
-    Supplier<Long> valueDistribution = DistributionType.UNIFORM.create(10000, Configuration.EMPTY);
-    Supplier<Long> valueSizeDistribution =
-        DistributionType.UNIFORM.create(10000, Configuration.EMPTY);
+    LongSupplier valueDistribution =
+        DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY);
+    LongSupplier valueSizeDistribution =
+        DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY);
     Function<TopicPartition, DataRate> throughput = ignored -> null;
 
     private Builder() {}
 
     public Builder batchSize(int batchSize) {
+      return batchSize(() -> batchSize);
+    }
+
+    /**
+     * @param batchSize is called for each batch, so the batch size can be changed on the fly
+     * @return this builder
+     */
+    public Builder batchSize(IntSupplier batchSize) {
       this.batchSize = batchSize;
       return this;
     }
@@ -76,12 +86,12 @@ public interface RecordGenerator extends Function<TopicPartition, List<Record<by
       return this;
     }
 
-    public Builder keyDistribution(Supplier<Long> keyDistribution) {
+    public Builder keyDistribution(LongSupplier keyDistribution) {
       this.keyDistribution = keyDistribution;
       return this;
     }
 
-    public Builder keySizeDistribution(Supplier<Long> keySizeDistribution) {
+    public Builder keySizeDistribution(LongSupplier keySizeDistribution) {
       this.keySizeDistribution = keySizeDistribution;
       return this;
     }
@@ -91,12 +101,12 @@ public interface RecordGenerator extends Function<TopicPartition, List<Record<by
       return this;
     }
 
-    public Builder valueDistribution(Supplier<Long> valueDistribution) {
+    public Builder valueDistribution(LongSupplier valueDistribution) {
       this.valueDistribution = valueDistribution;
       return this;
     }
 
-    public Builder valueSizeDistribution(Supplier<Long> valueSizeDistribution) {
+    public Builder valueSizeDistribution(LongSupplier valueSizeDistribution) {
       this.valueSizeDistribution = valueSizeDistribution;
       return this;
     }
@@ -107,76 +117,71 @@ public interface RecordGenerator extends Function<TopicPartition, List<Record<by
     }
 
     public RecordGenerator build() {
-      final var keyRandom = new Random(keyTableSeed);
-      final var valueRandom = new Random(valueTableSeed);
-      final Map<Long, byte[]> recordKeyTable =
-          keyRange.stream()
-              .collect(
-                  Collectors.toUnmodifiableMap(
-                      index -> index,
-                      index -> {
-                        var size = keySizeDistribution.get().intValue();
-                        var key = new byte[size];
-                        keyRandom.nextBytes(key);
-                        return key;
-                      }));
-      final Map<Long, byte[]> recordValueTable =
-          valueRange.stream()
-              .collect(
-                  Collectors.toUnmodifiableMap(
-                      index -> index,
-                      index -> {
-                        var size = valueSizeDistribution.get().intValue();
-                        var value = new byte[size];
-                        valueRandom.nextBytes(value);
-                        return value;
-                      }));
-
-      Supplier<byte[]> keySupplier =
-          () -> {
-            var key = recordKeyTable.get(keyDistribution.get());
-            // Intentionally replace key with zero length by null key. A key with zero length can
-            // lead to ambiguous behavior in an experiment.
-            // See https://github.com/skiptests/astraea/pull/1521#discussion_r1121801293 for further
-            // details.
-            return key != null && key.length > 0 ? key : null;
-          };
-      Supplier<byte[]> valueSupplier =
-          () -> {
-            var value = recordValueTable.get(valueDistribution.get());
-            // same behavior as key
-            return value != null && value.length > 0 ? value : null;
-          };
-
-      var throttlers = new HashMap<TopicPartition, Function<Long, Boolean>>();
+      var recordKeyTable = table(keyRange, keySizeDistribution, new Random(keyTableSeed));
+      var recordValueTable = table(valueRange, valueSizeDistribution, new Random(valueTableSeed));
+      var headers = List.<Header>of();
+
+      var partitions = new HashMap<TopicPartition, Partition>();
       return (tp) -> {
-        var throttler =
-            throttlers.computeIfAbsent(
+        var partition =
+            partitions.computeIfAbsent(
                 tp,
                 ignored ->
-                    Optional.ofNullable(throughput.apply(tp))
-                        .map(RecordGenerator::throttler)
-                        .orElse(size -> false));
-        var records = new ArrayList<Record<byte[], byte[]>>(batchSize);
-        for (int i = 0; i < batchSize; i++) {
-          var key = keySupplier.get();
-          var value = valueSupplier.get();
+                    new Partition(
+                        Optional.ofNullable(throughput.apply(tp))
+                            .map(RecordGenerator::throttler)
+                            .orElse(size -> false),
+                        tp.partition() >= 0 ? Optional.of(tp.partition()) : Optional.empty()));
+        var count = batchSize.getAsInt();
+        var records = new ArrayList<Record<byte[], byte[]>>(count);
+        // the records of a batch share the timestamp
+        var timestamp = Optional.of(System.currentTimeMillis());
+        for (int i = 0; i < count; i++) {
+          var key = payload(recordKeyTable, keyDistribution.getAsLong());
+          var value = payload(recordValueTable, valueDistribution.getAsLong());
           long size = (value != null ? value.length : 0) + (key != null ? key.length : 0);
-          if (throttler.apply(size)) return List.of();
+          if (partition.throttler.test(size)) return List.of();
           records.add(
-              Record.builder()
-                  .key(key)
-                  .value(value)
-                  .topicPartition(tp)
-                  .timestamp(System.currentTimeMillis())
-                  .build());
+              new Record<>(tp.topic(), headers, key, value, timestamp, partition.partition));
         }
         return records;
       };
     }
+
+    /**
+     * Build the table of payloads indexed by the values of range, so looking up a payload does not
+     * hash or box the index.
+     */
+    private static byte[][] table(List<Long> range, LongSupplier sizeDistribution, Random random) {
+      if (range.stream().anyMatch(index -> index < 0 || index >= Integer.MAX_VALUE))
+        throw new IllegalArgumentException(
+            "the range must be in [0, " + Integer.MAX_VALUE + "), but it is " + range);
+      var table = new byte[range.stream().mapToInt(Long::intValue).max().orElse(-1) + 1][];
+      for (var index : range) {
+        var payload = new byte[(int) sizeDistribution.getAsLong()];
+        random.nextBytes(payload);
+        // Intentionally replace key with zero length by null key. A key with zero length can
+        // lead to ambiguous behavior in an experiment.
+        // See https://github.com/skiptests/astraea/pull/1521#discussion_r1121801293 for further
+        // details. The value follows the same behavior.
+        table[index.intValue()] = payload.length > 0 ? payload : null;
+      }
+      return table;
+    }
+
+    private static byte[] payload(byte[][] table, long index) {
+      return index >= 0 && index < table.length ? table[(int) index] : null;
+    }
+
+    /** the cached throttler and expected partition of a partition */
+    private record Partition(LongPredicate throttler, Optional<Integer> partition) {}
   }
 
-  static Function<Long, Boolean> throttler(DataRate max) {
+  /**
+   * @param max data rate
+   * @return a predicate which returns true if the given payload length exceeds the data rate
+   */
+  static LongPredicate throttler(DataRate max) {
     final var throughput = max.byteRate();
     final var rate = Rate.of();
     return payloadLength -> {
@@ -18,12 +18,16 @@ package org.astraea.common.assignor;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor;
+import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.TopicPartition;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
 import org.astraea.common.consumer.ConsumerConfigs;
 import org.astraea.it.Service;
 import org.junit.jupiter.api.Assertions;
@@ -117,6 +121,127 @@ public class AssignorTest {
     Assertions.assertEquals(8888, random2.jmxPortGetter.apply(1002));
   }
 
+  @Test
+  void testResourcesAreKeptAcrossRebalances() {
+    var topic = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topic).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+    }
+    try (var assignor = new RandomAssignor()) {
+      assignor.configure(
+          Map.of(
+              "jmx.port",
+              String.valueOf(SERVICE.jmxServiceURL().getPort()),
+              ConsumerConfigs.BOOTSTRAP_SERVERS_CONFIG,
+              SERVICE.bootstrapServers()));
+      // the followers never assign partitions, so the resources are created by first rebalance
+      Assertions.assertNull(assignor.admin);
+      Assertions.assertNull(assignor.metricStore);
+
+      var subscription =
+          new ConsumerPartitionAssignor.GroupSubscription(
+              Map.of(
+                  "c0",
+                  new ConsumerPartitionAssignor.Subscription(List.of(topic)),
+                  "c1",
+                  new ConsumerPartitionAssignor.Subscription(List.of(topic))));
+      assignor.assign(Cluster.empty(), subscription);
+      var admin = assignor.admin;
+      var metricStore = assignor.metricStore;
+      Assertions.assertNotNull(admin);
+      Assertions.assertNotNull(metricStore);
+      for (var i = 0; i < 3; i++) {
+        var result = assignor.assign(Cluster.empty(), subscription);
+        Assertions.assertEquals(
+            3,
+            result.groupAssignment().values().stream().mapToInt(a -> a.partitions().size()).sum());
+        // the resources are not recreated by rebalance
+        Assertions.assertSame(admin, assignor.admin);
+        Assertions.assertSame(metricStore, assignor.metricStore);
+      }
+      Assertions.assertEquals(4, assignor.rebalanceCount());
+      Assertions.assertTrue(assignor.rebalanceTimeAvg() >= 0);
+      Assertions.assertTrue(assignor.clusterInfo.topicNames().contains(topic));
+
+      assignor.close();
+      Assertions.assertNull(assignor.admin);
+      Assertions.assertNull(assignor.metricStore);
+    }
+  }
+
+  @Test
+  void testReleaseIdleResources() {
+    var topic = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topic).numberOfPartitions(3).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+    }
+    try (var assignor = new RandomAssignor()) {
+      assignor.configure(
+          Map.of(
+              "jmx.port",
+              String.valueOf(SERVICE.jmxServiceURL().getPort()),
+              Assignor.RESOURCE_IDLE_TIMEOUT,
+              "2s",
+              ConsumerConfigs.BOOTSTRAP_SERVERS_CONFIG,
+              SERVICE.bootstrapServers()));
+      var subscription =
+          new ConsumerPartitionAssignor.GroupSubscription(
+              Map.of("c0", new ConsumerPartitionAssignor.Subscription(List.of(topic))));
+      assignor.assign(Cluster.empty(), subscription);
+      Assertions.assertNotNull(assignor.admin);
+      // the thread releasing the resources does not block the JVM from exiting
+      Assertions.assertTrue(
+          Thread.getAllStackTraces().keySet().stream()
+              .filter(t -> t.getName().equals("assignor-releaser"))
+              .allMatch(Thread::isDaemon));
+
+      Utils.sleep(Duration.ofSeconds(4));
+      Assertions.assertNull(assignor.admin);
+      Assertions.assertNull(assignor.metricStore);
+
+      // next rebalance creates the resources again
+      var result = assignor.assign(Cluster.empty(), subscription);
+      Assertions.assertEquals(3, result.groupAssignment().get("c0").partitions().size());
+      Assertions.assertNotNull(assignor.admin);
+    }
+  }
+
+  @Test
+  void testCostAwareAssignor() {
+    var topic = Utils.randomString();
+    try (var admin = Admin.of(SERVICE.bootstrapServers())) {
+      admin.creator().topic(topic).numberOfPartitions(10).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+    }
+    try (var assignor = new CostAwareAssignor()) {
+      assignor.configure(
+          Map.of(
+              "jmx.port",
+              String.valueOf(SERVICE.jmxServiceURL().getPort()),
+              CostAwareAssignor.MAX_WAIT_BEAN,
+              "1s",
+              Shuffler.SHUFFLE_TIME,
+              "500ms",
+              ConsumerConfigs.BOOTSTRAP_SERVERS_CONFIG,
+              SERVICE.bootstrapServers()));
+      var owned = List.of(new TopicPartition(topic, 0), new TopicPartition(topic, 1));
+      var subscription =
+          new ConsumerPartitionAssignor.GroupSubscription(
+              Map.of(
+                  "c0",
+                  new ConsumerPartitionAssignor.Subscription(List.of(topic), null, owned),
+                  "c1",
+                  new ConsumerPartitionAssignor.Subscription(List.of(topic))));
+      var result = assignor.assign(Cluster.empty(), subscription).groupAssignment();
+      Assertions.assertEquals(
+          10, result.values().stream().mapToInt(a -> a.partitions().size()).sum());
+      Assertions.assertEquals(5, result.get("c0").partitions().size());
+      Assertions.assertEquals(5, result.get("c1").partitions().size());
+    }
+  }
+
   private static ByteBuffer convert(String value) {
     return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
   }
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.assignor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import org.astraea.common.admin.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CombinatorTest {
+
+  private static final TopicPartition A0 = TopicPartition.of("a", 0);
+  private static final TopicPartition A1 = TopicPartition.of("a", 1);
+  private static final TopicPartition A2 = TopicPartition.of("a", 2);
+  private static final TopicPartition B0 = TopicPartition.of("b", 0);
+
+  private static Combinator.Context context() {
+    return Combinator.context(
+        Map.of(
+            "c0", new SubscriptionInfo(List.of("a", "b"), List.of(A0)),
+            "c1", new SubscriptionInfo(List.of("a"), List.of(A1)),
+            "c2", new SubscriptionInfo(List.of("a"), List.of())),
+        Map.of(A0, 1.0, A1, 2.0, A2, 4.0, B0, 8.0),
+        // the relation is symmetric, so A2 is incompatible with A0 as well
+        Map.of(A0, Set.of(A2), B0, Set.of()));
+  }
+
+  @Test
+  void testContext() {
+    var context = context();
+    Assertions.assertEquals(4, context.numberOfPartitions());
+    Assertions.assertEquals(3, context.numberOfConsumers());
+    // the partitions and consumers are sorted
+    Assertions.assertEquals(1.0, context.cost(0));
+    Assertions.assertEquals(8.0, context.cost(3));
+    Assertions.assertEquals(0, context.owner(0));
+    Assertions.assertEquals(1, context.owner(1));
+    Assertions.assertEquals(-1, context.owner(2));
+  }
+
+  @Test
+  void testAssign() {
+    var combinator = context().combinator();
+    combinator.assign(0, 1);
+    combinator.assign(1, 1);
+    Assertions.assertEquals(3.0, combinator.cost(1));
+    Assertions.assertEquals(0.0, combinator.cost(0));
+    Assertions.assertEquals(1, combinator.consumer(0));
+    Assertions.assertEquals(-1, combinator.consumer(2));
+    // a-0 is moved from c0 to c1
+    Assertions.assertEquals(1, combinator.moves());
+    Assertions.assertThrows(IllegalStateException.class, () -> combinator.assign(0, 0));
+
+    Assertions.assertFalse(combinator.compatible(1, 2));
+    Assertions.assertTrue(combinator.compatible(0, 2));
+    Assertions.assertEquals(0, combinator.violations());
+    combinator.assign(2, 1);
+    Assertions.assertEquals(1, combinator.violations());
+
+    combinator.assign(3, 0);
+    Assertions.assertEquals(
+        Map.of("c0", List.of(B0), "c1", List.of(A0, A1, A2), "c2", List.of()), combinator.toMap());
+  }
+
+  @Test
+  void testLowCost() {
+    var combinator = context().combinator();
+    // c2 only subscribes topic "a", so the group of "b" has only c0
+    Assertions.assertTrue(combinator.lowCost(0, 3));
+    combinator.assign(1, 0);
+    combinator.assign(0, 1);
+    // the cheaper half of {c0, c1, c2} has two consumers
+    Assertions.assertFalse(combinator.lowCost(0, 2));
+    Assertions.assertTrue(combinator.lowCost(1, 2));
+    Assertions.assertTrue(combinator.lowCost(2, 2));
+    combinator.assign(2, 2);
+    Assertions.assertTrue(combinator.lowCost(0, 2));
+    Assertions.assertTrue(combinator.lowCost(1, 2));
+    Assertions.assertFalse(combinator.lowCost(2, 2));
+  }
+
+  @Test
+  void testCandidate() {
+    var context = context();
+    var hint = Hint.of(Set.of(Hint.lowCostHint(), Hint.incompatibleHint()));
+    var random = ThreadLocalRandom.current();
+    IntStream.range(0, 100)
+        .forEach(
+            ignored -> {
+              var combinator = context.combinator();
+              combinator.assign(0, 0);
+              combinator.assign(1, 1);
+              // c0 holds the incompatible partition, and c1 is not cheap
+              Assertions.assertEquals(2, combinator.candidate(2, hint, random));
+              // only c0 subscribes topic "b"
+              Assertions.assertEquals(0, combinator.candidate(3, hint, random));
+            });
+  }
+
+  @Test
+  void testLimiter() {
+    var context = context();
+    var incompatible = Limiter.incompatibleLimiter();
+    var skew = Limiter.skewCostLimiter(context);
+
+    var balanced = context.combinator();
+    balanced.assign(3, 0);
+    balanced.assign(2, 1);
+    balanced.assign(0, 2);
+    balanced.assign(1, 2);
+    Assertions.assertTrue(incompatible.check(balanced));
+    Assertions.assertTrue(skew.check(balanced));
+
+    var skewed = context.combinator();
+    IntStream.range(0, 4).forEach(p -> skewed.assign(p, 0));
+    Assertions.assertFalse(incompatible.check(skewed));
+    Assertions.assertFalse(skew.check(skewed));
+    Assertions.assertFalse(Limiter.of(Set.of(incompatible, skew)).check(skewed));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.assignor;
+
+import static java.lang.String.format;
+import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.admin.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class CostAwareAssignorBenchmark {
+
+  @Benchmark
+  public Combinator generate(BenchmarkData data) {
+    return data.generator.get();
+  }
+
+  @Benchmark
+  public Map<String, List<TopicPartition>> shuffle(BenchmarkData data) {
+    return data.shuffler.shuffle();
+  }
+
+  @State(Scope.Thread)
+  public static class BenchmarkData {
+    @Param({"1000", "10000"})
+    private int partitions;
+
+    @Param({"50", "500"})
+    private int members;
+
+    private Generator generator;
+    private Shuffler shuffler;
+
+    @Setup
+    public void initialize() {
+      var random = new Random(0);
+      var tps =
+          IntStream.range(0, partitions)
+              .mapToObj(i -> TopicPartition.of("topic-" + (i % 10), i / 10))
+              .toList();
+      var cost =
+          tps.stream()
+              .collect(Collectors.toMap(Function.identity(), ignored -> random.nextDouble()));
+      // make a few incompatible pairs as NetworkIngressCost does for the heavy partitions
+      var incompatible = new HashMap<TopicPartition, Set<TopicPartition>>();
+      tps.forEach(tp -> incompatible.put(tp, Set.of()));
+      for (var i = 0; i + 1 < tps.size(); i += 100)
+        incompatible.put(tps.get(i), Set.of(tps.get(i + 1)));
+
+      // every member owns a slice of partitions, which simulates the rebalance of a stable group
+      var owned = new HashMap<String, List<TopicPartition>>();
+      for (var i = 0; i < tps.size(); i++)
+        owned
+            .computeIfAbsent("member-" + (i % members), ignored -> new ArrayList<>())
+            .add(tps.get(i));
+      var topics = tps.stream().map(TopicPartition::topic).distinct().toList();
+      var subscriptions =
+          IntStream.range(0, members)
+              .mapToObj(i -> "member-" + i)
+              .collect(
+                  Collectors.toMap(
+                      Function.identity(),
+                      m -> new SubscriptionInfo(topics, owned.getOrDefault(m, List.of()))));
+
+      var hints = Hint.of(Set.of(Hint.lowCostHint(), Hint.incompatibleHint()));
+      generator =
+          Generator.stickyGenerator(Combinator.context(subscriptions, cost, incompatible), hints);
+      shuffler =
+          Shuffler.stickyShuffler(
+              subscriptions,
+              cost,
+              incompatible,
+              new Configuration(Map.of(Shuffler.SHUFFLE_TIME, "1s")));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(CostAwareAssignorBenchmark.class.getSimpleName())
+            .verbosity(VerboseMode.NORMAL)
+            .resultFormat(ResultFormatType.JSON)
+            .result(
+                format(
+                    "%s/%s-result-%s.json",
+                    System.getProperty("java.io.tmpdir"),
+                    CostAwareAssignorBenchmark.class.getSimpleName(),
+                    ISO_DATE_TIME.format(LocalDateTime.now())))
+            .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.assignor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.admin.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ShufflerTest {
+
+  @Test
+  void testStickyShufflerAssignsAllPartitions() {
+    var partitions =
+        IntStream.range(0, 30).mapToObj(i -> TopicPartition.of("a", i)).collect(Collectors.toSet());
+    var cost =
+        partitions.stream()
+            .collect(Collectors.toMap(Function.identity(), tp -> 1.0 + tp.partition()));
+    var incompatible =
+        partitions.stream()
+            .collect(Collectors.toMap(Function.identity(), ignored -> Set.<TopicPartition>of()));
+    var subscriptions =
+        Map.of(
+            "c0", new SubscriptionInfo(List.of("a"), List.of()),
+            "c1", new SubscriptionInfo(List.of("a"), List.of()),
+            "c2", new SubscriptionInfo(List.of("b"), List.of()));
+    var result =
+        Shuffler.stickyShuffler(
+                subscriptions,
+                cost,
+                incompatible,
+                new Configuration(
+                    Map.of(Shuffler.SHUFFLE_TIME, "300ms", Shuffler.SHUFFLE_THREADS, "2")))
+            .shuffle();
+    Assertions.assertEquals(3, result.size());
+    Assertions.assertEquals(0, result.get("c2").size());
+    Assertions.assertEquals(
+        partitions,
+        result.values().stream().flatMap(List::stream).collect(Collectors.toUnmodifiableSet()));
+    var c0 = result.get("c0").stream().mapToDouble(cost::get).sum();
+    var c1 = result.get("c1").stream().mapToDouble(cost::get).sum();
+    var total = cost.values().stream().mapToDouble(d -> d).sum();
+    Assertions.assertTrue(Math.abs(c0 - c1) < total / 4, "c0: " + c0 + " c1: " + c1);
+  }
+
+  @Test
+  void testStickyShufflerKeepsBalancedOwners() {
+    var partitions = IntStream.range(0, 10).mapToObj(i -> TopicPartition.of("a", i)).toList();
+    var cost = partitions.stream().collect(Collectors.toMap(Function.identity(), ignored -> 1.0));
+    var incompatible =
+        partitions.stream()
+            .collect(Collectors.toMap(Function.identity(), ignored -> Set.<TopicPartition>of()));
+    var subscriptions =
+        Map.of(
+            "c0", new SubscriptionInfo(List.of("a"), partitions.subList(0, 5)),
+            "c1", new SubscriptionInfo(List.of("a"), partitions.subList(5, 10)));
+    var start = System.currentTimeMillis();
+    var result =
+        Shuffler.stickyShuffler(
+                subscriptions,
+                cost,
+                incompatible,
+                new Configuration(Map.of(Shuffler.SHUFFLE_TIME, "30s")))
+            .shuffle();
+    // the current owners are optimal, so the shuffle stops without using up the shuffle time
+    Assertions.assertTrue(System.currentTimeMillis() - start < 10_000);
+    Assertions.assertEquals(Set.copyOf(partitions.subList(0, 5)), Set.copyOf(result.get("c0")));
+    Assertions.assertEquals(Set.copyOf(partitions.subList(5, 10)), Set.copyOf(result.get("c1")));
+  }
+
+  @Test
+  void testOwners() {
+    var tp0 = TopicPartition.of("a", 0);
+    var tp1 = TopicPartition.of("b", 0);
+    var owners =
+        Generator.owners(
+            Map.of(
+                "c0", new SubscriptionInfo(List.of("a"), List.of(tp0, tp1)),
+                "c1", new SubscriptionInfo(List.of("a"), List.of())));
+    // c0 doesn't subscribe topic "b" anymore
+    Assertions.assertEquals(Map.of(tp0, "c0"), owners);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import static java.lang.String.format;
+import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.astraea.common.Configuration;
+import org.astraea.common.consumer.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/** Compare the codecs by compressing and decompressing a block of kafka-like records. */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 3, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class CodecBenchmark {
+
+  @Benchmark
+  public byte[] compress(BenchmarkData data) {
+    return data.codec.compress(data.block.duplicate());
+  }
+
+  @Benchmark
+  public ByteBuffer decompress(BenchmarkData data) {
+    return data.codec.decompress(data.compressed, data.block.remaining());
+  }
+
+  @State(Scope.Thread)
+  public static class BenchmarkData {
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final String[] EVENTS = {"click", "view", "purchase", "login", "logout"};
+
+    @Param({"none", "gzip", "lz4", "zstd", "snappy"})
+    String compression;
+
+    private Codec codec;
+    private ByteBuffer block;
+    private byte[] compressed;
+
+    @Setup
+    public void initialize() {
+      // the json records with random ids, which is similar to the records of event tracking
+      var random = new Random(100);
+      var records = new ArrayList<Record<byte[], byte[]>>();
+      var size = 0;
+      while (size < BLOCK_SIZE) {
+        var user = "user-" + random.nextInt(10000);
+        var value =
+            format(
+                "{\"user\":\"%s\",\"event\":\"%s\",\"item\":%d,\"price\":%.2f,\"session\":\"%x\"}",
+                user,
+                EVENTS[random.nextInt(EVENTS.length)],
+                random.nextInt(100000),
+                random.nextDouble() * 1000,
+                random.nextLong());
+        var record =
+            Record.builder()
+                .topic("events")
+                .partition(0)
+                .offset(records.size())
+                .timestamp(1700000000000L + records.size() * 3L)
+                .key(user.getBytes(StandardCharsets.UTF_8))
+                .value(value.getBytes(StandardCharsets.UTF_8))
+                .build();
+        records.add(record);
+        size += RecordBlock.size(record);
+      }
+      codec = Codec.of(compression, Configuration.EMPTY);
+      block = RecordBlock.encode(List.copyOf(records));
+      compressed = codec.compress(block.duplicate());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(CodecBenchmark.class.getSimpleName())
+            .verbosity(VerboseMode.NORMAL)
+            .resultFormat(ResultFormatType.JSON)
+            .result(
+                format(
+                    "%s/%s-result-%s.json",
+                    System.getProperty("java.io.tmpdir"),
+                    CodecBenchmark.class.getSimpleName(),
+                    ISO_DATE_TIME.format(LocalDateTime.now())))
+            .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CodecTest {
+
+  private static final byte[] DATA =
+      "{\"user\":\"user-1\",\"event\":\"click\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testCompress(String type) {
+    var codec = Codec.of(type, Configuration.EMPTY);
+    Assertions.assertEquals(type, codec.name());
+    Assertions.assertEquals(codec.id(), Codec.of(codec.id(), Configuration.EMPTY).id());
+
+    // the buffer is a slice of the array
+    var buffer = ByteBuffer.allocate(DATA.length + 10).position(5).put(DATA).flip().position(5);
+    var compressed = codec.compress(buffer);
+    Assertions.assertEquals(5, buffer.position());
+    if (!type.equals("none")) Assertions.assertTrue(compressed.length < DATA.length);
+    Assertions.assertEquals(ByteBuffer.wrap(DATA), codec.decompress(compressed, DATA.length));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testStream(String type) throws Exception {
+    var codec = Codec.of(type, Configuration.EMPTY);
+    var output = new ByteArrayOutputStream();
+    try (var stream = codec.wrap(output)) {
+      stream.write(DATA);
+    }
+    var head = output.toByteArray();
+    Assertions.assertEquals(type, Codec.detect(head, Configuration.EMPTY).name());
+    try (var stream = codec.wrap(new ByteArrayInputStream(head))) {
+      Assertions.assertArrayEquals(DATA, stream.readAllBytes());
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"gzip", "lz4", "zstd"})
+  void testLevel(String type) {
+    var codec = Codec.of(type, new Configuration(Map.of(Codec.COMPRESSION_LEVEL, "9")));
+    Assertions.assertEquals(
+        ByteBuffer.wrap(DATA),
+        codec.decompress(codec.compress(ByteBuffer.wrap(DATA)), DATA.length));
+  }
+
+  @Test
+  void testZstdDictionary() throws Exception {
+    var dictionary = Files.createTempFile("dictionary", null);
+    Files.write(dictionary, "{\"user\":\"user-1\",\"event\":\"click\"}".getBytes());
+    var configuration =
+        new Configuration(Map.of(Codec.COMPRESSION_DICTIONARY, dictionary.toString()));
+    var codec = Codec.of("zstd", configuration);
+    var compressed = codec.compress(ByteBuffer.wrap(DATA));
+    Assertions.assertEquals(ByteBuffer.wrap(DATA), codec.decompress(compressed, DATA.length));
+    Assertions.assertThrows(
+        Exception.class,
+        () -> Codec.of("zstd", Configuration.EMPTY).decompress(compressed, DATA.length));
+  }
+
+  @Test
+  void testCustomCodec() {
+    var configuration =
+        new Configuration(Map.of(Codec.COMPRESSION_TYPE, ReversedCodec.class.getName()));
+    var codec = Codec.of(configuration);
+    Assertions.assertInstanceOf(ReversedCodec.class, codec);
+    Assertions.assertInstanceOf(ReversedCodec.class, Codec.of((byte) 100, configuration));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Codec.of((byte) 100, Configuration.EMPTY));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Codec.of("unknown", Configuration.EMPTY));
+
+    var output = new ByteArrayOutputStream();
+    try (var writer = RecordWriter.builder(output, configuration).build()) {
+      writer.append(
+          org.astraea.common.consumer.Record.builder()
+              .topic(Utils.randomString())
+              .key(DATA)
+              .value(new byte[0])
+              .build());
+    }
+    var reader =
+        RecordReader.builder(new ByteArrayInputStream(output.toByteArray()), configuration).build();
+    Assertions.assertArrayEquals(DATA, reader.next().key());
+    Assertions.assertFalse(reader.hasNext());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testDetectCompressionOfWholeStream(String type) throws Exception {
+    var output = new ByteArrayOutputStream();
+    try (var writer = RecordWriter.builder(output).build()) {
+      writer.append(
+          org.astraea.common.consumer.Record.builder()
+              .topic(Utils.randomString())
+              .key(DATA)
+              .value(new byte[0])
+              .build());
+    }
+    var compressed = new ByteArrayOutputStream();
+    try (var stream = Codec.of(type, Configuration.EMPTY).wrap(compressed)) {
+      stream.write(output.toByteArray());
+    }
+    // the codec is detected without configuration
+    var reader =
+        RecordReader.builder(new ByteArrayInputStream(compressed.toByteArray()))
+            .compression()
+            .build();
+    Assertions.assertArrayEquals(DATA, reader.next().key());
+    Assertions.assertFalse(reader.hasNext());
+  }
+
+  public static class ReversedCodec implements Codec {
+
+    @Override
+    public byte id() {
+      return 100;
+    }
+
+    @Override
+    public String name() {
+      return "reversed";
+    }
+
+    @Override
+    public byte[] magic() {
+      return new byte[0];
+    }
+
+    @Override
+    public byte[] compress(ByteBuffer data) {
+      var bytes = Codec.bytes(data).clone();
+      for (var i = 0; i != bytes.length / 2; ++i) {
+        var tmp = bytes[i];
+        bytes[i] = bytes[bytes.length - 1 - i];
+        bytes[bytes.length - 1 - i] = tmp;
+      }
+      return bytes;
+    }
+
+    @Override
+    public ByteBuffer decompress(byte[] data, int uncompressedSize) {
+      return ByteBuffer.wrap(compress(ByteBuffer.wrap(data)));
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream outputStream) {
+      return outputStream;
+    }
+
+    @Override
+    public InputStream wrap(InputStream inputStream) {
+      return inputStream;
+    }
+  }
+}
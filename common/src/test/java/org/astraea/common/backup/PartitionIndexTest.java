@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PartitionIndexTest {
+
+  private static PartitionIndex index(List<long[]> files) {
+    var index = PartitionIndex.of(ByteBuffer.allocate(0));
+    for (var f : files) {
+      var entry = index.next(f[0], f[1], f[2], f[3], f[1] - f[0] + 1, 100);
+      var content = index.toByteBuffer();
+      index =
+          PartitionIndex.of(
+              ByteBuffer.allocate(content.remaining() + 56)
+                  .put(content)
+                  .put(entry.toByteBuffer())
+                  .flip());
+    }
+    return index;
+  }
+
+  @Test
+  void testEmpty() {
+    var index = PartitionIndex.of(ByteBuffer.allocate(0));
+    Assertions.assertEquals(0, index.size());
+    Assertions.assertEquals(Optional.empty(), index.offset(0));
+    Assertions.assertEquals(Optional.empty(), index.timestamp(0));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> PartitionIndex.of(ByteBuffer.allocate(10)));
+  }
+
+  @Test
+  void testSearch() {
+    var index =
+        index(
+            List.of(
+                new long[] {0, 9, 100, 200},
+                new long[] {10, 19, 150, 300},
+                // the timestamps are not ordered by offset
+                new long[] {20, 29, 120, 250},
+                new long[] {30, 39, 400, 500}));
+    Assertions.assertEquals(4, index.size());
+    Assertions.assertEquals("20", index.get(2).fileName());
+    Assertions.assertEquals(300, index.get(2).cumulativeMaxTimestamp());
+
+    Assertions.assertEquals(0, index.offset(0).get().firstOffset());
+    Assertions.assertEquals(10, index.offset(15).get().firstOffset());
+    Assertions.assertEquals(30, index.offset(39).get().firstOffset());
+    Assertions.assertEquals(Optional.empty(), index.offset(40));
+
+    Assertions.assertEquals(0, index.timestamp(0).get().firstOffset());
+    Assertions.assertEquals(10, index.timestamp(201).get().firstOffset());
+    Assertions.assertEquals(10, index.timestamp(300).get().firstOffset());
+    Assertions.assertEquals(30, index.timestamp(301).get().firstOffset());
+    Assertions.assertEquals(Optional.empty(), index.timestamp(501));
+  }
+
+  @Test
+  void testAdd() {
+    var index =
+        PartitionIndex.of(ByteBuffer.allocate(0))
+            .add(20, 29, 120, 250, 10, 100)
+            .add(0, 9, 100, 200, 10, 100)
+            .add(10, 19, 150, 300, 10, 100)
+            // the file is rewritten
+            .add(20, 29, 130, 260, 10, 200);
+    Assertions.assertEquals(3, index.size());
+    Assertions.assertEquals(
+        List.of(0L, 10L, 20L),
+        List.of(
+            index.get(0).firstOffset(), index.get(1).firstOffset(), index.get(2).firstOffset()));
+    Assertions.assertEquals(200, index.get(0).cumulativeMaxTimestamp());
+    Assertions.assertEquals(300, index.get(2).cumulativeMaxTimestamp());
+    Assertions.assertEquals(200, index.get(2).bytes());
+    Assertions.assertEquals(10, index.timestamp(255).get().firstOffset());
+  }
+
+  @Test
+  void testMap() throws Exception {
+    var index = index(List.of(new long[] {0, 9, 100, 200}, new long[] {10, 19, 150, 300}));
+    var file = Files.createTempFile("partition", "index");
+    var content = index.toByteBuffer();
+    var bytes = new byte[content.remaining()];
+    content.get(bytes);
+    Files.write(file, bytes);
+
+    var mapped = PartitionIndex.map(file);
+    Assertions.assertEquals(2, mapped.size());
+    Assertions.assertEquals(index.get(0), mapped.get(0));
+    Assertions.assertEquals(index.get(1), mapped.get(1));
+    Assertions.assertEquals(10, mapped.timestamp(250).get().firstOffset());
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import static java.lang.String.format;
+import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import org.astraea.common.Configuration;
+import org.astraea.common.DataSize;
+import org.astraea.common.consumer.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Compare the ways to read a whole backup file. Each operation iterates all records of the file, so
+ * the read throughput is the file size divided by the average time.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class RecordReaderBenchmark {
+
+  @Benchmark
+  public long stream(BenchmarkData data) throws IOException {
+    try (var input = Files.newInputStream(data.file)) {
+      return count(RecordReader.builder(input, data.configuration).buffered().build());
+    }
+  }
+
+  @Benchmark
+  public long channel(BenchmarkData data) throws IOException {
+    try (var channel = FileChannel.open(data.file)) {
+      InputStream input = Channels.newInputStream(channel);
+      return count(RecordReader.builder(input, data.configuration).buffered().build());
+    }
+  }
+
+  @Benchmark
+  public long mmap(BenchmarkData data) throws IOException {
+    try (var channel = FileChannel.open(data.file)) {
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return count(RecordReader.builder(buffer, data.configuration).build());
+    }
+  }
+
+  /** iterate all records, and touch the values to make sure the data is read from the file */
+  private static long count(RecordReader reader) {
+    var sum = 0L;
+    while (reader.hasNext()) {
+      var value = reader.nextBuffer().value();
+      if (value != null && value.hasRemaining()) sum += value.get(value.position());
+    }
+    return sum;
+  }
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkData {
+    @Param({"1GB"})
+    String size;
+
+    @Param({"none", "lz4"})
+    String compression;
+
+    private Path file;
+    private Configuration configuration;
+
+    @Setup
+    public void initialize() throws IOException {
+      configuration = new Configuration(Map.of("compression.type", compression));
+      file = Files.createTempFile("RecordReaderBenchmark", null);
+      var random = new Random(100);
+      var value = new byte[1024];
+      var bytes = DataSize.of(size).bytes();
+      try (var writer =
+          RecordWriter.builder(Files.newOutputStream(file), configuration).buffered().build()) {
+        for (var offset = 0L; writer.size().bytes() < bytes; offset++) {
+          random.nextBytes(value);
+          writer.append(
+              Record.builder()
+                  .topic("benchmark")
+                  .partition(0)
+                  .offset(offset)
+                  .timestamp(1700000000000L + offset)
+                  .key(String.valueOf(offset).getBytes(StandardCharsets.UTF_8))
+                  .value(value.clone())
+                  .build());
+        }
+      }
+    }
+
+    @TearDown
+    public void cleanup() throws IOException {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(RecordReaderBenchmark.class.getSimpleName())
+            .verbosity(VerboseMode.NORMAL)
+            .resultFormat(ResultFormatType.JSON)
+            .result(
+                format(
+                    "%s/%s-result-%s.json",
+                    System.getProperty("java.io.tmpdir"),
+                    RecordReaderBenchmark.class.getSimpleName(),
+                    ISO_DATE_TIME.format(LocalDateTime.now())))
+            .build();
+
+    new Runner(options).run();
+  }
+}
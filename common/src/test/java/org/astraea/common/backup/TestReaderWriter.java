@@ -18,12 +18,22 @@ package org.astraea.common.backup;
 
 import static org.astraea.common.consumer.SeekStrategy.DISTANCE_FROM_BEGINNING;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.Header;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.TopicPartition;
 import org.astraea.common.consumer.Consumer;
@@ -34,6 +44,8 @@ import org.astraea.it.Service;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 public class TestReaderWriter {
 
@@ -86,4 +98,227 @@ public class TestReaderWriter {
       cnt++;
     }
   }
+
+  @Test
+  void testNextBuffer() throws IOException {
+    var topic = Utils.randomString();
+    var file = Files.createTempFile(topic, null).toFile();
+    produceData(topic, 10);
+    try (var writer = RecordWriter.builder(file).build()) {
+      var records =
+          Consumer.forPartitions(Set.of(TopicPartition.of(topic, 0)))
+              .bootstrapServers(SERVICE.bootstrapServers())
+              .seek(DISTANCE_FROM_BEGINNING, 0)
+              .iterator(List.of(IteratorLimit.count(10)));
+      while (records.hasNext()) {
+        writer.append(records.next());
+      }
+    }
+    var reader = RecordReader.builder(file).build();
+    var cnt = 0;
+    while (reader.hasNext()) {
+      var record = reader.nextBuffer();
+      Assertions.assertEquals(topic, record.topic());
+      Assertions.assertEquals(cnt, record.offset());
+      Assertions.assertTrue(record.key().isReadOnly());
+      Assertions.assertEquals(record.serializedKeySize(), record.key().remaining());
+      Assertions.assertEquals(
+          String.valueOf(cnt), StandardCharsets.UTF_8.decode(record.key()).toString());
+      Assertions.assertEquals(0, record.value().remaining());
+      cnt++;
+    }
+    Assertions.assertEquals(10, cnt);
+    Assertions.assertThrows(NoSuchElementException.class, reader::nextBuffer);
+  }
+
+  private static List<org.astraea.common.consumer.Record<byte[], byte[]>> records(
+      String topic, int size) {
+    return IntStream.range(0, size)
+        .mapToObj(
+            i ->
+                org.astraea.common.consumer.Record.builder()
+                    .topic(topic)
+                    .partition(i % 20 < 10 ? 0 : 1)
+                    .offset(i)
+                    .timestamp(1000 + i)
+                    .headers(i % 3 == 0 ? List.of(new Header("h" + i, null)) : List.of())
+                    .key(i % 5 == 0 ? null : String.valueOf(i).getBytes(StandardCharsets.UTF_8))
+                    .value(new byte[i % 7])
+                    .build())
+        .toList();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testV2(String compression) throws IOException {
+    var file = Files.createTempFile("testV2", null);
+    var expected = records(Utils.randomString(), 100);
+    try (var writer =
+        RecordWriter.builder(
+                Files.newOutputStream(file),
+                new Configuration(Map.of("compression.type", compression, "block.size", "100Byte")))
+            .build()) {
+      expected.forEach(writer::append);
+      Assertions.assertEquals(100, writer.count());
+    }
+
+    var reader = RecordReader.builder(file.toFile()).build();
+    var actual = new ArrayList<org.astraea.common.consumer.Record<byte[], byte[]>>();
+    while (reader.hasNext()) actual.add(reader.next());
+    Assertions.assertEquals(expected.size(), actual.size());
+    for (var i = 0; i != expected.size(); ++i) {
+      var e = expected.get(i);
+      var a = actual.get(i);
+      Assertions.assertEquals(e.topic(), a.topic());
+      Assertions.assertEquals(e.partition(), a.partition());
+      Assertions.assertEquals(e.offset(), a.offset());
+      Assertions.assertEquals(e.timestamp(), a.timestamp());
+      Assertions.assertArrayEquals(e.key(), a.key());
+      Assertions.assertArrayEquals(e.value(), a.value());
+      Assertions.assertEquals(e.headers().size(), a.headers().size());
+      if (!e.headers().isEmpty()) {
+        Assertions.assertEquals(e.headers().get(0).key(), a.headers().get(0).key());
+        Assertions.assertNull(a.headers().get(0).value());
+      }
+    }
+
+    try (var channel = Files.newByteChannel(file)) {
+      var index = BlockIndex.read(channel);
+      // the block is split when the partition is changed
+      Assertions.assertTrue(index.entries().size() >= 10);
+      Assertions.assertEquals(100, index.records());
+      Assertions.assertEquals(0, index.offset(0).get().firstOffset());
+      Assertions.assertTrue(index.offset(55).get().firstOffset() <= 55);
+      Assertions.assertTrue(index.offset(55).get().lastOffset() >= 55);
+      Assertions.assertTrue(index.offset(100).isEmpty());
+      Assertions.assertTrue(index.timestamp(1055).get().maxTimestamp() >= 1055);
+      Assertions.assertTrue(index.timestamp(1100).isEmpty());
+
+      var seekReader = RecordReader.of(channel, 55);
+      var offsets = new ArrayList<Long>();
+      while (seekReader.hasNext()) offsets.add(seekReader.nextBuffer().offset());
+      Assertions.assertEquals(LongStream.range(55, 100).boxed().toList(), offsets);
+    }
+  }
+
+  @Test
+  void testV2TruncatedFile() throws IOException {
+    var file = Files.createTempFile("testV2TruncatedFile", null);
+    var expected = records(Utils.randomString(), 20);
+    var output = new ByteArrayOutputStream();
+    try (var writer =
+        RecordWriter.builder(output, new Configuration(Map.of("block.size", "100Byte"))).build()) {
+      expected.forEach(writer::append);
+    }
+    // drop the footer and the last block
+    var bytes = output.toByteArray();
+    Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+    var reader = RecordReader.builder(file.toFile()).build();
+    var count = 0;
+    while (reader.hasNext()) {
+      Assertions.assertEquals(count, reader.next().offset());
+      count++;
+    }
+    Assertions.assertNotEquals(0, count);
+    Assertions.assertTrue(count < 20);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testV1(String compression) {
+    var output = new ByteArrayOutputStream();
+    var expected = records(Utils.randomString(), 10);
+    try (var writer =
+        new RecordWriterBuilder(
+                (short) 1,
+                output,
+                new Configuration(
+                    Map.of("connector.name", "test", "compression.type", compression)))
+            .build()) {
+      expected.forEach(writer::append);
+    }
+    var reader = RecordReader.builder(new ByteArrayInputStream(output.toByteArray())).build();
+    var count = 0;
+    while (reader.hasNext()) {
+      Assertions.assertEquals(count, reader.next().offset());
+      count++;
+    }
+    Assertions.assertEquals(10, count);
+  }
+
+  @ParameterizedTest
+  @ValueSource(shorts = {0, 1, 2})
+  void testBuffer(short version) {
+    var output = new ByteArrayOutputStream();
+    var expected = records(Utils.randomString(), 100);
+    try (var writer =
+        new RecordWriterBuilder(
+                version,
+                output,
+                new Configuration(
+                    Map.of(
+                        "connector.name",
+                        "test",
+                        "compression.type",
+                        "none",
+                        "block.size",
+                        "100Byte")))
+            .build()) {
+      expected.forEach(writer::append);
+    }
+    var bytes = output.toByteArray();
+    // the direct buffer is similar to the mapped file
+    var buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    var reader = RecordReader.builder(buffer).buffered().build();
+    var count = 0;
+    while (reader.hasNext()) {
+      var e = expected.get(count);
+      var a = reader.nextBuffer();
+      Assertions.assertEquals(e.offset(), a.offset());
+      Assertions.assertEquals(e.timestamp(), a.timestamp());
+      Assertions.assertEquals(e.headers().size(), a.headers().size());
+      // the null key is converted to empty by V0 and V1
+      if (e.key() == null) Assertions.assertTrue(a.key() == null || !a.key().hasRemaining());
+      else Assertions.assertEquals(ByteBuffer.wrap(e.key()), a.key());
+      Assertions.assertEquals(ByteBuffer.wrap(e.value()), a.value());
+      count++;
+    }
+    Assertions.assertEquals(100, count);
+    // the builder does not change the position of given buffer
+    Assertions.assertEquals(0, buffer.position());
+
+    // drop the footer and the last records
+    reader = RecordReader.builder(buffer.slice(0, bytes.length / 2)).build();
+    count = 0;
+    while (reader.hasNext()) {
+      Assertions.assertEquals(count, reader.next().offset());
+      count++;
+    }
+    Assertions.assertTrue(count < 100);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "gzip", "lz4", "zstd", "snappy"})
+  void testBufferCompression(String compression) {
+    var output = new ByteArrayOutputStream();
+    var expected = records(Utils.randomString(), 100);
+    var configuration =
+        new Configuration(Map.of("compression.type", compression, "block.size", "100Byte"));
+    try (var writer = RecordWriter.builder(output, configuration).build()) {
+      expected.forEach(writer::append);
+    }
+    var bytes = output.toByteArray();
+    var reader =
+        RecordReader.builder(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()).build();
+    var count = 0;
+    while (reader.hasNext()) {
+      var e = expected.get(count);
+      var a = reader.next();
+      Assertions.assertEquals(e.offset(), a.offset());
+      Assertions.assertArrayEquals(e.key(), a.key());
+      Assertions.assertArrayEquals(e.value(), a.value());
+      count++;
+    }
+    Assertions.assertEquals(100, count);
+  }
 }
@@ -25,6 +25,7 @@ import static org.astraea.common.consumer.SeekStrategy.SEEK_TO;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -718,4 +719,43 @@ public class ConsumerTest {
     consumers.forEach(consumer -> consumer.poll(Duration.ofSeconds(1)));
     consumers.forEach(Consumer::close);
   }
+
+  @Test
+  void testByteBufferAndSkipDeserializer() {
+    var topic = Utils.randomString();
+    produceData(topic, 10);
+    try (var consumer =
+        Consumer.forTopics(Set.of(topic))
+            .bootstrapServers(SERVICE.bootstrapServers())
+            .config(
+                ConsumerConfigs.AUTO_OFFSET_RESET_CONFIG,
+                ConsumerConfigs.AUTO_OFFSET_RESET_EARLIEST)
+            .keyDeserializer(Deserializer.BYTE_BUFFER)
+            .valueDeserializer(Deserializer.SKIP)
+            .build()) {
+      var records = new ArrayList<Record<ByteBuffer, Void>>();
+      while (records.size() < 10) consumer.poll(Duration.ofSeconds(10)).forEach(records::add);
+      Assertions.assertEquals(10, records.size());
+      records.forEach(
+          r -> {
+            Assertions.assertTrue(r.key().isReadOnly());
+            Assertions.assertEquals(r.serializedKeySize(), r.key().remaining());
+            var key =
+                Integer.parseInt(StandardCharsets.UTF_8.decode(r.key().duplicate()).toString());
+            Assertions.assertTrue(key >= 0 && key < 10);
+            Assertions.assertNull(r.value());
+            Assertions.assertNotEquals(0, r.serializedValueSize());
+          });
+    }
+  }
+
+  @Test
+  void testDefaultByteBufferDeserialize() {
+    var buffer = ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8));
+    buffer.position(1);
+    Assertions.assertEquals("bc", Deserializer.STRING.deserialize("t", List.of(), buffer));
+    // the default implementation does not change the position
+    Assertions.assertEquals(1, buffer.position());
+    Assertions.assertNull(Deserializer.STRING.deserialize("t", List.of(), (ByteBuffer) null));
+  }
 }
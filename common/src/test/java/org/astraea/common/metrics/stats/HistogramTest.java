@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.stats;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+  @Test
+  void testPercentile() {
+    var histogram = Histogram.of();
+    LongStream.rangeClosed(1, 100_000).forEach(histogram::recordValue);
+
+    var snapshot = histogram.totalSnapshot();
+    Assertions.assertEquals(100_000, snapshot.count());
+    Assertions.assertEquals(100_000, snapshot.max());
+    Assertions.assertEquals(50000.5, snapshot.mean());
+    Assertions.assertEquals(100_000, histogram.measure());
+    for (var p : new double[] {50, 90, 99, 99.9, 99.99}) {
+      var expected = p * 1000;
+      Assertions.assertEquals(expected, snapshot.percentile(p), expected * 0.01, "p" + p);
+    }
+    Assertions.assertEquals(100_000, snapshot.percentile(100));
+  }
+
+  @Test
+  void testLargeValue() {
+    var histogram = Histogram.of();
+    histogram.recordValue(Long.MAX_VALUE);
+    histogram.recordValue(0);
+    Assertions.assertEquals(Long.MAX_VALUE, histogram.totalSnapshot().percentile(100));
+    Assertions.assertEquals(0, histogram.totalSnapshot().percentile(50));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.recordValue(-1));
+  }
+
+  @Test
+  void testEmpty() {
+    var snapshot = Histogram.of().totalSnapshot();
+    Assertions.assertEquals(0, snapshot.count());
+    Assertions.assertEquals(0, snapshot.percentile(99));
+    Assertions.assertEquals(Double.NaN, snapshot.mean());
+  }
+
+  @Test
+  void testMultiThreads() {
+    var histogram = Histogram.of();
+    var threads = 4;
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      CompletableFuture.allOf(
+              IntStream.range(0, threads)
+                  .mapToObj(
+                      i ->
+                          CompletableFuture.runAsync(
+                              () -> LongStream.range(0, 10_000).forEach(histogram::recordValue),
+                              executor))
+                  .toArray(CompletableFuture[]::new))
+          .join();
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertEquals(threads * 10_000, histogram.totalSnapshot().count());
+    Assertions.assertEquals(9_999, histogram.totalSnapshot().max());
+  }
+
+  @Test
+  void testHighestTrackableValue() {
+    // 1 hour in microseconds needs about 3.3k buckets
+    Assertions.assertTrue(Histogram.BUCKETS < 3500, "buckets: " + Histogram.BUCKETS);
+
+    var histogram = Histogram.of();
+    histogram.recordValue(1000);
+    histogram.recordValue(Histogram.HIGHEST_TRACKABLE_VALUE * 2);
+    histogram.recordValue(Histogram.HIGHEST_TRACKABLE_VALUE * 3);
+    var snapshot = histogram.totalSnapshot();
+    Assertions.assertEquals(
+        Histogram.BUCKETS - 1,
+        snapshot.buckets().keySet().stream().max(Integer::compare).orElseThrow());
+    Assertions.assertEquals(2, snapshot.buckets().get(Histogram.BUCKETS - 1));
+    Assertions.assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 3, snapshot.max());
+    Assertions.assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 5 + 1000, snapshot.sum());
+    Assertions.assertEquals(1000, snapshot.percentile(30), 10);
+    Assertions.assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 3, snapshot.percentile(99));
+
+    var previous = snapshot;
+    histogram.recordValue(Histogram.HIGHEST_TRACKABLE_VALUE * 4);
+    Assertions.assertEquals(
+        Histogram.HIGHEST_TRACKABLE_VALUE * 4, histogram.totalSnapshot().minus(previous).max());
+  }
+
+  @Test
+  void testMergeAndMinus() {
+    var first = Histogram.of();
+    var second = Histogram.of();
+    LongStream.range(0, 10).forEach(first::recordValue);
+    LongStream.range(100, 110).forEach(second::recordValue);
+
+    var merged = first.totalSnapshot().merge(second.totalSnapshot());
+    Assertions.assertEquals(20, merged.count());
+    Assertions.assertEquals(109, merged.max());
+
+    var diff = merged.minus(first.totalSnapshot());
+    Assertions.assertEquals(10, diff.count());
+    Assertions.assertEquals(100, diff.percentile(1), 1);
+  }
+
+  @Test
+  void testBuckets() {
+    var histogram = Histogram.of();
+    LongStream.range(0, 1000).forEach(histogram::recordValue);
+    var snapshot = histogram.totalSnapshot();
+    var copy = Histogram.Snapshot.of(snapshot.buckets(), snapshot.sum(), snapshot.max());
+    Assertions.assertEquals(snapshot.count(), copy.count());
+    Assertions.assertEquals(snapshot.mean(), copy.mean());
+    Assertions.assertEquals(snapshot.percentile(99), copy.percentile(99));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Histogram.Snapshot.of(Map.of(-1, 1L), 0, 0));
+  }
+}
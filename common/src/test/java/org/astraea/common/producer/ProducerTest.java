@@ -20,9 +20,12 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import org.apache.kafka.common.KafkaException;
 import org.astraea.common.Header;
 import org.astraea.common.Utils;
 import org.astraea.common.consumer.Consumer;
@@ -274,4 +277,176 @@ public class ProducerTest {
           });
     }
   }
+
+  @ParameterizedTest
+  @MethodSource("offerProducers")
+  void testSendBatch(Producer<byte[], byte[]> producer) {
+    var topic = Utils.randomString();
+    var records =
+        IntStream.range(0, 10)
+            .mapToObj(i -> Record.builder().topic(topic).key(new byte[10]).build())
+            .toList();
+    try (producer) {
+      var result = producer.sendBatch(records).toCompletableFuture().join();
+      Assertions.assertEquals(10, result.records());
+      Assertions.assertEquals(10, result.succeeded());
+      Assertions.assertEquals(0, result.failed());
+      Assertions.assertEquals(100, result.bytes());
+      Assertions.assertTrue(result.exception().isEmpty());
+      Assertions.assertTrue(result.avgLatency() >= 0);
+
+      var latencies = new LongAdder();
+      producer
+          .sendBatch(
+              records,
+              latency -> {
+                Assertions.assertTrue(latency >= 0);
+                latencies.increment();
+              })
+          .toCompletableFuture()
+          .join();
+      Assertions.assertEquals(10, latencies.sum());
+
+      var offsets = new ConcurrentLinkedQueue<Long>();
+      producer
+          .sendBatch(
+              records,
+              (t, partition, offset, bytes, latency) -> {
+                Assertions.assertEquals(topic, t);
+                Assertions.assertTrue(partition >= 0);
+                Assertions.assertEquals(10, bytes);
+                offsets.add(offset);
+              })
+          .toCompletableFuture()
+          .join();
+      // the records of the first two batches are in front
+      Assertions.assertEquals(10, Set.copyOf(offsets).size());
+      Assertions.assertTrue(offsets.stream().allMatch(offset -> offset >= 20));
+
+      var empty = producer.sendBatch(List.of()).toCompletableFuture().join();
+      Assertions.assertEquals(0, empty.records());
+      Assertions.assertTrue(Double.isNaN(empty.avgLatency()));
+    }
+  }
+
+  @Test
+  void testMaxInFlightRecords() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> Producer.builder().maxInFlightRecords(0));
+    var topic = Utils.randomString();
+    try (var producer =
+        Producer.builder()
+            .bootstrapServers(SERVICE.bootstrapServers())
+            .maxInFlightRecords(2)
+            .build()) {
+      var result =
+          producer
+              .sendBatch(
+                  IntStream.range(0, 100)
+                      .mapToObj(i -> Record.builder().topic(topic).key(new byte[1]).build())
+                      .toList())
+              .toCompletableFuture()
+              .join();
+      Assertions.assertEquals(100, result.succeeded());
+      // all permits are released
+      var futures =
+          IntStream.range(0, 100)
+              .mapToObj(i -> producer.send(Record.builder().topic(topic).key(new byte[1]).build()))
+              .toList();
+      futures.forEach(f -> f.toCompletableFuture().join());
+    }
+  }
+
+  @Test
+  void testTransactionListener() {
+    var topic = Utils.randomString();
+    var begun = new LongAdder();
+    var committed = new ConcurrentLinkedQueue<Integer>();
+    var latencies = new ConcurrentLinkedQueue<Long>();
+    try (var producer =
+        Producer.builder()
+            .bootstrapServers(SERVICE.bootstrapServers())
+            .transactionListener(
+                new Producer.TransactionListener() {
+                  @Override
+                  public void begun(long latency) {
+                    begun.increment();
+                  }
+
+                  @Override
+                  public void committed(int records, long latency) {
+                    committed.add(records);
+                    latencies.add(latency);
+                  }
+                })
+            .buildTransactional()) {
+      producer
+          .sendBatch(
+              IntStream.range(0, 10)
+                  .mapToObj(i -> Record.builder().topic(topic).key(new byte[1]).build())
+                  .toList())
+          .toCompletableFuture()
+          .join();
+      producer.send(List.of(Record.builder().topic(topic).key(new byte[1]).build()));
+    }
+    Assertions.assertEquals(2, begun.sum());
+    Assertions.assertEquals(List.of(10, 1), new ArrayList<>(committed));
+    Assertions.assertTrue(latencies.stream().allMatch(l -> l > 0));
+
+    // use TransactionListener.EMPTY instead of null
+    Assertions.assertThrows(
+        NullPointerException.class, () -> Producer.builder().transactionListener(null));
+  }
+
+  @Test
+  void testTransactionRetries() {
+    var topic = Utils.randomString();
+    var aborted = new LongAdder();
+    var committed = new LongAdder();
+    var succeeded = new LongAdder();
+    try (var producer =
+        Producer.builder()
+            .bootstrapServers(SERVICE.bootstrapServers())
+            .config(ProducerConfigs.MAX_REQUEST_SIZE_CONFIG, "1024")
+            .transactionListener(
+                new Producer.TransactionListener() {
+                  @Override
+                  public void committed(int records, long latency) {
+                    committed.increment();
+                  }
+
+                  @Override
+                  public void aborted(int records, long latency) {
+                    aborted.increment();
+                  }
+                })
+            .buildTransactional()) {
+      // the large record fails each attempt, and the small records get acknowledged
+      var records =
+          Stream.concat(
+                  IntStream.range(0, 4)
+                      .mapToObj(i -> Record.builder().topic(topic).key(new byte[1]).build()),
+                  Stream.of(Record.builder().topic(topic).key(new byte[2048]).build()))
+              .toList();
+      Assertions.assertThrows(
+          KafkaException.class,
+          () ->
+              producer.sendBatch(
+                  records, (t, partition, offset, bytes, latency) -> succeeded.increment()));
+      Assertions.assertEquals(3, aborted.sum());
+      Assertions.assertEquals(0, committed.sum());
+      // the acks of aborted attempts are dropped
+      Assertions.assertEquals(0, succeeded.sum());
+
+      // the acks are passed after the transaction is committed
+      producer
+          .sendBatch(
+              records.subList(0, 4),
+              (t, partition, offset, bytes, latency) -> succeeded.increment())
+          .toCompletableFuture()
+          .join();
+      Assertions.assertEquals(1, committed.sum());
+      Assertions.assertEquals(4, succeeded.sum());
+    }
+  }
 }
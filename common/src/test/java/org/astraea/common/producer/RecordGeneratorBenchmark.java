@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.producer;
+
+import static java.lang.String.format;
+import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.DistributionType;
+import org.astraea.common.admin.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Measure the cost of generating records. Run it with {@link GCProfiler}, and then the metric
+ * "gc.alloc.rate.norm" is the allocated bytes per record.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class RecordGeneratorBenchmark {
+
+  private static final int BATCH_SIZE = 100;
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<Record<byte[], byte[]>> generate(BenchmarkData data) {
+    return data.generator.apply(data.partition);
+  }
+
+  @State(Scope.Thread)
+  public static class BenchmarkData {
+    private RecordGenerator generator;
+    private TopicPartition partition;
+
+    @Setup
+    public void initialize() {
+      // the small records make the cost of generation dominant
+      generator =
+          RecordGenerator.builder()
+              .batchSize(BATCH_SIZE)
+              .keyTableSeed(0)
+              .keyRange(LongStream.rangeClosed(0, 10000).boxed().toList())
+              .keyDistribution(DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY))
+              .keySizeDistribution(DistributionType.FIXED.createLong(4, Configuration.EMPTY))
+              .valueTableSeed(0)
+              .valueRange(LongStream.rangeClosed(0, 10000).boxed().toList())
+              .valueDistribution(DistributionType.UNIFORM.createLong(10000, Configuration.EMPTY))
+              .valueSizeDistribution(DistributionType.FIXED.createLong(100, Configuration.EMPTY))
+              .build();
+      partition = TopicPartition.of("topic", 0);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(RecordGeneratorBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .verbosity(VerboseMode.NORMAL)
+            .resultFormat(ResultFormatType.JSON)
+            .result(
+                format(
+                    "%s/%s-result-%s.json",
+                    System.getProperty("java.io.tmpdir"),
+                    RecordGeneratorBenchmark.class.getSimpleName(),
+                    ISO_DATE_TIME.format(LocalDateTime.now())))
+            .build();
+
+    new Runner(options).run();
+  }
+}
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -185,10 +186,10 @@ public class RecordGeneratorTest {
     var throttler = RecordGenerator.throttler(DataRate.KiB.of(150));
     // total: 100KB, limit: 150KB -> no throttle
     Assertions.assertFalse(
-        throttler.apply(DataSize.KiB.of(100).measurement(DataUnit.Byte).longValue()));
+        throttler.test(DataSize.KiB.of(100).measurement(DataUnit.Byte).longValue()));
     // total: 500KB, limit: 150KB -> throttled
     Assertions.assertTrue(
-        throttler.apply(DataSize.KiB.of(400).measurement(DataUnit.Byte).longValue()));
+        throttler.test(DataSize.KiB.of(400).measurement(DataUnit.Byte).longValue()));
   }
 
   @Test
@@ -248,6 +249,26 @@ public class RecordGeneratorTest {
     Assertions.assertEquals(3, data.size());
   }
 
+  @Test
+  void testDynamicBatchSize() {
+    var batchSize = new AtomicInteger(3);
+    var dataSupplier =
+        RecordGenerator.builder()
+            .batchSize(batchSize::get)
+            .keyRange(List.of(1L))
+            .keyDistribution(() -> 1L)
+            .keySizeDistribution(() -> 1L)
+            .valueRange(List.of(1L))
+            .valueDistribution(() -> 1L)
+            .valueSizeDistribution(() -> 1L)
+            .throughput(ignored -> DataRate.KiB.of(100))
+            .build();
+    var tp = TopicPartition.of("test-0");
+    Assertions.assertEquals(3, dataSupplier.apply(tp).size());
+    batchSize.set(5);
+    Assertions.assertEquals(5, dataSupplier.apply(tp).size());
+  }
+
   @Test
   void testRandomSeed() {
     long keyContentSeed = ThreadLocalRandom.current().nextLong();
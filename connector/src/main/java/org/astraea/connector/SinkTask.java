@@ -28,6 +28,7 @@ import org.apache.kafka.connect.sink.SinkRecord;
 import org.astraea.common.Configuration;
 import org.astraea.common.Header;
 import org.astraea.common.VersionUtils;
+import org.astraea.common.admin.TopicPartition;
 import org.astraea.common.consumer.Record;
 
 public abstract class SinkTask extends org.apache.kafka.connect.sink.SinkTask {
@@ -42,6 +43,14 @@ public abstract class SinkTask extends org.apache.kafka.connect.sink.SinkTask {
     // empty
   }
 
+  /**
+   * @param partitions which are no longer assigned to this task. Kafka also calls it with all
+   *     assigned partitions before stopping this task.
+   */
+  protected void revoke(Collection<TopicPartition> partitions) {
+    // empty
+  }
+
   // -------------------------[final]-------------------------//
   @Override
   public final String version() {
@@ -96,6 +105,11 @@ public abstract class SinkTask extends org.apache.kafka.connect.sink.SinkTask {
     return Collections.unmodifiableList(hs);
   }
 
+  @Override
+  public final void close(Collection<org.apache.kafka.common.TopicPartition> partitions) {
+    revoke(partitions.stream().map(TopicPartition::from).toList());
+  }
+
   @Override
   public final void stop() {
     close();
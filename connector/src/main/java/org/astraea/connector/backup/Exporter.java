@@ -16,34 +16,45 @@
  */
 package org.astraea.connector.backup;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import org.astraea.common.Configuration;
 import org.astraea.common.DataSize;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.backup.Codec;
+import org.astraea.common.backup.PartitionIndex;
 import org.astraea.common.backup.RecordWriter;
 import org.astraea.common.consumer.Record;
+import org.astraea.common.metrics.MBeanRegister;
 import org.astraea.connector.Definition;
 import org.astraea.connector.SinkConnector;
 import org.astraea.connector.SinkContext;
 import org.astraea.connector.SinkTask;
 import org.astraea.connector.SinkTaskContext;
 import org.astraea.fs.FileSystem;
+import org.astraea.fs.Multipart;
+import org.astraea.fs.Type;
 
 public class Exporter extends SinkConnector {
 
@@ -139,11 +150,63 @@ public class Exporter extends SinkConnector {
   static String COMPRESSION_TYPE_DEFAULT = "none";
   static Definition COMPRESSION_TYPE_KEY =
       Definition.builder()
-          .name("compression.type")
+          .name(Codec.COMPRESSION_TYPE)
           .type(Definition.Type.STRING)
-          .documentation("a value that can specify the compression type.")
+          .documentation(
+              "a value that can specify the compression type. Available types: none, gzip, lz4, zstd, snappy, or the full class name of custom codec.")
           .defaultValue(COMPRESSION_TYPE_DEFAULT)
           .build();
+  static Definition COMPRESSION_LEVEL_KEY =
+      Definition.builder()
+          .name(Codec.COMPRESSION_LEVEL)
+          .type(Definition.Type.INT)
+          .documentation(
+              "the compression level of gzip, lz4 and zstd. The default level of each codec is used if it is not defined.")
+          .build();
+  static Definition COMPRESSION_DICTIONARY_KEY =
+      Definition.builder()
+          .name(Codec.COMPRESSION_DICTIONARY)
+          .type(Definition.Type.STRING)
+          .documentation("the path of dictionary file used by zstd.")
+          .build();
+
+  static Definition BLOCK_SIZE_KEY =
+      Definition.builder()
+          .name("block.size")
+          .type(Definition.Type.STRING)
+          .validator((name, obj) -> DataSize.of(obj.toString()))
+          .defaultValue("1MiB")
+          .documentation(
+              "is the uncompressed size of each block in the file. Each block is compressed independently.")
+          .build();
+  static int WRITER_THREADS_DEFAULT = 1;
+  static Definition WRITER_THREADS_KEY =
+      Definition.builder()
+          .name("writer.threads")
+          .type(Definition.Type.INT)
+          .defaultValue(WRITER_THREADS_DEFAULT)
+          .validator(
+              (name, obj) -> {
+                if (obj == null || ((Number) obj).intValue() <= 0)
+                  throw new IllegalArgumentException(name + " must be positive");
+              })
+          .documentation(
+              "the number of writer threads in each task. The partitions are sharded to the threads, so the compression and uploads of different partitions are overlapped.")
+          .build();
+  static int MULTIPART_PARTS_DEFAULT = 1;
+  static Definition MULTIPART_PARTS_KEY =
+      Definition.builder()
+          .name("multipart.parts")
+          .type(Definition.Type.INT)
+          .defaultValue(MULTIPART_PARTS_DEFAULT)
+          .validator(
+              (name, obj) -> {
+                if (obj == null || ((Number) obj).intValue() <= 0)
+                  throw new IllegalArgumentException(name + " must be positive");
+              })
+          .documentation(
+              "the number of parts of each file. The file is split into parts by the size, and each part is uploaded in background while it is being written. The parts are written in order, and then the file system concatenates them on the server. It is supported by hdfs only, and it is disabled if the value is 1.")
+          .build();
   private Configuration configs;
 
   @Override
@@ -173,22 +236,45 @@ public class Exporter extends SinkConnector {
         SIZE_KEY,
         OVERRIDE_KEY,
         BUFFER_SIZE_KEY,
-        COMPRESSION_TYPE_KEY);
+        COMPRESSION_TYPE_KEY,
+        COMPRESSION_LEVEL_KEY,
+        COMPRESSION_DICTIONARY_KEY,
+        BLOCK_SIZE_KEY,
+        WRITER_THREADS_KEY,
+        MULTIPART_PARTS_KEY);
   }
 
+  public static final String DOMAIN_NAME = "org.astraea";
+  public static final String TYPE_PROPERTY = "type";
+  public static final String TYPE_VALUE = "exporter";
+  public static final String ID_PROPERTY = "id";
+  public static final String NAME_PROPERTY = "name";
+  public static final String BUFFER_RECORDS_ATTRIBUTE = "buffer.records";
+  public static final String BUFFER_BYTES_ATTRIBUTE = "buffer.bytes";
+  public static final String PUT_BLOCKED_TIME_ATTRIBUTE = "put.blocked.time";
+
+  // the max number of records in the buffer. The buffer is mainly bounded by writer.buffer.size
+  static final int BUFFER_SLOTS = 1 << 16;
+
+  // the max time that the writer waits for new records before checking the idle writers
+  static final Duration MAX_DRAIN_WAIT = Duration.ofSeconds(1);
+
   public static class Task extends SinkTask {
 
     private CompletableFuture<Void> writerFuture;
 
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
-    final BlockingQueue<Record<byte[], byte[]>> recordsQueue = new LinkedBlockingQueue<>();
+    // each writer thread has its own buffer, and the partitions are sharded to the writers
+    List<RecordBuffer<Record<byte[], byte[]>>> buffers =
+        List.of(new RecordBuffer<>(BUFFER_SIZE_DEFAULT.bytes(), BUFFER_SLOTS));
 
-    final LongAdder bufferSize = new LongAdder();
+    private ExecutorService executor;
 
-    private final Object putLock = new Object();
+    private int uploadParts = MULTIPART_PARTS_DEFAULT;
 
-    private long bufferSizeLimit;
+    // run the uploads of parts. It is null if the multipart upload is disabled
+    private ExecutorService uploadExecutor;
 
     FileSystem fs;
     String path;
@@ -208,25 +294,135 @@ public class Exporter extends SinkConnector {
 
     private SinkTaskContext taskContext;
 
+    // the revoked partitions which are waiting for the writer thread to close their writers
+    private final Map<RecordBuffer<Record<byte[], byte[]>>, Queue<Revoke>> revokes =
+        new ConcurrentHashMap<>();
+
+    /**
+     * @param partitions to close
+     * @param done is completed by the writer thread after the writers are closed
+     */
+    private record Revoke(Set<TopicPartition> partitions, CompletableFuture<Void> done) {}
+
     // create for test
     RecordWriter createRecordWriter(Record record, Configuration configuration) {
-      var fileName = String.valueOf(record.offset());
-      return RecordWriter.builder(
-              fs.write(
-                  String.join(
-                      "/", path, record.topic(), String.valueOf(record.partition()), fileName)),
-              configuration)
-          .build();
+      var path = folder(record.topicPartition()) + "/" + record.offset();
+      return new IndexedWriter(
+          record.topicPartition(), RecordWriter.builder(output(path), configuration).build());
+    }
+
+    /**
+     * The large file is split into parts by the size, and the parts are uploaded concurrently. The
+     * file gets visible after the writer is closed.
+     */
+    private OutputStream output(String path) {
+      if (uploadParts == 1) return fs.write(path);
+      var partSize = DataSize.Byte.of(Math.max(1, size.bytes() / uploadParts));
+      return Multipart.stream(fs.writeParallel(path, uploadParts), partSize, uploadExecutor);
     }
 
     RecordWriter createRecordWriter(Record record) {
-      var fileName = String.valueOf(record.offset());
-      return RecordWriter.builder(
-              fs.write(
-                  String.join(
-                      "/", path, record.topic(), String.valueOf(record.partition()), fileName)),
-              this.configuration)
-          .build();
+      return createRecordWriter(record, this.configuration);
+    }
+
+    private String folder(TopicPartition tp) {
+      return String.join("/", path, tp.topic(), String.valueOf(tp.partition()));
+    }
+
+    /**
+     * Append the entry of rolled file to the index of partition. The index is re-read before
+     * appending since other tasks may own the partition before, and the whole index is rewritten to
+     * a temporary file of this writer and then renamed, so the importer never sees a partial index.
+     */
+    void appendIndex(
+        TopicPartition tp,
+        long firstOffset,
+        long lastOffset,
+        long minTimestamp,
+        long maxTimestamp,
+        long records,
+        long bytes) {
+      var indexPath = folder(tp) + "/" + PartitionIndex.FILE_NAME;
+      PartitionIndex index;
+      if (fs.type(indexPath) != Type.FILE) index = PartitionIndex.of(ByteBuffer.allocate(0));
+      else
+        try (var input = fs.read(indexPath)) {
+          index = PartitionIndex.of(ByteBuffer.wrap(input.readAllBytes()));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      var content =
+          index
+              .add(firstOffset, lastOffset, minTimestamp, maxTimestamp, records, bytes)
+              .toByteBuffer();
+      var bytesOfIndex = new byte[content.remaining()];
+      content.get(bytesOfIndex);
+      // the name of temporary file is unique, so the writers of other tasks can't overwrite it
+      var tmpPath = indexPath + ".tmp." + Utils.randomString();
+      try (var output = fs.write(tmpPath)) {
+        output.write(bytesOfIndex);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      fs.rename(tmpPath, indexPath);
+    }
+
+    /** The writer tracks the offsets and timestamps, and it appends the index when closed. */
+    private class IndexedWriter implements RecordWriter {
+      private final TopicPartition tp;
+      private final RecordWriter writer;
+      private long firstOffset = -1;
+      private long lastOffset = -1;
+      private long minTimestamp = Long.MAX_VALUE;
+      private long maxTimestamp = Long.MIN_VALUE;
+
+      private IndexedWriter(TopicPartition tp, RecordWriter writer) {
+        this.tp = tp;
+        this.writer = writer;
+      }
+
+      @Override
+      public void append(Record<byte[], byte[]> record) {
+        writer.append(record);
+        if (firstOffset < 0) firstOffset = record.offset();
+        lastOffset = record.offset();
+        minTimestamp = Math.min(minTimestamp, record.timestamp());
+        maxTimestamp = Math.max(maxTimestamp, record.timestamp());
+      }
+
+      @Override
+      public DataSize size() {
+        return writer.size();
+      }
+
+      @Override
+      public int count() {
+        return writer.count();
+      }
+
+      @Override
+      public void flush() {
+        writer.flush();
+      }
+
+      @Override
+      public long latestAppendTimestamp() {
+        return writer.latestAppendTimestamp();
+      }
+
+      @Override
+      public void close() {
+        writer.close();
+        if (firstOffset >= 0)
+          appendIndex(
+              tp,
+              firstOffset,
+              lastOffset,
+              minTimestamp,
+              maxTimestamp,
+              writer.count(),
+              writer.size().bytes());
+      }
     }
 
     /**
@@ -252,12 +448,20 @@ public class Exporter extends SinkConnector {
      * writer for the specified {@link TopicPartition} does not exist, it is created using the given
      * {@link FileSystem}, path. topic name, partition, and offset.
      *
+     * @param buffer the buffer to take records
      * @param writers a {@link HashMap} that maps a {@link TopicPartition} to a {@link RecordWriter}
      *     object
      */
-    void writeRecords(HashMap<TopicPartition, RecordWriter> writers) {
+    void writeRecords(
+        RecordBuffer<Record<byte[], byte[]>> buffer,
+        HashMap<TopicPartition, RecordWriter> writers) {
+
+      // the records put before the revoke are in the buffer already, so they are drained below
+      var revoked = new ArrayList<Revoke>();
+      var queue = revokes(buffer);
+      for (var r = queue.poll(); r != null; r = queue.poll()) revoked.add(r);
 
-      var records = recordsFromBuffer();
+      var records = recordsFromBuffer(buffer);
 
       removeOldWriters(writers);
 
@@ -270,41 +474,58 @@ public class Exporter extends SinkConnector {
               writers.remove(record.topicPartition()).close();
             }
           });
+
+      revoked.forEach(
+          r -> {
+            try {
+              r.partitions()
+                  .forEach(
+                      tp -> {
+                        var writer = writers.remove(tp);
+                        if (writer != null) writer.close();
+                      });
+              r.done().complete(null);
+            } catch (RuntimeException e) {
+              r.done().completeExceptionally(e);
+              throw e;
+            }
+          });
+    }
+
+    private Queue<Revoke> revokes(RecordBuffer<Record<byte[], byte[]>> buffer) {
+      return revokes.computeIfAbsent(buffer, ignored -> new ConcurrentLinkedQueue<>());
     }
 
-    Runnable createWriter() {
+    /**
+     * @param buffer the records of the partitions sharded to this writer
+     * @return a writer appending the records of buffer to the files
+     */
+    Runnable createWriter(RecordBuffer<Record<byte[], byte[]>> buffer) {
       return () -> {
         var writers = new HashMap<TopicPartition, RecordWriter>();
 
         try {
           while (!closed.get()) {
-            writeRecords(writers);
+            writeRecords(buffer, writers);
           }
         } finally {
           writers.forEach((tp, writer) -> writer.close());
+          // all writers are closed, so the pending revokes are done
+          revokes(buffer).forEach(r -> r.done().complete(null));
         }
       };
     }
 
     /**
-     * Retrieves a list of records from the buffer and empties the records queue.
+     * Retrieves a list of records from the buffer. It waits for records if the buffer is empty.
      *
+     * @param buffer to take records
      * @return a {@link List} of records retrieved from the buffer
      */
-    List<Record<byte[], byte[]>> recordsFromBuffer() {
-      var list = new ArrayList<Record<byte[], byte[]>>(recordsQueue.size());
-      recordsQueue.drainTo(list);
-      if (list.size() > 0) {
-        var drainedSize =
-            list.stream()
-                .mapToInt(record -> record.serializedKeySize() + record.serializedValueSize())
-                .sum();
-        bufferSize.add(-drainedSize);
-        synchronized (putLock) {
-          putLock.notify();
-        }
-      }
-      return list;
+    List<Record<byte[], byte[]>> recordsFromBuffer(RecordBuffer<Record<byte[], byte[]>> buffer) {
+      // the writer gets parked if there is no record, but it still has to close the old writers
+      return buffer.drain(
+          Integer.MAX_VALUE, Duration.ofMillis(Math.min(interval, MAX_DRAIN_WAIT.toMillis())));
     }
 
     @Override
@@ -317,13 +538,23 @@ public class Exporter extends SinkConnector {
               .map(Utils::toDuration)
               .orElse(TIME_DEFAULT)
               .toMillis();
-      this.bufferSize.reset();
-      this.bufferSizeLimit =
+      var writerThreads =
+          configuration.integer(WRITER_THREADS_KEY.name()).orElse(WRITER_THREADS_DEFAULT);
+      // the total size of buffers is bounded by writer.buffer.size
+      var bufferSize =
           configuration
-              .string(BUFFER_SIZE_KEY.name())
-              .map(DataSize::of)
-              .orElse(BUFFER_SIZE_DEFAULT)
-              .bytes();
+                  .string(BUFFER_SIZE_KEY.name())
+                  .map(DataSize::of)
+                  .orElse(BUFFER_SIZE_DEFAULT)
+                  .bytes()
+              / writerThreads;
+      this.buffers =
+          IntStream.range(0, writerThreads)
+              .mapToObj(
+                  i ->
+                      new RecordBuffer<Record<byte[], byte[]>>(
+                          Math.max(1, bufferSize), BUFFER_SLOTS))
+              .toList();
       this.taskContext = context;
       this.compressionType =
           configuration
@@ -356,7 +587,47 @@ public class Exporter extends SinkConnector {
               });
 
       this.fs = FileSystem.of(configuration.requireString(SCHEMA_KEY.name()), configuration);
-      this.writerFuture = CompletableFuture.runAsync(createWriter());
+      this.uploadParts =
+          configuration.integer(MULTIPART_PARTS_KEY.name()).orElse(MULTIPART_PARTS_DEFAULT);
+      if (uploadParts > 1 && !fs.supportsConcat()) {
+        Utils.close(fs);
+        throw new IllegalArgumentException(
+            MULTIPART_PARTS_KEY.name()
+                + " requires a file system which concatenates the parts on the server, but "
+                + configuration.requireString(SCHEMA_KEY.name())
+                + " copies all data of the parts");
+      }
+      if (uploadParts > 1) this.uploadExecutor = Executors.newCachedThreadPool();
+      this.executor = Executors.newFixedThreadPool(buffers.size());
+      this.writerFuture =
+          CompletableFuture.allOf(
+              buffers.stream()
+                  .map(buffer -> CompletableFuture.runAsync(createWriter(buffer), executor))
+                  .toArray(CompletableFuture[]::new));
+      registerMBean();
+    }
+
+    private void registerMBean() {
+      MBeanRegister.local()
+          .domainName(DOMAIN_NAME)
+          .property(TYPE_PROPERTY, TYPE_VALUE)
+          .property(ID_PROPERTY, Utils.randomString())
+          .property(NAME_PROPERTY, configuration.string("connector.name").orElse(""))
+          .attribute(
+              BUFFER_RECORDS_ATTRIBUTE,
+              Integer.class,
+              () -> buffers.stream().mapToInt(RecordBuffer::size).sum())
+          .attribute(
+              BUFFER_BYTES_ATTRIBUTE,
+              Long.class,
+              () -> buffers.stream().mapToLong(RecordBuffer::bytes).sum())
+          .attribute(
+              PUT_BLOCKED_TIME_ATTRIBUTE,
+              Long.class,
+              () -> buffers.stream().mapToLong(b -> b.blockedTime().toMillis()).sum())
+          .description(
+              "The depth of buffer between put and writer, and the time (in milliseconds) that put is blocked by the full buffer.")
+          .register();
     }
 
     @Override
@@ -366,21 +637,11 @@ public class Exporter extends SinkConnector {
               Utils.packException(
                   () -> {
                     if (!isValid(r)) return;
-
-                    int recordLength =
-                        Stream.of(r.key(), r.value())
-                            .filter(Objects::nonNull)
-                            .map(i -> i.length)
-                            .reduce(0, Integer::sum);
-
-                    synchronized (putLock) {
-                      while (this.bufferSize.sum() + recordLength >= this.bufferSizeLimit) {
-                        putLock.wait();
-                      }
-                    }
-                    recordsQueue.put(r);
-
-                    this.bufferSize.add(recordLength);
+                    buffer(r.topicPartition())
+                        .put(
+                            r,
+                            (r.key() == null ? 0 : r.key().length)
+                                + (r.value() == null ? 0 : r.value().length));
                   }));
       this.seekOffset
           .entrySet()
@@ -393,6 +654,17 @@ public class Exporter extends SinkConnector {
               });
     }
 
+    /**
+     * The records of the same partition always go to the same buffer, so they are written by the
+     * same thread in order.
+     *
+     * @param tp topic partition
+     * @return the buffer of writer which handles the partition
+     */
+    RecordBuffer<Record<byte[], byte[]>> buffer(TopicPartition tp) {
+      return buffers.get((tp.hashCode() & Integer.MAX_VALUE) % buffers.size());
+    }
+
     protected boolean isValid(Record<byte[], byte[]> r) {
       var targetOffset = targetOffset(r);
 
@@ -442,10 +714,40 @@ public class Exporter extends SinkConnector {
         this.seekOffset.remove(r.topicPartition());
     }
 
+    /**
+     * Close the writers of revoked partitions, so the files and index are complete before other
+     * task takes over the partitions. It waits for the writer threads to write the buffered records
+     * of the partitions.
+     */
+    @Override
+    protected void revoke(Collection<TopicPartition> partitions) {
+      var futures =
+          partitions.stream()
+              .collect(Collectors.groupingBy(this::buffer, Collectors.toSet()))
+              .entrySet()
+              .stream()
+              .map(
+                  e -> {
+                    var done = new CompletableFuture<Void>();
+                    revokes(e.getKey()).add(new Revoke(e.getValue(), done));
+                    e.getKey().wakeup();
+                    return done;
+                  })
+              .toArray(CompletableFuture[]::new);
+      Utils.packException(
+          () ->
+              CompletableFuture.anyOf(
+                      CompletableFuture.allOf(futures), writerFuture.toCompletableFuture())
+                  .get(30, TimeUnit.SECONDS));
+    }
+
     @Override
     protected void close() {
       this.closed.set(true);
+      this.buffers.forEach(RecordBuffer::wakeup);
       Utils.packException(() -> writerFuture.toCompletableFuture().get(10, TimeUnit.SECONDS));
+      this.executor.shutdownNow();
+      if (this.uploadExecutor != null) this.uploadExecutor.shutdownNow();
       Utils.close(this.fs);
     }
 
@@ -16,29 +16,38 @@
  */
 package org.astraea.connector.backup;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.Utils;
+import org.astraea.common.backup.Codec;
+import org.astraea.common.backup.PartitionIndex;
 import org.astraea.common.backup.RecordReader;
-import org.astraea.common.backup.RecordWriter;
 import org.astraea.connector.Definition;
 import org.astraea.connector.SourceConnector;
 import org.astraea.connector.SourceContext;
 import org.astraea.connector.SourceRecord;
 import org.astraea.connector.SourceTask;
 import org.astraea.connector.SourceTaskContext;
+import org.astraea.fs.FileListing;
 import org.astraea.fs.FileSystem;
-import org.astraea.fs.Type;
 
 public class Importer extends SourceConnector {
   static Definition SCHEMA_KEY =
@@ -94,6 +103,55 @@ public class Importer extends SourceConnector {
           .type(Definition.Type.STRING)
           .documentation("the directory of the imported file that needs to be archived")
           .build();
+  static Definition COMPRESSION_DICTIONARY_KEY =
+      Definition.builder()
+          .name(Codec.COMPRESSION_DICTIONARY)
+          .type(Definition.Type.STRING)
+          .documentation(
+              "the path of dictionary file. It is required if the files are compressed by zstd with dictionary")
+          .build();
+  static int BATCH_SIZE_DEFAULT = 1000;
+  static Definition BATCH_SIZE_KEY =
+      Definition.builder()
+          .name("batch.size")
+          .type(Definition.Type.INT)
+          .defaultValue(BATCH_SIZE_DEFAULT)
+          .validator(Importer::requirePositive)
+          .documentation("the max number of records returned by each poll")
+          .build();
+  static String POLL_TIMEOUT_DEFAULT = "1s";
+  static Definition POLL_TIMEOUT_KEY =
+      Definition.builder()
+          .name("poll.timeout")
+          .type(Definition.Type.STRING)
+          .defaultValue(POLL_TIMEOUT_DEFAULT)
+          .validator((name, obj) -> Utils.toDuration(obj.toString()))
+          .documentation("the max time to wait for filling a batch of records")
+          .build();
+  static int PREFETCH_FILES_DEFAULT = 2;
+  static Definition PREFETCH_FILES_KEY =
+      Definition.builder()
+          .name("prefetch.files")
+          .type(Definition.Type.INT)
+          .defaultValue(PREFETCH_FILES_DEFAULT)
+          .validator(Importer::requirePositive)
+          .documentation(
+              "the number of files read in parallel. Each file buffers at most batch.size records")
+          .build();
+
+  static Definition TIMESTAMP_FROM_KEY =
+      Definition.builder()
+          .name("timestamp.from")
+          .type(Definition.Type.LONG)
+          .documentation(
+              "the timestamp (in milliseconds) of point-in-time restore. The records older than it are skipped, and the index of partition is used to skip the whole files.")
+          .build();
+
+  private static void requirePositive(String name, Object value) {
+    if (value == null || ((Number) value).intValue() <= 0)
+      throw new IllegalArgumentException(name + " must be positive");
+  }
+
   public static final String FILE_SET_KEY = "file.set";
   public static final String TASKS_COUNT_KEY = "tasks.count";
   private Configuration config;
@@ -131,105 +189,227 @@ public class Importer extends SourceConnector {
         PASSWORD_KEY,
         PATH_KEY,
         CLEAN_SOURCE_KEY,
-        ARCHIVE_DIR_KEY);
+        ARCHIVE_DIR_KEY,
+        COMPRESSION_DICTIONARY_KEY,
+        BATCH_SIZE_KEY,
+        POLL_TIMEOUT_KEY,
+        PREFETCH_FILES_KEY,
+        TIMESTAMP_FROM_KEY);
   }
 
   public static class Task extends SourceTask {
+    static final String PATH_INDEX_KEY = "path";
+    static final String OFFSET_KEY = "offset";
     private FileSystem Client;
-    private int fileSet;
-    private Set<String> addedPaths;
     private String rootDir;
-    private int tasksCount;
+    // walk the folders incrementally, and only the files of this task are returned
+    private FileListing listing;
     private List<String> paths;
     private String cleanSource;
     private Optional<String> archiveDir;
+    private Configuration configuration;
+    private SourceTaskContext storage;
+    private int batchSize;
+    private Duration pollTimeout;
+    private int prefetchFiles;
+    private ExecutorService executor;
+    // the files are handed to kafka in order, but they are read by background threads in parallel
+    private LinkedList<FileReader> readers;
+    private Optional<Long> timestampFrom;
 
     protected void init(Configuration configuration, SourceTaskContext storage) {
+      this.configuration = configuration;
+      this.storage = storage;
       this.Client = FileSystem.of(configuration.requireString(SCHEMA_KEY.name()), configuration);
-      this.fileSet = configuration.requireInteger(FILE_SET_KEY);
-      this.addedPaths = new HashSet<>();
+      var fileSet = configuration.requireInteger(FILE_SET_KEY);
+      var tasksCount = configuration.requireInteger(TASKS_COUNT_KEY);
       this.rootDir = configuration.requireString(PATH_KEY.name());
-      this.tasksCount = configuration.requireInteger(TASKS_COUNT_KEY);
+      // the files are sharded by the hash of path, so the assignment is stable across the walks
+      this.listing =
+          FileListing.of(
+              Client,
+              rootDir,
+              files ->
+                  selectFiles(files).stream()
+                      .filter(file -> (file.hashCode() & Integer.MAX_VALUE) % tasksCount == fileSet)
+                      .toList());
       this.paths = new LinkedList<>();
       this.cleanSource = configuration.string(CLEAN_SOURCE_KEY.name()).orElse(CLEAN_SOURCE_DEFAULT);
       this.archiveDir = configuration.string(ARCHIVE_DIR_KEY.name());
+      this.batchSize = configuration.integer(BATCH_SIZE_KEY.name()).orElse(BATCH_SIZE_DEFAULT);
+      this.pollTimeout =
+          configuration
+              .string(POLL_TIMEOUT_KEY.name())
+              .map(Utils::toDuration)
+              .orElse(Utils.toDuration(POLL_TIMEOUT_DEFAULT));
+      this.prefetchFiles =
+          configuration.integer(PREFETCH_FILES_KEY.name()).orElse(PREFETCH_FILES_DEFAULT);
+      this.executor = Executors.newFixedThreadPool(prefetchFiles);
+      this.readers = new LinkedList<>();
+      this.timestampFrom = configuration.longInteger(TIMESTAMP_FROM_KEY.name());
     }
 
+    /**
+     * @return at most {@link #BATCH_SIZE_KEY} records. It waits for {@link #POLL_TIMEOUT_KEY} if
+     *     the current file is still being read.
+     */
     @Override
-    protected Collection<SourceRecord> take() {
-      if (paths.isEmpty()) {
-        paths = getFileSet(addedPaths, rootDir, tasksCount, fileSet);
-      }
-      addedPaths.addAll(paths);
-      var currentPath = ((LinkedList<String>) paths).poll();
-      if (currentPath != null) {
-        var records = new ArrayList<SourceRecord>();
-        var inputStream = Client.read(currentPath);
-        var reader = RecordReader.builder(inputStream).build();
-        while (reader.hasNext()) {
-          var record = reader.next();
-          if (record.key() == null && record.value() == null) continue;
-          records.add(
-              SourceRecord.builder()
-                  .topic(record.topic())
-                  .partition(record.partition())
-                  .key(record.key())
-                  .value(record.value())
-                  .timestamp(record.timestamp())
-                  .headers(record.headers())
-                  .build());
-        }
-        Utils.close(inputStream);
-        switch (cleanSource) {
-          case "archive":
-            var archiveInput = Client.read(currentPath);
-            var archiveReader = RecordReader.builder(archiveInput).build();
-            var archiveWriter =
-                RecordWriter.builder(
-                        Client.write(currentPath.replaceFirst(rootDir, archiveDir.get())))
-                    .build();
-            while (archiveReader.hasNext()) {
-              var record = archiveReader.next();
-              if (record.key() == null && record.value() == null) continue;
-              archiveWriter.append(record);
-            }
-            archiveWriter.close();
-            Utils.close(archiveInput);
-          case "delete":
-            Client.delete(currentPath);
-          case "off":
-            break;
+    protected Collection<SourceRecord> take() throws InterruptedException {
+      var records = new ArrayList<SourceRecord>();
+      var deadline = System.nanoTime() + pollTimeout.toNanos();
+      while (records.size() < batchSize) {
+        prefetch();
+        var current = readers.peek();
+        if (current == null) break;
+        // check the state before draining, so no record is left behind after the reader is done
+        var done = current.done.isDone();
+        current.queue.drainTo(records, batchSize - records.size());
+        if (done && current.queue.isEmpty()) {
+          readers.poll();
+          // throw the exception if the reader fails
+          current.done.join();
+          clean(current.path);
+          continue;
         }
-        return records;
+        if (records.size() >= batchSize) break;
+        var remaining = deadline - System.nanoTime();
+        if (remaining <= 0) break;
+        var record = current.queue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (record != null) records.add(record);
       }
-      return null;
+      return records.isEmpty() ? null : records;
     }
 
-    protected LinkedList<String> getFileSet(
-        Set<String> addedPaths, String root, int TasksCount, int fileSet) {
-      var filePaths = new LinkedList<String>();
-      var path = new LinkedList<>(Collections.singletonList(root));
-      while (true) {
-        var current = path.poll();
-        if (current == null) break;
-        if (Client.type(current) == Type.FOLDER) {
-          var files = Client.listFiles(current);
-          var folders = Client.listFolders(current);
-          if (!files.isEmpty()) {
-            files.stream()
-                .filter(file -> (file.hashCode() & Integer.MAX_VALUE) % TasksCount == fileSet)
-                .filter(Predicate.not(addedPaths::contains))
-                .forEach(filePaths::add);
-            continue;
+    /** start to read the next files if there are idle readers. */
+    private void prefetch() {
+      while (readers.size() < prefetchFiles) {
+        if (paths.isEmpty()) paths = new LinkedList<>(listing.next());
+        var path = ((LinkedList<String>) paths).poll();
+        if (path == null) return;
+        var reader = new FileReader(path);
+        CompletableFuture.runAsync(reader, executor)
+            .whenComplete(
+                (ignored, e) -> {
+                  if (e == null) reader.done.complete(null);
+                  else reader.done.completeExceptionally(e);
+                });
+        readers.add(reader);
+      }
+    }
+
+    private void clean(String path) {
+      switch (cleanSource) {
+        case "archive" -> Client.rename(path, path.replaceFirst(rootDir, archiveDir.get()));
+        case "delete" -> Client.delete(path);
+        default -> {}
+      }
+    }
+
+    /**
+     * read the records of a file to a bounded queue. The records which were sent to kafka (tracked
+     * by the source offset) get skipped.
+     */
+    private class FileReader implements Runnable {
+      private final String path;
+      private final BlockingQueue<SourceRecord> queue = new ArrayBlockingQueue<>(batchSize);
+      private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+      private FileReader(String path) {
+        this.path = path;
+      }
+
+      @Override
+      public void run() {
+        var index = Map.of(PATH_INDEX_KEY, path);
+        var committed =
+            Optional.ofNullable(storage.metadata(index).get(OFFSET_KEY))
+                .map(Long::parseLong)
+                .orElse(0L);
+        // the local file is mapped to memory, so the records are parsed without copying the file
+        var mapped = Client.map(path);
+        try (var inputStream =
+            mapped.isPresent() ? InputStream.nullInputStream() : Client.read(path)) {
+          var reader =
+              mapped
+                  .map(buffer -> RecordReader.builder(buffer, configuration))
+                  .orElseGet(() -> RecordReader.builder(inputStream, configuration))
+                  .build();
+          var offset = 0L;
+          while (reader.hasNext()) {
+            var record = reader.next();
+            offset++;
+            if (offset <= committed) continue;
+            if (record.key() == null && record.value() == null) continue;
+            if (timestampFrom.isPresent() && record.timestamp() < timestampFrom.get()) continue;
+            queue.put(
+                SourceRecord.builder()
+                    .topic(record.topic())
+                    .partition(record.partition())
+                    .key(record.key())
+                    .value(record.value())
+                    .timestamp(record.timestamp())
+                    .headers(record.headers())
+                    .metadataIndex(index)
+                    .metadata(Map.of(OFFSET_KEY, String.valueOf(offset)))
+                    .build());
           }
-          path.addAll(folders);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
         }
       }
-      return filePaths;
+    }
+
+    /**
+     * Exclude the index files from the files of a partition. If {@link #TIMESTAMP_FROM_KEY} is
+     * defined, the index is used to skip the files which don't have any record newer than it.
+     *
+     * @param files the files in the same folder
+     * @return the files to import
+     */
+    List<String> selectFiles(List<String> files) {
+      var dataFiles =
+          files.stream().filter(f -> !name(f).startsWith(PartitionIndex.FILE_NAME)).toList();
+      if (timestampFrom.isEmpty()) return dataFiles;
+      var indexPath =
+          files.stream().filter(f -> name(f).equals(PartitionIndex.FILE_NAME)).findFirst();
+      if (indexPath.isEmpty()) return dataFiles;
+      PartitionIndex index;
+      try (var input = Client.read(indexPath.get())) {
+        index = PartitionIndex.of(ByteBuffer.wrap(input.readAllBytes()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (index.size() == 0) return dataFiles;
+      // the files which are not indexed yet are newer than the last entry
+      var firstOffset =
+          index
+              .timestamp(timestampFrom.get())
+              .map(PartitionIndex.Entry::firstOffset)
+              .orElse(index.get(index.size() - 1).lastOffset() + 1);
+      return dataFiles.stream()
+          .filter(
+              f -> {
+                try {
+                  return Long.parseLong(name(f)) >= firstOffset;
+                } catch (NumberFormatException e) {
+                  // the file is not named by offset
+                  return true;
+                }
+              })
+          .toList();
+    }
+
+    private static String name(String path) {
+      return path.substring(path.lastIndexOf("/") + 1);
     }
 
     @Override
     protected void close() {
+      this.executor.shutdownNow();
+      Utils.swallowException(() -> this.executor.awaitTermination(30, TimeUnit.SECONDS));
       this.Client.close();
     }
   }
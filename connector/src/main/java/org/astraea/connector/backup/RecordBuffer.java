@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.connector.backup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded multi-producer single-consumer ring buffer. The capacity is limited by both the number
+ * of elements and the total bytes of elements. The producers get parked when the buffer is full,
+ * and the consumer gets parked when the buffer is empty. Hence, there is no spinning when idle.
+ *
+ * <p>The slots are claimed by CAS on the tail, and each slot has a sequence number to publish the
+ * element to the consumer (see Dmitry Vyukov's bounded MPMC queue). Only one thread is allowed to
+ * call {@link #drain(int, Duration)}.
+ */
+final class RecordBuffer<T> {
+
+  // the max time to park a producer. It is a safeguard against lost wakeup.
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final long maxBytes;
+  private final int mask;
+  private final Object[] elements;
+  private final int[] sizes;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  // only the consumer updates the head
+  private volatile long head = 0;
+  private final AtomicLong bytes = new AtomicLong();
+  private final ConcurrentLinkedQueue<Thread> producers = new ConcurrentLinkedQueue<>();
+  private volatile Thread consumer;
+  private final LongAdder blockedNanos = new LongAdder();
+
+  /**
+   * @param maxBytes the max bytes of buffered elements. An element larger than it is accepted only
+   *     if the buffer is empty.
+   * @param slots the max number of buffered elements. It is rounded up to the power of two, and
+   *     there are at least two slots since the published sequence of single slot is equal to the
+   *     next position.
+   */
+  RecordBuffer(long maxBytes, int slots) {
+    if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+    if (slots <= 0 || slots > (1 << 30))
+      throw new IllegalArgumentException("slots must be in (0, 2^30]");
+    var capacity = Integer.highestOneBit(slots);
+    if (capacity < slots) capacity <<= 1;
+    capacity = Math.max(2, capacity);
+    this.maxBytes = maxBytes;
+    this.mask = capacity - 1;
+    this.elements = new Object[capacity];
+    this.sizes = new int[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (var i = 0; i < capacity; i++) sequences.set(i, i);
+  }
+
+  /**
+   * add the element to the buffer. It blocks until there is enough space.
+   *
+   * @param element to add
+   * @param size the bytes of element
+   */
+  void put(T element, int size) throws InterruptedException {
+    reserve(size);
+    long position;
+    try {
+      while (true) {
+        position = tail.get();
+        var diff = sequences.get(index(position)) - position;
+        if (diff == 0) {
+          if (tail.compareAndSet(position, position + 1)) break;
+        } else if (diff < 0) {
+          // all slots are used. Wait for the consumer
+          park(() -> sequences.get(index(tail.get())) - tail.get() < 0);
+        }
+      }
+    } catch (InterruptedException e) {
+      // give back the reserved bytes, otherwise the capacity shrinks forever
+      bytes.addAndGet(-size);
+      producers.forEach(LockSupport::unpark);
+      throw e;
+    }
+    var index = index(position);
+    elements[index] = element;
+    sizes[index] = size;
+    // publish the element
+    sequences.set(index, position + 1);
+    var c = consumer;
+    if (c != null) LockSupport.unpark(c);
+  }
+
+  /**
+   * take the elements from the buffer. It waits for the timeout if the buffer is empty.
+   *
+   * @param max the max number of elements to take
+   * @param timeout to wait for elements
+   * @return the taken elements. It is empty if there is no element after timeout or {@link
+   *     #wakeup()} is called
+   */
+  List<T> drain(int max, Duration timeout) {
+    var result = new ArrayList<T>();
+    drainTo(result, max);
+    if (result.isEmpty() && !timeout.isZero()) {
+      consumer = Thread.currentThread();
+      try {
+        // check again after registering the consumer, so the wakeup from producers can't be lost
+        if (!hasNext()) LockSupport.parkNanos(this, timeout.toNanos());
+      } finally {
+        consumer = null;
+      }
+      drainTo(result, max);
+    }
+    return result;
+  }
+
+  /** unpark the consumer waiting for elements. */
+  void wakeup() {
+    var c = consumer;
+    if (c != null) LockSupport.unpark(c);
+  }
+
+  /**
+   * @return the number of buffered elements
+   */
+  int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * @return the total bytes of buffered elements
+   */
+  long bytes() {
+    return bytes.get();
+  }
+
+  /**
+   * @return the accumulated time that producers were blocked by the full buffer
+   */
+  Duration blockedTime() {
+    return Duration.ofNanos(blockedNanos.sum());
+  }
+
+  private boolean hasNext() {
+    var h = head;
+    return sequences.get(index(h)) == h + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void drainTo(List<T> result, int max) {
+    var h = head;
+    var released = 0L;
+    var count = 0;
+    while (count < max) {
+      var index = index(h);
+      if (sequences.get(index) != h + 1) break;
+      result.add((T) elements[index]);
+      released += sizes[index];
+      elements[index] = null;
+      // release the slot to the producers of next round
+      sequences.set(index, h + elements.length);
+      h++;
+      count++;
+    }
+    if (count == 0) return;
+    head = h;
+    bytes.addAndGet(-released);
+    producers.forEach(LockSupport::unpark);
+  }
+
+  private void reserve(int size) throws InterruptedException {
+    while (true) {
+      var current = bytes.get();
+      // the large element is accepted by empty buffer. Otherwise, it can't be added forever
+      if (current == 0 || current + size <= maxBytes) {
+        if (bytes.compareAndSet(current, current + size)) return;
+      } else
+        park(
+            () -> {
+              var b = bytes.get();
+              return b != 0 && b + size > maxBytes;
+            });
+    }
+  }
+
+  private void park(BooleanSupplier blocked) throws InterruptedException {
+    var thread = Thread.currentThread();
+    var start = System.nanoTime();
+    producers.add(thread);
+    try {
+      // check again after registering the producer, so the wakeup from consumer can't be lost
+      if (blocked.getAsBoolean()) LockSupport.parkNanos(this, MAX_PARK_NANOS);
+    } finally {
+      producers.remove(thread);
+      blockedNanos.add(System.nanoTime() - start);
+    }
+    if (Thread.interrupted()) throw new InterruptedException();
+  }
+
+  private int index(long position) {
+    return (int) (position & mask);
+  }
+}
@@ -245,13 +245,14 @@ public class PerfSource extends SourceConnector {
               .batchSize(batchSize)
               .keyTableSeed(keyTableSeed)
               .keyRange(LongStream.rangeClosed(0, 10000).boxed().toList())
-              .keyDistribution(keyDistribution.create(10000, configuration))
-              .keySizeDistribution(keySizeDistribution.create((int) KeySize.bytes(), configuration))
+              .keyDistribution(keyDistribution.createLong(10000, configuration))
+              .keySizeDistribution(
+                  keySizeDistribution.createLong((int) KeySize.bytes(), configuration))
               .valueTableSeed(valueTableSeed)
               .valueRange(LongStream.rangeClosed(0, 10000).boxed().toList())
-              .valueDistribution(valueDistribution.create(10000, configuration))
+              .valueDistribution(valueDistribution.createLong(10000, configuration))
               .valueSizeDistribution(
-                  valueSizeDistribution.create((int) valueSize.bytes(), configuration))
+                  valueSizeDistribution.createLong((int) valueSize.bytes(), configuration))
               .throughput(tp -> throughput.dataRate(Duration.ofSeconds(1)))
               .build();
     }
@@ -19,19 +19,26 @@ package org.astraea.connector.backup;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.DataSize;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.backup.PartitionIndex;
 import org.astraea.common.backup.RecordReader;
 import org.astraea.common.backup.RecordWriter;
 import org.astraea.common.connector.Config;
@@ -74,6 +81,13 @@ public class ExporterTest {
         }
       };
 
+  /** the exported files are named by offset. The others are index files. */
+  private static List<String> dataFiles(FileSystem fs, String folder) {
+    return fs.listFiles(folder).stream()
+        .filter(f -> f.substring(f.lastIndexOf("/") + 1).chars().allMatch(Character::isDigit))
+        .toList();
+  }
+
   @AfterAll
   static void closeService() {
     SERVICE.close();
@@ -317,7 +331,7 @@ public class ExporterTest {
       Utils.sleep(Duration.ofMillis(1000));
 
       Assertions.assertEquals(
-          1, fs.listFiles("/" + String.join("/", fileSize, topicName, "0")).size());
+          1, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "0")).size());
 
       var input =
           fs.read(
@@ -420,7 +434,7 @@ public class ExporterTest {
           2, fs.listFolders("/" + String.join("/", fileSize, topicName)).size());
 
       Assertions.assertEquals(
-          2, fs.listFiles("/" + String.join("/", fileSize, topicName, "0")).size());
+          2, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "0")).size());
 
       List.of(record1, record2, record3)
           .forEach(
@@ -522,9 +536,9 @@ public class ExporterTest {
       Assertions.assertEquals(
           2, fs.listFolders("/" + String.join("/", fileSize, topicName)).size());
       Assertions.assertEquals(
-          2, fs.listFiles("/" + String.join("/", fileSize, topicName, "0")).size());
+          2, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "0")).size());
       Assertions.assertEquals(
-          1, fs.listFiles("/" + String.join("/", fileSize, topicName, "1")).size());
+          1, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "1")).size());
 
       records.forEach(
           sinkRecord -> {
@@ -598,7 +612,7 @@ public class ExporterTest {
       var fs = FileSystem.of("hdfs", new Configuration(configs));
 
       Assertions.assertEquals(
-          1, fs.listFiles("/" + String.join("/", fileSize, topicName, "0")).size());
+          1, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "0")).size());
 
       var input =
           fs.read(
@@ -699,7 +713,7 @@ public class ExporterTest {
           2, fs.listFolders("/" + String.join("/", fileSize, topicName)).size());
 
       Assertions.assertEquals(
-          2, fs.listFiles("/" + String.join("/", fileSize, topicName, "0")).size());
+          2, dataFiles(fs, "/" + String.join("/", fileSize, topicName, "0")).size());
 
       List.of(record1, record2, record3)
           .forEach(
@@ -752,17 +766,20 @@ public class ExporterTest {
                 .build());
 
     var task = new Exporter.Task();
-    task.bufferSize.reset();
 
     records.forEach(
-        record -> {
-          task.recordsQueue.offer(record);
-          task.bufferSize.add(record.serializedKeySize() + record.serializedValueSize());
-        });
+        record ->
+            Utils.packException(
+                () ->
+                    task.buffers
+                        .get(0)
+                        .put(record, record.serializedKeySize() + record.serializedValueSize())));
 
-    var list = task.recordsFromBuffer();
+    var list = task.recordsFromBuffer(task.buffers.get(0));
 
     Assertions.assertEquals(records, list);
+    Assertions.assertEquals(0, task.buffers.get(0).size());
+    Assertions.assertEquals(0, task.buffers.get(0).bytes());
   }
 
   /** The purpose of this test is also to remove old writers */
@@ -872,22 +889,26 @@ public class ExporterTest {
       task.compressionType = "none";
       task.configuration = new Configuration(configs);
       task.size = DataSize.of("100MB");
-      task.bufferSize.reset();
-      task.recordsQueue.add(
-          Record.builder()
-              .topic(topicName)
-              .key("test".getBytes())
-              .value("test0".getBytes())
-              .partition(0)
-              .offset(0)
-              .timestamp(System.currentTimeMillis())
-              .build());
-
-      Assertions.assertNotEquals(0, task.recordsQueue.size());
-
-      task.writeRecords(writers);
-
-      Assertions.assertEquals(0, task.recordsQueue.size());
+      Utils.packException(
+          () ->
+              task.buffers
+                  .get(0)
+                  .put(
+                      Record.builder()
+                          .topic(topicName)
+                          .key("test".getBytes())
+                          .value("test0".getBytes())
+                          .partition(0)
+                          .offset(0)
+                          .timestamp(System.currentTimeMillis())
+                          .build(),
+                      9));
+
+      Assertions.assertNotEquals(0, task.buffers.get(0).size());
+
+      task.writeRecords(task.buffers.get(0), writers);
+
+      Assertions.assertEquals(0, task.buffers.get(0).size());
     }
   }
 
@@ -1039,9 +1060,315 @@ public class ExporterTest {
 
       var input = fs.read("/" + String.join("/", fileSize, topicName, "0/0"));
 
+      // version (2 bytes) + compressed size (4 bytes) + uncompressed size (4 bytes) + codec (1
+      // byte)
+      var header = Utils.packException(() -> input.readNBytes(13));
+      Assertions.assertArrayEquals(new byte[] {(byte) 0x0, (byte) 0x2}, Arrays.copyOf(header, 2));
+      Assertions.assertEquals(1, header[10]);
       Assertions.assertArrayEquals(
-          new byte[] {(byte) 0x0, (byte) 0x1, (byte) 0x1f, (byte) 0x8b},
-          Utils.packException(() -> input.readNBytes(4)));
+          new byte[] {(byte) 0x1f, (byte) 0x8b}, Arrays.copyOfRange(header, 11, 13));
+    }
+  }
+
+  @Test
+  void testParallelWriters() throws IOException {
+    var root = Files.createTempDirectory("exporter").toString();
+    var topicName = Utils.randomString(10);
+    var partitions = 6;
+    var count = 100;
+    var configs =
+        Map.of(
+            "fs.schema",
+            "local",
+            "fs.local.root",
+            root,
+            "topics",
+            topicName,
+            "path",
+            "/backup",
+            "size",
+            "1KB",
+            "roll.duration",
+            "100m",
+            "writer.threads",
+            "3");
+    var task = new Exporter.Task();
+    task.init(new Configuration(configs), context);
+    Assertions.assertEquals(3, task.buffers.size());
+    Assertions.assertEquals(
+        3,
+        IntStream.range(0, partitions)
+            .mapToObj(p -> task.buffer(TopicPartition.of(topicName, p)))
+            .distinct()
+            .count());
+
+    IntStream.range(0, count)
+        .forEach(
+            offset ->
+                task.put(
+                    IntStream.range(0, partitions)
+                        .mapToObj(
+                            p ->
+                                Record.builder()
+                                    .topic(topicName)
+                                    .key("test".getBytes())
+                                    .value(Utils.randomString(64).getBytes())
+                                    .partition(p)
+                                    .offset(offset)
+                                    .timestamp(System.currentTimeMillis())
+                                    .build())
+                        .toList()));
+    Utils.sleep(Duration.ofMillis(1000));
+    task.close();
+    Assertions.assertTrue(task.isWriterDone());
+
+    var fs = FileSystem.of("local", new Configuration(configs));
+    IntStream.range(0, partitions)
+        .forEach(
+            p -> {
+              // the files of each partition are rolled by size, and the records are kept in order
+              var offsets =
+                  dataFiles(fs, "/backup/" + topicName + "/" + p).stream()
+                      .sorted(
+                          Comparator.comparingLong(
+                              f -> Long.parseLong(f.substring(f.lastIndexOf("/") + 1))))
+                      .flatMap(
+                          f -> {
+                            var reader = RecordReader.builder(fs.read(f)).build();
+                            var result = new ArrayList<Long>();
+                            while (reader.hasNext()) result.add(reader.next().offset());
+                            return result.stream();
+                          })
+                      .toList();
+              Assertions.assertEquals(
+                  LongStream.range(0, count).boxed().toList(), offsets, "partition: " + p);
+            });
+  }
+
+  @Test
+  void testMultipartUpload() {
+    try (var server = HdfsServer.local()) {
+      var topicName = Utils.randomString(10);
+      var count = 2000;
+      var configs =
+          Map.of(
+              "fs.schema",
+              "hdfs",
+              "fs.hdfs.hostname",
+              String.valueOf(server.hostname()),
+              "fs.hdfs.port",
+              String.valueOf(server.port()),
+              "fs.hdfs.user",
+              String.valueOf(server.user()),
+              "topics",
+              topicName,
+              "path",
+              "/backup",
+              "size",
+              "100KB",
+              "roll.duration",
+              "100m",
+              "block.size",
+              "1KiB",
+              "multipart.parts",
+              "4");
+      var task = new Exporter.Task();
+      task.init(new Configuration(configs), context);
+      task.put(
+          IntStream.range(0, count)
+              .mapToObj(
+                  offset ->
+                      Record.builder()
+                          .topic(topicName)
+                          .key("test".getBytes())
+                          .value(Utils.randomString(200).getBytes())
+                          .partition(0)
+                          .offset(offset)
+                          .timestamp(System.currentTimeMillis())
+                          .build())
+              .toList());
+      Utils.sleep(Duration.ofMillis(1000));
+      task.close();
+      Assertions.assertTrue(task.isWriterDone());
+
+      var fs = FileSystem.of("hdfs", new Configuration(configs));
+      var folder = "/backup/" + topicName + "/0";
+      // the parts are concatenated and removed
+      Assertions.assertEquals(List.of(), fs.listFolders(folder));
+      var files = dataFiles(fs, folder);
+      Assertions.assertTrue(files.size() > 1);
+      var offsets =
+          files.stream()
+              .sorted(
+                  Comparator.comparingLong(
+                      f -> Long.parseLong(f.substring(f.lastIndexOf("/") + 1))))
+              .flatMap(
+                  f -> {
+                    var reader = RecordReader.builder(fs.read(f)).build();
+                    var result = new ArrayList<Long>();
+                    while (reader.hasNext()) result.add(reader.next().offset());
+                    return result.stream();
+                  })
+              .toList();
+      Assertions.assertEquals(LongStream.range(0, count).boxed().toList(), offsets);
+    }
+  }
+
+  @Test
+  void testMultipartUploadWithoutServerConcat() throws IOException {
+    var root = Files.createTempDirectory("exporter").toString();
+    var configs =
+        Map.of(
+            "fs.schema",
+            "local",
+            "fs.local.root",
+            root,
+            "topics",
+            Utils.randomString(10),
+            "path",
+            "/backup",
+            "multipart.parts",
+            "4");
+    var task = new Exporter.Task();
+    var e =
+        Assertions.assertThrows(
+            IllegalArgumentException.class, () -> task.init(new Configuration(configs), context));
+    Assertions.assertTrue(e.getMessage().contains("multipart.parts"), e.getMessage());
+  }
+
+  @Test
+  void testPartitionIndex() throws IOException {
+    var root = Files.createTempDirectory("exporter").toString();
+    var topicName = Utils.randomString(10);
+    var configs =
+        Map.of(
+            "fs.schema",
+            "local",
+            "fs.local.root",
+            root,
+            "topics",
+            topicName,
+            "path",
+            "/backup",
+            "size",
+            "500Byte",
+            "roll.duration",
+            "100m");
+    var task = new Exporter.Task();
+    task.init(new Configuration(configs), context);
+    var records =
+        IntStream.range(0, 30)
+            .mapToObj(
+                i ->
+                    Record.builder()
+                        .topic(topicName)
+                        .key("test".getBytes())
+                        .value(Utils.randomString(64).getBytes())
+                        .partition(0)
+                        .offset(i)
+                        .timestamp(1000L + i)
+                        .build())
+            .toList();
+    task.put(records);
+    Utils.sleep(Duration.ofMillis(1000));
+    task.close();
+
+    var fs = FileSystem.of("local", new Configuration(configs));
+    var files = dataFiles(fs, "/backup/" + topicName + "/0");
+    var index =
+        PartitionIndex.map(Path.of(root, "backup", topicName, "0", PartitionIndex.FILE_NAME));
+    Assertions.assertNotEquals(1, files.size());
+    Assertions.assertEquals(files.size(), index.size());
+    Assertions.assertEquals(
+        files.stream().map(f -> f.substring(f.lastIndexOf("/") + 1)).collect(Collectors.toSet()),
+        IntStream.range(0, index.size())
+            .mapToObj(i -> index.get(i).fileName())
+            .collect(Collectors.toSet()));
+    Assertions.assertEquals(
+        records.size(),
+        IntStream.range(0, index.size()).mapToLong(i -> index.get(i).records()).sum());
+    IntStream.range(0, index.size())
+        .forEach(
+            i -> {
+              var entry = index.get(i);
+              Assertions.assertEquals(1000L + entry.firstOffset(), entry.minTimestamp());
+              Assertions.assertEquals(1000L + entry.lastOffset(), entry.maxTimestamp());
+            });
+    Assertions.assertTrue(index.offset(15).get().firstOffset() <= 15);
+    Assertions.assertTrue(index.offset(15).get().lastOffset() >= 15);
+    Assertions.assertEquals(index.offset(15), index.timestamp(1015));
+  }
+
+  @Test
+  void testPartitionIndexAfterMovingBetweenTasks() throws IOException {
+    var root = Files.createTempDirectory("exporter").toString();
+    var topicName = Utils.randomString(10);
+    var configs =
+        new Configuration(
+            Map.of(
+                "fs.schema",
+                "local",
+                "fs.local.root",
+                root,
+                "topics",
+                topicName,
+                "path",
+                "/backup",
+                "roll.duration",
+                "100m"));
+    var tp = TopicPartition.of(topicName, 0);
+    Function<Integer, List<Record<byte[], byte[]>>> records =
+        first ->
+            IntStream.range(first, first + 10)
+                .mapToObj(
+                    i ->
+                        Record.builder()
+                            .topic(topicName)
+                            .key("test".getBytes())
+                            .value(new byte[10])
+                            .partition(0)
+                            .offset(i)
+                            .timestamp(1000L + i)
+                            .build())
+                .toList();
+    Supplier<List<Long>> firstOffsets =
+        () -> {
+          var index =
+              PartitionIndex.map(Path.of(root, "backup", topicName, "0", PartitionIndex.FILE_NAME));
+          return IntStream.range(0, index.size())
+              .mapToObj(i -> index.get(i).firstOffset())
+              .toList();
+        };
+    var task0 = new Exporter.Task();
+    var task1 = new Exporter.Task();
+    task0.init(configs, context);
+    task1.init(configs, context);
+    try {
+      task0.put(records.apply(0));
+      // the writer is closed by revoke, so the index is complete before other task takes over
+      task0.revoke(List.of(tp));
+      Assertions.assertEquals(List.of(0L), firstOffsets.get());
+
+      task1.put(records.apply(10));
+      task1.revoke(List.of(tp));
+      Assertions.assertEquals(List.of(0L, 10L), firstOffsets.get());
+
+      // the index is re-read and kept in order even if the files are indexed out of order
+      task1.appendIndex(tp, 30, 39, 1030, 1039, 10, 100);
+      task0.appendIndex(tp, 20, 29, 1020, 1029, 10, 100);
+      Assertions.assertEquals(List.of(0L, 10L, 20L, 30L), firstOffsets.get());
+    } finally {
+      task0.close();
+      task1.close();
+    }
+    try (var files = Files.list(Path.of(root, "backup", topicName, "0"))) {
+      // no temporary index is left
+      Assertions.assertEquals(
+          List.of(PartitionIndex.FILE_NAME),
+          files
+              .map(f -> f.getFileName().toString())
+              .filter(f -> f.startsWith(PartitionIndex.FILE_NAME))
+              .toList());
     }
   }
 }
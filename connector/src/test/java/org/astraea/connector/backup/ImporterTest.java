@@ -16,21 +16,29 @@
  */
 package org.astraea.connector.backup;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.Utils;
+import org.astraea.common.backup.PartitionIndex;
 import org.astraea.common.backup.RecordWriter;
 import org.astraea.common.connector.Config;
 import org.astraea.common.connector.ConnectorClient;
 import org.astraea.common.connector.Value;
 import org.astraea.common.consumer.Record;
+import org.astraea.connector.SourceRecord;
 import org.astraea.connector.SourceTaskContext;
 import org.astraea.fs.FileSystem;
+import org.astraea.fs.Type;
 import org.astraea.it.FtpServer;
 import org.astraea.it.Service;
 import org.junit.jupiter.api.AfterAll;
@@ -99,7 +107,7 @@ public class ImporterTest {
   }
 
   @Test
-  void testFtpSourceTask() {
+  void testFtpSourceTask() throws InterruptedException {
     try (var server = FtpServer.local()) {
       var topicName = Utils.randomString(10);
       var task = new Importer.Task();
@@ -162,4 +170,198 @@ public class ImporterTest {
       }
     }
   }
+
+  private static Map<String, String> localConfigs(String root, Map<String, String> others) {
+    var configs = new HashMap<>(others);
+    configs.put("fs.schema", "local");
+    configs.put("fs.local.root", root);
+    configs.put("connector.class", Importer.class.getName());
+    configs.put("tasks.count", "1");
+    configs.put("file.set", "0");
+    configs.put("path", "/source");
+    return configs;
+  }
+
+  private static List<Record<byte[], byte[]>> writeRecords(
+      FileSystem fs, String path, String topic, int count) {
+    var records =
+        IntStream.range(0, count)
+            .mapToObj(
+                i ->
+                    Record.builder()
+                        .topic(topic)
+                        .key(("key" + i).getBytes())
+                        .value(("value" + i).getBytes())
+                        .partition(0)
+                        .offset(i)
+                        .timestamp(System.currentTimeMillis())
+                        .build())
+            .toList();
+    var writer = RecordWriter.builder(fs.write(path)).build();
+    records.forEach(writer::append);
+    writer.close();
+    return records;
+  }
+
+  private static List<SourceRecord> takeAll(Importer.Task task, int count)
+      throws InterruptedException {
+    var result = new ArrayList<SourceRecord>();
+    var deadline = System.currentTimeMillis() + 10_000;
+    while (result.size() < count && System.currentTimeMillis() < deadline) {
+      var records = task.take();
+      if (records != null) result.addAll(records);
+    }
+    return result;
+  }
+
+  @Test
+  void testTakeBoundedBatches() throws InterruptedException {
+    var root = Utils.packException(() -> Files.createTempDirectory("importer")).toString();
+    var topic = Utils.randomString();
+    var configs =
+        localConfigs(
+            root, Map.of("batch.size", "3", "prefetch.files", "2", "poll.timeout", "100ms"));
+    var fs = FileSystem.of("local", new Configuration(configs));
+    var records = new ArrayList<Record<byte[], byte[]>>();
+    records.addAll(writeRecords(fs, "/source/" + topic + "/0/0", topic, 10));
+    records.addAll(writeRecords(fs, "/source/" + topic + "/0/10", topic, 10));
+
+    var task = new Importer.Task();
+    task.init(new Configuration(configs), SourceTaskContext.EMPTY);
+    try {
+      var result = new ArrayList<SourceRecord>();
+      var deadline = System.currentTimeMillis() + 10_000;
+      while (result.size() < records.size() && System.currentTimeMillis() < deadline) {
+        var batch = task.take();
+        if (batch == null) continue;
+        Assertions.assertTrue(batch.size() <= 3, "batch size: " + batch.size());
+        result.addAll(batch);
+      }
+      Assertions.assertEquals(records.size(), result.size());
+      // the records of the same file are kept in order
+      var files =
+          result.stream().collect(Collectors.groupingBy(r -> r.metadataIndex().get("path")));
+      Assertions.assertEquals(2, files.size());
+      files.forEach(
+          (path, rs) ->
+              Assertions.assertEquals(
+                  IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).toList(),
+                  rs.stream().map(r -> r.metadata().get("offset")).toList()));
+      Assertions.assertEquals(
+          records.stream().map(r -> new String(r.value())).collect(Collectors.toSet()),
+          result.stream().map(r -> new String(r.value())).collect(Collectors.toSet()));
+      Assertions.assertNull(task.take());
+    } finally {
+      task.close();
+    }
+  }
+
+  @Test
+  void testResumeFromOffset() throws InterruptedException {
+    var root = Utils.packException(() -> Files.createTempDirectory("importer")).toString();
+    var topic = Utils.randomString();
+    var configs = localConfigs(root, Map.of("batch.size", "100"));
+    var fs = FileSystem.of("local", new Configuration(configs));
+    var path = "/source/" + topic + "/0/0";
+    var records = writeRecords(fs, path, topic, 10);
+
+    var task = new Importer.Task();
+    task.init(
+        new Configuration(configs),
+        index -> index.get("path").equals(path) ? Map.of("offset", "7") : Map.of());
+    try {
+      var result = takeAll(task, 3);
+      Assertions.assertEquals(3, result.size());
+      for (var i = 0; i < result.size(); i++)
+        Assertions.assertArrayEquals(records.get(i + 7).value(), result.get(i).value());
+    } finally {
+      task.close();
+    }
+  }
+
+  @Test
+  void testArchive() throws InterruptedException, IOException {
+    var root = Utils.packException(() -> Files.createTempDirectory("importer")).toString();
+    var topic = Utils.randomString();
+    var configs = localConfigs(root, Map.of("clean.source", "archive", "archive.dir", "/archive"));
+    var fs = FileSystem.of("local", new Configuration(configs));
+    var path = "/source/" + topic + "/0/0";
+    writeRecords(fs, path, topic, 5);
+    byte[] content;
+    try (var input = fs.read(path)) {
+      content = input.readAllBytes();
+    }
+
+    var task = new Importer.Task();
+    task.init(new Configuration(configs), SourceTaskContext.EMPTY);
+    try {
+      Assertions.assertEquals(5, takeAll(task, 5).size());
+      // the file gets archived after all records are taken
+      task.take();
+      Assertions.assertEquals(Type.NONEXISTENT, fs.type(path));
+      try (var input = fs.read("/archive/" + topic + "/0/0")) {
+        Assertions.assertArrayEquals(content, input.readAllBytes());
+      }
+    } finally {
+      task.close();
+    }
+  }
+
+  @Test
+  void testTimestampFrom() throws InterruptedException {
+    var root = Utils.packException(() -> Files.createTempDirectory("importer")).toString();
+    var topic = Utils.randomString();
+    var configs = localConfigs(root, Map.of("timestamp.from", "1015"));
+    var fs = FileSystem.of("local", new Configuration(configs));
+    var folder = "/source/" + topic + "/0";
+    var index = PartitionIndex.of(ByteBuffer.allocate(0));
+    for (var first = 0; first < 30; first += 10) {
+      var records = new ArrayList<Record<byte[], byte[]>>();
+      for (var offset = first; offset < first + 10; offset++)
+        records.add(
+            Record.builder()
+                .topic(topic)
+                .key(("key" + offset).getBytes())
+                .value(("value" + offset).getBytes())
+                .partition(0)
+                .offset(offset)
+                .timestamp(1000L + offset)
+                .build());
+      var writer = RecordWriter.builder(fs.write(folder + "/" + first)).build();
+      records.forEach(writer::append);
+      writer.close();
+      var entry = index.next(first, first + 9, 1000L + first, 1009L + first, 10, 100);
+      var content = index.toByteBuffer();
+      index =
+          PartitionIndex.of(
+              ByteBuffer.allocate(content.remaining() + entry.toByteBuffer().remaining())
+                  .put(content)
+                  .put(entry.toByteBuffer())
+                  .flip());
+    }
+    var content = new byte[index.toByteBuffer().remaining()];
+    index.toByteBuffer().get(content);
+    Utils.packException(
+        () -> {
+          try (var output = fs.write(folder + "/" + PartitionIndex.FILE_NAME)) {
+            output.write(content);
+          }
+          // the file is skipped by index, so it is never parsed
+          try (var output = fs.write(folder + "/0")) {
+            output.write("broken".getBytes());
+          }
+        });
+
+    var task = new Importer.Task();
+    task.init(new Configuration(configs), SourceTaskContext.EMPTY);
+    try {
+      var result = takeAll(task, 15);
+      Assertions.assertEquals(
+          IntStream.range(15, 30).mapToObj(i -> "value" + i).collect(Collectors.toSet()),
+          result.stream().map(r -> new String(r.value())).collect(Collectors.toSet()));
+      Assertions.assertNull(task.take());
+    } finally {
+      task.close();
+    }
+  }
 }
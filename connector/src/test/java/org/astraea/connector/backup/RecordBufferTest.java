@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.connector.backup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RecordBufferTest {
+
+  @Test
+  void testIllegalArguments() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new RecordBuffer<>(0, 10));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new RecordBuffer<>(10, 0));
+  }
+
+  @Test
+  void testPutAndDrain() throws InterruptedException {
+    var buffer = new RecordBuffer<Integer>(100, 10);
+    buffer.put(1, 10);
+    buffer.put(2, 20);
+    Assertions.assertEquals(2, buffer.size());
+    Assertions.assertEquals(30, buffer.bytes());
+
+    Assertions.assertEquals(List.of(1), buffer.drain(1, Duration.ZERO));
+    Assertions.assertEquals(20, buffer.bytes());
+    Assertions.assertEquals(List.of(2), buffer.drain(10, Duration.ZERO));
+    Assertions.assertEquals(0, buffer.size());
+    Assertions.assertEquals(0, buffer.bytes());
+    Assertions.assertEquals(List.of(), buffer.drain(10, Duration.ZERO));
+  }
+
+  @Test
+  void testDrainWaitsForElements() {
+    var buffer = new RecordBuffer<Integer>(100, 10);
+    var start = System.nanoTime();
+    Assertions.assertEquals(List.of(), buffer.drain(10, Duration.ofMillis(300)));
+    Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+
+    CompletableFuture.runAsync(
+        () -> {
+          Utils.sleep(Duration.ofMillis(300));
+          Utils.packException(() -> buffer.put(1, 1));
+        });
+    // the producer unparks the consumer
+    Assertions.assertEquals(List.of(1), buffer.drain(10, Duration.ofSeconds(10)));
+  }
+
+  @Test
+  void testBlockedByBytes() throws InterruptedException {
+    var buffer = new RecordBuffer<Integer>(10, 10);
+    buffer.put(1, 8);
+    var f = CompletableFuture.runAsync(() -> Utils.packException(() -> buffer.put(2, 8)));
+    Utils.sleep(Duration.ofMillis(300));
+    Assertions.assertFalse(f.isDone());
+    Assertions.assertEquals(List.of(1), buffer.drain(10, Duration.ZERO));
+    f.join();
+    Assertions.assertEquals(List.of(2), buffer.drain(10, Duration.ZERO));
+    Assertions.assertTrue(buffer.blockedTime().toMillis() >= 200);
+
+    // the large element is accepted by empty buffer
+    buffer.put(3, 100);
+    Assertions.assertEquals(List.of(3), buffer.drain(10, Duration.ZERO));
+  }
+
+  @Test
+  void testBlockedBySlots() throws InterruptedException {
+    var buffer = new RecordBuffer<Integer>(1000, 2);
+    buffer.put(1, 1);
+    buffer.put(2, 1);
+    var f = CompletableFuture.runAsync(() -> Utils.packException(() -> buffer.put(3, 1)));
+    Utils.sleep(Duration.ofMillis(300));
+    Assertions.assertFalse(f.isDone());
+    Assertions.assertEquals(List.of(1, 2), buffer.drain(10, Duration.ZERO));
+    f.join();
+    Assertions.assertEquals(List.of(3), buffer.drain(10, Duration.ZERO));
+  }
+
+  @Test
+  void testInterruptedPutReleasesBytes() throws InterruptedException {
+    var buffer = new RecordBuffer<Integer>(1000, 2);
+    buffer.put(1, 1);
+    buffer.put(2, 1);
+    var thread =
+        new Thread(
+            () -> Assertions.assertThrows(InterruptedException.class, () -> buffer.put(3, 10)));
+    thread.start();
+    Utils.sleep(Duration.ofMillis(300));
+    // the producer is waiting for a slot with the reserved bytes
+    Assertions.assertEquals(12, buffer.bytes());
+    thread.interrupt();
+    thread.join();
+    Assertions.assertEquals(2, buffer.bytes());
+    Assertions.assertEquals(List.of(1, 2), buffer.drain(10, Duration.ZERO));
+    Assertions.assertEquals(0, buffer.bytes());
+  }
+
+  @Test
+  void testSingleSlot() throws InterruptedException {
+    var buffer = new RecordBuffer<Integer>(1000, 1);
+    buffer.put(1, 1);
+    buffer.put(2, 1);
+    // the published element is not overwritten
+    Assertions.assertEquals(List.of(1, 2), buffer.drain(10, Duration.ZERO));
+  }
+
+  @Test
+  void testMultiProducers() {
+    var producers = 4;
+    var count = 10000;
+    var buffer = new RecordBuffer<Integer>(100, 16);
+    var fs =
+        IntStream.range(0, producers)
+            .mapToObj(
+                p ->
+                    CompletableFuture.runAsync(
+                        () ->
+                            IntStream.range(0, count)
+                                .forEach(
+                                    i -> Utils.packException(() -> buffer.put(p * count + i, 1)))))
+            .toList();
+    var result = new ArrayList<Integer>();
+    while (result.size() < producers * count)
+      result.addAll(buffer.drain(Integer.MAX_VALUE, Duration.ofSeconds(1)));
+    fs.forEach(CompletableFuture::join);
+
+    Assertions.assertEquals(0, buffer.bytes());
+    // the elements from the same producer are kept in order
+    IntStream.range(0, producers)
+        .forEach(
+            p ->
+                Assertions.assertEquals(
+                    IntStream.range(p * count, (p + 1) * count).boxed().toList(),
+                    result.stream().filter(i -> i / count == p).toList()));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+final class CachedFileListing implements FileListing {
+
+  private static final String[] EMPTY = new String[0];
+
+  private final FileSystem fs;
+  private final String root;
+  private final UnaryOperator<List<String>> selector;
+  private final Map<String, Folder> folders = new HashMap<>();
+
+  private static final class Folder {
+    private Optional<Long> modifiedTime = Optional.empty();
+
+    // the folder is listed after the modified time was observed, so it has no hidden changes
+    private boolean stable = false;
+
+    // the sorted names of returned files. It is replaced by the latest listing, so the files which
+    // are removed from the folder are not kept
+    private String[] files = EMPTY;
+
+    private List<String> children = List.of();
+  }
+
+  CachedFileListing(FileSystem fs, String root, UnaryOperator<List<String>> selector) {
+    this.fs = fs;
+    this.root = root;
+    this.selector = selector;
+  }
+
+  @Override
+  public List<String> next() {
+    var result = new ArrayList<String>();
+    var visited = new HashSet<String>();
+    if (fs.type(root) == Type.FOLDER) {
+      var queue = new ArrayDeque<String>();
+      queue.add(root);
+      while (!queue.isEmpty()) {
+        var current = queue.poll();
+        var folder = folders.computeIfAbsent(current, ignored -> new Folder());
+        try {
+          var time = fs.modifiedTime(current);
+          // The folder may be changed again within the precision of modified time after it is
+          // listed. Hence, it gets listed once more before the cached listing is used.
+          if (time.isEmpty() || !folder.stable || !time.equals(folder.modifiedTime)) {
+            folder.stable = time.isPresent() && time.equals(folder.modifiedTime);
+            folder.modifiedTime = time;
+            list(current, folder, result);
+          }
+        } catch (IllegalArgumentException e) {
+          // the folder is removed
+          continue;
+        }
+        visited.add(current);
+        queue.addAll(folder.children);
+      }
+    }
+    folders.keySet().retainAll(visited);
+    return result;
+  }
+
+  private void list(String path, Folder folder, List<String> result) {
+    var files = fs.listFiles(path);
+    if (files.isEmpty()) {
+      folder.files = EMPTY;
+      folder.children =
+          fs.listFolders(path).stream().filter(f -> !name(f).startsWith(".")).toList();
+      return;
+    }
+    folder.children = List.of();
+    var selected = selector.apply(files);
+    for (var file : selected)
+      if (Arrays.binarySearch(folder.files, name(file)) < 0) result.add(file);
+    folder.files = selected.stream().map(CachedFileListing::name).sorted().toArray(String[]::new);
+  }
+
+  private static String name(String path) {
+    return path.substring(path.lastIndexOf("/") + 1);
+  }
+}
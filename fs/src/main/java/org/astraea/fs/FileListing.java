@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * An incremental listing of the files under a root folder. Each call of {@link #next()} walks the
+ * folders and returns only the files which are not returned before. The folder whose modified time
+ * is unchanged is not listed again, so the walk of a large and stable tree costs one status request
+ * per folder instead of one listing per folder.
+ *
+ * <p>The walk does not go into the subfolders of a folder which has files, and the hidden folders
+ * (the name starts with ".") are skipped.
+ */
+public interface FileListing {
+
+  /**
+   * @param fs to list files
+   * @param root the folder to walk
+   * @param selector selects the files to return from all files of a folder. It must be
+   *     deterministic, since the unselected files are not checked again until the folder is
+   *     changed.
+   * @return file listing
+   */
+  static FileListing of(FileSystem fs, String root, UnaryOperator<List<String>> selector) {
+    return new CachedFileListing(fs, root, selector);
+  }
+
+  /**
+   * @return the selected files which are not returned before
+   */
+  List<String> next();
+}
@@ -16,8 +16,16 @@
  */
 package org.astraea.fs;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -79,6 +87,50 @@ public interface FileSystem extends AutoCloseable {
 
   InputStream read(String path);
 
+  /**
+   * open a channel to read the file. The default implementation wraps {@link #read(String)}, so the
+   * implementation should override it if the file is able to be read by a native channel.
+   *
+   * @param path to read data
+   * @return readable channel
+   */
+  default ReadableByteChannel readChannel(String path) {
+    return Channels.newChannel(read(path));
+  }
+
+  /**
+   * map the whole file to memory. The mapped buffer is read-only, and it gets unmapped when it is
+   * garbage-collected.
+   *
+   * @param path to map
+   * @return the mapped buffer, or empty if the file system does not support memory-mapped file or
+   *     the file is too large to be mapped by a single buffer
+   */
+  default Optional<MappedByteBuffer> map(String path) {
+    if (type(path) != Type.FILE) throw new IllegalArgumentException(path + " is not a file");
+    return Optional.empty();
+  }
+
+  /**
+   * move the file from source to target. The parent folders of target get created automatically,
+   * and the existent target gets overwritten. The default implementation copies the data through
+   * {@link #read(String)} and {@link #write(String)}, so the implementation should override it if
+   * the server is able to move file by itself.
+   *
+   * @param source to move
+   * @param target destination
+   */
+  default void rename(String source, String target) {
+    if (type(source) != Type.FILE) throw new IllegalArgumentException(source + " is not a file");
+    try (var input = read(source);
+        var output = write(target)) {
+      input.transferTo(output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    delete(source);
+  }
+
   /**
    * create a file on given path. The parent folders get created automatically.
    *
@@ -87,6 +139,75 @@ public interface FileSystem extends AutoCloseable {
    */
   OutputStream write(String path);
 
+  /**
+   * create a file on given path, and open a channel to write it. The parent folders get created
+   * automatically. The default implementation wraps {@link #write(String)}.
+   *
+   * @param path to write data
+   * @return writable channel
+   */
+  default WritableByteChannel writeChannel(String path) {
+    return Channels.newChannel(write(path));
+  }
+
+  /**
+   * create a file from the parts which are written concurrently. The file is invisible until the
+   * parts are committed. The default implementation writes the parts to a hidden folder next to the
+   * file, and then concatenates them by {@link #concat(List, String)}.
+   *
+   * @param path to write data
+   * @param parts the max number of parts
+   * @return multipart
+   */
+  default Multipart writeParallel(String path, int parts) {
+    return Multipart.of(this, path, parts);
+  }
+
+  /**
+   * @return true if {@link #concat(List, String)} is done by the server without copying the data.
+   *     Otherwise, the data of sources gets downloaded and uploaded again.
+   */
+  default boolean supportsConcat() {
+    return false;
+  }
+
+  /**
+   * concatenate the source files to the target in order, and then delete the source files. The
+   * parent folders of target get created automatically, and the existent target gets overwritten.
+   * The default implementation copies the data through {@link #readChannel(String)} and {@link
+   * #writeChannel(String)}, so the implementation should override it if the server is able to
+   * concatenate files by itself.
+   *
+   * @param sources to concatenate
+   * @param target destination
+   */
+  default void concat(List<String> sources, String target) {
+    for (var source : sources)
+      if (type(source) != Type.FILE) throw new IllegalArgumentException(source + " is not a file");
+    try (var output = writeChannel(target)) {
+      for (var source : sources)
+        try (var input = readChannel(source)) {
+          transfer(input, output);
+        }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    sources.forEach(this::delete);
+  }
+
+  /**
+   * The modified time of folder is changed when the files in the folder are added or removed, so it
+   * is used to skip listing the unchanged folders.
+   *
+   * @param path to check modified time
+   * @return the modified time in milliseconds, or empty if the file system does not support it
+   */
+  default Optional<Long> modifiedTime(String path) {
+    if (type(path) == Type.NONEXISTENT)
+      throw new IllegalArgumentException(path + " does not exist");
+    return Optional.empty();
+  }
+
   /**
    * @param path to check type
    * @return the type of path
@@ -98,6 +219,23 @@ public interface FileSystem extends AutoCloseable {
 
   // ---------------------[helper]---------------------//
 
+  /** copy all data from input to output. The file is copied by the zero-copy transfer. */
+  private static void transfer(ReadableByteChannel input, WritableByteChannel output)
+      throws IOException {
+    if (input instanceof FileChannel file) {
+      var size = file.size();
+      for (var position = 0L; position < size; )
+        position += file.transferTo(position, size - position, output);
+      return;
+    }
+    var buffer = ByteBuffer.allocate(64 * 1024);
+    while (input.read(buffer) >= 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) output.write(buffer);
+      buffer.clear();
+    }
+  }
+
   static String path(String root, String name) {
     if (root.endsWith("/")) return root + name;
     return root + "/" + name;
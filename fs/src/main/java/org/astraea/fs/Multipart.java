@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs;
+
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+import org.astraea.common.DataSize;
+
+/**
+ * A file which is written by independent parts. The parts can be written concurrently, and they are
+ * concatenated in index order when committing. The file is invisible until it is committed.
+ */
+public interface Multipart extends AutoCloseable {
+
+  /**
+   * The default implementation which writes the parts to a hidden folder next to the target, and
+   * then concatenates them by {@link FileSystem#concat(java.util.List, String)}.
+   *
+   * @param fs to write parts
+   * @param path of target file
+   * @param parts the max number of parts
+   * @return multipart
+   */
+  static Multipart of(FileSystem fs, String path, int parts) {
+    if (parts <= 0) throw new IllegalArgumentException("parts must be positive");
+    if (fs.type(path) == Type.FOLDER) throw new IllegalArgumentException(path + " is a folder");
+    var index = path.lastIndexOf("/");
+    var folder = path.substring(0, index + 1) + "." + path.substring(index + 1) + ".parts";
+    // clean the parts which are left by the failed upload
+    fs.delete(folder);
+    return new Multipart() {
+      private final Set<Integer> opened = ConcurrentHashMap.newKeySet();
+      private volatile boolean closed = false;
+
+      @Override
+      public int parts() {
+        return parts;
+      }
+
+      @Override
+      public OutputStream part(int index) {
+        if (closed) throw new IllegalStateException("multipart of " + path + " is closed");
+        if (index < 0 || index >= parts)
+          throw new IllegalArgumentException("index must be in [0, " + parts + ")");
+        if (!opened.add(index))
+          throw new IllegalArgumentException("part " + index + " is already opened");
+        return fs.write(FileSystem.path(folder, String.valueOf(index)));
+      }
+
+      @Override
+      public void commit() {
+        if (closed) throw new IllegalStateException("multipart of " + path + " is closed");
+        closed = true;
+        try {
+          var target = FileSystem.path(folder, "target");
+          fs.concat(
+              IntStream.range(0, parts)
+                  .filter(opened::contains)
+                  .mapToObj(i -> FileSystem.path(folder, String.valueOf(i)))
+                  .toList(),
+              target);
+          fs.rename(target, path);
+        } finally {
+          fs.delete(folder);
+        }
+      }
+
+      @Override
+      public void close() {
+        if (closed) return;
+        closed = true;
+        fs.delete(folder);
+      }
+    };
+  }
+
+  /**
+   * Split the written data into parts, and upload each part by a background task. The data is
+   * written in order, so each part is uploaded while it is being written, and only the last few
+   * chunks of a part are still uploading when the writer moves to next part. The writer moves to
+   * next part when the current part reaches the part size, and the last part gets all remaining
+   * data. Closing the stream waits for all uploads and then commits the multipart.
+   *
+   * @param multipart to write parts
+   * @param partSize the size of each part except for the last one
+   * @param executor to run the uploads. Each part occupies a thread until it is uploaded.
+   * @return output stream
+   */
+  static OutputStream stream(Multipart multipart, DataSize partSize, Executor executor) {
+    return new MultipartOutputStream(multipart, partSize.bytes(), executor);
+  }
+
+  /**
+   * @return the max number of parts
+   */
+  int parts();
+
+  /**
+   * Open the part to write. Each part can be opened only once, and the parts which are never opened
+   * are treated as empty.
+   *
+   * @param index of part. It must be in [0, {@link #parts()})
+   * @return output stream of the part
+   */
+  OutputStream part(int index);
+
+  /**
+   * Concatenate all parts to the target path. The existent target gets overwritten. All part
+   * streams must be closed before committing.
+   */
+  void commit();
+
+  /** discard the parts if the multipart is not committed */
+  @Override
+  void close();
+}
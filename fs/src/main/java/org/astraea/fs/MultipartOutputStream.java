@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand off the written data to the upload of current part by a bounded queue of chunks, so the
+ * uploads of previous parts are overlapped with the writes of current part.
+ */
+final class MultipartOutputStream extends OutputStream {
+
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  // the max number of chunks waiting for upload in each part
+  static final int MAX_PENDING_CHUNKS = 16;
+
+  private static final byte[] END = new byte[0];
+
+  private final Multipart multipart;
+  private final long partSize;
+  private final Executor executor;
+  private final List<CompletableFuture<Void>> uploads = new ArrayList<>();
+
+  private byte[] chunk = new byte[CHUNK_SIZE];
+  private int chunkPosition = 0;
+
+  private int index = -1;
+  private long partPosition = 0;
+  private BlockingQueue<byte[]> chunks = null;
+  private boolean closed = false;
+
+  MultipartOutputStream(Multipart multipart, long partSize, Executor executor) {
+    if (partSize <= 0) throw new IllegalArgumentException("part size must be positive");
+    this.multipart = multipart;
+    this.partSize = partSize;
+    this.executor = executor;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (closed) throw new IOException("stream is closed");
+    while (len > 0) {
+      if (chunks == null || (isFull() && index < multipart.parts() - 1)) nextPart();
+      var size = Math.min(len, CHUNK_SIZE - chunkPosition);
+      // the last part gets all remaining data
+      if (index < multipart.parts() - 1) size = (int) Math.min(size, partSize - partPosition);
+      System.arraycopy(b, off, chunk, chunkPosition, size);
+      chunkPosition += size;
+      partPosition += size;
+      off += size;
+      len -= size;
+      if (chunkPosition == CHUNK_SIZE) flushChunk();
+    }
+  }
+
+  private boolean isFull() {
+    return partPosition >= partSize;
+  }
+
+  private void nextPart() throws IOException {
+    if (chunks != null) {
+      flushChunk();
+      put(END);
+    }
+    index++;
+    partPosition = 0;
+    var queue = new ArrayBlockingQueue<byte[]>(MAX_PENDING_CHUNKS);
+    var part = index;
+    chunks = queue;
+    uploads.add(CompletableFuture.runAsync(() -> upload(part, queue), executor));
+  }
+
+  private void upload(int index, BlockingQueue<byte[]> queue) {
+    try (var output = multipart.part(index)) {
+      while (true) {
+        var bytes = queue.take();
+        if (bytes == END) return;
+        output.write(bytes);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void flushChunk() throws IOException {
+    if (chunkPosition == 0) return;
+    put(chunkPosition == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, chunkPosition));
+    chunk = new byte[CHUNK_SIZE];
+    chunkPosition = 0;
+  }
+
+  /** wait for the space of queue, and stop waiting if the upload of current part fails */
+  private void put(byte[] bytes) throws IOException {
+    var upload = uploads.get(uploads.size() - 1);
+    try {
+      while (!chunks.offer(bytes, 100, TimeUnit.MILLISECONDS))
+        if (upload.isDone()) {
+          upload.join();
+          throw new IOException("the upload of part " + index + " is done unexpectedly");
+        }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (CompletionException e) {
+      throw new IOException("failed to upload part " + index, e.getCause());
+    }
+  }
+
+  /** the data is visible only after the stream is closed, so flush is no-op */
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    try {
+      if (chunks != null) {
+        flushChunk();
+        put(END);
+      }
+      CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+      multipart.commit();
+    } catch (CompletionException e) {
+      throw new IOException("failed to upload parts", e.getCause());
+    } finally {
+      multipart.close();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs.ftp;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.commons.net.ftp.FTPClient;
+import org.astraea.common.Utils;
+
+/**
+ * A pool of logged-in {@link FTPClient}. At most {@code maxActive} clients are in use at the same
+ * time, and the caller is blocked until a client is returned. The client is created on demand if
+ * there is no idle client, and at most {@code maxIdle} clients are kept after they are returned.
+ * The idle clients are evicted after {@code idleTimeout}, and they are checked by NOOP before being
+ * reused if they have been idle for a while.
+ *
+ * <p>Noted that a client is occupied by a transfer until the stream is closed, so {@code maxActive}
+ * must be larger than the number of streams held at the same time.
+ */
+final class FtpClientPool implements AutoCloseable {
+
+  // the idle client is checked by NOOP if it has been idle longer than this interval
+  private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+  private record IdleClient(FTPClient client, long idleSince) {}
+
+  private final Supplier<FTPClient> clientSupplier;
+  private final Semaphore permits;
+  private final int maxIdle;
+  private final Duration idleTimeout;
+  private final Deque<IdleClient> idles = new ArrayDeque<>();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+  private boolean closed = false;
+
+  FtpClientPool(
+      Supplier<FTPClient> clientSupplier, int maxActive, int maxIdle, Duration idleTimeout) {
+    this.clientSupplier = clientSupplier;
+    this.permits = new Semaphore(maxActive);
+    this.maxIdle = maxIdle;
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * @return an idle client if there is a healthy one. Otherwise, a new client is created
+   */
+  FTPClient borrow() {
+    Utils.packException(() -> permits.acquire());
+    try {
+      var client = borrowOrCreate();
+      active.incrementAndGet();
+      return client;
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private FTPClient borrowOrCreate() {
+    while (true) {
+      IdleClient idle;
+      synchronized (this) {
+        if (closed) throw new IllegalStateException("the pool is closed");
+        evictExpired();
+        // reuse the most recently used client, so the others can get expired
+        idle = idles.pollLast();
+      }
+      if (idle == null) break;
+      if (healthy(idle)) return idle.client();
+      evicted.increment();
+      closeQuietly(idle.client());
+    }
+    var client = clientSupplier.get();
+    created.increment();
+    return client;
+  }
+
+  /**
+   * return the client to the pool. It is closed if the pool is full.
+   *
+   * @param client to return
+   */
+  void release(FTPClient client) {
+    try {
+      synchronized (this) {
+        evictExpired();
+        if (!closed && idles.size() < maxIdle) {
+          idles.addLast(new IdleClient(client, System.nanoTime()));
+          return;
+        }
+      }
+      closeQuietly(client);
+    } finally {
+      active.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  /**
+   * close the broken client rather than returning it to the pool.
+   *
+   * @param client to close
+   */
+  void invalidate(FTPClient client) {
+    try {
+      evicted.increment();
+      closeQuietly(client);
+    } finally {
+      active.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  /**
+   * @return the number of clients in use
+   */
+  int active() {
+    return active.get();
+  }
+
+  /**
+   * @return the number of idle clients
+   */
+  synchronized int idle() {
+    return idles.size();
+  }
+
+  /**
+   * @return the number of created clients
+   */
+  long created() {
+    return created.sum();
+  }
+
+  /**
+   * @return the number of clients which were closed due to idle timeout or failed health check
+   */
+  long evicted() {
+    return evicted.sum();
+  }
+
+  private boolean healthy(IdleClient idle) {
+    if (!idle.client().isConnected()) return false;
+    if (System.nanoTime() - idle.idleSince() < HEALTH_CHECK_INTERVAL.toNanos()) return true;
+    try {
+      return idle.client().sendNoOp();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private void evictExpired() {
+    var now = System.nanoTime();
+    while (!idles.isEmpty() && now - idles.peekFirst().idleSince() >= idleTimeout.toNanos()) {
+      evicted.increment();
+      var client = idles.pollFirst().client();
+      closeQuietly(client);
+    }
+  }
+
+  private static void closeQuietly(FTPClient client) {
+    try {
+      FtpFileSystem.close(client);
+    } catch (RuntimeException e) {
+      // the broken client is dropped anyway
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      idles.forEach(idle -> closeQuietly(idle.client()));
+      idles.clear();
+    }
+  }
+}
@@ -19,15 +19,24 @@ package org.astraea.fs.ftp;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPReply;
 import org.astraea.common.Configuration;
+import org.astraea.common.DataSize;
 import org.astraea.common.Utils;
+import org.astraea.common.metrics.MBeanRegister;
 import org.astraea.fs.FileSystem;
 import org.astraea.fs.Type;
 
@@ -36,36 +45,136 @@ public class FtpFileSystem implements FileSystem {
   public static final String PORT_KEY = "fs.ftp.port";
   public static final String USER_KEY = "fs.ftp.user";
   public static final String PASSWORD_KEY = "fs.ftp.password";
+  // the max number of clients in use. Each stream occupies a client until it is closed
+  public static final String POOL_SIZE_KEY = "fs.ftp.pool.size";
+  // the max number of idle clients kept by the pool
+  public static final String POOL_MAX_IDLE_KEY = "fs.ftp.pool.max.idle";
+  // the idle clients are closed after this timeout
+  public static final String POOL_IDLE_TIMEOUT_KEY = "fs.ftp.pool.idle.timeout";
+  // the buffer size of data transfer
+  public static final String BUFFER_SIZE_KEY = "fs.ftp.buffer.size";
 
-  private final Supplier<FTPClient> clientSupplier;
-  private final FTPClient client;
+  // unbounded by default, since the exporter holds a stream for each partition
+  static final int POOL_SIZE_DEFAULT = Integer.MAX_VALUE;
+  static final int POOL_MAX_IDLE_DEFAULT = 4;
+  static final Duration POOL_IDLE_TIMEOUT_DEFAULT = Duration.ofMinutes(1);
+  static final DataSize BUFFER_SIZE_DEFAULT = DataSize.KiB.of(64);
+
+  // the time of MDTM reply is in UTC
+  private static final DateTimeFormatter MDTM_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+  public static final String DOMAIN_NAME = "org.astraea";
+  public static final String TYPE_PROPERTY = "type";
+  public static final String TYPE_VALUE = "ftp";
+  public static final String ID_PROPERTY = "id";
+  public static final String ACTIVE_ATTRIBUTE = "pool.active";
+  public static final String IDLE_ATTRIBUTE = "pool.idle";
+  public static final String CREATED_ATTRIBUTE = "pool.created";
+  public static final String EVICTED_ATTRIBUTE = "pool.evicted";
+
+  // visible for testing
+  final FtpClientPool pool;
 
   public FtpFileSystem(Configuration config) {
-    clientSupplier =
-        () ->
+    var bufferSize = (int) config.dataSize(BUFFER_SIZE_KEY).orElse(BUFFER_SIZE_DEFAULT).bytes();
+    pool =
+        new FtpClientPool(
+            () ->
+                Utils.packException(
+                    () -> {
+                      var client = new FTPClient();
+                      client.connect(
+                          config.requireString(HOSTNAME_KEY), config.requireInteger(PORT_KEY));
+                      client.enterLocalPassiveMode();
+                      // the data connection can be different from control connection
+                      client.setRemoteVerificationEnabled(false);
+                      client.setBufferSize(bufferSize);
+                      if (!client.login(
+                          config.requireString(USER_KEY), config.requireString(PASSWORD_KEY))) {
+                        close(client);
+                        throw new IllegalArgumentException("failed to login ftp server");
+                      }
+                      client.setFileType(FTP.BINARY_FILE_TYPE);
+                      return client;
+                    }),
+            config.integer(POOL_SIZE_KEY).orElse(POOL_SIZE_DEFAULT),
+            config.integer(POOL_MAX_IDLE_KEY).orElse(POOL_MAX_IDLE_DEFAULT),
+            config.duration(POOL_IDLE_TIMEOUT_KEY).orElse(POOL_IDLE_TIMEOUT_DEFAULT));
+    // login eagerly, so the invalid configs are reported by constructor
+    pool.release(pool.borrow());
+    MBeanRegister.local()
+        .domainName(DOMAIN_NAME)
+        .property(TYPE_PROPERTY, TYPE_VALUE)
+        .property(ID_PROPERTY, Utils.randomString())
+        .attribute(ACTIVE_ATTRIBUTE, Integer.class, pool::active)
+        .attribute(IDLE_ATTRIBUTE, Integer.class, pool::idle)
+        .attribute(CREATED_ATTRIBUTE, Long.class, pool::created)
+        .attribute(EVICTED_ATTRIBUTE, Long.class, pool::evicted)
+        .description("The clients of ftp connection pool.")
+        .register();
+  }
+
+  /**
+   * run the operation with a client from the pool. The client is dropped if the operation fails,
+   * since the state of connection is unknown.
+   */
+  private <T> T execute(Function<FTPClient, T> operation) {
+    var client = pool.borrow();
+    T result;
+    try {
+      result = operation.apply(client);
+    } catch (IllegalArgumentException e) {
+      // the invalid path does not break the connection
+      pool.release(client);
+      throw e;
+    } catch (RuntimeException e) {
+      pool.invalidate(client);
+      throw e;
+    }
+    pool.release(client);
+    return result;
+  }
+
+  /** The modified time is fetched by MDTM, so the precision is second. */
+  @Override
+  public Optional<Long> modifiedTime(String path) {
+    return execute(
+        client ->
             Utils.packException(
                 () -> {
-                  var client = new FTPClient();
-                  client.connect(
-                      config.requireString(HOSTNAME_KEY), config.requireInteger(PORT_KEY));
-                  client.enterLocalPassiveMode();
-                  // the data connection can be different from control connection
-                  client.setRemoteVerificationEnabled(false);
-                  if (!client.login(
-                      config.requireString(USER_KEY), config.requireString(PASSWORD_KEY)))
-                    throw new IllegalArgumentException("failed to login ftp server");
-                  return client;
-                });
-    client = clientSupplier.get();
+                  var time = client.getModificationTime(path);
+                  if (time == null) {
+                    if (type(client, path) == Type.NONEXISTENT)
+                      throw new IllegalArgumentException(path + " does not exist");
+                    return Optional.<Long>empty();
+                  }
+                  // the format is YYYYMMDDhhmmss with optional milliseconds
+                  return Optional.of(
+                      LocalDateTime.parse(time.substring(0, 14), MDTM_FORMAT)
+                          .toInstant(ZoneOffset.UTC)
+                          .toEpochMilli());
+                }));
   }
 
   @Override
-  public synchronized Type type(String path) {
+  public Type type(String path) {
+    return execute(client -> type(client, path));
+  }
+
+  private static Type type(FTPClient client, String path) {
     return Utils.packException(
         () -> {
           // tyring to fit different type of ftp servers.
           var parentPath = path.substring(0, path.lastIndexOf("/"));
-          if (Arrays.stream(client.listFiles(parentPath))
+          var files = client.listFiles(parentPath);
+          // the empty result is returned if the data connection fails, so the reply must be
+          // checked. 450 and 550 mean the parent folder does not exist
+          var reply = client.getReplyCode();
+          if (!FTPReply.isPositiveCompletion(reply) && reply != 450 && reply != 550)
+            throw new IOException(
+                "failed to list " + parentPath + ": " + client.getReplyString().trim());
+          if (Arrays.stream(files)
               .filter(FTPFile::isFile)
               .map(FTPFile::getName)
               .anyMatch(path.substring(path.lastIndexOf("/") + 1)::equals)) {
@@ -86,53 +195,77 @@ public class FtpFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized void mkdir(String path) {
+  public void mkdir(String path) {
+    execute(
+        client -> {
+          mkdir(client, path);
+          return null;
+        });
+  }
+
+  private static void mkdir(FTPClient client, String path) {
     Utils.packException(
         () -> {
-          if (type(path) == Type.FOLDER) return;
-          FileSystem.parent(path).filter(p -> type(p) == Type.NONEXISTENT).ifPresent(this::mkdir);
-          if (!client.changeWorkingDirectory(path) && !client.makeDirectory(path))
+          if (type(client, path) == Type.FOLDER) return;
+          var parent = FileSystem.parent(path);
+          if (parent.isPresent() && type(client, parent.get()) == Type.NONEXISTENT)
+            mkdir(client, parent.get());
+          // the folder may be created by other client after the check
+          if (!client.changeWorkingDirectory(path)
+              && !client.makeDirectory(path)
+              && !client.changeWorkingDirectory(path))
             throw new IllegalArgumentException("Failed to create folder on " + path);
         });
   }
 
   @Override
-  public synchronized List<String> listFiles(String path) {
-    return Utils.packException(
-        () -> {
-          if (type(path) != Type.FOLDER)
-            throw new IllegalArgumentException(path + " is not a folder");
-          return Arrays.stream(client.listFiles(path, FTPFile::isFile))
-              .map(f -> FileSystem.path(path, f.getName()))
-              .collect(Collectors.toList());
-        });
+  public List<String> listFiles(String path) {
+    return execute(
+        client ->
+            Utils.packException(
+                () -> {
+                  if (type(client, path) != Type.FOLDER)
+                    throw new IllegalArgumentException(path + " is not a folder");
+                  return Arrays.stream(client.listFiles(path, FTPFile::isFile))
+                      .map(f -> FileSystem.path(path, f.getName()))
+                      .collect(Collectors.toList());
+                }));
   }
 
   @Override
-  public synchronized List<String> listFolders(String path) {
-    return Utils.packException(
-        () -> {
-          if (type(path) != Type.FOLDER)
-            throw new IllegalArgumentException(path + " is not a folder");
-          return Arrays.stream(client.listFiles(path, FTPFile::isDirectory))
-              .map(f -> FileSystem.path(path, f.getName()))
-              .collect(Collectors.toList());
-        });
+  public List<String> listFolders(String path) {
+    return execute(
+        client ->
+            Utils.packException(
+                () -> {
+                  if (type(client, path) != Type.FOLDER)
+                    throw new IllegalArgumentException(path + " is not a folder");
+                  return Arrays.stream(client.listFiles(path, FTPFile::isDirectory))
+                      .map(f -> FileSystem.path(path, f.getName()))
+                      .collect(Collectors.toList());
+                }));
   }
 
   @Override
-  public synchronized void delete(String path) {
+  public void delete(String path) {
+    if (path.equals("/")) throw new IllegalArgumentException("Can't delete whole root folder");
+    execute(
+        client -> {
+          delete(client, path);
+          return null;
+        });
+  }
+
+  private static void delete(FTPClient client, String path) {
     Utils.packException(
         () -> {
-          if (path.equals("/"))
-            throw new IllegalArgumentException("Can't delete whole root folder");
-          switch (type(path)) {
+          switch (type(client, path)) {
             case NONEXISTENT -> {}
             case FILE -> client.deleteFile(path);
             case FOLDER -> {
               for (var f : client.listFiles(path)) {
                 var sub = FileSystem.path(path, f.getName());
-                if (f.isDirectory()) delete(sub);
+                if (f.isDirectory()) delete(client, sub);
                 else client.deleteFile(sub);
               }
               client.removeDirectory(path);
@@ -142,103 +275,152 @@ public class FtpFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized InputStream read(String path) {
-    return Utils.packException(
-        () -> {
-          if (type(path) != Type.FILE) throw new IllegalArgumentException(path + " is not a file");
-          // FTPClient can handle only one data connection, so we have to create another client to
-          // handle input stream
-          // see https://lists.apache.org/thread/7pjjw8bb1qo9noz3dcxkdcr6v7kx8c1l
-          var client = clientSupplier.get();
-          client.setFileType(FTP.BINARY_FILE_TYPE);
-          var inputStream = client.retrieveFileStream(path);
-          if (inputStream == null) {
-            FtpFileSystem.close(client);
-            throw new IllegalArgumentException("failed to open file on " + path);
-          }
-          return new InputStream() {
+  public void rename(String source, String target) {
+    execute(
+        client ->
+            Utils.packException(
+                () -> {
+                  if (type(client, source) != Type.FILE)
+                    throw new IllegalArgumentException(source + " is not a file");
+                  switch (type(client, target)) {
+                    case FOLDER -> throw new IllegalArgumentException(target + " is a folder");
+                    case FILE -> client.deleteFile(target);
+                    case NONEXISTENT -> FileSystem.parent(target).ifPresent(p -> mkdir(client, p));
+                  }
+                  if (!client.rename(source, target))
+                    throw new IllegalArgumentException(
+                        "Failed to rename " + source + " to " + target);
+                  return null;
+                }));
+  }
 
-            @Override
-            public int read() throws IOException {
-              return inputStream.read();
-            }
+  @Override
+  public InputStream read(String path) {
+    // FTPClient can handle only one data connection, so the client is occupied by the stream
+    // until the stream is closed
+    // see https://lists.apache.org/thread/7pjjw8bb1qo9noz3dcxkdcr6v7kx8c1l
+    var client = pool.borrow();
+    InputStream inputStream;
+    try {
+      inputStream =
+          Utils.packException(
+              () -> {
+                if (type(client, path) != Type.FILE)
+                  throw new IllegalArgumentException(path + " is not a file");
+                var stream = client.retrieveFileStream(path);
+                if (stream == null)
+                  throw new IllegalArgumentException("failed to open file on " + path);
+                return stream;
+              });
+    } catch (IllegalArgumentException e) {
+      pool.release(client);
+      throw e;
+    } catch (RuntimeException e) {
+      pool.invalidate(client);
+      throw e;
+    }
+    return new InputStream() {
+      // the client is returned once even if the stream is closed many times
+      private final AtomicBoolean closed = new AtomicBoolean(false);
 
-            @Override
-            public int read(byte b[], int off, int len) throws IOException {
-              return inputStream.read(b, off, len);
-            }
+      @Override
+      public int read() throws IOException {
+        return inputStream.read();
+      }
 
-            @Override
-            public int readNBytes(byte[] b, int off, int len) throws IOException {
-              return inputStream.readNBytes(b, off, len);
-            }
+      @Override
+      public int read(byte b[], int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+      }
 
-            @Override
-            public void close() throws IOException {
-              inputStream.close();
-              if (!client.completePendingCommand())
-                throw new IllegalStateException("Failed to complete pending command");
-              FtpFileSystem.close(client);
-            }
-          };
-        });
+      @Override
+      public int readNBytes(byte[] b, int off, int len) throws IOException {
+        return inputStream.readNBytes(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) complete(client, inputStream);
+      }
+    };
   }
 
   @Override
-  public synchronized OutputStream write(String path) {
-    return Utils.packException(
-        () -> {
-          if (type(path) == Type.FOLDER) throw new IllegalArgumentException(path + " is a folder");
-          FileSystem.parent(path).ifPresent(this::mkdir);
-          // FTPClient can handle only one data connection, so we have to create another client to
-          // handle output stream
-          // see https://lists.apache.org/thread/7pjjw8bb1qo9noz3dcxkdcr6v7kx8c1l
-          var client = clientSupplier.get();
-          client.setFileType(FTP.BINARY_FILE_TYPE);
-          var outputStream = client.storeFileStream(path);
-          if (outputStream == null) {
-            FtpFileSystem.close(client);
-            throw new IllegalArgumentException("failed to create file on " + path);
-          }
-          return new OutputStream() {
+  public OutputStream write(String path) {
+    var client = pool.borrow();
+    OutputStream outputStream;
+    try {
+      outputStream =
+          Utils.packException(
+              () -> {
+                if (type(client, path) == Type.FOLDER)
+                  throw new IllegalArgumentException(path + " is a folder");
+                var parent = FileSystem.parent(path);
+                if (parent.isPresent()) mkdir(client, parent.get());
+                var stream = client.storeFileStream(path);
+                if (stream == null)
+                  throw new IllegalArgumentException("failed to create file on " + path);
+                return stream;
+              });
+    } catch (IllegalArgumentException e) {
+      pool.release(client);
+      throw e;
+    } catch (RuntimeException e) {
+      pool.invalidate(client);
+      throw e;
+    }
+    return new OutputStream() {
+      // the client is returned once even if the stream is closed many times
+      private final AtomicBoolean closed = new AtomicBoolean(false);
 
-            @Override
-            public void write(int b) throws IOException {
-              outputStream.write(b);
-            }
+      @Override
+      public void write(int b) throws IOException {
+        outputStream.write(b);
+      }
 
-            @Override
-            public void write(byte b[]) throws IOException {
-              outputStream.write(b);
-            }
+      @Override
+      public void write(byte b[]) throws IOException {
+        outputStream.write(b);
+      }
 
-            @Override
-            public void write(byte b[], int off, int len) throws IOException {
-              outputStream.write(b, off, len);
-            }
+      @Override
+      public void write(byte b[], int off, int len) throws IOException {
+        outputStream.write(b, off, len);
+      }
 
-            @Override
-            public void flush() throws IOException {
-              outputStream.flush();
-            }
+      @Override
+      public void flush() throws IOException {
+        outputStream.flush();
+      }
 
-            @Override
-            public void close() throws IOException {
-              outputStream.close();
-              if (!client.completePendingCommand())
-                throw new IllegalStateException("Failed to complete pending command");
-              FtpFileSystem.close(client);
-            }
-          };
-        });
+      @Override
+      public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) complete(client, outputStream);
+      }
+    };
+  }
+
+  /** close the data stream and return the client to the pool if the transfer is completed */
+  private void complete(FTPClient client, AutoCloseable stream) throws IOException {
+    try {
+      stream.close();
+      if (!client.completePendingCommand())
+        throw new IllegalStateException("Failed to complete pending command");
+    } catch (Exception e) {
+      pool.invalidate(client);
+      if (e instanceof IOException ioException) throw ioException;
+      if (e instanceof RuntimeException runtimeException) throw runtimeException;
+      throw new IllegalStateException(e);
+    }
+    pool.release(client);
   }
 
   @Override
   public void close() {
-    close(client);
+    pool.close();
   }
 
-  private static void close(FTPClient client) {
+  static void close(FTPClient client) {
     Utils.packException(
         () -> {
           client.logout();
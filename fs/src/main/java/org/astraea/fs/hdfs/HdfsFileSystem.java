@@ -20,8 +20,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
@@ -72,6 +74,14 @@ public class HdfsFileSystem implements FileSystem {
         });
   }
 
+  @Override
+  public Optional<Long> modifiedTime(String path) {
+    if (type(path) == Type.NONEXISTENT)
+      throw new IllegalArgumentException(path + " does not exist");
+    return Optional.of(
+        Utils.packException(() -> fs.getFileStatus(new Path(path)).getModificationTime()));
+  }
+
   @Override
   public void mkdir(String path) {
     Utils.packException(
@@ -139,6 +149,62 @@ public class HdfsFileSystem implements FileSystem {
     }
   }
 
+  @Override
+  public void rename(String source, String target) {
+    Utils.packException(
+        () -> {
+          if (type(source) != Type.FILE)
+            throw new IllegalArgumentException(source + " is not a file");
+          if (type(target) == Type.FOLDER)
+            throw new IllegalArgumentException(target + " is a folder");
+          FileSystem.parent(target).ifPresent(this::mkdir);
+          var targetPath = new Path(target);
+          if (fs.exists(targetPath)) fs.delete(targetPath, false);
+          if (!fs.rename(new Path(source), targetPath))
+            throw new IllegalArgumentException("Failed to rename " + source + " to " + target);
+        });
+  }
+
+  @Override
+  public boolean supportsConcat() {
+    return true;
+  }
+
+  /**
+   * The sources are concatenated by the namenode, so the data is not copied. The namenode rejects
+   * the empty sources and the sources in other folders, so the empty sources get removed and the
+   * sources in other folders get copied by the default implementation.
+   */
+  @Override
+  public void concat(List<String> sources, String target) {
+    var folder = FileSystem.parent(target);
+    if (!sources.stream().map(FileSystem::parent).allMatch(folder::equals)) {
+      FileSystem.super.concat(sources, target);
+      return;
+    }
+    Utils.packException(
+        () -> {
+          for (var source : sources)
+            if (type(source) != Type.FILE)
+              throw new IllegalArgumentException(source + " is not a file");
+          if (type(target) == Type.FOLDER)
+            throw new IllegalArgumentException(target + " is a folder");
+          var paths = new ArrayList<Path>(sources.size());
+          for (var source : sources) {
+            var path = new Path(source);
+            if (fs.getFileStatus(path).getLen() > 0) paths.add(path);
+            else fs.delete(path, false);
+          }
+          if (paths.isEmpty()) {
+            write(target).close();
+            return;
+          }
+          rename(paths.get(0).toUri().getPath(), target);
+          if (paths.size() > 1)
+            fs.concat(new Path(target), paths.subList(1, paths.size()).toArray(Path[]::new));
+        });
+  }
+
   @Override
   public void close() {
     Utils.close(fs);
@@ -19,10 +19,17 @@ package org.astraea.fs.local;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Optional;
@@ -52,7 +59,7 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized void mkdir(String path) {
+  public void mkdir(String path) {
     var folder = resolvePath(path);
     if (Files.isRegularFile(folder)) throw new IllegalArgumentException(path + " is a file");
     if (Files.isDirectory(folder)) return;
@@ -60,16 +67,16 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized List<String> listFiles(String path) {
+  public List<String> listFiles(String path) {
     return listFolders(path, true);
   }
 
   @Override
-  public synchronized List<String> listFolders(String path) {
+  public List<String> listFolders(String path) {
     return listFolders(path, false);
   }
 
-  private synchronized List<String> listFolders(String path, boolean requireFile) {
+  private List<String> listFolders(String path, boolean requireFile) {
     var folder = resolvePath(path);
     if (!Files.isDirectory(folder)) throw new IllegalArgumentException(path + " is not a folder");
     // We use this method within a try-with-resources statement to ensure that the stream's open
@@ -92,7 +99,7 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized void delete(String path) {
+  public void delete(String path) {
     if (Path.of(path).getNameCount() == 0)
       throw new IllegalArgumentException("can't delete whole root folder");
     var resolvedPath = resolvePath(path);
@@ -119,7 +126,7 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized InputStream read(String path) {
+  public InputStream read(String path) {
     return Utils.packException(
         () -> {
           if (type(path) != Type.FILE) throw new IllegalArgumentException(path + " is not a file");
@@ -128,7 +135,28 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized OutputStream write(String path) {
+  public ReadableByteChannel readChannel(String path) {
+    return Utils.packException(
+        () -> {
+          if (type(path) != Type.FILE) throw new IllegalArgumentException(path + " is not a file");
+          return FileChannel.open(resolvePath(path), StandardOpenOption.READ);
+        });
+  }
+
+  @Override
+  public Optional<MappedByteBuffer> map(String path) {
+    if (type(path) != Type.FILE) throw new IllegalArgumentException(path + " is not a file");
+    try (var channel = FileChannel.open(resolvePath(path), StandardOpenOption.READ)) {
+      // a single buffer can't map the file which is larger than 2GB
+      if (channel.size() > Integer.MAX_VALUE) return Optional.empty();
+      return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public OutputStream write(String path) {
     return Utils.packException(
         () -> {
           if (type(path) == Type.FOLDER) throw new IllegalArgumentException(path + " is a folder");
@@ -138,7 +166,41 @@ public class LocalFileSystem implements FileSystem {
   }
 
   @Override
-  public synchronized Type type(String path) {
+  public WritableByteChannel writeChannel(String path) {
+    return Utils.packException(
+        () -> {
+          if (type(path) == Type.FOLDER) throw new IllegalArgumentException(path + " is a folder");
+          FileSystem.parent(path).ifPresent(this::mkdir);
+          return FileChannel.open(
+              resolvePath(path),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE);
+        });
+  }
+
+  @Override
+  public void rename(String source, String target) {
+    Utils.packException(
+        () -> {
+          if (type(source) != Type.FILE)
+            throw new IllegalArgumentException(source + " is not a file");
+          if (type(target) == Type.FOLDER)
+            throw new IllegalArgumentException(target + " is a folder");
+          FileSystem.parent(target).ifPresent(this::mkdir);
+          Files.move(resolvePath(source), resolvePath(target), StandardCopyOption.REPLACE_EXISTING);
+        });
+  }
+
+  @Override
+  public Optional<Long> modifiedTime(String path) {
+    var f = resolvePath(path);
+    if (Files.notExists(f)) throw new IllegalArgumentException(path + " does not exist");
+    return Optional.of(Utils.packException(() -> Files.getLastModifiedTime(f)).toMillis());
+  }
+
+  @Override
+  public Type type(String path) {
     var f = resolvePath(path);
     if (Files.notExists(f)) return Type.NONEXISTENT;
     if (Files.isDirectory(f)) return Type.FOLDER;
@@ -17,10 +17,18 @@
 package org.astraea.fs;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.astraea.common.DataSize;
+import org.astraea.common.Utils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -164,6 +172,179 @@ public abstract class AbstractFileSystemTest {
     }
   }
 
+  @Test
+  protected void testRename() throws IOException {
+    try (var fs = fileSystem()) {
+      try (var output = fs.write("/tmp/aaa")) {
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+      }
+      try (var output = fs.write("/archive/bbb")) {
+        output.write("def".getBytes(StandardCharsets.UTF_8));
+      }
+
+      // the parent folders get created automatically
+      fs.rename("/tmp/aaa", "/archive/a/b/aaa");
+      Assertions.assertEquals(Type.NONEXISTENT, fs.type("/tmp/aaa"));
+      try (var input = fs.read("/archive/a/b/aaa")) {
+        Assertions.assertEquals("abc", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+
+      // the existent file gets overwritten
+      fs.rename("/archive/a/b/aaa", "/archive/bbb");
+      try (var input = fs.read("/archive/bbb")) {
+        Assertions.assertEquals("abc", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class, () -> fs.rename("/tmp/ccc", "/archive/ccc"));
+      Assertions.assertThrows(
+          IllegalArgumentException.class, () -> fs.rename("/archive/bbb", "/archive/a"));
+    }
+  }
+
+  @Test
+  protected void testChannel() throws IOException {
+    try (var fs = fileSystem()) {
+      try (var channel = fs.writeChannel("/tmp/a/aaa")) {
+        channel.write(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+      }
+      Assertions.assertEquals(Type.FILE, fs.type("/tmp/a/aaa"));
+      try (var channel = fs.readChannel("/tmp/a/aaa")) {
+        var buffer = ByteBuffer.allocate(10);
+        while (channel.read(buffer) >= 0) {}
+        Assertions.assertEquals("abc", StandardCharsets.UTF_8.decode(buffer.flip()).toString());
+      }
+      fs.map("/tmp/a/aaa")
+          .ifPresent(
+              buffer ->
+                  Assertions.assertEquals("abc", StandardCharsets.UTF_8.decode(buffer).toString()));
+
+      Assertions.assertThrows(IllegalArgumentException.class, () -> fs.readChannel("/tmp/a"));
+      Assertions.assertThrows(IllegalArgumentException.class, () -> fs.writeChannel("/tmp/a"));
+      Assertions.assertThrows(IllegalArgumentException.class, () -> fs.map("/tmp/a"));
+    }
+  }
+
+  @Test
+  protected void testConcat() throws IOException {
+    try (var fs = fileSystem()) {
+      for (var name : List.of("a", "b", "c", "d")) {
+        try (var output = fs.write("/tmp/" + name)) {
+          // the empty file is allowed
+          if (!name.equals("c")) output.write(name.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      try (var output = fs.write("/other/e")) {
+        output.write("e".getBytes(StandardCharsets.UTF_8));
+      }
+
+      fs.concat(List.of("/tmp/a", "/tmp/b", "/tmp/c", "/tmp/d"), "/tmp/target");
+      try (var input = fs.read("/tmp/target")) {
+        Assertions.assertEquals("abd", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      Assertions.assertEquals(List.of("/tmp/target"), fs.listFiles("/tmp"));
+
+      // the sources in other folder
+      fs.concat(List.of("/tmp/target", "/other/e"), "/result/target");
+      try (var input = fs.read("/result/target")) {
+        Assertions.assertEquals("abde", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      Assertions.assertEquals(Type.NONEXISTENT, fs.type("/other/e"));
+
+      Assertions.assertThrows(
+          IllegalArgumentException.class, () -> fs.concat(List.of("/tmp/a"), "/result/aaa"));
+    }
+  }
+
+  @Test
+  protected void testWriteParallel() throws IOException {
+    try (var fs = fileSystem()) {
+      try (var multipart = fs.writeParallel("/tmp/aaa", 3)) {
+        Assertions.assertEquals(3, multipart.parts());
+        var parts =
+            IntStream.range(0, 3)
+                .boxed()
+                .sorted(Comparator.reverseOrder())
+                .map(
+                    i ->
+                        CompletableFuture.runAsync(
+                            () -> {
+                              try (var output = multipart.part(i)) {
+                                output.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+                              } catch (IOException e) {
+                                throw new RuntimeException(e);
+                              }
+                            }))
+                .toList();
+        parts.forEach(CompletableFuture::join);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> multipart.part(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> multipart.part(3));
+        // the file is invisible before committing
+        Assertions.assertEquals(Type.NONEXISTENT, fs.type("/tmp/aaa"));
+        multipart.commit();
+      }
+      try (var input = fs.read("/tmp/aaa")) {
+        Assertions.assertEquals("012", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      Assertions.assertEquals(List.of("/tmp/aaa"), fs.listFiles("/tmp"));
+      Assertions.assertEquals(List.of(), fs.listFolders("/tmp"));
+
+      // the parts are discarded if the multipart is not committed
+      try (var multipart = fs.writeParallel("/tmp/bbb", 2)) {
+        multipart.part(0).close();
+      }
+      Assertions.assertEquals(List.of("/tmp/aaa"), fs.listFiles("/tmp"));
+      Assertions.assertEquals(List.of(), fs.listFolders("/tmp"));
+    }
+  }
+
+  @Test
+  protected void testMultipartStream() throws IOException {
+    var bytes = new byte[300 * 1024];
+    new Random().nextBytes(bytes);
+    var executor = Executors.newCachedThreadPool();
+    try (var fs = fileSystem()) {
+      try (var output =
+          Multipart.stream(fs.writeParallel("/tmp/aaa", 3), DataSize.KiB.of(100), executor)) {
+        // write the data by small pieces
+        for (var i = 0; i < bytes.length; i += 1000)
+          output.write(bytes, i, Math.min(1000, bytes.length - i));
+      }
+      try (var input = fs.read("/tmp/aaa")) {
+        Assertions.assertArrayEquals(bytes, input.readAllBytes());
+      }
+
+      // the last part gets all remaining data
+      try (var output =
+          Multipart.stream(fs.writeParallel("/tmp/bbb", 2), DataSize.KiB.of(10), executor)) {
+        output.write(bytes);
+      }
+      try (var input = fs.read("/tmp/bbb")) {
+        Assertions.assertArrayEquals(bytes, input.readAllBytes());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  protected void testModifiedTime() throws IOException {
+    try (var fs = fileSystem()) {
+      Assertions.assertThrows(IllegalArgumentException.class, () -> fs.modifiedTime("/tmp"));
+      fs.write("/tmp/aaa").close();
+      var folderTime = fs.modifiedTime("/tmp");
+      var fileTime = fs.modifiedTime("/tmp/aaa");
+      if (folderTime.isEmpty()) return;
+      Assertions.assertTrue(fileTime.isPresent());
+
+      // the precision of some file systems is second
+      Utils.sleep(Duration.ofMillis(1100));
+      fs.write("/tmp/bbb").close();
+      Assertions.assertTrue(fs.modifiedTime("/tmp").get() > folderTime.get());
+      Assertions.assertEquals(fileTime, fs.modifiedTime("/tmp/aaa"));
+    }
+  }
+
   @Test
   protected void testMkdirOnRoot() {
     try (var fs = fileSystem()) {
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FileListingTest {
+
+  @Test
+  void testIncrementalListing() throws IOException {
+    var tmp = Files.createTempDirectory("test_file_listing");
+    try (var fs = new CountingFileSystem(tmp.toString())) {
+      fs.write("/root/topic/0/0").close();
+      fs.write("/root/topic/0/10").close();
+      fs.write("/root/topic/1/0").close();
+      // the hidden folder is skipped
+      fs.write("/root/topic/.parts/0").close();
+
+      var listing = FileListing.of(fs, "/root", files -> files);
+      Assertions.assertEquals(
+          Set.of("/root/topic/0/0", "/root/topic/0/10", "/root/topic/1/0"),
+          Set.copyOf(listing.next()));
+
+      // the folders are listed again to make sure there is no change within the precision
+      Assertions.assertEquals(List.of(), listing.next());
+      fs.listings.set(0);
+      Assertions.assertEquals(List.of(), listing.next());
+      Assertions.assertEquals(0, fs.listings.get());
+
+      // only the changed folder is listed
+      Utils.sleep(Duration.ofMillis(1100));
+      fs.write("/root/topic/0/20").close();
+      fs.delete("/root/topic/0/0");
+      Assertions.assertEquals(List.of("/root/topic/0/20"), listing.next());
+      Assertions.assertEquals(1, fs.listings.get());
+
+      // the removed file is not returned again, and the re-created file is new file
+      fs.write("/root/topic/0/0").close();
+      Utils.sleep(Duration.ofMillis(1100));
+      Assertions.assertEquals(List.of("/root/topic/0/0"), listing.next());
+
+      // the removed folder is fine
+      fs.delete("/root/topic/1");
+      Assertions.assertEquals(List.of(), listing.next());
+      fs.delete("/root");
+      Assertions.assertEquals(List.of(), listing.next());
+    }
+  }
+
+  @Test
+  void testSelector() throws IOException {
+    var tmp = Files.createTempDirectory("test_file_listing");
+    try (var fs = new CountingFileSystem(tmp.toString())) {
+      fs.write("/root/a").close();
+      fs.write("/root/b").close();
+      var listing =
+          FileListing.of(
+              fs, "/root", files -> files.stream().filter(f -> !f.endsWith("a")).toList());
+      Assertions.assertEquals(List.of("/root/b"), listing.next());
+      Assertions.assertEquals(List.of(), listing.next());
+    }
+  }
+
+  /** count the listings of folders */
+  private static class CountingFileSystem implements FileSystem {
+    private final FileSystem fs;
+    private final AtomicInteger listings = new AtomicInteger();
+
+    private CountingFileSystem(String root) {
+      fs = FileSystem.of("local", new Configuration(Map.of("fs.local.root", root)));
+    }
+
+    @Override
+    public void mkdir(String path) {
+      fs.mkdir(path);
+    }
+
+    @Override
+    public List<String> listFiles(String path) {
+      listings.incrementAndGet();
+      return fs.listFiles(path);
+    }
+
+    @Override
+    public List<String> listFolders(String path) {
+      return fs.listFolders(path);
+    }
+
+    @Override
+    public void delete(String path) {
+      fs.delete(path);
+    }
+
+    @Override
+    public InputStream read(String path) {
+      return fs.read(path);
+    }
+
+    @Override
+    public OutputStream write(String path) {
+      return fs.write(path);
+    }
+
+    @Override
+    public Optional<Long> modifiedTime(String path) {
+      return fs.modifiedTime(path);
+    }
+
+    @Override
+    public Type type(String path) {
+      return fs.type(path);
+    }
+
+    @Override
+    public void close() {
+      fs.close();
+    }
+  }
+}
@@ -16,12 +16,22 @@
  */
 package org.astraea.fs.ftp;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
 import org.astraea.fs.AbstractFileSystemTest;
 import org.astraea.fs.FileSystem;
+import org.astraea.fs.Type;
 import org.astraea.it.FtpServer;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 
 public class FtpFileSystemTest extends AbstractFileSystemTest {
 
@@ -29,18 +39,114 @@ public class FtpFileSystemTest extends AbstractFileSystemTest {
 
   @Override
   protected FileSystem fileSystem() {
-    return FileSystem.of(
-        "ftp",
-        new Configuration(
+    // the server has only 3 data ports
+    return fileSystem(Map.of(FtpFileSystem.POOL_SIZE_KEY, "3"));
+  }
+
+  private FtpFileSystem fileSystem(Map<String, String> others) {
+    var configs = new HashMap<>(others);
+    configs.put(FtpFileSystem.HOSTNAME_KEY, server.hostname());
+    configs.put(FtpFileSystem.PORT_KEY, String.valueOf(server.port()));
+    configs.put(FtpFileSystem.USER_KEY, server.user());
+    configs.put(FtpFileSystem.PASSWORD_KEY, server.password());
+    return (FtpFileSystem) FileSystem.of("ftp", new Configuration(configs));
+  }
+
+  @Test
+  void testReuseClients() throws IOException {
+    try (var fs = fileSystem(Map.of(FtpFileSystem.POOL_MAX_IDLE_KEY, "2"))) {
+      for (var i = 0; i != 10; ++i) {
+        try (var output = fs.write("/tmp/" + i)) {
+          output.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        }
+        Assertions.assertEquals(i + 1, fs.listFiles("/tmp").size());
+      }
+      // the clients are reused by the sequential operations
+      Assertions.assertEquals(1, fs.pool.created());
+      Assertions.assertEquals(0, fs.pool.active());
+      Assertions.assertEquals(1, fs.pool.idle());
+
+      // the client is occupied by the stream, so other operations use another client
+      try (var input = fs.read("/tmp/0")) {
+        Assertions.assertEquals(1, fs.pool.active());
+        Assertions.assertEquals(10, fs.listFiles("/tmp").size());
+        Assertions.assertEquals("0", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      Assertions.assertEquals(2, fs.pool.created());
+      Assertions.assertEquals(2, fs.pool.idle());
+
+      // the invalid path does not drop the client
+      Assertions.assertThrows(IllegalArgumentException.class, () -> fs.listFiles("/tmp/0"));
+      Assertions.assertEquals(2, fs.pool.idle());
+    }
+  }
+
+  @Test
+  void testDoubleClose() throws IOException {
+    try (var fs = fileSystem(Map.of(FtpFileSystem.POOL_MAX_IDLE_KEY, "2"))) {
+      var output = fs.write("/tmp/a");
+      output.write(1);
+      output.close();
+      output.close();
+      Assertions.assertEquals(0, fs.pool.active());
+      Assertions.assertEquals(1, fs.pool.idle());
+
+      var input = fs.read("/tmp/a");
+      // the second close must not touch the client which is borrowed by others
+      var other = fs.write("/tmp/b");
+      Assertions.assertEquals(1, input.read());
+      input.close();
+      input.close();
+      Assertions.assertEquals(1, fs.pool.active());
+      other.write(2);
+      other.close();
+      Assertions.assertEquals(0, fs.pool.active());
+      Assertions.assertEquals(2, fs.pool.idle());
+      Assertions.assertEquals(Type.FILE, fs.type("/tmp/b"));
+    }
+  }
+
+  @Test
+  void testEvictIdleClients() {
+    try (var fs =
+        fileSystem(
             Map.of(
-                FtpFileSystem.HOSTNAME_KEY,
-                server.hostname(),
-                FtpFileSystem.PORT_KEY,
-                String.valueOf(server.port()),
-                FtpFileSystem.USER_KEY,
-                server.user(),
-                FtpFileSystem.PASSWORD_KEY,
-                server.password())));
+                FtpFileSystem.POOL_MAX_IDLE_KEY,
+                "2",
+                FtpFileSystem.POOL_IDLE_TIMEOUT_KEY,
+                "300ms"))) {
+      fs.mkdir("/tmp");
+      Assertions.assertEquals(1, fs.pool.idle());
+      Utils.sleep(Duration.ofMillis(500));
+      fs.mkdir("/tmp");
+      Assertions.assertEquals(1, fs.pool.evicted());
+      Assertions.assertEquals(2, fs.pool.created());
+    }
+  }
+
+  @Test
+  void testConcurrentOperations() {
+    try (var fs = fileSystem(Map.of(FtpFileSystem.POOL_SIZE_KEY, "3"))) {
+      fs.mkdir("/tmp");
+      var streams = IntStream.range(0, 3).mapToObj(i -> fs.write("/tmp/" + i)).toList();
+      // all clients are occupied by the streams
+      var blocked = CompletableFuture.supplyAsync(() -> fs.type("/tmp"));
+      Utils.sleep(Duration.ofMillis(300));
+      Assertions.assertFalse(blocked.isDone());
+      streams.forEach(s -> Utils.packException(s::close));
+      Assertions.assertEquals(Type.FOLDER, blocked.join());
+
+      var fs1 =
+          IntStream.range(0, 20)
+              .mapToObj(
+                  i ->
+                      CompletableFuture.runAsync(
+                          () -> Assertions.assertEquals(Type.FOLDER, fs.type("/tmp"))))
+              .toList();
+      fs1.forEach(CompletableFuture::join);
+      Assertions.assertEquals(0, fs.pool.active());
+      Assertions.assertTrue(fs.pool.idle() <= 3);
+    }
   }
 
   @AfterEach
@@ -16,12 +16,16 @@
  */
 package org.astraea.fs.local;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Map;
 import org.astraea.common.Configuration;
 import org.astraea.common.Utils;
 import org.astraea.fs.AbstractFileSystemTest;
 import org.astraea.fs.FileSystem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 
 public class LocalFileSystemTest extends AbstractFileSystemTest {
 
@@ -34,4 +38,20 @@ public class LocalFileSystemTest extends AbstractFileSystemTest {
               "local", new Configuration(Map.of(LocalFileSystem.ROOT_KEY, tmp.toString())));
         });
   }
+
+  @Test
+  void testMap() throws IOException {
+    try (var fs = fileSystem()) {
+      try (var output = fs.write("/tmp/aaa")) {
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+      }
+      var buffer = fs.map("/tmp/aaa").get();
+      Assertions.assertTrue(buffer.isReadOnly());
+      Assertions.assertEquals("abc", StandardCharsets.UTF_8.decode(buffer).toString());
+
+      // the empty file is mapped to an empty buffer
+      fs.write("/tmp/bbb").close();
+      Assertions.assertEquals(0, fs.map("/tmp/bbb").get().remaining());
+    }
+  }
 }